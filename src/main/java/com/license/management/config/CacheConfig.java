@@ -0,0 +1,40 @@
+package com.license.management.config;
+
+import com.license.management.service.CacheInvalidationChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Second-level cache wiring. Regions are sized by license.cache.max-entries, or
+ * license.cache.regions.&lt;region&gt;.max-entries for a single region; their statistics
+ * are published as cache.* metrics.
+ */
+@Configuration
+public class CacheConfig {
+    
+    @Value("${license.cache.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${license.cache.time-to-live:PT10M}")
+    private Duration timeToLive;
+    
+    @Bean
+    public LocalRegionFactory localRegionFactory(CacheInvalidationChannel channel, Environment environment,
+                                                 MeterRegistry meterRegistry) {
+        return new LocalRegionFactory(channel,
+            region -> environment.getProperty("license.cache.regions." + region + ".max-entries", Integer.class, maxEntries),
+            timeToLive, meterRegistry);
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer regionFactoryCustomizer(LocalRegionFactory localRegionFactory) {
+        return properties -> properties.put(AvailableSettings.CACHE_REGION_FACTORY, localRegionFactory);
+    }
+}
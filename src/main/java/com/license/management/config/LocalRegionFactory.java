@@ -0,0 +1,447 @@
+package com.license.management.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.license.management.dto.CacheInvalidation;
+import com.license.management.service.CacheInvalidationChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.CacheKeysFactory;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.cache.Cache;
+import java.io.Serial;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Hibernate's JCache region factory over Caffeine, plus cross-node invalidation: changes to
+ * domain regions and table timestamps are published on a {@link CacheInvalidationChannel},
+ * and invalidations received from other nodes are applied to the matching region. Each
+ * region is bounded to its max-entries and expires entries after the time-to-live, except
+ * the timestamps region, whose missing entries would read as "never updated".
+ *
+ * With the query cache on, Hibernate stamps the timestamps region after every committed
+ * write to a table; the factory also counts those stamps, local and received, per table,
+ * which gives HTTP handlers a cheap version of a whole table.
+ */
+public class LocalRegionFactory extends JCacheRegionFactory {
+    
+    // Serializable only by way of Hibernate's service interfaces; never actually serialized
+    @Serial
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Key of a domain entry. Hibernate's own keys hold a hash of the id's type and cannot be
+     * rebuilt from an invalidation message, so regions are keyed by these instead.
+     */
+    public record Key(String role, String tenantId, Object value) {
+    }
+    
+    private final CacheInvalidationChannel channel;
+    private final ToIntFunction<String> maxEntries;
+    private final Duration timeToLive;
+    private final MeterRegistry meterRegistry;
+    // Every factory has its own cache manager, so two in one JVM never share entries
+    private final URI cacheManagerUri = URI.create("license-cache-" + UUID.randomUUID());
+    
+    private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+    private final Map<String, DomainAccess> domainRegions = new ConcurrentHashMap<>();
+    private volatile String timestampsRegionName;
+    private volatile TimestampsAccess timestampsRegion;
+    
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    // Bumped when another node clears everything, which may have covered any table
+    private final AtomicLong resets = new AtomicLong();
+    private volatile boolean tracksTables;
+    
+    /**
+     * @param maxEntries the size limit of each region, by region name; zero for unbounded
+     */
+    public LocalRegionFactory(CacheInvalidationChannel channel, ToIntFunction<String> maxEntries,
+                              Duration timeToLive, MeterRegistry meterRegistry) {
+        super(KeysFactory.INSTANCE);
+        this.channel = channel;
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.meterRegistry = meterRegistry;
+        channel.subscribe(this::apply);
+    }
+    
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        super.prepareForUse(settings, configValues);
+        tracksTables = settings.isQueryCacheEnabled();
+    }
+    
+    @Override
+    protected void releaseFromUse() {
+        caches.clear();
+        domainRegions.clear();
+        timestampsRegion = null;
+        super.releaseFromUse();
+    }
+    
+    @Override
+    protected URI getUri(SessionFactoryOptions settings, Map<String, Object> properties) {
+        return cacheManagerUri;
+    }
+    
+    /**
+     * Regions are configured here alone. Asking the manager for a missing cache first, as the
+     * base class does, makes Caffeine look its name up in an external configuration file,
+     * which cannot even parse natural-id region names.
+     */
+    @Override
+    protected Cache<Object, Object> getOrCreateCache(String regionName, SessionFactoryImplementor sessionFactory) {
+        return caches.computeIfAbsent(regionName, this::createCache);
+    }
+    
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate already caches disassembled state, which needs no further copy
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        int limit = maxEntries.applyAsInt(regionName);
+        if (!regionName.equals(timestampsRegionName)) {
+            configuration.setMaximumSize(limit > 0 ? OptionalLong.of(limit) : OptionalLong.empty());
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        }
+        Cache<Object, Object> cache = getCacheManager().createCache(regionName, configuration);
+        JCacheMetrics.monitor(meterRegistry, cache, Tags.empty());
+        return cache;
+    }
+    
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        String regionName = regionConfig.getRegionName();
+        return domainRegions.computeIfAbsent(regionName, name ->
+            new DomainAccess(name, getOrCreateCache(name, buildingContext.getSessionFactory())));
+    }
+    
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        timestampsRegionName = regionName;
+        timestampsRegion = new TimestampsAccess(regionName, getOrCreateCache(regionName, sessionFactory));
+        return timestampsRegion;
+    }
+    
+    /**
+     * Evicts entities changed by SQL that bypassed Hibernate, on this node and the others.
+     */
+    public void evict(Class<?> entityType, Collection<?> ids) {
+        for (DomainAccess region : domainRegions.values()) {
+            for (Object id : ids) {
+                region.evictData(new Key(entityType.getName(), null, id));
+            }
+        }
+    }
+    
+    // ===== Table Versions =====
+    
+    /**
+     * Whether every write in the deployment reaches this node, so that its table versions
+     * move with all of them rather than only with its own.
+     */
+    public boolean seesAllWrites() {
+        return channel.seesAllWrites();
+    }
+    
+    /**
+     * Version of the given tables on this node, which grows after every committed write to
+     * any of them; empty when the query cache is off, as Hibernate then stamps no tables.
+     * Read it before reading the tables: a write committing in between then only costs the
+     * client one more download, never a stale copy under the new version.
+     */
+    public OptionalLong getTableVersion(String... tables) {
+        if (!tracksTables) {
+            return OptionalLong.empty();
+        }
+        long version = resets.get();
+        for (String table : tables) {
+            AtomicLong changes = tableVersions.get(table);
+            version += changes != null ? changes.get() : 0;
+        }
+        return OptionalLong.of(version);
+    }
+    
+    /**
+     * Stamps tables written by SQL that bypassed Hibernate, once the transaction has
+     * committed: their cached query results go stale and their versions move on, on this
+     * node and the others.
+     */
+    public void tablesChanged(String... tables) {
+        TimestampsAccess timestamps = timestampsRegion;
+        if (timestamps == null) {
+            return;
+        }
+        long now = nextTimestamp();
+        for (String table : tables) {
+            timestamps.putIntoCache(table, now, null);
+        }
+    }
+    
+    private void tableChanged(Object table) {
+        if (table instanceof String name) {
+            tableVersions.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+    
+    // ===== Invalidations from other nodes =====
+    
+    private void apply(CacheInvalidation invalidation) {
+        if (invalidation.getRegion() == null) {
+            domainRegions.values().forEach(region -> region.invalidate(null));
+            TimestampsAccess timestamps = timestampsRegion;
+            if (timestamps != null) {
+                // Every cached query result predates whatever was missed
+                timestamps.invalidateAll();
+            }
+            resets.incrementAndGet();
+            return;
+        }
+        Object key = normalize(invalidation.getKey());
+        TimestampsAccess timestamps = timestampsRegion;
+        if (timestamps != null && timestamps.name.equals(invalidation.getRegion())) {
+            timestamps.invalidate(key);
+            return;
+        }
+        DomainAccess region = domainRegions.get(invalidation.getRegion());
+        if (region != null) {
+            region.invalidate(key == null || invalidation.getRole() == null ? key
+                : new Key(invalidation.getRole(), invalidation.getTenantId(), key));
+        }
+    }
+    
+    // JSON numbers arrive as the smallest type that fits; every id is a Long
+    private static Object normalize(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof List<?> values) {
+            return values.stream().map(LocalRegionFactory::normalize).toList();
+        }
+        return value;
+    }
+    
+    private Counter invalidations(String region, String direction) {
+        return Counter.builder("cache.invalidations")
+            .description("Second-level cache invalidations exchanged with other nodes")
+            .tags("cache", region, "direction", direction)
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Storage of an entity, collection or natural-id region. A read-write soft lock taken or
+     * released (before and after every update) and any eviction are published.
+     *
+     * An invalidation, local or received, also sets a fence: a load whose transaction started
+     * before it may have read the old row, so its put is dropped rather than caching stale data.
+     */
+    final class DomainAccess extends JCacheAccessImpl {
+        
+        private final String name;
+        private final Counter sent;
+        private final Counter received;
+        // Keys whose latest put was a soft lock; the put replacing it releases the lock
+        private final Set<Object> locked = ConcurrentHashMap.newKeySet();
+        private volatile long fence;
+        
+        DomainAccess(String name, Cache<Object, Object> cache) {
+            super(cache);
+            this.name = name;
+            this.sent = invalidations(name, "sent");
+            this.received = invalidations(name, "received");
+        }
+        
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            boolean locking;
+            if (value instanceof SoftLock) {
+                locked.add(key);
+                locking = true;
+            } else {
+                locking = locked.remove(key);
+            }
+            if (!locking && session != null
+                    && session.getCacheTransactionSynchronization().getCachingTimestamp() < fence) {
+                return;
+            }
+            super.putIntoCache(key, value, session);
+            if (locking) {
+                publish(key);
+            }
+        }
+        
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            evictData(key);
+        }
+        
+        @Override
+        public void clearCache(SharedSessionContractImplementor session) {
+            evictData();
+        }
+        
+        @Override
+        public void evictData(Object key) {
+            locked.remove(key);
+            fence = nextTimestamp();
+            super.evictData(key);
+            publish(key);
+        }
+        
+        @Override
+        public void evictData() {
+            locked.clear();
+            fence = nextTimestamp();
+            super.evictData();
+            publish(null);
+        }
+        
+        /**
+         * Applies a change made on another node: drops the entry, or the whole region when
+         * the key is null, and fences off loads already in flight.
+         */
+        void invalidate(Object key) {
+            received.increment();
+            fence = nextTimestamp();
+            if (key == null) {
+                locked.clear();
+                super.evictData();
+            } else {
+                locked.remove(key);
+                super.evictData(key);
+            }
+        }
+        
+        private void publish(Object key) {
+            sent.increment();
+            channel.publish(key instanceof Key domainKey
+                ? new CacheInvalidation(name, domainKey.role(), domainKey.tenantId(), domainKey.value())
+                : new CacheInvalidation(name, null, null, key));
+        }
+    }
+    
+    /**
+     * Storage of the update timestamps: a table's update time is published once its
+     * transaction has completed, and counted as a new version of the table. Query results
+     * are never published, since each node checks them against its own timestamps.
+     */
+    final class TimestampsAccess extends JCacheAccessImpl {
+        
+        private final String name;
+        private final Cache<Object, Object> cache;
+        private final Counter sent;
+        private final Counter received;
+        
+        TimestampsAccess(String name, Cache<Object, Object> cache) {
+            super(cache);
+            this.name = name;
+            this.cache = cache;
+            this.sent = invalidations(name, "sent");
+            this.received = invalidations(name, "received");
+        }
+        
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            super.putIntoCache(key, value, session);
+            // Pre-invalidations stamp a time in the future before commit; only the final
+            // stamp after completion is a change
+            if ((Long) value <= nextTimestamp()) {
+                tableChanged(key);
+                sent.increment();
+                channel.publish(new CacheInvalidation(name, null, null, key));
+            }
+        }
+        
+        /**
+         * Marks a table changed on another node as updated now, which makes every query
+         * result cached so far stale.
+         */
+        void invalidate(Object table) {
+            received.increment();
+            if (table != null) {
+                super.putIntoCache(table, nextTimestamp(), null);
+                tableChanged(table);
+            }
+        }
+        
+        void invalidateAll() {
+            long now = nextTimestamp();
+            for (Cache.Entry<Object, Object> entry : cache) {
+                super.putIntoCache(entry.getKey(), now, null);
+            }
+        }
+    }
+    
+    /**
+     * Keys entities and collections by role and id alone: ids are unique across tenants, and
+     * Hibernate does not apply the tenant to loads by id either. Natural ids are unique per
+     * tenant only, so their keys keep it.
+     */
+    private static final class KeysFactory implements CacheKeysFactory {
+        
+        static final KeysFactory INSTANCE = new KeysFactory();
+        
+        @Override
+        public Object createCollectionKey(Object id, CollectionPersister persister, SessionFactoryImplementor factory,
+                                          String tenantIdentifier) {
+            return new Key(persister.getRole(), null, id);
+        }
+        
+        @Override
+        public Object createEntityKey(Object id, EntityPersister persister, SessionFactoryImplementor factory,
+                                      String tenantIdentifier) {
+            return new Key(persister.getRootEntityName(), null, id);
+        }
+        
+        @Override
+        public Object createNaturalIdKey(Object naturalIdValues, EntityPersister persister,
+                                         SharedSessionContractImplementor session) {
+            Object value = naturalIdValues instanceof Object[] values ? Arrays.asList(values) : naturalIdValues;
+            return new Key(persister.getRootEntityName(), session.getTenantIdentifier(), value);
+        }
+        
+        @Override
+        public Object getEntityId(Object cacheKey) {
+            return ((Key) cacheKey).value();
+        }
+        
+        @Override
+        public Object getCollectionId(Object cacheKey) {
+            return ((Key) cacheKey).value();
+        }
+        
+        @Override
+        public Object getNaturalIdValues(Object cacheKey) {
+            Object value = ((Key) cacheKey).value();
+            return value instanceof List<?> values ? values.toArray() : value;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.license.management.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Carries a client's last write time between requests in a cookie, so its reads go to the
+ * primary until the replica has had time to catch up with its own writes.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    
+    static final String COOKIE_NAME = "lm_last_write";
+    
+    private final Duration window;
+    
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ReplicaRoutingDataSource.beginRequest(readLastWrite(request));
+        LastWriteCookieResponse wrapped = new LastWriteCookieResponse(response);
+        try {
+            filterChain.doFilter(request, wrapped);
+            wrapped.addCookieIfWritten();
+        } finally {
+            ReplicaRoutingDataSource.endRequest();
+        }
+    }
+    
+    private long readLastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName())) {
+                    try {
+                        return Long.parseLong(cookie.getValue());
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Adds the cookie before the body is written, since headers cannot change afterwards.
+     * Service transactions have committed by the time controllers write their response.
+     */
+    private class LastWriteCookieResponse extends HttpServletResponseWrapper {
+        
+        private boolean cookieAdded;
+        
+        LastWriteCookieResponse(HttpServletResponse response) {
+            super(response);
+        }
+        
+        void addCookieIfWritten() {
+            long lastWrite = ReplicaRoutingDataSource.writeInRequest();
+            if (cookieAdded || lastWrite == 0 || isCommitted()) {
+                return;
+            }
+            Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(lastWrite));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds() + 1));
+            addCookie(cookie);
+            cookieAdded = true;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addCookieIfWritten();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addCookieIfWritten();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            addCookieIfWritten();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.license.management.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ *
+ * Reads fall back to the primary when the replica lags more than the allowed maximum, or
+ * when the current client committed a write within the read-your-writes window. The client's
+ * last write time comes from {@link ReadYourWritesFilter}; writes committed on the current
+ * thread are recorded here. Code that reads on another thread, such as a streamed response,
+ * carries the time along with {@link #runAs}.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy, so the target is chosen on first use,
+ * after the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+    
+    private static final ThreadLocal<WriteState> WRITE_STATE = ThreadLocal.withInitial(WriteState::new);
+    
+    private final DataSource replica;
+    private final long readYourWritesWindowMillis;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private volatile boolean replicaUsable = true;
+    
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    Duration readYourWritesWindow, Duration maxLag, String lagQuery) {
+        this.replica = replica;
+        this.readYourWritesWindowMillis = readYourWritesWindow.toMillis();
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return PRIMARY;
+        }
+        if (!replicaUsable) {
+            return PRIMARY;
+        }
+        long lastWrite = WRITE_STATE.get().lastWriteMillis;
+        if (lastWrite > 0 && System.currentTimeMillis() - lastWrite < readYourWritesWindowMillis) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+    
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                WriteState state = WRITE_STATE.get();
+                state.lastWriteMillis = System.currentTimeMillis();
+                state.wroteInRequest = true;
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+            }
+        });
+    }
+    
+    /**
+     * Checks replication lag with the configured query, which returns the lag in seconds.
+     * Without a query the replica is assumed to be current.
+     */
+    @Scheduled(fixedDelayString = "${license.datasource.replica.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return;
+        }
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+            usable = lagSeconds * 1000 <= maxLagMillis;
+        } catch (Exception e) {
+            log.debug("Replica lag check failed", e);
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.warn(usable ? "Replica caught up, routing reads to it again"
+                : "Replica is lagging or unreachable, routing reads to the primary");
+            replicaUsable = usable;
+        }
+    }
+    
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+    
+    // ===== Per-request write tracking =====
+    
+    static void beginRequest(long clientLastWriteMillis) {
+        WriteState state = WRITE_STATE.get();
+        state.lastWriteMillis = clientLastWriteMillis;
+        state.wroteInRequest = false;
+    }
+    
+    /**
+     * Time of a write committed during the current request, or 0 if there was none.
+     */
+    static long writeInRequest() {
+        WriteState state = WRITE_STATE.get();
+        return state.wroteInRequest ? state.lastWriteMillis : 0;
+    }
+    
+    static void endRequest() {
+        WRITE_STATE.remove();
+    }
+    
+    /**
+     * Last write time of the current client, for code that hands its reads to another thread
+     * and re-enters it there with {@link #runAs}.
+     */
+    public static long getLastWrite() {
+        return WRITE_STATE.get().lastWriteMillis;
+    }
+    
+    /**
+     * Runs work as a client whose last write was at the given time, as
+     * {@link TenantContext#runAs} does for the tenant.
+     */
+    public static void runAs(long lastWriteMillis, Runnable work) {
+        WriteState previous = WRITE_STATE.get();
+        WriteState state = new WriteState();
+        state.lastWriteMillis = lastWriteMillis;
+        WRITE_STATE.set(state);
+        try {
+            work.run();
+        } finally {
+            WRITE_STATE.set(previous);
+        }
+    }
+    
+    private static class WriteState {
+        long lastWriteMillis;
+        boolean wroteInRequest;
+    }
+}
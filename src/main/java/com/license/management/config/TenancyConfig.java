@@ -0,0 +1,51 @@
+package com.license.management.config;
+
+import com.license.management.repository.TenantAwareJpaRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.Set;
+
+/**
+ * Tenant discriminator wiring: every tenant shares the schema, and tenant-owned tables carry
+ * a tenant_id column that Hibernate filters on.
+ */
+@Configuration
+@EnableJpaRepositories(basePackages = "com.license.management.repository",
+    repositoryBaseClass = TenantAwareJpaRepository.class)
+public class TenancyConfig {
+    
+    @Value("${license.tenancy.tenants:}")
+    private Set<String> allowedTenants;
+    
+    @Value("${license.tenancy.header-required:false}")
+    private boolean headerRequired;
+    
+    @Value("${license.tenancy.max-concurrent-requests:8}")
+    private int maxConcurrentRequests;
+    
+    @Bean
+    public HibernatePropertiesCustomizer tenantIdentifierResolverCustomizer() {
+        return properties -> properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+            new TenantIdentifierResolver());
+    }
+    
+    @Bean
+    public TenantFilter tenantFilter() {
+        return new TenantFilter(allowedTenants, headerRequired, maxConcurrentRequests);
+    }
+    
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilterRegistration(TenantFilter tenantFilter) {
+        FilterRegistrationBean<TenantFilter> registration = new FilterRegistrationBean<>(tenantFilter);
+        // Ahead of anything that might open a session
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,67 @@
+package com.license.management.config;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for. {@link TenantFilter} sets it per request; code
+ * that hands work to another thread captures it and re-enters it with {@link #runAs}.
+ *
+ * Hibernate reads it when a session opens, so it must be in place before the transaction
+ * starts. Threads without a tenant work for {@link #DEFAULT_TENANT}.
+ */
+public final class TenantContext {
+    
+    public static final String DEFAULT_TENANT = "default";
+    
+    /**
+     * Sessions opened under this id see the rows of every tenant. Only for background work
+     * that reads across tenants; rows written under it keep the tenant they were given.
+     */
+    public static final String ALL_TENANTS = "*";
+    
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    
+    private TenantContext() {
+    }
+    
+    public static String getTenantId() {
+        String tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+    
+    public static boolean isValid(String tenantId) {
+        return tenantId != null && VALID_ID.matcher(tenantId).matches();
+    }
+    
+    public static void runAs(String tenantId, Runnable work) {
+        callAs(tenantId, () -> {
+            work.run();
+            return null;
+        });
+    }
+    
+    public static <T> T callAs(String tenantId, Supplier<T> work) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenantId);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+    
+    static void set(String tenantId) {
+        CURRENT.set(tenantId);
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,140 @@
+package com.license.management.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Binds each request to the tenant named in the {@value #TENANT_HEADER} header and caps
+ * how many requests a tenant may run at once.
+ *
+ * With open-session-in-view every request holds at most one pooled connection, so the cap
+ * is a per-tenant share of the pool: a tenant at its limit gets 429 at once, without tying
+ * up a container thread, while the remaining connections stay free for everyone else. A
+ * request that goes async, such as a streamed body or an event stream, holds its permit
+ * until the async processing completes.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+    
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+    
+    private final Set<String> allowedTenants;
+    private final boolean headerRequired;
+    private final int maxConcurrentRequests;
+    
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    
+    public TenantFilter(Set<String> allowedTenants, boolean headerRequired, int maxConcurrentRequests) {
+        this.allowedTenants = allowedTenants;
+        this.headerRequired = headerRequired;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String tenantId = request.getHeader(TENANT_HEADER);
+        if (tenantId == null || tenantId.isBlank()) {
+            if (headerRequired) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "Missing " + TENANT_HEADER + " header");
+                return;
+            }
+            tenantId = TenantContext.DEFAULT_TENANT;
+        }
+        if (!TenantContext.isValid(tenantId) || !(allowedTenants.isEmpty() || allowedTenants.contains(tenantId))) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unknown tenant");
+            return;
+        }
+        
+        // Async dispatches only write a result; the permit was held by the initial dispatch
+        Semaphore semaphore = isAsyncDispatch(request) ? null
+            : permits.computeIfAbsent(tenantId, id -> new Semaphore(maxConcurrentRequests, true));
+        if (semaphore != null && !semaphore.tryAcquire()) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many concurrent requests for tenant");
+            return;
+        }
+        Permit permit = semaphore != null ? new Permit(semaphore) : null;
+        TenantContext.set(tenantId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+            if (permit != null) {
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(permit);
+                } else {
+                    permit.release();
+                }
+            }
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+    
+    /**
+     * Requests currently running per tenant.
+     */
+    public Map<String, Integer> getActiveRequests() {
+        Map<String, Integer> active = new ConcurrentHashMap<>();
+        permits.forEach((tenantId, semaphore) ->
+            active.put(tenantId, maxConcurrentRequests - semaphore.availablePermits()));
+        return active;
+    }
+    
+    /**
+     * A request's permit, released once: when the request returns, or when its async
+     * processing ends, however it ends.
+     */
+    private static class Permit implements AsyncListener {
+        
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+        
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+        
+        // A dispatch that starts async processing again keeps the permit until that ends too
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.license.management.config;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Hands the current {@link TenantContext} tenant to Hibernate, which filters every query on
+ * {@code @TenantId} entities by it and stamps it on inserted rows.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+    
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.getTenantId();
+    }
+    
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        // Sessions are bound to transactions, which never outlive a tenant switch
+        return false;
+    }
+    
+    @Override
+    public boolean isRoot(String tenantId) {
+        return TenantContext.ALL_TENANTS.equals(tenantId);
+    }
+}
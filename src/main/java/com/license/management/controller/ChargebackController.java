@@ -0,0 +1,55 @@
+package com.license.management.controller;
+
+import com.license.management.dto.GroupCostSummary;
+import com.license.management.service.ChargebackService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RestController
+@RequestMapping("/api/chargeback")
+@CrossOrigin(origins = "*")
+public class ChargebackController {
+    
+    private static final List<String> CSV_HEADER = List.of(
+        "month", "groupId", "groupName", "licenseId", "softwareName", "seatMonths", "cost");
+    
+    @Autowired
+    private ChargebackService chargebackService;
+    
+    @GetMapping("/groups")
+    public ResponseEntity<List<GroupCostSummary>> getGroupTotals(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        List<GroupCostSummary> totals = chargebackService.getGroupTotals(month != null ? month : YearMonth.now())
+            .stream()
+            .map(row -> new GroupCostSummary((Long) row[0], (BigDecimal) row[1], (BigDecimal) row[2]))
+            .toList();
+        return ResponseEntity.ok(totals);
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCosts(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end;
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return CsvStream.of("chargeback-" + start + "-" + end + ".csv", CSV_HEADER,
+            (Consumer<List<?>> action) -> chargebackService.forEachMonthlyCost(start, end, row -> {
+                // The month instead of its first day
+                row[0] = YearMonth.from((LocalDate) row[0]);
+                action.accept(Arrays.asList(row));
+            }));
+    }
+}
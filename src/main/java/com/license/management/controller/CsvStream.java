@@ -0,0 +1,77 @@
+package com.license.management.controller;
+
+import com.license.management.config.ReplicaRoutingDataSource;
+import com.license.management.config.TenantContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes CSV rows as a service streams them, the CSV counterpart of {@link JsonArrayStream}.
+ * The body is written on an async thread, which runs as the tenant of the request and
+ * reads where the request would have, replica or primary.
+ */
+final class CsvStream {
+    
+    private CsvStream() {
+    }
+    
+    static ResponseEntity<StreamingResponseBody> of(String filename, List<String> header,
+                                                    Consumer<Consumer<List<?>>> source) {
+        String tenantId = TenantContext.getTenantId();
+        long lastWrite = ReplicaRoutingDataSource.getLastWrite();
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writeRow(writer, header);
+            TenantContext.runAs(tenantId, () -> ReplicaRoutingDataSource.runAs(lastWrite, () -> source.accept(row -> {
+                try {
+                    writeRow(writer, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })));
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+    
+    private static void writeRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value instanceof Number) {
+                writer.write(value.toString());
+            } else if (value != null) {
+                writer.write(escape(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+    
+    // RFC 4180: quote fields containing separators, quotes or line breaks. Text a spreadsheet
+    // would run as a formula, such as a group named "=HYPERLINK(...)", is prefixed with a quote.
+    static String escape(String value) {
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,27 @@
+package com.license.management.controller;
+
+import com.license.management.dto.PendingDeletion;
+import com.license.management.service.DeletionPurgeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/deletions")
+@CrossOrigin(origins = "*")
+public class DeletionController {
+    
+    @Autowired
+    private DeletionPurgeService purgeService;
+    
+    /**
+     * Deleted licenses, users and groups whose purge has not finished, with the dependent
+     * rows still to be removed. An item drops out of the list once it is purged.
+     */
+    @GetMapping
+    public ResponseEntity<List<PendingDeletion>> getPendingDeletions() {
+        return ResponseEntity.ok(purgeService.getPendingDeletions());
+    }
+}
@@ -0,0 +1,92 @@
+package com.license.management.controller;
+
+import com.license.management.config.LocalRegionFactory;
+import com.license.management.config.TenantContext;
+import com.license.management.config.TenantFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
+
+/**
+ * Strong entity tags for conditional GETs. A list is tagged with the version of the table it
+ * is read from, so a request carrying the current tag gets 304 before any query runs; a
+ * single entity is tagged with its id and last update time.
+ *
+ * Table versions only see other nodes' writes through the cache invalidation channel, so
+ * list tags are not issued on nodes that share the database without one (license.cluster).
+ * They expire after license.etag.list-max-age: a write whose invalidation never arrived is
+ * served in full by then at the latest.
+ */
+@Component
+class ETags {
+    
+    // Table versions restart with the node, so list tags carry its start time as well
+    private static final String NODE_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    
+    @Autowired
+    private LocalRegionFactory regionFactory;
+    
+    @Value("${license.etag.list-max-age:PT5M}")
+    private Duration listMaxAge;
+    
+    /**
+     * Tag of a list read from the given tables, or null when the tables are not versioned
+     * or other nodes' writes would not change it.
+     */
+    String ofTables(String... tables) {
+        if (!regionFactory.seesAllWrites()) {
+            return null;
+        }
+        OptionalLong version = regionFactory.getTableVersion(tables);
+        if (version.isEmpty()) {
+            return null;
+        }
+        long period = System.currentTimeMillis() / listMaxAge.toMillis();
+        return "\"" + TenantContext.getTenantId() + "-" + NODE_EPOCH + "-" + period + "-" + version.getAsLong() + "\"";
+    }
+    
+    static String ofEntity(Long id, LocalDateTime updatedAt) {
+        // The database keeps microseconds; a cached copy may still hold the nanoseconds it was saved with
+        String version = updatedAt != null ? updatedAt.truncatedTo(ChronoUnit.MICROS).toString() : "0";
+        return "\"" + id + "-" + version + "\"";
+    }
+    
+    /**
+     * Answers 304 when the request's If-None-Match holds the tag, without building the
+     * response; otherwise builds it, tagged. Clients are told to revalidate on every use,
+     * since lists change without notice.
+     */
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        if (etag == null) {
+            return response.get();
+        }
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers()).build();
+        }
+        ResponseEntity<T> built = response.get();
+        return ResponseEntity.status(built.getStatusCode())
+            .headers(built.getHeaders())
+            .headers(headers())
+            .body(built.getBody());
+    }
+    
+    // The ETag itself was set by checkNotModified; repeating it would send it twice on streamed bodies
+    private static HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(List.of(TenantFilter.TENANT_HEADER));
+        return headers;
+    }
+}
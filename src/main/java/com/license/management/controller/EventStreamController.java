@@ -0,0 +1,37 @@
+package com.license.management.controller;
+
+import com.license.management.service.LicenseEventBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventStreamController {
+    
+    @Autowired
+    private LicenseEventBroadcaster broadcaster;
+    
+    /**
+     * Streams license history entries as they commit. Browsers resume through the
+     * Last-Event-ID header; other clients may pass lastEventId instead.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId) {
+        return broadcaster.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(Map.of(
+            "subscribers", broadcaster.getSubscriberCount(),
+            "disconnectedSlowConsumers", broadcaster.getDisconnectedSlowConsumers()));
+    }
+}
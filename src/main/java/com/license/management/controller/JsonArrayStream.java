@@ -0,0 +1,47 @@
+package com.license.management.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.license.management.config.ReplicaRoutingDataSource;
+import com.license.management.config.TenantContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes a JSON array element by element as a service streams rows, so list endpoints
+ * never hold the whole result in memory. The body is written on an async thread, which
+ * runs as the tenant of the request and reads where the request would have, replica or
+ * primary.
+ */
+final class JsonArrayStream {
+    
+    private JsonArrayStream() {
+    }
+    
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        String tenantId = TenantContext.getTenantId();
+        long lastWrite = ReplicaRoutingDataSource.getLastWrite();
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                TenantContext.runAs(tenantId, () -> ReplicaRoutingDataSource.runAs(lastWrite, () -> source.accept(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
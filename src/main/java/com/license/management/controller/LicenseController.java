@@ -1,46 +1,129 @@
 package com.license.management.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.config.TenantContext;
+import com.license.management.dto.AssignmentsAsOf;
+import com.license.management.dto.LicenseFilter;
+import com.license.management.dto.LicenseImportResult;
+import com.license.management.dto.LicenseRenewal;
+import com.license.management.dto.LicenseRenewalResult;
+import com.license.management.dto.RevocationList;
+import com.license.management.dto.UtilizationSeries;
 import com.license.management.entity.*;
+import com.license.management.service.AssignmentSnapshotService;
+import com.license.management.service.EntitlementTokenService;
+import com.license.management.service.LicenseImportService;
 import com.license.management.service.LicenseService;
+import com.license.management.service.SeatUtilizationService;
+import com.license.management.service.SeatWaitlistNotifier;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/licenses")
 @CrossOrigin(origins = "*")
 public class LicenseController {
     
+    private static final long MAX_AWAIT_SECONDS = 120;
+    
+    // The table license responses are read from, which versions their ETags
+    private static final String LICENSES = "licenses";
+    
     @Autowired
     private LicenseService licenseService;
     
+    @Autowired
+    private LicenseImportService licenseImportService;
+    
+    @Autowired
+    private EntitlementTokenService entitlementTokenService;
+    
+    @Autowired
+    private SeatWaitlistNotifier waitlistNotifier;
+    
+    @Autowired
+    private SeatUtilizationService seatUtilizationService;
+    
+    @Autowired
+    private AssignmentSnapshotService assignmentSnapshotService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ETags etags;
+    
     // ===== License CRUD Endpoints =====
     
     @GetMapping
-    public ResponseEntity<List<License>> getAllLicenses() {
-        return ResponseEntity.ok(licenseService.getAllLicenses());
+    public ResponseEntity<StreamingResponseBody> getAllLicenses(WebRequest request) {
+        return ETags.ifNoneMatch(request, etags.ofTables(LICENSES),
+            () -> JsonArrayStream.of(objectMapper, licenseService::forEachLicense));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<License> getLicenseById(@PathVariable Long id) {
+    public ResponseEntity<License> getLicenseById(@PathVariable Long id, WebRequest request) {
+        // Served from the second-level cache, so a revalidation costs no statement either
         return licenseService.getLicenseById(id)
+            .map(license -> ETags.ifNoneMatch(request, ETags.ofEntity(license.getId(), license.getUpdatedAt()),
+                () -> ResponseEntity.ok(license)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/key/{licenseKey}")
+    public ResponseEntity<License> getLicenseByKey(@PathVariable String licenseKey) {
+        return licenseService.getLicenseByKey(licenseKey)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<License>> getActiveLicenses() {
-        return ResponseEntity.ok(licenseService.getActiveLicenses());
+    public ResponseEntity<List<License>> getActiveLicenses(WebRequest request) {
+        return ETags.ifNoneMatch(request, etags.ofTables(LICENSES),
+            () -> ResponseEntity.ok(licenseService.getActiveLicenses()));
+    }
+    
+    /**
+     * Licenses matching every given filter, a page at a time, e.g.
+     * {@code ?expiresTo=...&minUtilization=90&sort=expirationDate}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Page<License>> searchLicenses(LicenseFilter filter,
+                                                        @PageableDefault(size = 20) Pageable pageable) {
+        try {
+            return ResponseEntity.ok(licenseService.searchLicenses(filter, pageable));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<License>> getAvailableLicenses() {
-        return ResponseEntity.ok(licenseService.getAvailableLicenses());
+    public ResponseEntity<List<License>> getAvailableLicenses(WebRequest request) {
+        return ETags.ifNoneMatch(request, etags.ofTables(LICENSES),
+            () -> ResponseEntity.ok(licenseService.getAvailableLicenses()));
     }
     
     @PostMapping
@@ -53,6 +136,20 @@ public class LicenseController {
         }
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<LicenseImportResult> importLicenses(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(licenseImportService.importCsv(request.getInputStream()));
+        } catch (RuntimeException e) {
+            // Only a bad header fails the whole file; rows and chunks that fail are in the result
+            LicenseImportResult result = new LicenseImportResult();
+            result.addError(1, null, e.getMessage(), 1);
+            return ResponseEntity.badRequest().body(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<License> updateLicense(@PathVariable Long id, @Valid @RequestBody License license) {
         try {
@@ -63,6 +160,34 @@ public class LicenseController {
         }
     }
     
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<License> patchLicense(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(licenseService.patchLicense(id, patch));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/{id}/renew")
+    public ResponseEntity<License> renewLicense(@PathVariable Long id, @Valid @RequestBody LicenseRenewal renewal) {
+        try {
+            return ResponseEntity.ok(licenseService.renewLicense(id, renewal.getExpirationDate(),
+                renewal.getTotalSeats()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/renew")
+    public ResponseEntity<LicenseRenewalResult> renewLicenses(@Valid @RequestBody LicenseRenewal renewal) {
+        if (renewal.getLicenseIds() == null || renewal.getLicenseIds().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(licenseService.renewLicenses(renewal.getLicenseIds(), renewal.getExpirationDate(),
+            renewal.getTotalSeats()));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteLicense(@PathVariable Long id) {
         try {
@@ -99,6 +224,33 @@ public class LicenseController {
         }
     }
     
+    @PostMapping("/user-assignments/{userLicenseId}/token")
+    public ResponseEntity<Map<String, String>> issueEntitlementToken(@PathVariable Long userLicenseId) {
+        try {
+            return ResponseEntity.ok(Map.of("token", licenseService.issueEntitlementToken(userLicenseId)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/tokens/public-key")
+    public ResponseEntity<Map<String, String>> getTokenPublicKey() {
+        return ResponseEntity.ok(Map.of(
+            "algorithm", "Ed25519",
+            "publicKey", entitlementTokenService.getEncodedPublicKey()));
+    }
+    
+    @GetMapping("/tokens/revocations")
+    public ResponseEntity<RevocationList> getTokenRevocations(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        RevocationList revocations = since != null
+            ? entitlementTokenService.getRevocationsSince(since)
+            : entitlementTokenService.getRevocations();
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(entitlementTokenService.getRevocationListMaxAge()))
+            .body(revocations);
+    }
+    
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<UserLicense>> getUserLicenses(@PathVariable Long userId) {
         try {
@@ -168,20 +320,130 @@ public class LicenseController {
         }
     }
     
+    // ===== Seat Waitlist Endpoints =====
+    
+    @PostMapping("/{licenseId}/waitlist/user/{userId}")
+    public ResponseEntity<SeatWaitlistEntry> joinWaitlist(
+            @PathVariable Long licenseId,
+            @PathVariable Long userId,
+            @RequestBody(required = false) Map<String, String> request) {
+        try {
+            String notes = request != null ? request.get("notes") : null;
+            SeatWaitlistEntry entry = licenseService.joinWaitlist(licenseId, userId, notes);
+            return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/{licenseId}/waitlist")
+    public ResponseEntity<List<SeatWaitlistEntry>> getLicenseWaitlist(@PathVariable Long licenseId) {
+        return ResponseEntity.ok(licenseService.getLicenseWaitlist(licenseId));
+    }
+    
+    @GetMapping("/waitlist/{entryId}")
+    public ResponseEntity<SeatWaitlistEntry> getWaitlistEntry(@PathVariable Long entryId) {
+        return licenseService.getWaitlistEntry(entryId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Long poll: answers as soon as the entry is promoted or cancelled, or with its current
+     * state once the timeout passes.
+     */
+    @GetMapping("/waitlist/{entryId}/await")
+    public DeferredResult<SeatWaitlistEntry> awaitWaitlistEntry(
+            @PathVariable Long entryId,
+            @RequestParam(defaultValue = "30") long timeoutSeconds) {
+        long timeoutMillis = Math.min(Math.max(timeoutSeconds, 1), MAX_AWAIT_SECONDS) * 1000;
+        DeferredResult<SeatWaitlistEntry> result = new DeferredResult<>(timeoutMillis);
+        String tenantId = TenantContext.getTenantId();
+        result.onTimeout(() -> TenantContext.runAs(tenantId,
+            () -> licenseService.getWaitlistEntry(entryId).ifPresent(result::setResult)));
+        
+        // Register before reading, so a promotion committing in between is not missed
+        waitlistNotifier.register(entryId, result);
+        Optional<SeatWaitlistEntry> entry = licenseService.getWaitlistEntry(entryId);
+        if (entry.isEmpty()) {
+            result.setErrorResult(ResponseEntity.notFound().build());
+        } else if (entry.get().getStatus() != SeatWaitlistEntry.Status.WAITING) {
+            result.setResult(entry.get());
+        }
+        return result;
+    }
+    
+    @DeleteMapping("/waitlist/{entryId}")
+    public ResponseEntity<Void> cancelWaitlistEntry(@PathVariable Long entryId) {
+        try {
+            licenseService.cancelWaitlistEntry(entryId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
     // ===== History and Audit Endpoints =====
     
     @GetMapping("/{licenseId}/history")
-    public ResponseEntity<List<LicenseHistory>> getLicenseHistory(@PathVariable Long licenseId) {
-        return ResponseEntity.ok(licenseService.getLicenseHistory(licenseId));
+    public ResponseEntity<StreamingResponseBody> getLicenseHistory(@PathVariable Long licenseId) {
+        return JsonArrayStream.of(objectMapper,
+            (Consumer<LicenseHistory> action) -> licenseService.forEachLicenseHistory(licenseId, action));
     }
     
     @GetMapping("/history/user/{userId}")
-    public ResponseEntity<List<LicenseHistory>> getUserHistory(@PathVariable Long userId) {
-        return ResponseEntity.ok(licenseService.getUserHistory(userId));
+    public ResponseEntity<StreamingResponseBody> getUserHistory(@PathVariable Long userId) {
+        return JsonArrayStream.of(objectMapper,
+            (Consumer<LicenseHistory> action) -> licenseService.forEachUserHistory(userId, action));
     }
     
     @GetMapping("/history/recent")
     public ResponseEntity<List<LicenseHistory>> getRecentHistory() {
         return ResponseEntity.ok(licenseService.getRecentHistory());
     }
+    
+    // Answered from history, so deleted licenses can be audited too
+    @GetMapping("/{licenseId}/assignments/as-of")
+    public ResponseEntity<AssignmentsAsOf> getAssignmentsAsOf(
+            @PathVariable Long licenseId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(assignmentSnapshotService.getAssignmentsAsOf(licenseId, at));
+    }
+    
+    // ===== Utilization Endpoints =====
+    
+    /**
+     * Seats used per step. Without a step, the finest resolution that keeps a day-long range
+     * at minutes and a month-long range at hours is used.
+     */
+    @GetMapping("/{licenseId}/utilization/series")
+    public ResponseEntity<UtilizationSeries> getUtilizationSeries(
+            @PathVariable Long licenseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String step) {
+        if (licenseService.getLicenseById(licenseId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        try {
+            SeatUtilizationBucket.Resolution resolution = step != null
+                ? SeatUtilizationBucket.Resolution.valueOf(step.toUpperCase(Locale.ROOT))
+                : defaultResolution(start, end);
+            return ResponseEntity.ok(seatUtilizationService.getSeries(licenseId, start, end, resolution));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    private static SeatUtilizationBucket.Resolution defaultResolution(LocalDateTime from, LocalDateTime to) {
+        Duration range = Duration.between(from, to);
+        if (range.compareTo(Duration.ofDays(1)) <= 0) {
+            return SeatUtilizationBucket.Resolution.MINUTE;
+        }
+        return range.compareTo(Duration.ofDays(31)) <= 0
+            ? SeatUtilizationBucket.Resolution.HOUR
+            : SeatUtilizationBucket.Resolution.DAY;
+    }
 }
@@ -0,0 +1,35 @@
+package com.license.management.controller;
+
+import com.license.management.dto.SearchHit;
+import com.license.management.service.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+    
+    @Autowired
+    private SearchIndex searchIndex;
+    
+    /**
+     * Prefix and fuzzy search over users, groups and licenses, answered from memory without a
+     * database query.
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<SearchHit>> typeahead(
+            @RequestParam String q,
+            @RequestParam(required = false) List<SearchHit.Type> type,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "true") boolean fuzzy) {
+        try {
+            return ResponseEntity.ok(searchIndex.search(q, type, limit, fuzzy));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.license.management.controller;
+
+import com.license.management.entity.SeatLease;
+import com.license.management.service.SeatLeaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leases")
+@CrossOrigin(origins = "*")
+public class SeatLeaseController {
+    
+    @Autowired
+    private SeatLeaseService seatLeaseService;
+    
+    @PostMapping("/license/{licenseId}/user/{userId}")
+    public ResponseEntity<SeatLease> checkout(@PathVariable Long licenseId, @PathVariable Long userId) {
+        try {
+            SeatLease lease = seatLeaseService.checkout(licenseId, userId);
+            return ResponseEntity.status(HttpStatus.CREATED).body(lease);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PutMapping("/{leaseId}/heartbeat")
+    public ResponseEntity<SeatLease> heartbeat(@PathVariable String leaseId) {
+        try {
+            return ResponseEntity.ok(seatLeaseService.heartbeat(leaseId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/{leaseId}")
+    public ResponseEntity<Void> release(@PathVariable String leaseId) {
+        try {
+            seatLeaseService.release(leaseId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @GetMapping("/license/{licenseId}")
+    public ResponseEntity<List<SeatLease>> getLicenseLeases(@PathVariable Long licenseId) {
+        return ResponseEntity.ok(seatLeaseService.getLicenseLeases(licenseId));
+    }
+}
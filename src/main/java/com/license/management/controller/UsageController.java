@@ -0,0 +1,36 @@
+package com.license.management.controller;
+
+import com.license.management.dto.UsagePing;
+import com.license.management.service.UsageTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/usage")
+@CrossOrigin(origins = "*")
+public class UsageController {
+    
+    @Autowired
+    private UsageTracker usageTracker;
+    
+    /**
+     * Accepts a batch of usage pings. They are aggregated in memory and written periodically,
+     * so the response only says how many were taken.
+     */
+    @PostMapping("/pings")
+    public ResponseEntity<Map<String, Object>> recordPings(@RequestBody List<UsagePing> pings) {
+        int accepted = usageTracker.record(pings);
+        return ResponseEntity.accepted().body(Map.of(
+            "accepted", accepted,
+            "rejected", pings.size() - accepted));
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(Map.of("pendingAssignments", usageTracker.getPendingCount()));
+    }
+}
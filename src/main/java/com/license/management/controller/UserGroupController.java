@@ -1,12 +1,15 @@
 package com.license.management.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.license.management.entity.UserGroup;
 import com.license.management.service.UserGroupService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,18 +18,26 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class UserGroupController {
     
+    // The table group responses are read from, which versions their ETags
+    private static final String USER_GROUPS = "user_groups";
+    
     @Autowired
     private UserGroupService groupService;
     
+    @Autowired
+    private ETags etags;
+    
     @GetMapping
-    public ResponseEntity<List<UserGroup>> getAllGroups() {
-        return ResponseEntity.ok(groupService.getAllGroups());
+    public ResponseEntity<List<UserGroup>> getAllGroups(WebRequest request) {
+        return ETags.ifNoneMatch(request, etags.ofTables(USER_GROUPS),
+            () -> ResponseEntity.ok(groupService.getAllGroups()));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<UserGroup> getGroupById(@PathVariable Long id) {
+    public ResponseEntity<UserGroup> getGroupById(@PathVariable Long id, WebRequest request) {
         return groupService.getGroupById(id)
-            .map(ResponseEntity::ok)
+            .map(group -> ETags.ifNoneMatch(request, ETags.ofEntity(group.getId(), group.getUpdatedAt()),
+                () -> ResponseEntity.ok(group)))
             .orElse(ResponseEntity.notFound().build());
     }
     
@@ -38,8 +49,9 @@ public class UserGroupController {
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<UserGroup>> getActiveGroups() {
-        return ResponseEntity.ok(groupService.getActiveGroups());
+    public ResponseEntity<List<UserGroup>> getActiveGroups(WebRequest request) {
+        return ETags.ifNoneMatch(request, etags.ofTables(USER_GROUPS),
+            () -> ResponseEntity.ok(groupService.getActiveGroups()));
     }
     
     @PostMapping
@@ -62,6 +74,15 @@ public class UserGroupController {
         }
     }
     
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserGroup> patchGroup(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(groupService.patchGroup(id, patch));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteGroup(@PathVariable Long id) {
         try {
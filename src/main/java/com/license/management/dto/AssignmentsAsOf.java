@@ -0,0 +1,36 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class AssignmentsAsOf {
+    
+    private Long licenseId;
+    
+    private LocalDateTime at;
+    
+    // When the snapshot the answer was replayed from was taken; null if replayed from the start
+    private LocalDateTime snapshotTakenAt;
+    
+    private int replayedEntries;
+    
+    private List<Long> userIds = new ArrayList<>();
+    
+    private List<GroupHolding> groups = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GroupHolding {
+        private Long groupId;
+        // Null when the allocation row no longer exists
+        private Integer allocatedSeats;
+    }
+}
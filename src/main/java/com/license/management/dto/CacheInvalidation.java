@@ -0,0 +1,26 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A second-level cache change made on one node, sent to the others so they drop their copy.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    
+    // Null for every region
+    private String region;
+    
+    // Entity or collection role of the key; null for update timestamps
+    private String role;
+    
+    // Only natural-id keys are per tenant
+    private String tenantId;
+    
+    // Entity id, natural id or table name; null for the whole region
+    private Object key;
+}
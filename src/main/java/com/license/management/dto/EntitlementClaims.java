@@ -0,0 +1,20 @@
+package com.license.management.dto;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Claims carried by a signed entitlement token: which seat of which license a user holds, and until when.
+ */
+@Value
+public class EntitlementClaims {
+    
+    long userId;
+    
+    long licenseId;
+    
+    long seatId;
+    
+    Instant expiresAt;
+}
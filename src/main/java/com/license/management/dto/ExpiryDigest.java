@@ -0,0 +1,50 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The licenses one recipient is alerted about in one run: the users holding them directly,
+ * the groups they are assigned to, and the tenant's administrators, who get all of them.
+ */
+@Data
+@NoArgsConstructor
+public class ExpiryDigest {
+    
+    private String tenantId;
+    
+    private RecipientType recipientType;
+    
+    // Null for administrators
+    private Long recipientId;
+    
+    private String recipientName;
+    
+    // Only users have one
+    private String email;
+    
+    private List<Entry> licenses = new ArrayList<>();
+    
+    public enum RecipientType {
+        USER,
+        GROUP,
+        ADMIN
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private Long licenseId;
+        private String softwareName;
+        private String licenseKey;
+        private LocalDateTime expirationDate;
+        // The smallest alert window the expiration date falls into
+        private int windowDays;
+    }
+}
@@ -0,0 +1,20 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupCostSummary {
+    
+    // 0 for direct assignments of users in no group
+    private Long groupId;
+    
+    private BigDecimal seatMonths;
+    
+    private BigDecimal cost;
+}
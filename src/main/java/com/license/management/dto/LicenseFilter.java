@@ -0,0 +1,40 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the license search; unset filters match every license.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseFilter {
+    
+    private Boolean active;
+    
+    // Expiring at or after expiresFrom and before expiresTo
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime expiresFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime expiresTo;
+    
+    // Used seats as a percentage of total seats, both bounds inclusive
+    private Double minUtilization;
+    
+    private Double maxUtilization;
+    
+    // Matches software names starting with it
+    private String softwareName;
+    
+    private Integer minTotalSeats;
+    
+    private Integer maxTotalSeats;
+    
+    private Integer minAvailableSeats;
+}
@@ -0,0 +1,42 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class LicenseImportResult {
+    
+    private long totalRows;
+    
+    private long imported;
+    
+    private long failed;
+    
+    // Only the first errors are kept so a bad file cannot grow the response without bound
+    private boolean errorsTruncated;
+    
+    private List<RowError> errors = new ArrayList<>();
+    
+    public void addError(long line, String licenseKey, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, licenseKey, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String licenseKey;
+        private String message;
+    }
+}
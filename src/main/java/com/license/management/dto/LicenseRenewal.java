@@ -0,0 +1,27 @@
+package com.license.management.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LicenseRenewal {
+    
+    // Licenses to renew; ignored when renewing a single license
+    private List<Long> licenseIds = new ArrayList<>();
+    
+    @NotNull(message = "Expiration date is required")
+    private LocalDateTime expirationDate;
+    
+    // Left unchanged when null
+    @Positive(message = "Total seats must be positive")
+    private Integer totalSeats;
+}
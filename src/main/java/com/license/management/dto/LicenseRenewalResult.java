@@ -0,0 +1,19 @@
+package com.license.management.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class LicenseRenewalResult {
+    
+    private int renewed;
+    
+    private List<Long> notFound = new ArrayList<>();
+    
+    // Licenses with more seats in use than the new total; they are left unchanged
+    private List<Long> rejected = new ArrayList<>();
+}
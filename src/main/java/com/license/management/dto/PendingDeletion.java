@@ -0,0 +1,31 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingDeletion {
+    
+    private Type type;
+    
+    private Long id;
+    
+    // Software name, username or group name
+    private String name;
+    
+    private LocalDateTime deletedAt;
+    
+    // Assignments, allocations and memberships the purge job has yet to remove
+    private long remainingChildren;
+    
+    public enum Type {
+        LICENSE,
+        USER,
+        GROUP
+    }
+}
@@ -0,0 +1,17 @@
+package com.license.management.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Seat ids whose entitlement tokens must no longer be honoured, as of {@code generatedAt}.
+ */
+@Value
+public class RevocationList {
+    
+    LocalDateTime generatedAt;
+    
+    List<Long> revokedSeatIds;
+}
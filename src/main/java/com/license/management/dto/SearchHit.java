@@ -0,0 +1,27 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+    
+    private Type type;
+    
+    private Long id;
+    
+    // Username, group name or software name
+    private String label;
+    
+    // Full name, group description or license key
+    private String detail;
+    
+    public enum Type {
+        USER,
+        GROUP,
+        LICENSE
+    }
+}
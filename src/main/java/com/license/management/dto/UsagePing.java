@@ -0,0 +1,20 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsagePing {
+    
+    private Long userId;
+    
+    private Long licenseId;
+    
+    // When the license was used; defaults to the time the ping is received
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,23 @@
+package com.license.management.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class UserActivationResult {
+    
+    // Users whose active flag was changed
+    private int updated;
+    
+    // Users that were already in the requested state
+    private int unchanged;
+    
+    private List<Long> notFound = new ArrayList<>();
+    
+    // Active license assignments revoked from the deactivated users
+    private int licensesRevoked;
+}
@@ -0,0 +1,37 @@
+package com.license.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UtilizationSeries {
+    
+    private Long licenseId;
+    
+    private String step;
+    
+    private LocalDateTime from;
+    
+    private LocalDateTime to;
+    
+    // One point per step from the first known usage on; later gaps repeat the previous usage
+    private List<Point> points = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDateTime time;
+        private int minUsed;
+        private int maxUsed;
+        private int usedSeats;
+        private int totalSeats;
+    }
+}
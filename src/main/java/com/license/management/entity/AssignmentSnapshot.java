@@ -0,0 +1,76 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The active user and group assignments of one license after the history entry
+ * lastHistoryId. Point-in-time queries start from the latest snapshot and replay only the
+ * history written after it.
+ */
+@Entity
+@Table(name = "assignment_snapshots", indexes = {
+    @Index(name = "idx_assignment_snapshots_license", columnList = "licenseId, lastHistoryId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssignmentSnapshot implements TenantOwned {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    // 0 when the license had no history yet
+    @Column(nullable = false)
+    private Long lastHistoryId;
+    
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+    
+    @ElementCollection
+    @CollectionTable(name = "assignment_snapshot_holders", joinColumns = @JoinColumn(name = "snapshot_id"))
+    private List<Holder> holders = new ArrayList<>();
+    
+    @PrePersist
+    protected void onCreate() {
+        if (takenAt == null) {
+            takenAt = LocalDateTime.now();
+        }
+    }
+    
+    /**
+     * A user, or a group with its seat allocation, holding the license.
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Holder {
+        
+        @Column
+        private Long userId;
+        
+        @Column
+        private Long groupId;
+        
+        @Column
+        private Integer allocatedSeats;
+    }
+}
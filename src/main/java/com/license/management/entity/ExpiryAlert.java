@@ -0,0 +1,55 @@
+package com.license.management.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that one recipient's digest with the renewal alert of one window was delivered for
+ * a license's expiration date. A renewed license has a new expiration date and is alerted
+ * again.
+ */
+@Entity
+@Table(name = "expiry_alerts", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_expiry_alert", columnNames = {"licenseId", "windowDays", "expirationDate", "recipient"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryAlert implements TenantOwned {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    @Column(nullable = false)
+    private Integer windowDays;
+    
+    @Column(nullable = false)
+    private LocalDateTime expirationDate;
+    
+    // ADMIN, or the recipient type and id, as in USER:5
+    @Column(nullable = false, length = 40)
+    private String recipient;
+    
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        sentAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,56 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The seats of one license a group is currently charged for: its allocation plus its share
+ * of members' direct assignments. Cost accrues from accruedThrough at seats x unitPrice per
+ * month into {@link GroupMonthlyCost} rows whenever the rate changes or the accrual job runs.
+ */
+@Entity
+@Table(name = "group_cost_rates", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_group_cost_rate", columnNames = {"groupId", "licenseId"})
+}, indexes = {
+    @Index(name = "idx_group_cost_rates_license", columnList = "licenseId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupCostRate implements TenantOwned {
+    
+    // Charged for direct assignments of users who belong to no group
+    public static final long UNGROUPED = 0L;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private Long groupId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    @Column(nullable = false, precision = 12, scale = 4)
+    private BigDecimal seats;
+    
+    // License price per seat and month when the rate was last set
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(nullable = false)
+    private LocalDateTime accruedThrough;
+}
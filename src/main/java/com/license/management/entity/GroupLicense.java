@@ -4,20 +4,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 
 @Entity
+// Allocation lists are serialized with the group and the license
+@NamedEntityGraph(name = "GroupLicense.groupAndLicense", attributeNodes = {
+    @NamedAttributeNode("group"),
+    @NamedAttributeNode("license")
+})
 @Table(name = "group_licenses")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class GroupLicense {
+public class GroupLicense implements TenantOwned {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", nullable = false)
     private UserGroup group;
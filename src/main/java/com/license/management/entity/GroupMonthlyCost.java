@@ -0,0 +1,50 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Cost accrued by one group for one license in one calendar month. Rows only grow, by
+ * atomic increments from the chargeback accrual, so reports never recompute past months.
+ */
+@Entity
+@Table(name = "group_monthly_costs", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_group_monthly_cost", columnNames = {"periodStart", "groupId", "licenseId"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMonthlyCost implements TenantOwned {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    // First day of the month
+    @Column(nullable = false)
+    private LocalDate periodStart;
+    
+    @Column(nullable = false)
+    private Long groupId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    @Column(nullable = false, precision = 18, scale = 6)
+    private BigDecimal seatMonths;
+    
+    @Column(nullable = false, precision = 18, scale = 4)
+    private BigDecimal cost;
+}
@@ -3,32 +3,65 @@ package com.license.management.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TenantId;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "licenses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "licenses")
+@NaturalIdCache
+@DynamicUpdate
+@SQLRestriction("deleted_at IS NULL")
+// (tenantId, licenseKey) is unique as the natural id
+@Table(name = "licenses", indexes = {
+    @Index(name = "idx_licenses_tenant", columnList = "tenantId, id"),
+    @Index(name = "idx_licenses_tenant_expiration", columnList = "tenantId, expirationDate"),
+    @Index(name = "idx_licenses_tenant_software", columnList = "tenantId, softwareName"),
+    @Index(name = "idx_licenses_expiration", columnList = "expirationDate"),
+    @Index(name = "idx_licenses_deleted_at", columnList = "deletedAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class License {
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class License implements TenantOwned, SoftDeletable {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @TenantId
+    @NaturalId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
     @NotBlank(message = "Software name is required")
     @Column(nullable = false)
     private String softwareName;
     
+    @NaturalId
     @NotBlank(message = "License key is required")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false, updatable = false)
     private String licenseKey;
     
     @Positive(message = "Total seats must be positive")
@@ -47,20 +80,41 @@ public class License {
     @Column(length = 500)
     private String description;
     
+    // Price per seat and month, used for group chargeback; unpriced licenses cost nothing
+    @PositiveOrZero(message = "Price must not be negative")
+    @Column(precision = 12, scale = 2)
+    private BigDecimal price;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    // Bumped by every write, so a write based on a stale cached copy fails instead of overwriting
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
+    // Set on delete; the row stays hidden until the purge job has removed its assignments
+    @JsonIgnore
+    @Column
+    private LocalDateTime deletedAt;
+    
     // One-to-Many relationship with UserLicense
     @OneToMany(mappedBy = "license", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<UserLicense> userLicenses = new HashSet<>();
     
     // One-to-Many relationship with GroupLicense
     @OneToMany(mappedBy = "license", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<GroupLicense> groupLicenses = new HashSet<>();
     
     @PrePersist
@@ -4,20 +4,30 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "license_history")
+@Table(name = "license_history", indexes = {
+    @Index(name = "idx_license_history_tenant_timestamp", columnList = "tenantId, timestamp"),
+    @Index(name = "idx_license_history_license_id", columnList = "licenseId, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class LicenseHistory {
+public class LicenseHistory implements TenantOwned {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
     @Column(nullable = false)
     private Long licenseId;
     
@@ -43,6 +53,11 @@ public class LicenseHistory {
     @Column
     private String performedBy;
     
+    // Seats the change took (positive) or freed (negative), for listeners; never stored
+    @Transient
+    @JsonIgnore
+    private Integer seatChange;
+    
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -63,6 +78,9 @@ public class LicenseHistory {
         LICENSE_EXPIRED,
         LICENSE_RENEWED,
         SEATS_INCREASED,
-        SEATS_DECREASED
+        SEATS_DECREASED,
+        LEASE_CHECKED_OUT,
+        LEASE_RELEASED,
+        LEASE_EXPIRED
     }
 }
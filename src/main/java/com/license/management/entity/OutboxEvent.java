@@ -0,0 +1,70 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change written in the same transaction as the mutation it describes and relayed to
+ * integrations afterwards. Consumers deduplicate on eventId, since delivery is at least once.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_events_pending", columnList = "deliveredAt, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 36)
+    private String eventId;
+    
+    // Not a Hibernate tenant filter: the relay delivers every tenant's events
+    @Column(nullable = false, length = 64)
+    private String tenantId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AggregateType aggregateType;
+    
+    @Column(nullable = false)
+    private Long aggregateId;
+    
+    @Column(nullable = false, length = 50)
+    private String eventType;
+    
+    @Column(nullable = false, length = 8000)
+    private String payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column
+    private LocalDateTime nextAttemptAt;
+    
+    @Column
+    private LocalDateTime deliveredAt;
+    
+    @Column(length = 1000)
+    private String lastError;
+    
+    public String getAggregateKey() {
+        return aggregateType + ":" + aggregateId;
+    }
+    
+    public enum AggregateType {
+        LICENSE,
+        USER
+    }
+}
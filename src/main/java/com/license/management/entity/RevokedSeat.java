@@ -0,0 +1,37 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * A purged assignment that was revoked too recently for every token issued for it to have
+ * expired. The revocation list reads these along with the assignments still present, and the
+ * purge job drops them once the token lifetime has passed.
+ */
+@Entity
+@Table(name = "revoked_seats", indexes = {
+    @Index(name = "idx_revoked_seats_revoked_at", columnList = "revokedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedSeat implements TenantOwned {
+    
+    // The purged assignment's id, which is the seat id in its tokens
+    @Id
+    private Long seatId;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+}
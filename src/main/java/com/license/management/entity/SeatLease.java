@@ -0,0 +1,45 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * A concurrent-use seat checked out for a limited time. Live lease state is kept in memory;
+ * this table holds the set of open leases and their expiry as of the last snapshot.
+ */
+@Entity
+@Table(name = "seat_leases", indexes = {
+    @Index(name = "idx_seat_leases_license", columnList = "licenseId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatLease implements TenantOwned {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private LocalDateTime checkedOutAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,79 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Seat usage of one license over one minute, hour or day. Buckets are only written for
+ * periods in which the usage was sampled, so a missing bucket means "unchanged since the
+ * previous one".
+ */
+@Entity
+@Table(name = "seat_utilization_buckets", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_seat_utilization_bucket", columnNames = {"licenseId", "resolution", "bucketStart"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatUtilizationBucket implements TenantOwned {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Resolution resolution;
+    
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private Integer minUsed;
+    
+    @Column(nullable = false)
+    private Integer maxUsed;
+    
+    // Usage at the last sample in the bucket
+    @Column(nullable = false)
+    private Integer lastUsed;
+    
+    @Column(nullable = false)
+    private Integer totalSeats;
+    
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+        
+        private final ChronoUnit unit;
+        
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+        
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+        
+        public Duration getStep() {
+            return unit.getDuration();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.license.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "seat_waitlist", indexes = {
+    @Index(name = "idx_seat_waitlist_license_status", columnList = "licenseId, status, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatWaitlistEntry implements TenantOwned {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @Column(nullable = false)
+    private Long licenseId;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(length = 500)
+    private String notes;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.WAITING;
+    
+    // Set once the entry is promoted to an assignment
+    @Column
+    private Long userLicenseId;
+    
+    @Column(nullable = false)
+    private LocalDateTime requestedAt;
+    
+    @Column
+    private LocalDateTime resolvedAt;
+    
+    // 1-based place in the queue while waiting
+    @Transient
+    private Long position;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (requestedAt == null) {
+            requestedAt = LocalDateTime.now();
+        }
+    }
+    
+    public enum Status {
+        WAITING,
+        PROMOTED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,11 @@
+package com.license.management.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entity whose delete only sets {@code deletedAt}; the row is purged later.
+ */
+public interface SoftDeletable {
+    
+    LocalDateTime getDeletedAt();
+}
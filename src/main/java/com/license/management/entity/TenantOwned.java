@@ -0,0 +1,9 @@
+package com.license.management.entity;
+
+/**
+ * An entity that belongs to one tenant, stored in its {@code @TenantId} column.
+ */
+public interface TenantOwned {
+    
+    String getTenantId();
+}
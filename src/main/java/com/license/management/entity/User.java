@@ -5,30 +5,62 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache
+@DynamicUpdate
+// Users are serialized with their groups
+@NamedEntityGraph(name = "User.groups", attributeNodes = @NamedAttributeNode("groups"))
+@SQLRestriction("deleted_at IS NULL")
+// (tenantId, username) is unique as the natural id
+@Table(name = "users", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_users_tenant_email", columnNames = {"tenantId", "email"})
+}, indexes = {
+    @Index(name = "idx_users_tenant", columnList = "tenantId, id"),
+    @Index(name = "idx_users_deleted_at", columnList = "deletedAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class User {
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class User implements TenantOwned, SoftDeletable {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @TenantId
+    @NaturalId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @NaturalId(mutable = true)
     @NotBlank(message = "Username is required")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String username;
     
     @NotBlank(message = "Email is required")
     @Email(message = "Email should be valid")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
     
     @NotBlank(message = "Full name is required")
@@ -44,6 +76,11 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    // Set on delete; the row stays hidden until the purge job has removed its assignments and memberships
+    @JsonIgnore
+    @Column
+    private LocalDateTime deletedAt;
+    
     // Many-to-Many relationship with UserGroup
     @ManyToMany
     @JoinTable(
@@ -55,6 +92,9 @@ public class User {
     
     // One-to-Many relationship with UserLicense
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<UserLicense> userLicenses = new HashSet<>();
     
     @PrePersist
@@ -4,26 +4,53 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "user_groups")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "groups")
+@NaturalIdCache
+@DynamicUpdate
+@SQLRestriction("deleted_at IS NULL")
+// (tenantId, name) is unique as the natural id
+@Table(name = "user_groups", indexes = {
+    @Index(name = "idx_user_groups_deleted_at", columnList = "deletedAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserGroup {
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class UserGroup implements TenantOwned, SoftDeletable {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @TenantId
+    @NaturalId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
+    @NaturalId(mutable = true)
     @NotBlank(message = "Group name is required")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String name;
     
     @Column(length = 500)
@@ -38,14 +65,30 @@ public class UserGroup {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: saving a copy that another node has changed since fails rather than undoing that change
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
+    // Set on delete; the row stays hidden until the purge job has removed its allocations and memberships
+    @JsonIgnore
+    @Column
+    private LocalDateTime deletedAt;
+    
     // Many-to-Many relationship with User
     @ManyToMany(mappedBy = "groups")
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<User> users = new HashSet<>();
     
     // One-to-Many relationship with GroupLicense
     @OneToMany(mappedBy = "group", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<GroupLicense> groupLicenses = new HashSet<>();
     
     @PrePersist
@@ -4,20 +4,35 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.TenantId;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_licenses")
+// Assignment lists are serialized with the user, the user's groups and the license
+@NamedEntityGraph(name = "UserLicense.userAndLicense", attributeNodes = {
+    @NamedAttributeNode(value = "user", subgraph = "user"),
+    @NamedAttributeNode("license")
+}, subgraphs = @NamedSubgraph(name = "user", attributeNodes = @NamedAttributeNode("groups")))
+@Table(name = "user_licenses", indexes = {
+    @Index(name = "idx_user_licenses_revoked_at", columnList = "revokedAt"),
+    @Index(name = "idx_user_licenses_active_last_used", columnList = "active, lastUsedAt")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserLicense {
+public class UserLicense implements TenantOwned {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @TenantId
+    @JsonIgnore
+    @Column(nullable = false, updatable = false, length = 64)
+    private String tenantId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -35,9 +50,17 @@ public class UserLicense {
     @Column(nullable = false)
     private Boolean active = true;
     
+    // Latest usage ping, written in batches by the usage tracker; null until first used
+    @Column
+    private LocalDateTime lastUsedAt;
+    
     @Column(length = 500)
     private String notes;
     
+    // Signed seat token handed out on assignment; never stored
+    @Transient
+    private String entitlementToken;
+    
     @PrePersist
     protected void onCreate() {
         if (assignedAt == null) {
@@ -0,0 +1,16 @@
+package com.license.management.event;
+
+import com.license.management.entity.LicenseHistory;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published whenever history entries are written. Listeners that only care about committed
+ * changes should use {@code @TransactionalEventListener}.
+ */
+@Value
+public class LicenseHistoryEvent {
+    
+    List<LicenseHistory> entries;
+}
@@ -0,0 +1,16 @@
+package com.license.management.repository;
+
+import com.license.management.entity.AssignmentSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AssignmentSnapshotRepository extends JpaRepository<AssignmentSnapshot, Long> {
+    
+    // The snapshot to replay from for a point in time
+    Optional<AssignmentSnapshot> findFirstByLicenseIdAndTakenAtLessThanEqualOrderByLastHistoryIdDesc(
+        Long licenseId, LocalDateTime at);
+}
@@ -0,0 +1,14 @@
+package com.license.management.repository;
+
+import com.license.management.entity.ExpiryAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExpiryAlertRepository extends JpaRepository<ExpiryAlert, Long> {
+    
+    List<ExpiryAlert> findByLicenseIdIn(Collection<Long> licenseIds);
+}
@@ -0,0 +1,34 @@
+package com.license.management.repository;
+
+import com.license.management.entity.GroupCostRate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GroupCostRateRepository extends JpaRepository<GroupCostRate, Long> {
+    
+    // Locked, so concurrent changes cannot accrue the same interval twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM GroupCostRate r WHERE r.licenseId = :licenseId AND r.groupId IN :groupIds")
+    List<GroupCostRate> findForUpdate(@Param("licenseId") Long licenseId, @Param("groupIds") Collection<Long> groupIds);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM GroupCostRate r ORDER BY r.id")
+    List<GroupCostRate> findAllForUpdate();
+    
+    @Query("SELECT r.groupId FROM GroupCostRate r WHERE r.licenseId = :licenseId")
+    List<Long> findGroupIdsByLicenseId(@Param("licenseId") Long licenseId);
+    
+    @Query("SELECT r.licenseId FROM GroupCostRate r WHERE r.groupId = :groupId")
+    List<Long> findLicenseIdsByGroupId(@Param("groupId") Long groupId);
+    
+    @Query("SELECT DISTINCT r.tenantId FROM GroupCostRate r")
+    List<String> findTenantIds();
+}
@@ -3,11 +3,13 @@ package com.license.management.repository;
 import com.license.management.entity.GroupLicense;
 import com.license.management.entity.UserGroup;
 import com.license.management.entity.License;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +20,36 @@ public interface GroupLicenseRepository extends JpaRepository<GroupLicense, Long
     
     List<GroupLicense> findByLicense(License license);
     
-    List<GroupLicense> findByGroupAndActiveTrue(UserGroup group);
+    // Allocations of deleted licenses stay active until purged, so they are filtered out here
+    @EntityGraph("GroupLicense.groupAndLicense")
+    @Query("SELECT gl FROM GroupLicense gl WHERE gl.group = :group AND gl.active = true " +
+           "AND gl.license.deletedAt IS NULL")
+    List<GroupLicense> findByGroupAndActiveTrue(@Param("group") UserGroup group);
     
+    @EntityGraph("GroupLicense.groupAndLicense")
     List<GroupLicense> findByLicenseAndActiveTrue(License license);
     
     Optional<GroupLicense> findByGroupAndLicenseAndActiveTrue(UserGroup group, License license);
     
     boolean existsByGroupAndLicenseAndActiveTrue(UserGroup group, License license);
     
+    // [licenseId, groupId, groupName] of the groups the licenses are actively assigned to
+    @Query("SELECT gl.license.id, gl.group.id, gl.group.name FROM GroupLicense gl " +
+           "WHERE gl.license.id IN :licenseIds AND gl.active = true ORDER BY gl.group.id")
+    List<Object[]> findActiveGroups(@Param("licenseIds") Collection<Long> licenseIds);
+    
+    @Query("SELECT gl.group.id, gl.allocatedSeats FROM GroupLicense gl WHERE gl.license.id = :licenseId AND gl.active = true")
+    List<Object[]> findActiveAllocationsByLicenseId(@Param("licenseId") Long licenseId);
+    
+    // [groupId, allocatedSeats, assignedAt] of every allocation of the license to the groups
+    @Query("SELECT gl.group.id, gl.allocatedSeats, gl.assignedAt FROM GroupLicense gl " +
+           "WHERE gl.license.id = :licenseId AND gl.group.id IN :groupIds")
+    List<Object[]> findAllocations(@Param("licenseId") Long licenseId, @Param("groupIds") Collection<Long> groupIds);
+    
+    @Query("SELECT gl.group.id, SUM(gl.allocatedSeats) FROM GroupLicense gl WHERE gl.license.id = :licenseId " +
+           "AND gl.active = true AND gl.group.id IN :groupIds GROUP BY gl.group.id")
+    List<Object[]> sumActiveAllocations(@Param("licenseId") Long licenseId, @Param("groupIds") Collection<Long> groupIds);
+    
     @Query("SELECT SUM(gl.allocatedSeats) FROM GroupLicense gl WHERE gl.license = :license AND gl.active = true")
     Integer sumAllocatedSeatsByLicense(@Param("license") License license);
 }
@@ -0,0 +1,35 @@
+package com.license.management.repository;
+
+import com.license.management.entity.GroupMonthlyCost;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface GroupMonthlyCostRepository extends JpaRepository<GroupMonthlyCost, Long> {
+    
+    // [periodStart, groupId, groupName, licenseId, softwareName, seatMonths, cost]; names are
+    // null once the group or license is deleted
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    @Query("SELECT c.periodStart, c.groupId, g.name, c.licenseId, l.softwareName, c.seatMonths, c.cost " +
+           "FROM GroupMonthlyCost c LEFT JOIN UserGroup g ON g.id = c.groupId " +
+           "LEFT JOIN License l ON l.id = c.licenseId " +
+           "WHERE c.periodStart >= :from AND c.periodStart <= :to ORDER BY c.periodStart, c.groupId, c.licenseId")
+    Stream<Object[]> streamCosts(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // [groupId, seatMonths, cost] per group for one month
+    @Query("SELECT c.groupId, SUM(c.seatMonths), SUM(c.cost) FROM GroupMonthlyCost c " +
+           "WHERE c.periodStart = :periodStart GROUP BY c.groupId ORDER BY c.groupId")
+    List<Object[]> sumByGroup(@Param("periodStart") LocalDate periodStart);
+}
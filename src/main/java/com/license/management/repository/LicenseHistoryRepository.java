@@ -1,11 +1,19 @@
 package com.license.management.repository;
 
 import com.license.management.entity.LicenseHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LicenseHistoryRepository extends JpaRepository<LicenseHistory, Long> {
@@ -21,4 +29,49 @@ public interface LicenseHistoryRepository extends JpaRepository<LicenseHistory,
     List<LicenseHistory> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
     
     List<LicenseHistory> findTop50ByOrderByTimestampDesc();
+    
+    // Entries after the given id, and those before it written since the given time: ids are
+    // taken when a row is inserted, so these may have committed after it
+    @Query("SELECT h FROM LicenseHistory h WHERE h.id > :id OR (h.id < :id AND h.timestamp >= :since) ORDER BY h.id")
+    List<LicenseHistory> findForReplay(@Param("id") Long id, @Param("since") LocalDateTime since, Pageable pageable);
+    
+    // Entries after the given id, for picking up history written on other nodes
+    @Query("SELECT h FROM LicenseHistory h WHERE h.id > :id ORDER BY h.id")
+    List<LicenseHistory> findAfter(@Param("id") Long id, Pageable pageable);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    Stream<LicenseHistory> streamByLicenseIdOrderByTimestampDesc(Long licenseId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    Stream<LicenseHistory> streamByUserIdOrderByTimestampDesc(Long userId);
+    
+    @Query("SELECT MAX(h.id) FROM LicenseHistory h")
+    Long findMaxId();
+    
+    @Query("SELECT MAX(h.id) FROM LicenseHistory h WHERE h.licenseId = :licenseId")
+    Long findMaxIdByLicenseId(@Param("licenseId") Long licenseId);
+    
+    @Query("SELECT h FROM LicenseHistory h WHERE h.licenseId = :licenseId AND h.id > :afterId " +
+           "AND h.timestamp <= :at AND h.actionType IN :types ORDER BY h.id")
+    List<LicenseHistory> findChangesAfter(@Param("licenseId") Long licenseId,
+                                          @Param("afterId") Long afterId,
+                                          @Param("at") LocalDateTime at,
+                                          @Param("types") Collection<LicenseHistory.ActionType> types);
+    
+    // [licenseId, tenantId] of licenses changed after sinceId with at least minChanges entries
+    // of the given types since their latest assignment snapshot
+    @Query("SELECT h.licenseId, h.tenantId FROM LicenseHistory h WHERE h.actionType IN :types " +
+           "AND h.licenseId IN (SELECT c.licenseId FROM LicenseHistory c WHERE c.id > :sinceId) " +
+           "AND h.id > COALESCE((SELECT MAX(s.lastHistoryId) FROM AssignmentSnapshot s " +
+           "WHERE s.licenseId = h.licenseId), 0) " +
+           "GROUP BY h.licenseId, h.tenantId HAVING COUNT(h) >= :minChanges")
+    List<Object[]> findLicensesDueForSnapshot(@Param("sinceId") Long sinceId,
+                                              @Param("types") Collection<LicenseHistory.ActionType> types,
+                                              @Param("minChanges") long minChanges);
 }
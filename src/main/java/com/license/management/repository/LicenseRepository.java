@@ -1,18 +1,29 @@
 package com.license.management.repository;
 
 import com.license.management.entity.License;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface LicenseRepository extends JpaRepository<License, Long> {
+public interface LicenseRepository extends NaturalIdRepository<License, Long>, LicenseSearchRepository {
     
-    Optional<License> findByLicenseKey(String licenseKey);
+    default Optional<License> findByLicenseKey(String licenseKey) {
+        return findByNaturalId("licenseKey", licenseKey);
+    }
     
     List<License> findBySoftwareName(String softwareName);
     
@@ -30,5 +41,82 @@ public interface LicenseRepository extends JpaRepository<License, Long> {
     @Query("SELECT l FROM License l WHERE l.usedSeats < l.totalSeats")
     List<License> findAvailableLicenses();
     
-    boolean existsByLicenseKey(String licenseKey);
+    // Deleted licenses keep their key until purged, so key checks include them
+    @Query(value = "SELECT COUNT(*) > 0 FROM licenses WHERE license_key = :licenseKey " +
+           "AND tenant_id = :#{T(com.license.management.config.TenantContext).getTenantId()}",
+           nativeQuery = true)
+    boolean existsByLicenseKey(@Param("licenseKey") String licenseKey);
+    
+    @Query(value = "SELECT license_key FROM licenses WHERE license_key IN :keys " +
+           "AND tenant_id = :#{T(com.license.management.config.TenantContext).getTenantId()}",
+           nativeQuery = true)
+    List<String> findExistingLicenseKeys(@Param("keys") Collection<String> keys);
+    
+    @Query("SELECT l.id, l.usedSeats, l.totalSeats FROM License l WHERE l.id IN :ids")
+    List<Object[]> findSeatUsage(@Param("ids") Collection<Long> ids);
+    
+    // [id, tenantId, softwareName, licenseKey, expirationDate] of active licenses expiring in
+    // [from, to) whose alert for the window has not reached the administrators for that
+    // expiration date; they are alerted last
+    @Query("SELECT l.id, l.tenantId, l.softwareName, l.licenseKey, l.expirationDate FROM License l " +
+           "WHERE l.expirationDate >= :from AND l.expirationDate < :to AND l.active = true AND NOT EXISTS (" +
+           "SELECT a.id FROM ExpiryAlert a WHERE a.licenseId = l.id AND a.windowDays = :windowDays " +
+           "AND a.expirationDate = l.expirationDate AND a.recipient = 'ADMIN') ORDER BY l.expirationDate, l.id")
+    List<Object[]> findDueForExpiryAlert(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                         @Param("windowDays") int windowDays, Pageable pageable);
+    
+    // Waits for in-flight seat changes, which update the license row, to commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM License l WHERE l.id = :id")
+    Optional<License> findByIdForUpdate(@Param("id") Long id);
+    
+    // Includes deleted licenses, whose keys stay taken until they are purged
+    @Query(value = "SELECT tenant_id, license_key FROM licenses", nativeQuery = true)
+    Stream<Object[]> streamAllTenantLicenseKeys();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    @Query("SELECT l FROM License l ORDER BY l.id")
+    Stream<License> streamAll();
+    
+    // [tenantId, id, softwareName, licenseKey, description] for building the search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT l.tenantId, l.id, l.softwareName, l.licenseKey, l.description FROM License l")
+    Stream<Object[]> streamSearchFields();
+    
+    // The same fields for one document, to refresh it after a change made on another node
+    @Query("SELECT l.tenantId, l.id, l.softwareName, l.licenseKey, l.description FROM License l WHERE l.id = :id")
+    List<Object[]> findSearchFields(@Param("id") Long id);
+    
+    // [id, softwareName, expirationDate, totalSeats, usedSeats], locked until the renewal commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l.id, l.softwareName, l.expirationDate, l.totalSeats, l.usedSeats FROM License l " +
+           "WHERE l.id IN :ids ORDER BY l.id")
+    List<Object[]> findRenewalStateForUpdate(@Param("ids") Collection<Long> ids);
+    
+    // Renewals only touch these columns, so assignments and concurrent seat counts are kept
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE License l SET l.expirationDate = :expirationDate, l.updatedAt = :now, " +
+           "l.version = l.version + 1 WHERE l.id IN :ids")
+    int renew(@Param("ids") Collection<Long> ids, @Param("expirationDate") LocalDateTime expirationDate,
+              @Param("now") LocalDateTime now);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE License l SET l.expirationDate = :expirationDate, l.totalSeats = :totalSeats, " +
+           "l.updatedAt = :now, l.version = l.version + 1 WHERE l.id IN :ids")
+    int renewWithSeats(@Param("ids") Collection<Long> ids, @Param("expirationDate") LocalDateTime expirationDate,
+                       @Param("totalSeats") int totalSeats, @Param("now") LocalDateTime now);
+    
+    // Takes one seat only if one is free, so concurrent checkouts cannot oversubscribe
+    @Modifying
+    @Query("UPDATE License l SET l.usedSeats = l.usedSeats + 1, l.updatedAt = :now, l.version = l.version + 1 " +
+           "WHERE l.id = :id AND l.active = true AND l.usedSeats < l.totalSeats")
+    int takeSeat(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE License l SET l.usedSeats = CASE WHEN l.usedSeats > :seats THEN l.usedSeats - :seats ELSE 0 END, " +
+           "l.updatedAt = :now, l.version = l.version + 1 WHERE l.id = :id")
+    int releaseSeats(@Param("id") Long id, @Param("seats") int seats, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,11 @@
+package com.license.management.repository;
+
+import com.license.management.dto.LicenseFilter;
+import com.license.management.entity.License;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface LicenseSearchRepository {
+    
+    Page<License> search(LicenseFilter filter, Pageable pageable);
+}
@@ -0,0 +1,133 @@
+package com.license.management.repository;
+
+import com.license.management.dto.LicenseFilter;
+import com.license.management.entity.License;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles a {@link LicenseFilter} into a single JPQL query. The query text depends only on
+ * which filters are set and on the sort, not on their values, so each shape is compiled once
+ * and Hibernate's query plan cache, which is keyed by query text, reuses its SQL translation.
+ * Criteria queries would be translated again on every call.
+ */
+public class LicenseSearchRepositoryImpl implements LicenseSearchRepository {
+    
+    // Sortable properties and the expressions they sort by
+    static final Map<String, String> SORTABLE = Map.of(
+        "id", "l.id",
+        "softwareName", "l.softwareName",
+        "expirationDate", "l.expirationDate",
+        "totalSeats", "l.totalSeats",
+        "usedSeats", "l.usedSeats",
+        "availableSeats", "(l.totalSeats - l.usedSeats)",
+        "utilization", "(l.usedSeats * 1.0 / l.totalSeats)",
+        "createdAt", "l.createdAt",
+        "updatedAt", "l.updatedAt");
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Bounded by the number of filter and sort combinations
+    private final Map<String, CompiledQuery> compiledQueries = new ConcurrentHashMap<>();
+    
+    @Override
+    public Page<License> search(LicenseFilter filter, Pageable pageable) {
+        List<Condition> conditions = conditions(filter);
+        CompiledQuery query = compile(conditions, pageable.getSort());
+        
+        TypedQuery<License> select = entityManager.createQuery(query.select(), License.class);
+        conditions.forEach(condition -> select.setParameter(condition.name(), condition.value()));
+        if (pageable.isPaged()) {
+            select.setFirstResult((int) pageable.getOffset());
+            select.setMaxResults(pageable.getPageSize());
+        }
+        // The count is skipped when the page shows the total already
+        return PageableExecutionUtils.getPage(select.getResultList(), pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery(query.count(), Long.class);
+            conditions.forEach(condition -> count.setParameter(condition.name(), condition.value()));
+            return count.getSingleResult();
+        });
+    }
+    
+    CompiledQuery compile(List<Condition> conditions, Sort sort) {
+        StringBuilder shape = new StringBuilder();
+        conditions.forEach(condition -> shape.append(condition.name()).append(','));
+        shape.append('|').append(sort);
+        return compiledQueries.computeIfAbsent(shape.toString(), key -> {
+            StringBuilder where = new StringBuilder();
+            for (Condition condition : conditions) {
+                where.append(where.isEmpty() ? " WHERE " : " AND ").append(condition.clause());
+            }
+            StringBuilder orderBy = new StringBuilder();
+            for (Sort.Order order : sort) {
+                String expression = SORTABLE.get(order.getProperty());
+                if (expression == null) {
+                    throw new RuntimeException("Cannot sort licenses by: " + order.getProperty());
+                }
+                orderBy.append(orderBy.isEmpty() ? " ORDER BY " : ", ")
+                    .append(expression).append(order.isAscending() ? " ASC" : " DESC");
+            }
+            // Ties are broken by id, so pages neither overlap nor skip licenses
+            orderBy.append(orderBy.isEmpty() ? " ORDER BY " : ", ").append("l.id ASC");
+            return new CompiledQuery("SELECT l FROM License l" + where + orderBy,
+                "SELECT COUNT(l) FROM License l" + where);
+        });
+    }
+    
+    static List<Condition> conditions(LicenseFilter filter) {
+        List<Condition> conditions = new ArrayList<>();
+        if (filter.getActive() != null) {
+            conditions.add(new Condition("active", "l.active = :active", filter.getActive()));
+        }
+        if (filter.getSoftwareName() != null && !filter.getSoftwareName().isBlank()) {
+            conditions.add(new Condition("softwareName", "l.softwareName LIKE :softwareName ESCAPE '\\'",
+                escapeLike(filter.getSoftwareName()) + "%"));
+        }
+        if (filter.getExpiresFrom() != null) {
+            conditions.add(new Condition("expiresFrom", "l.expirationDate >= :expiresFrom", filter.getExpiresFrom()));
+        }
+        if (filter.getExpiresTo() != null) {
+            conditions.add(new Condition("expiresTo", "l.expirationDate < :expiresTo", filter.getExpiresTo()));
+        }
+        if (filter.getMinUtilization() != null) {
+            conditions.add(new Condition("minUtilization", "l.usedSeats * 100.0 / l.totalSeats >= :minUtilization",
+                filter.getMinUtilization()));
+        }
+        if (filter.getMaxUtilization() != null) {
+            conditions.add(new Condition("maxUtilization", "l.usedSeats * 100.0 / l.totalSeats <= :maxUtilization",
+                filter.getMaxUtilization()));
+        }
+        if (filter.getMinTotalSeats() != null) {
+            conditions.add(new Condition("minTotalSeats", "l.totalSeats >= :minTotalSeats", filter.getMinTotalSeats()));
+        }
+        if (filter.getMaxTotalSeats() != null) {
+            conditions.add(new Condition("maxTotalSeats", "l.totalSeats <= :maxTotalSeats", filter.getMaxTotalSeats()));
+        }
+        if (filter.getMinAvailableSeats() != null) {
+            conditions.add(new Condition("minAvailableSeats", "l.totalSeats - l.usedSeats >= :minAvailableSeats",
+                filter.getMinAvailableSeats()));
+        }
+        return conditions;
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    record Condition(String name, String clause, Object value) {
+    }
+    
+    record CompiledQuery(String select, String count) {
+    }
+}
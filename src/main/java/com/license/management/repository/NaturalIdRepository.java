@@ -0,0 +1,21 @@
+package com.license.management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.Optional;
+
+/**
+ * Repository of an entity whose natural id is its tenant id plus one attribute, unique per
+ * tenant like a username. Implemented by {@link TenantAwareJpaRepository}.
+ */
+@NoRepositoryBean
+public interface NaturalIdRepository<T, ID> extends JpaRepository<T, ID> {
+    
+    /**
+     * Looks up the entity of the current tenant whose natural-id attribute has the given
+     * value. The persistence context and the natural-id cache are checked before querying,
+     * so repeated lookups of the same value need no statement.
+     */
+    Optional<T> findByNaturalId(String attribute, Object value);
+}
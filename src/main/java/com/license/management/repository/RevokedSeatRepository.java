@@ -0,0 +1,17 @@
+package com.license.management.repository;
+
+import com.license.management.entity.RevokedSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedSeatRepository extends JpaRepository<RevokedSeat, Long> {
+    
+    @Query("SELECT r.seatId FROM RevokedSeat r WHERE r.revokedAt >= :since")
+    List<Long> findSeatIdsRevokedSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,18 @@
+package com.license.management.repository;
+
+import com.license.management.entity.SeatLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface SeatLeaseRepository extends JpaRepository<SeatLease, String> {
+    
+    @Modifying
+    @Query("DELETE FROM SeatLease s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+}
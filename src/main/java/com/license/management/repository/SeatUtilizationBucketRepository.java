@@ -0,0 +1,32 @@
+package com.license.management.repository;
+
+import com.license.management.entity.SeatUtilizationBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SeatUtilizationBucketRepository extends JpaRepository<SeatUtilizationBucket, Long> {
+    
+    @Query("SELECT b FROM SeatUtilizationBucket b WHERE b.licenseId = :licenseId AND b.resolution = :resolution " +
+           "AND b.bucketStart >= :from AND b.bucketStart < :to ORDER BY b.bucketStart")
+    List<SeatUtilizationBucket> findRange(@Param("licenseId") Long licenseId,
+                                          @Param("resolution") SeatUtilizationBucket.Resolution resolution,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+    
+    // The bucket in effect at the start of a range
+    Optional<SeatUtilizationBucket> findFirstByLicenseIdAndResolutionAndBucketStartLessThanOrderByBucketStartDesc(
+        Long licenseId, SeatUtilizationBucket.Resolution resolution, LocalDateTime before);
+    
+    @Modifying
+    @Query("DELETE FROM SeatUtilizationBucket b WHERE b.resolution = :resolution AND b.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") SeatUtilizationBucket.Resolution resolution,
+                        @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,30 @@
+package com.license.management.repository;
+
+import com.license.management.entity.SeatWaitlistEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SeatWaitlistRepository extends JpaRepository<SeatWaitlistEntry, Long> {
+    
+    List<SeatWaitlistEntry> findByLicenseIdAndStatusOrderByIdAsc(Long licenseId, SeatWaitlistEntry.Status status);
+    
+    List<SeatWaitlistEntry> findByLicenseIdAndStatusOrderByIdAsc(Long licenseId, SeatWaitlistEntry.Status status,
+                                                                 Pageable pageable);
+    
+    boolean existsByLicenseIdAndStatus(Long licenseId, SeatWaitlistEntry.Status status);
+    
+    boolean existsByLicenseIdAndUserIdAndStatus(Long licenseId, Long userId, SeatWaitlistEntry.Status status);
+    
+    long countByLicenseIdAndStatusAndIdLessThan(Long licenseId, SeatWaitlistEntry.Status status, Long id);
+    
+    @Query("SELECT DISTINCT w.licenseId FROM SeatWaitlistEntry w WHERE w.licenseId IN :licenseIds AND w.status = :status")
+    List<Long> findLicenseIdsWithStatus(@Param("licenseIds") Collection<Long> licenseIds,
+                                        @Param("status") SeatWaitlistEntry.Status status);
+}
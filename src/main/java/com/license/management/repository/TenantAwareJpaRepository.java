@@ -0,0 +1,83 @@
+package com.license.management.repository;
+
+import com.license.management.config.TenantContext;
+import com.license.management.entity.SoftDeletable;
+import com.license.management.entity.TenantOwned;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Base class for every repository. Hibernate applies the tenant filter to queries but not to
+ * loads by id, so {@link #findById} drops entities that belong to another tenant. Loads served
+ * by the second-level cache skip the deleted-row restriction as well, so it also drops
+ * deleted entities. The same goes for {@link #findByNaturalId}, and for every other method
+ * taking ids, which all go through {@link #findById} or filter the same way.
+ */
+public class TenantAwareJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> {
+    
+    // Leads every natural id, as the other attribute is only unique per tenant
+    private static final String TENANT_ID = "tenantId";
+    
+    private final EntityManager entityManager;
+    
+    public TenantAwareJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public Optional<T> findById(ID id) {
+        return super.findById(id).filter(TenantAwareJpaRepository::isVisible);
+    }
+    
+    @Override
+    public boolean existsById(ID id) {
+        return findById(id).isPresent();
+    }
+    
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        return super.findAllById(ids).stream()
+            .filter(TenantAwareJpaRepository::isVisible)
+            .toList();
+    }
+    
+    // Loads the entity rather than handing out a proxy, which would be initialized unchecked
+    @Override
+    public T getReferenceById(ID id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException(
+            "Unable to find " + getDomainClass().getName() + " with id " + id));
+    }
+    
+    @Override
+    public void deleteById(ID id) {
+        findById(id).ifPresent(this::delete);
+    }
+    
+    // Backs NaturalIdRepository
+    public Optional<T> findByNaturalId(String attribute, Object value) {
+        return entityManager.unwrap(Session.class)
+            .byNaturalId(getDomainClass())
+            .using(TENANT_ID, TenantContext.getTenantId())
+            .using(attribute, value)
+            .loadOptional()
+            .filter(TenantAwareJpaRepository::isVisible);
+    }
+    
+    private static boolean isVisible(Object entity) {
+        if (entity instanceof SoftDeletable deletable && deletable.getDeletedAt() != null) {
+            return false;
+        }
+        if (!(entity instanceof TenantOwned owned)) {
+            return true;
+        }
+        String tenantId = TenantContext.getTenantId();
+        return TenantContext.ALL_TENANTS.equals(tenantId) || tenantId.equals(owned.getTenantId());
+    }
+}
@@ -1,20 +1,40 @@
 package com.license.management.repository;
 
 import com.license.management.entity.UserGroup;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserGroupRepository extends JpaRepository<UserGroup, Long> {
+public interface UserGroupRepository extends NaturalIdRepository<UserGroup, Long> {
     
-    Optional<UserGroup> findByName(String name);
+    default Optional<UserGroup> findByName(String name) {
+        return findByNaturalId("name", name);
+    }
     
     List<UserGroup> findByActiveTrue();
     
     List<UserGroup> findByActiveFalse();
     
-    boolean existsByName(String name);
+    // Deleted groups keep their name until purged, so the check includes them
+    @Query(value = "SELECT COUNT(*) > 0 FROM user_groups WHERE name = :name " +
+           "AND tenant_id = :#{T(com.license.management.config.TenantContext).getTenantId()}",
+           nativeQuery = true)
+    boolean existsByName(@Param("name") String name);
+    
+    // [tenantId, id, name, description] for building the search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT g.tenantId, g.id, g.name, g.description FROM UserGroup g")
+    Stream<Object[]> streamSearchFields();
+    
+    // The same fields for one document, to refresh it after a change made on another node
+    @Query("SELECT g.tenantId, g.id, g.name, g.description FROM UserGroup g WHERE g.id = :id")
+    List<Object[]> findSearchFields(@Param("id") Long id);
 }
@@ -3,9 +3,15 @@ package com.license.management.repository;
 import com.license.management.entity.UserLicense;
 import com.license.management.entity.User;
 import com.license.management.entity.License;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,8 +22,13 @@ public interface UserLicenseRepository extends JpaRepository<UserLicense, Long>
     
     List<UserLicense> findByLicense(License license);
     
-    List<UserLicense> findByUserAndActiveTrue(User user);
+    // Assignments of deleted licenses stay active until purged, so they are filtered out here
+    @EntityGraph("UserLicense.userAndLicense")
+    @Query("SELECT ul FROM UserLicense ul WHERE ul.user = :user AND ul.active = true " +
+           "AND ul.license.deletedAt IS NULL")
+    List<UserLicense> findByUserAndActiveTrue(@Param("user") User user);
     
+    @EntityGraph("UserLicense.userAndLicense")
     List<UserLicense> findByLicenseAndActiveTrue(License license);
     
     Optional<UserLicense> findByUserAndLicenseAndActiveTrue(User user, License license);
@@ -25,4 +36,52 @@ public interface UserLicenseRepository extends JpaRepository<UserLicense, Long>
     boolean existsByUserAndLicenseAndActiveTrue(User user, License license);
     
     long countByLicenseAndActiveTrue(License license);
+    
+    @Query("SELECT ul.user.id FROM UserLicense ul WHERE ul.license.id = :licenseId AND ul.active = true")
+    List<Long> findActiveUserIdsByLicenseId(@Param("licenseId") Long licenseId);
+    
+    @Query("SELECT ul.id FROM UserLicense ul WHERE ul.license.id = :licenseId AND ul.active = true")
+    List<Long> findActiveIdsByLicenseId(@Param("licenseId") Long licenseId);
+    
+    // [id, licenseId, userId, username] of the assignments that are still active
+    @Query("SELECT ul.id, ul.license.id, ul.user.id, ul.user.username FROM UserLicense ul " +
+           "WHERE ul.id IN :ids AND ul.active = true")
+    List<Object[]> findActiveAssignmentSummaries(@Param("ids") Collection<Long> ids);
+    
+    // [id, tenantId] of active assignments not used since the cutoff (or never, if assigned before it);
+    // a deleted license's assignments are the purge job's to remove, and freeing its seats would be moot
+    @Query("SELECT ul.id, ul.tenantId FROM UserLicense ul WHERE ul.active = true AND ul.license.deletedAt IS NULL " +
+           "AND (ul.lastUsedAt < :cutoff OR (ul.lastUsedAt IS NULL AND ul.assignedAt < :cutoff)) ORDER BY ul.id")
+    List<Object[]> findIdleAssignments(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    // [userId, licenseId] of the active assignments among the users and licenses
+    @Query("SELECT ul.user.id, ul.license.id FROM UserLicense ul WHERE ul.user.id IN :userIds " +
+           "AND ul.license.id IN :licenseIds AND ul.active = true")
+    List<Object[]> findActivePairs(@Param("userIds") Collection<Long> userIds,
+                                   @Param("licenseIds") Collection<Long> licenseIds);
+    
+    @Query("SELECT DISTINCT ul.license.id FROM UserLicense ul WHERE ul.user.id = :userId AND ul.active = true")
+    List<Long> findActiveLicenseIdsByUserId(@Param("userId") Long userId);
+    
+    // Leaves out deleted licenses, whose assignments the purge job removes anyway
+    @Query("SELECT ul.id FROM UserLicense ul WHERE ul.user.id IN :userIds AND ul.active = true " +
+           "AND ul.license.deletedAt IS NULL")
+    List<Long> findActiveIdsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    // [groupId, userId] of active holders of the license who belong to the groups
+    @Query("SELECT g.id, ul.user.id FROM UserLicense ul JOIN ul.user.groups g " +
+           "WHERE ul.license.id = :licenseId AND ul.active = true AND g.id IN :groupIds")
+    List<Object[]> findGroupHolders(@Param("licenseId") Long licenseId, @Param("groupIds") Collection<Long> groupIds);
+    
+    @Query("SELECT COUNT(ul) FROM UserLicense ul WHERE ul.license.id = :licenseId AND ul.active = true " +
+           "AND ul.user.groups IS EMPTY")
+    long countUngroupedHolders(@Param("licenseId") Long licenseId);
+    
+    // [licenseId, userId, username, email] of the active direct holders of the licenses
+    @Query("SELECT ul.license.id, ul.user.id, ul.user.username, ul.user.email FROM UserLicense ul " +
+           "WHERE ul.license.id IN :licenseIds AND ul.active = true ORDER BY ul.user.id")
+    List<Object[]> findActiveHolders(@Param("licenseIds") Collection<Long> licenseIds);
+    
+    @Query("SELECT ul.id FROM UserLicense ul WHERE ul.revokedAt >= :since")
+    List<Long> findIdsRevokedSince(@Param("since") LocalDateTime since);
 }
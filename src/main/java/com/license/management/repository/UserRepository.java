@@ -1,24 +1,79 @@
 package com.license.management.repository;
 
 import com.license.management.entity.User;
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends NaturalIdRepository<User, Long> {
     
-    Optional<User> findByUsername(String username);
+    default Optional<User> findByUsername(String username) {
+        return findByNaturalId("username", username);
+    }
     
+    // An entity has a single natural id, so email lookups go through the query cache instead
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     
+    @EntityGraph("User.groups")
     List<User> findByActiveTrue();
     
+    @EntityGraph("User.groups")
     List<User> findByActiveFalse();
     
-    boolean existsByUsername(String username);
+    // Deleted users keep their username and email until purged, so these checks include them
+    @Query(value = "SELECT COUNT(*) > 0 FROM users WHERE username = :username " +
+           "AND tenant_id = :#{T(com.license.management.config.TenantContext).getTenantId()}",
+           nativeQuery = true)
+    boolean existsByUsername(@Param("username") String username);
     
-    boolean existsByEmail(String email);
+    @Query(value = "SELECT COUNT(*) > 0 FROM users WHERE email = :email " +
+           "AND tenant_id = :#{T(com.license.management.config.TenantContext).getTenantId()}",
+           nativeQuery = true)
+    boolean existsByEmail(@Param("email") String email);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500")
+    })
+    @EntityGraph("User.groups")
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+    
+    // [tenantId, id, username, email, fullName] for building the search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.tenantId, u.id, u.username, u.email, u.fullName FROM User u")
+    Stream<Object[]> streamSearchFields();
+    
+    // The same fields for one document, to refresh it after a change made on another node
+    @Query("SELECT u.tenantId, u.id, u.username, u.email, u.fullName FROM User u WHERE u.id = :id")
+    List<Object[]> findSearchFields(@Param("id") Long id);
+    
+    // [userId, groupId] of the users' group memberships; groupId is null for users in no group
+    @Query("SELECT u.id, g.id FROM User u LEFT JOIN u.groups g WHERE u.id IN :userIds")
+    List<Object[]> findGroupMemberships(@Param("userIds") Collection<Long> userIds);
+    
+    // [id, username, email, fullName, active], locked until the activation change commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id, u.username, u.email, u.fullName, u.active FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<Object[]> findActivationStateForUpdate(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.active = :active, u.updatedAt = :now WHERE u.id IN :ids")
+    int setActive(@Param("ids") Collection<Long> ids, @Param("active") boolean active,
+                  @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,198 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.AssignmentsAsOf;
+import com.license.management.entity.AssignmentSnapshot;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.entity.LicenseHistory.ActionType;
+import com.license.management.repository.AssignmentSnapshotRepository;
+import com.license.management.repository.GroupLicenseRepository;
+import com.license.management.repository.LicenseHistoryRepository;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserLicenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers "who held this license at time T" without replaying its whole history. A scheduled
+ * job snapshots the active assignments of licenses with enough assignment changes since their
+ * last snapshot; a query loads the latest snapshot taken before T and replays only the
+ * history entries written after it.
+ */
+@Service
+public class AssignmentSnapshotService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AssignmentSnapshotService.class);
+    
+    static final Set<ActionType> ASSIGNMENT_CHANGES = EnumSet.of(
+        ActionType.LICENSE_ASSIGNED_TO_USER,
+        ActionType.LICENSE_REVOKED_FROM_USER,
+        ActionType.LICENSE_ASSIGNED_TO_GROUP,
+        ActionType.LICENSE_REVOKED_FROM_GROUP,
+        ActionType.LICENSE_DELETED);
+    
+    @Autowired
+    private AssignmentSnapshotRepository snapshotRepository;
+    
+    @Autowired
+    private LicenseHistoryRepository historyRepository;
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private GroupLicenseRepository groupLicenseRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Upper bound on the entries a query replays, plus whatever arrives between two runs
+    @Value("${license.assignments.snapshot-min-changes:200}")
+    private long snapshotMinChanges = 200;
+    
+    // History before this id has been checked for due snapshots
+    private volatile long scannedThrough;
+    
+    // ===== Snapshots =====
+    
+    @Scheduled(fixedDelayString = "${license.assignments.snapshot-interval-ms:3600000}",
+               initialDelayString = "${license.assignments.snapshot-interval-ms:3600000}")
+    public void snapshotChangedLicenses() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long[] scanUpTo = new long[1];
+        List<Object[]> due = TenantContext.callAs(TenantContext.ALL_TENANTS, () -> transactionTemplate.execute(status -> {
+            Long maxId = historyRepository.findMaxId();
+            scanUpTo[0] = maxId != null ? maxId : 0;
+            return historyRepository.findLicensesDueForSnapshot(scannedThrough, ASSIGNMENT_CHANGES, snapshotMinChanges);
+        }));
+        int failed = 0;
+        for (Object[] row : due) {
+            Long licenseId = (Long) row[0];
+            String tenantId = (String) row[1];
+            try {
+                TenantContext.runAs(tenantId, () -> transactionTemplate.executeWithoutResult(
+                    status -> takeSnapshot(licenseId)));
+            } catch (RuntimeException e) {
+                failed++;
+                log.warn("Failed to snapshot assignments of license {}", licenseId, e);
+            }
+        }
+        // Retry failed licenses on the next run; they only stay due if scanned again
+        if (failed == 0) {
+            scannedThrough = scanUpTo[0];
+        }
+    }
+    
+    /**
+     * Records the current assignments of a license. The license row is locked first so that
+     * the snapshot and its lastHistoryId agree with every committed assignment change.
+     */
+    public AssignmentSnapshot takeSnapshot(Long licenseId) {
+        AssignmentSnapshot snapshot = new AssignmentSnapshot();
+        snapshot.setLicenseId(licenseId);
+        // A deleted license still gets an (empty) snapshot, which ends its replay
+        if (licenseRepository.findByIdForUpdate(licenseId).isPresent()) {
+            for (Long userId : userLicenseRepository.findActiveUserIdsByLicenseId(licenseId)) {
+                snapshot.getHolders().add(new AssignmentSnapshot.Holder(userId, null, null));
+            }
+            for (Object[] allocation : groupLicenseRepository.findActiveAllocationsByLicenseId(licenseId)) {
+                snapshot.getHolders().add(new AssignmentSnapshot.Holder(null, (Long) allocation[0],
+                    (Integer) allocation[1]));
+            }
+        }
+        Long lastHistoryId = historyRepository.findMaxIdByLicenseId(licenseId);
+        snapshot.setLastHistoryId(lastHistoryId != null ? lastHistoryId : 0L);
+        return snapshotRepository.save(snapshot);
+    }
+    
+    // ===== Queries =====
+    
+    @Transactional(readOnly = true)
+    public AssignmentsAsOf getAssignmentsAsOf(Long licenseId, LocalDateTime at) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Map<Long, Integer> groups = new LinkedHashMap<>();
+        AssignmentsAsOf result = new AssignmentsAsOf();
+        result.setLicenseId(licenseId);
+        result.setAt(at);
+        
+        long afterId = 0;
+        AssignmentSnapshot snapshot = snapshotRepository
+            .findFirstByLicenseIdAndTakenAtLessThanEqualOrderByLastHistoryIdDesc(licenseId, at)
+            .orElse(null);
+        if (snapshot != null) {
+            afterId = snapshot.getLastHistoryId();
+            result.setSnapshotTakenAt(snapshot.getTakenAt());
+            for (AssignmentSnapshot.Holder holder : snapshot.getHolders()) {
+                if (holder.getUserId() != null) {
+                    userIds.add(holder.getUserId());
+                } else {
+                    groups.put(holder.getGroupId(), holder.getAllocatedSeats());
+                }
+            }
+        }
+        
+        List<LicenseHistory> changes = historyRepository.findChangesAfter(licenseId, afterId, at, ASSIGNMENT_CHANGES);
+        Map<Long, LocalDateTime> groupsAssignedAt = new HashMap<>();
+        for (LicenseHistory change : changes) {
+            switch (change.getActionType()) {
+                case LICENSE_ASSIGNED_TO_USER -> userIds.add(change.getUserId());
+                case LICENSE_REVOKED_FROM_USER -> userIds.remove(change.getUserId());
+                case LICENSE_ASSIGNED_TO_GROUP -> {
+                    groups.put(change.getGroupId(), null);
+                    groupsAssignedAt.put(change.getGroupId(), change.getTimestamp());
+                }
+                case LICENSE_REVOKED_FROM_GROUP -> {
+                    groups.remove(change.getGroupId());
+                    groupsAssignedAt.remove(change.getGroupId());
+                }
+                case LICENSE_DELETED -> {
+                    userIds.clear();
+                    groups.clear();
+                    groupsAssignedAt.clear();
+                }
+                default -> { }
+            }
+        }
+        result.setReplayedEntries(changes.size());
+        
+        // History does not record allocations, so take them from the group's latest
+        // assignment row made up to the replayed one
+        if (!groupsAssignedAt.isEmpty()) {
+            Map<Long, LocalDateTime> matched = new HashMap<>();
+            for (Object[] row : groupLicenseRepository.findAllocations(licenseId, groupsAssignedAt.keySet())) {
+                Long groupId = (Long) row[0];
+                LocalDateTime assignedAt = (LocalDateTime) row[2];
+                LocalDateTime limit = groupsAssignedAt.get(groupId);
+                LocalDateTime best = matched.get(groupId);
+                if (!assignedAt.isAfter(limit) && (best == null || assignedAt.isAfter(best))) {
+                    matched.put(groupId, assignedAt);
+                    groups.put(groupId, (Integer) row[1]);
+                }
+            }
+        }
+        
+        result.setUserIds(new ArrayList<>(userIds));
+        groups.forEach((groupId, seats) -> result.getGroups().add(new AssignmentsAsOf.GroupHolding(groupId, seats)));
+        return result;
+    }
+}
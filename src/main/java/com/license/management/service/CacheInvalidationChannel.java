@@ -0,0 +1,44 @@
+package com.license.management.service;
+
+import com.license.management.dto.CacheInvalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries second-level cache invalidations between the nodes of a deployment. Delivery may
+ * be best effort, but a channel that can lose invalidations should notice the loss and hand
+ * its listeners an invalidation of every region instead; an undetected loss leaves a stale
+ * entry on the other nodes until it expires after license.cache.time-to-live. Writes based
+ * on such an entry still fail on the entity's version.
+ */
+public interface CacheInvalidationChannel {
+    
+    /**
+     * Sends an invalidation to the other nodes. Called while Hibernate completes a
+     * transaction, so it must not block.
+     */
+    void publish(CacheInvalidation invalidation);
+    
+    /**
+     * Registers the listener for invalidations received from other nodes.
+     */
+    void subscribe(Consumer<CacheInvalidation> listener);
+    
+    /**
+     * Whether the channel connects this node to others. Without one, nothing this node
+     * derives from its own cache, such as table versions, covers writes made elsewhere.
+     */
+    default boolean isCrossNode() {
+        return false;
+    }
+    
+    /**
+     * Whether every write to the database reaches this node, either because it is the only
+     * node or because the channel connects it to the others. Only then is what the node
+     * derives from its own writes and the invalidations it receives, such as the license key
+     * index, complete.
+     */
+    default boolean seesAllWrites() {
+        return isCrossNode();
+    }
+}
@@ -0,0 +1,332 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.entity.GroupCostRate;
+import com.license.management.entity.License;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.event.LicenseHistoryEvent;
+import com.license.management.repository.GroupCostRateRepository;
+import com.license.management.repository.GroupLicenseRepository;
+import com.license.management.repository.GroupMonthlyCostRepository;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserLicenseRepository;
+import com.license.management.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Monthly license cost per group, maintained incrementally. Every assignment change re-rates
+ * only the (group, license) pairs it touches: the group's allocation plus its share of the
+ * license's direct holders, where a user in several groups is split evenly between them.
+ * Before a rate changes, its cost since the last accrual is added to the monthly aggregates,
+ * so reports read finished totals instead of joining assignments, memberships and prices.
+ */
+@Service
+public class ChargebackService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ChargebackService.class);
+    
+    private static final String INCREMENT_SQL =
+        "UPDATE group_monthly_costs SET seat_months = seat_months + ?, cost = cost + ? " +
+        "WHERE period_start = ? AND group_id = ? AND license_id = ?";
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO group_monthly_costs (tenant_id, period_start, group_id, license_id, seat_months, cost) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    // Users bound per group membership lookup
+    private static final int MEMBERSHIP_CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private GroupCostRateRepository rateRepository;
+    
+    @Autowired
+    private GroupMonthlyCostRepository monthlyCostRepository;
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private GroupLicenseRepository groupLicenseRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    /**
+     * Runs synchronously inside the transaction that wrote the history entries, so costs and
+     * assignments commit together.
+     */
+    @EventListener
+    public void onHistory(LicenseHistoryEvent event) {
+        Map<Long, Set<Long>> userGroups = chargedGroups(event.getEntries().stream()
+            .filter(entry -> entry.getUserId() != null && isUserAssignment(entry.getActionType()))
+            .map(LicenseHistory::getUserId)
+            .toList());
+        Map<Long, Set<Long>> groupsByLicense = new LinkedHashMap<>();
+        Set<Long> deleted = new HashSet<>();
+        for (LicenseHistory entry : event.getEntries()) {
+            Long licenseId = entry.getLicenseId();
+            switch (entry.getActionType()) {
+                case LICENSE_ASSIGNED_TO_USER, LICENSE_REVOKED_FROM_USER -> groupsByLicense
+                    .computeIfAbsent(licenseId, id -> new LinkedHashSet<>())
+                    .addAll(userGroups.getOrDefault(entry.getUserId(), Set.of()));
+                case LICENSE_ASSIGNED_TO_GROUP, LICENSE_REVOKED_FROM_GROUP -> groupsByLicense
+                    .computeIfAbsent(licenseId, id -> new LinkedHashSet<>())
+                    .add(entry.getGroupId());
+                // The price may have changed; every current holder is re-rated, which also
+                // starts charging assignments made before the license had rates
+                case LICENSE_UPDATED -> {
+                    Set<Long> groupIds = groupsByLicense.computeIfAbsent(licenseId, id -> new LinkedHashSet<>());
+                    groupIds.addAll(rateRepository.findGroupIdsByLicenseId(licenseId));
+                    groupIds.addAll(holderGroups(licenseId));
+                }
+                // The license is about to go with its assignments
+                case LICENSE_DELETED -> {
+                    groupsByLicense.computeIfAbsent(licenseId, id -> new LinkedHashSet<>())
+                        .addAll(rateRepository.findGroupIdsByLicenseId(licenseId));
+                    deleted.add(licenseId);
+                }
+                default -> { }
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        groupsByLicense.forEach((licenseId, groupIds) -> rerate(licenseId, groupIds, deleted.contains(licenseId), now));
+    }
+    
+    /**
+     * Runs a change to a user's group memberships and re-rates the pairs of the user's
+     * licenses with the groups the user belonged to before or after.
+     */
+    @Transactional
+    public void rerateUserChange(Long userId, Runnable change) {
+        List<Long> licenseIds = userLicenseRepository.findActiveLicenseIdsByUserId(userId);
+        Set<Long> groupIds = new LinkedHashSet<>(chargedGroups(List.of(userId)).getOrDefault(userId, Set.of()));
+        change.run();
+        groupIds.addAll(chargedGroups(List.of(userId)).getOrDefault(userId, Set.of()));
+        LocalDateTime now = LocalDateTime.now();
+        for (Long licenseId : licenseIds) {
+            rerate(licenseId, groupIds, false, now);
+        }
+    }
+    
+    /**
+     * Runs the deletion of a group, which revokes its allocations, and closes its rates.
+     */
+    @Transactional
+    public void rerateGroupChange(Long groupId, Runnable change) {
+        List<Long> licenseIds = rateRepository.findLicenseIdsByGroupId(groupId);
+        change.run();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long licenseId : licenseIds) {
+            rerate(licenseId, Set.of(groupId), false, now);
+        }
+    }
+    
+    // ===== Rating =====
+    
+    private void rerate(Long licenseId, Set<Long> groupIds, boolean closing, LocalDateTime now) {
+        if (groupIds.isEmpty()) {
+            return;
+        }
+        // Changes of one license take turns, so two of them cannot both create a missing rate
+        BigDecimal price = licenseRepository.findByIdForUpdate(licenseId)
+            .map(License::getPrice)
+            .orElse(null);
+        Map<Long, GroupCostRate> rates = new HashMap<>();
+        for (GroupCostRate rate : rateRepository.findForUpdate(licenseId, groupIds)) {
+            rates.put(rate.getGroupId(), rate);
+        }
+        Map<Long, BigDecimal> seats = closing ? Map.of() : chargedSeats(licenseId, groupIds);
+        for (Long groupId : groupIds) {
+            GroupCostRate rate = rates.get(groupId);
+            if (rate != null) {
+                accrue(rate, now);
+            }
+            BigDecimal groupSeats = seats.getOrDefault(groupId, BigDecimal.ZERO);
+            if (groupSeats.signum() == 0) {
+                if (rate != null) {
+                    rateRepository.delete(rate);
+                }
+                continue;
+            }
+            if (rate == null) {
+                rate = new GroupCostRate();
+                rate.setGroupId(groupId);
+                rate.setLicenseId(licenseId);
+                rate.setAccruedThrough(now);
+            }
+            rate.setSeats(groupSeats);
+            rate.setUnitPrice(price != null ? price : BigDecimal.ZERO);
+            rateRepository.save(rate);
+        }
+    }
+    
+    private Map<Long, BigDecimal> chargedSeats(Long licenseId, Set<Long> groupIds) {
+        Map<Long, BigDecimal> seats = new HashMap<>();
+        Set<Long> realGroups = new HashSet<>(groupIds);
+        realGroups.remove(GroupCostRate.UNGROUPED);
+        if (!realGroups.isEmpty()) {
+            for (Object[] allocation : groupLicenseRepository.sumActiveAllocations(licenseId, realGroups)) {
+                seats.merge((Long) allocation[0], BigDecimal.valueOf(((Number) allocation[1]).longValue()), BigDecimal::add);
+            }
+            List<Object[]> holders = userLicenseRepository.findGroupHolders(licenseId, realGroups);
+            if (!holders.isEmpty()) {
+                Map<Long, Integer> groupCounts = new HashMap<>();
+                chargedGroups(holders.stream().map(holder -> (Long) holder[1]).distinct().toList())
+                    .forEach((userId, userGroups) -> groupCounts.put(userId, userGroups.size()));
+                for (Object[] holder : holders) {
+                    BigDecimal share = BigDecimal.ONE.divide(
+                        BigDecimal.valueOf(groupCounts.getOrDefault((Long) holder[1], 1)), 4, RoundingMode.HALF_UP);
+                    seats.merge((Long) holder[0], share, BigDecimal::add);
+                }
+            }
+        }
+        if (groupIds.contains(GroupCostRate.UNGROUPED)) {
+            seats.put(GroupCostRate.UNGROUPED, BigDecimal.valueOf(userLicenseRepository.countUngroupedHolders(licenseId)));
+        }
+        return seats;
+    }
+    
+    // Groups charged for a license through allocations or their members' assignments
+    private Set<Long> holderGroups(Long licenseId) {
+        Set<Long> groupIds = new LinkedHashSet<>();
+        for (Object[] allocation : groupLicenseRepository.findActiveAllocationsByLicenseId(licenseId)) {
+            groupIds.add((Long) allocation[0]);
+        }
+        chargedGroups(userLicenseRepository.findActiveUserIdsByLicenseId(licenseId)).values().forEach(groupIds::addAll);
+        return groupIds;
+    }
+    
+    // Groups each user's direct assignments are charged to
+    private Map<Long, Set<Long>> chargedGroups(Collection<Long> userIds) {
+        Map<Long, Set<Long>> groups = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return groups;
+        }
+        // Chunked, so a large offboarding wave stays within the database's bind parameter limit
+        List<Long> ids = new ArrayList<>(new HashSet<>(userIds));
+        for (int start = 0; start < ids.size(); start += MEMBERSHIP_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + MEMBERSHIP_CHUNK_SIZE, ids.size()));
+            for (Object[] membership : userRepository.findGroupMemberships(chunk)) {
+                Long groupId = membership[1] != null ? (Long) membership[1] : GroupCostRate.UNGROUPED;
+                groups.computeIfAbsent((Long) membership[0], id -> new LinkedHashSet<>()).add(groupId);
+            }
+        }
+        return groups;
+    }
+    
+    private static boolean isUserAssignment(LicenseHistory.ActionType actionType) {
+        return actionType == LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER
+            || actionType == LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER;
+    }
+    
+    // ===== Accrual =====
+    
+    /**
+     * Accrues every rate up to now, one transaction per tenant, so the current month keeps
+     * growing and a finished month is complete soon after it ends.
+     */
+    @Scheduled(fixedDelayString = "${license.chargeback.accrual-interval-ms:3600000}")
+    public void accrueAll() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> tenantIds = TenantContext.callAs(TenantContext.ALL_TENANTS,
+            () -> transactionTemplate.execute(status -> rateRepository.findTenantIds()));
+        LocalDateTime now = LocalDateTime.now();
+        for (String tenantId : tenantIds) {
+            try {
+                TenantContext.runAs(tenantId, () -> transactionTemplate.executeWithoutResult(
+                    status -> rateRepository.findAllForUpdate().forEach(rate -> accrue(rate, now))));
+            } catch (RuntimeException e) {
+                log.warn("Failed to accrue license costs", e);
+            }
+        }
+    }
+    
+    /**
+     * Adds the cost of the rate from accruedThrough to until to the monthly aggregates,
+     * prorated by the length of each month it spans.
+     */
+    void accrue(GroupCostRate rate, LocalDateTime until) {
+        LocalDateTime from = rate.getAccruedThrough();
+        if (!from.isBefore(until)) {
+            return;
+        }
+        while (from.isBefore(until)) {
+            LocalDate periodStart = from.toLocalDate().withDayOfMonth(1);
+            LocalDateTime monthEnd = periodStart.plusMonths(1).atStartOfDay();
+            LocalDateTime end = until.isBefore(monthEnd) ? until : monthEnd;
+            BigDecimal fraction = BigDecimal.valueOf(Duration.between(from, end).toMillis())
+                .divide(BigDecimal.valueOf(Duration.between(periodStart.atStartOfDay(), monthEnd).toMillis()),
+                    12, RoundingMode.HALF_UP);
+            BigDecimal seatMonths = rate.getSeats().multiply(fraction).setScale(6, RoundingMode.HALF_UP);
+            BigDecimal cost = seatMonths.multiply(rate.getUnitPrice()).setScale(4, RoundingMode.HALF_UP);
+            if (seatMonths.signum() > 0) {
+                addCost(rate, periodStart, seatMonths, cost);
+            }
+            from = end;
+        }
+        rate.setAccruedThrough(until);
+    }
+    
+    private void addCost(GroupCostRate rate, LocalDate periodStart, BigDecimal seatMonths, BigDecimal cost) {
+        int updated = jdbcTemplate.update(INCREMENT_SQL, seatMonths, cost, periodStart,
+            rate.getGroupId(), rate.getLicenseId());
+        if (updated == 0) {
+            jdbcTemplate.update(INSERT_SQL, rate.getTenantId(), periodStart, rate.getGroupId(),
+                rate.getLicenseId(), seatMonths, cost);
+        }
+    }
+    
+    // ===== Reports =====
+    
+    @Transactional(readOnly = true)
+    public List<Object[]> getGroupTotals(YearMonth month) {
+        return monthlyCostRepository.sumByGroup(month.atDay(1));
+    }
+    
+    /**
+     * Streams [periodStart, groupId, groupName, licenseId, softwareName, seatMonths, cost]
+     * rows for the months from..to in one read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public void forEachMonthlyCost(YearMonth from, YearMonth to, Consumer<Object[]> action) {
+        try (Stream<Object[]> costs = monthlyCostRepository.streamCosts(from.atDay(1), to.atDay(1))) {
+            costs.forEach(action);
+        }
+    }
+}
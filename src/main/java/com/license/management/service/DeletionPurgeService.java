@@ -0,0 +1,184 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.PendingDeletion;
+import com.license.management.entity.License;
+import com.license.management.entity.RevokedSeat;
+import com.license.management.entity.User;
+import com.license.management.entity.UserGroup;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes deleted licenses, users and groups. A delete only marks the row, which hides it
+ * from every entity query; this job then deletes the row's assignments, allocations and
+ * memberships one batch per transaction, so no single transaction locks all of a large
+ * license's children, and finally the row itself.
+ *
+ * <p>An assignment revoked less than a token lifetime ago leaves a {@link RevokedSeat} behind,
+ * so tokens issued for it stay on the revocation list until they have expired.
+ *
+ * <p>Uses plain SQL throughout, since entity queries no longer see deleted rows.
+ */
+@Service
+public class DeletionPurgeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(DeletionPurgeService.class);
+    
+    // Rows referencing a deleted row by parentColumn, deleted by (parentColumn, keyColumn)
+    private record Children(String table, String parentColumn, String keyColumn) {
+        
+        boolean seats() {
+            return table.equals("user_licenses");
+        }
+    }
+    
+    private record Target(PendingDeletion.Type type, Class<?> entity, String table, String nameColumn,
+                          List<Children> children) {
+    }
+    
+    private static final List<Target> TARGETS = List.of(
+        new Target(PendingDeletion.Type.LICENSE, License.class, "licenses", "software_name", List.of(
+            new Children("user_licenses", "license_id", "id"),
+            new Children("group_licenses", "license_id", "id"))),
+        new Target(PendingDeletion.Type.USER, User.class, "users", "username", List.of(
+            new Children("user_licenses", "user_id", "id"),
+            new Children("user_group_mapping", "user_id", "group_id"))),
+        new Target(PendingDeletion.Type.GROUP, UserGroup.class, "user_groups", "name", List.of(
+            new Children("group_licenses", "group_id", "id"),
+            new Children("user_group_mapping", "group_id", "user_id"))));
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private EntitlementTokenService entitlementTokenService;
+    
+    // Child rows deleted per transaction
+    @Value("${license.purge.batch-size:1000}")
+    private int batchSize = 1000;
+    
+    // ===== Purging =====
+    
+    @Scheduled(fixedDelayString = "${license.purge.interval-ms:10000}",
+               initialDelayString = "${license.purge.interval-ms:10000}")
+    public void purgeDeleted() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        LocalDateTime tokensIssuedAfter = LocalDateTime.now().minus(entitlementTokenService.getTokenTtl());
+        int expired = jdbcTemplate.update("DELETE FROM revoked_seats WHERE revoked_at < ?", tokensIssuedAfter);
+        if (expired > 0) {
+            log.info("Dropped {} revoked seats whose tokens have all expired", expired);
+        }
+        for (Target target : TARGETS) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM " + target.table() + " WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id",
+                Long.class);
+            boolean anyPurged = false;
+            for (Long id : ids) {
+                try {
+                    long purged = purge(transactionTemplate, target, id, tokensIssuedAfter);
+                    anyPurged = true;
+                    log.info("Purged deleted {} {} and {} dependent rows", target.type(), id, purged);
+                } catch (RuntimeException e) {
+                    // Retried on the next run; batches already committed stay purged
+                    log.warn("Failed to purge deleted {} {}", target.type(), id, e);
+                }
+            }
+            // A cached natural id of a purged row would hide a new row that reuses its name
+            if (anyPurged) {
+                entityManagerFactory.getCache().unwrap(Cache.class).evictNaturalIdData(target.entity());
+            }
+        }
+    }
+    
+    private long purge(TransactionTemplate transactionTemplate, Target target, Long id,
+                       LocalDateTime tokensIssuedAfter) {
+        long purged = 0;
+        for (Children children : target.children()) {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> deleteBatch(children, id, tokensIssuedAfter));
+                purged += deleted;
+            } while (deleted == batchSize);
+        }
+        // Fails if a transaction that read the row before its deletion has since added a
+        // child; the next run removes that child too
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+            "DELETE FROM " + target.table() + " WHERE id = ? AND deleted_at IS NOT NULL", id));
+        return purged;
+    }
+    
+    private int deleteBatch(Children children, Long parentId, LocalDateTime tokensIssuedAfter) {
+        List<Long> keys = jdbcTemplate.queryForList(
+            "SELECT " + children.keyColumn() + " FROM " + children.table() +
+            " WHERE " + children.parentColumn() + " = ? LIMIT ?", Long.class, parentId, batchSize);
+        if (!keys.isEmpty()) {
+            // Seats still active were never revoked; they count as revoked now
+            if (children.seats()) {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO revoked_seats (seat_id, tenant_id, revoked_at) " +
+                    "SELECT id, tenant_id, COALESCE(revoked_at, ?) FROM user_licenses " +
+                    "WHERE id = ? AND (active = true OR revoked_at >= ?)", keys, keys.size(), (ps, key) -> {
+                        ps.setObject(1, LocalDateTime.now());
+                        ps.setLong(2, key);
+                        ps.setObject(3, tokensIssuedAfter);
+                    });
+            }
+            jdbcTemplate.batchUpdate(
+                "DELETE FROM " + children.table() + " WHERE " + children.parentColumn() + " = ? AND " +
+                children.keyColumn() + " = ?", keys, keys.size(), (ps, key) -> {
+                    ps.setLong(1, parentId);
+                    ps.setLong(2, key);
+                });
+        }
+        return keys.size();
+    }
+    
+    // ===== Progress =====
+    
+    /**
+     * Deleted items of the current tenant that have not been purged yet, oldest first, with
+     * the number of dependent rows still to go.
+     */
+    public List<PendingDeletion> getPendingDeletions() {
+        String tenantId = TenantContext.getTenantId();
+        List<PendingDeletion> pending = new ArrayList<>();
+        for (Target target : TARGETS) {
+            List<PendingDeletion> deletions = jdbcTemplate.query(
+                "SELECT id, " + target.nameColumn() + ", deleted_at FROM " + target.table() +
+                " WHERE deleted_at IS NOT NULL AND tenant_id = ? ORDER BY deleted_at, id",
+                (rs, rowNum) -> new PendingDeletion(target.type(), rs.getLong(1), rs.getString(2),
+                    rs.getObject(3, LocalDateTime.class), 0), tenantId);
+            for (PendingDeletion deletion : deletions) {
+                long remaining = 0;
+                for (Children children : target.children()) {
+                    remaining += jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + children.table() + " WHERE " + children.parentColumn() + " = ?",
+                        Long.class, deletion.getId());
+                }
+                deletion.setRemainingChildren(remaining);
+            }
+            pending.addAll(deletions);
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,148 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.EntitlementClaims;
+import com.license.management.dto.RevocationList;
+import com.license.management.entity.UserLicense;
+import com.license.management.repository.RevokedSeatRepository;
+import com.license.management.repository.UserLicenseRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues Ed25519-signed entitlement tokens for user seats, so clients can check a seat
+ * offline with {@link EntitlementTokenVerifier} instead of calling the API. Revoked seats
+ * are published through a short-lived revocation list.
+ */
+@Service
+public class EntitlementTokenService {
+    
+    private static final Logger log = LoggerFactory.getLogger(EntitlementTokenService.class);
+    
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private RevokedSeatRepository revokedSeatRepository;
+    
+    @Value("${license.tokens.private-key:}")
+    private String encodedPrivateKey;
+    
+    @Value("${license.tokens.public-key:}")
+    private String encodedPublicKey;
+    
+    @Value("${license.tokens.ttl:PT24H}")
+    private Duration tokenTtl;
+    
+    @Value("${license.tokens.revocation-list-max-age:PT30S}")
+    private Duration revocationListMaxAge;
+    
+    private PrivateKey privateKey;
+    private PublicKey publicKey;
+    
+    // By tenant, as each tenant sees only its own revocations
+    private final Map<String, RevocationList> cachedRevocations = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void loadKeys() throws GeneralSecurityException {
+        if (encodedPrivateKey.isBlank() || encodedPublicKey.isBlank()) {
+            KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            privateKey = keyPair.getPrivate();
+            publicKey = keyPair.getPublic();
+            log.warn("No license.tokens key pair configured; using an ephemeral key, tokens will not survive a restart");
+        } else {
+            KeyFactory keyFactory = KeyFactory.getInstance("Ed25519");
+            privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(encodedPrivateKey)));
+            publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encodedPublicKey)));
+        }
+    }
+    
+    public String issueToken(UserLicense userLicense) {
+        Instant expiresAt = Instant.now().plus(tokenTtl);
+        LocalDateTime licenseExpiry = userLicense.getLicense().getExpirationDate();
+        if (licenseExpiry != null) {
+            Instant licenseExpiryInstant = licenseExpiry.atZone(ZoneId.systemDefault()).toInstant();
+            if (licenseExpiryInstant.isBefore(expiresAt)) {
+                expiresAt = licenseExpiryInstant;
+            }
+        }
+        EntitlementClaims claims = new EntitlementClaims(
+            userLicense.getUser().getId(), userLicense.getLicense().getId(), userLicense.getId(), expiresAt);
+        byte[] payload = EntitlementTokenVerifier.encode(claims);
+        try {
+            Signature signer = Signature.getInstance("Ed25519");
+            signer.initSign(privateKey);
+            signer.update(payload);
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return encoder.encodeToString(payload) + "." + encoder.encodeToString(signer.sign());
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Unable to sign entitlement token", e);
+        }
+    }
+    
+    public String getEncodedPublicKey() {
+        return Base64.getEncoder().encodeToString(publicKey.getEncoded());
+    }
+    
+    public EntitlementTokenVerifier getVerifier() {
+        return new EntitlementTokenVerifier(publicKey);
+    }
+    
+    public Duration getTokenTtl() {
+        return tokenTtl;
+    }
+    
+    public Duration getRevocationListMaxAge() {
+        return revocationListMaxAge;
+    }
+    
+    /**
+     * Seat ids revoked recently enough that a token issued for them may still be unexpired.
+     * Each tenant's list is rebuilt at most once per max-age, however many clients poll it.
+     */
+    public RevocationList getRevocations() {
+        String tenantId = TenantContext.getTenantId();
+        RevocationList current = cachedRevocations.get(tenantId);
+        LocalDateTime now = LocalDateTime.now();
+        if (current == null || current.getGeneratedAt().plus(revocationListMaxAge).isBefore(now)) {
+            current = new RevocationList(now, findSeatIdsRevokedSince(now.minus(tokenTtl)));
+            cachedRevocations.put(tenantId, current);
+        }
+        return current;
+    }
+    
+    public RevocationList getRevocationsSince(LocalDateTime since) {
+        return new RevocationList(LocalDateTime.now(), findSeatIdsRevokedSince(since));
+    }
+    
+    // Assignments still present, and those the purge job has removed since their revocation
+    private List<Long> findSeatIdsRevokedSince(LocalDateTime since) {
+        List<Long> seatIds = new ArrayList<>(userLicenseRepository.findIdsRevokedSince(since));
+        seatIds.addAll(revokedSeatRepository.findSeatIdsRevokedSince(since));
+        return seatIds;
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.license.management.service;
+
+import com.license.management.dto.EntitlementClaims;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies entitlement tokens offline using only the issuer's public key. It has no
+ * Spring or database dependencies so clients and edge nodes can embed it as-is.
+ *
+ * Token layout: base64url(payload) "." base64url(Ed25519 signature over payload), where
+ * payload is version (1 byte), userId, licenseId, seatId and expiry epoch seconds (8 bytes each).
+ * Successfully verified tokens are remembered, so the repeated checks a client makes against
+ * the same token cost a map lookup and an expiry comparison instead of a signature check.
+ * Once the memo is full the least recently checked token makes room.
+ */
+public class EntitlementTokenVerifier {
+    
+    static final byte VERSION = 1;
+    static final int PAYLOAD_LENGTH = 1 + 4 * Long.BYTES;
+    
+    private static final int MAX_VERIFIED_TOKENS = 10000;
+    
+    private final PublicKey publicKey;
+    private final Map<String, EntitlementClaims> verified;
+    
+    public EntitlementTokenVerifier(PublicKey publicKey) {
+        this(publicKey, MAX_VERIFIED_TOKENS);
+    }
+    
+    EntitlementTokenVerifier(PublicKey publicKey, int maxVerifiedTokens) {
+        this.publicKey = publicKey;
+        this.verified = Collections.synchronizedMap(new VerifiedTokens(maxVerifiedTokens));
+    }
+    
+    public static EntitlementTokenVerifier fromEncodedPublicKey(String base64X509) {
+        try {
+            byte[] encoded = Base64.getDecoder().decode(base64X509);
+            PublicKey key = KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+            return new EntitlementTokenVerifier(key);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new RuntimeException("Invalid Ed25519 public key", e);
+        }
+    }
+    
+    /**
+     * Returns the token's claims, or throws if the signature is invalid or the token has expired.
+     */
+    public EntitlementClaims verify(String token, Instant now) {
+        EntitlementClaims claims = verified.get(token);
+        if (claims == null) {
+            claims = verifySignature(token);
+            verified.put(token, claims);
+        }
+        if (!now.isBefore(claims.getExpiresAt())) {
+            throw new RuntimeException("Entitlement token has expired");
+        }
+        return claims;
+    }
+    
+    private EntitlementClaims verifySignature(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            throw new RuntimeException("Malformed entitlement token");
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = Base64.getUrlDecoder().decode(token.substring(0, separator));
+            signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Malformed entitlement token");
+        }
+        if (payload.length != PAYLOAD_LENGTH || payload[0] != VERSION) {
+            throw new RuntimeException("Unsupported entitlement token version");
+        }
+        try {
+            Signature verifier = Signature.getInstance("Ed25519");
+            verifier.initVerify(publicKey);
+            verifier.update(payload);
+            if (!verifier.verify(signature)) {
+                throw new RuntimeException("Invalid entitlement token signature");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Invalid entitlement token signature", e);
+        }
+        return decode(payload);
+    }
+    
+    // Access-ordered, so the eldest entry is the least recently checked token
+    private static class VerifiedTokens extends LinkedHashMap<String, EntitlementClaims> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int maxSize;
+        
+        VerifiedTokens(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EntitlementClaims> eldest) {
+            return size() > maxSize;
+        }
+    }
+    
+    static byte[] encode(EntitlementClaims claims) {
+        return ByteBuffer.allocate(PAYLOAD_LENGTH)
+            .put(VERSION)
+            .putLong(claims.getUserId())
+            .putLong(claims.getLicenseId())
+            .putLong(claims.getSeatId())
+            .putLong(claims.getExpiresAt().getEpochSecond())
+            .array();
+    }
+    
+    static EntitlementClaims decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, PAYLOAD_LENGTH - 1);
+        return new EntitlementClaims(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+            Instant.ofEpochSecond(buffer.getLong()));
+    }
+}
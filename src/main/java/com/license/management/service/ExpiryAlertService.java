@@ -0,0 +1,237 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.ExpiryDigest;
+import com.license.management.dto.ExpiryDigest.RecipientType;
+import com.license.management.entity.ExpiryAlert;
+import com.license.management.repository.ExpiryAlertRepository;
+import com.license.management.repository.GroupLicenseRepository;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserLicenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sends renewal alerts for licenses about to expire. Each run finds, per alert window, the
+ * active licenses expiring between the next smaller window and this one whose alert has not
+ * been sent, with a range scan on the expiration date; a license is only alerted for the
+ * smallest window it falls into. Each recipient's digest is delivered and then recorded in
+ * its own transaction, so a failed delivery is retried by the next run without resending the
+ * digests that went out, and a run with nothing due costs one indexed query per window.
+ */
+@Service
+public class ExpiryAlertService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ExpiryAlertService.class);
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private GroupLicenseRepository groupLicenseRepository;
+    
+    @Autowired
+    private ExpiryAlertRepository alertRepository;
+    
+    @Autowired
+    private ExpiryAlertSink sink;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.alerts.enabled:true}")
+    private boolean enabled = true;
+    
+    // Days before expiration
+    @Value("${license.alerts.windows:90,30,7}")
+    private List<Integer> windows = List.of(90, 30, 7);
+    
+    @Value("${license.alerts.batch-size:500}")
+    private int batchSize = 500;
+    
+    @Value("${license.alerts.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+    
+    @Scheduled(fixedDelayString = "${license.alerts.interval-ms:300000}")
+    public void sendDueAlerts() {
+        if (enabled) {
+            sendDueAlerts(LocalDateTime.now());
+        }
+    }
+    
+    /**
+     * Sends the alerts due at the given time, recording each digest in its own transaction.
+     * Returns the number of licenses whose alerts are complete.
+     */
+    public int sendDueAlerts(LocalDateTime now) {
+        List<Integer> ascending = windows.stream().distinct().sorted().toList();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int sent = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Map<String, List<Due>> dueByTenant = new LinkedHashMap<>();
+            boolean more = false;
+            int smaller = 0;
+            for (int windowDays : ascending) {
+                LocalDateTime from = now.plusDays(smaller);
+                List<Object[]> rows = TenantContext.callAs(TenantContext.ALL_TENANTS, () -> transactionTemplate.execute(
+                    status -> licenseRepository.findDueForExpiryAlert(from, now.plusDays(windowDays), windowDays,
+                        PageRequest.of(0, batchSize))));
+                for (Object[] row : rows) {
+                    dueByTenant.computeIfAbsent((String) row[1], tenantId -> new ArrayList<>()).add(new Due(
+                        (Long) row[0], (String) row[2], (String) row[3], (LocalDateTime) row[4], windowDays));
+                }
+                more |= rows.size() == batchSize;
+                smaller = windowDays;
+            }
+            boolean failed = false;
+            for (Map.Entry<String, List<Due>> tenant : dueByTenant.entrySet()) {
+                try {
+                    int alerted = TenantContext.callAs(tenant.getKey(),
+                        () -> alert(tenant.getKey(), tenant.getValue(), transactionTemplate));
+                    sent += alerted;
+                    failed |= alerted < tenant.getValue().size();
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.warn("Failed to send {} expiry alerts of tenant {}", tenant.getValue().size(), tenant.getKey(), e);
+                }
+            }
+            // A failed batch would be selected again, so leave it to the next run
+            if (failed || !more) {
+                break;
+            }
+        }
+        if (sent > 0) {
+            log.info("Sent {} license expiry alerts", sent);
+        }
+        return sent;
+    }
+    
+    /**
+     * Delivers the digests one at a time. The administrators' digest goes last and only lists
+     * the licenses whose other digests all went out; the rest are selected again by the next
+     * run, which leaves out the recipients already alerted. Returns the number of licenses
+     * whose alerts are complete.
+     */
+    private int alert(String tenantId, List<Due> due, TransactionTemplate transactionTemplate) {
+        List<ExpiryDigest> digests = transactionTemplate.execute(status -> digests(tenantId, due));
+        Set<Long> undelivered = new HashSet<>();
+        ExpiryDigest admins = null;
+        for (ExpiryDigest digest : digests) {
+            if (digest.getRecipientType() == RecipientType.ADMIN) {
+                admins = digest;
+            } else if (!deliver(digest, transactionTemplate)) {
+                digest.getLicenses().forEach(entry -> undelivered.add(entry.getLicenseId()));
+            }
+        }
+        if (admins == null) {
+            return 0;
+        }
+        admins.getLicenses().removeIf(entry -> undelivered.contains(entry.getLicenseId()));
+        if (admins.getLicenses().isEmpty() || !deliver(admins, transactionTemplate)) {
+            return 0;
+        }
+        return admins.getLicenses().size();
+    }
+    
+    // Delivered digests are recorded afterwards, so one is sent again if recording it fails
+    private boolean deliver(ExpiryDigest digest, TransactionTemplate transactionTemplate) {
+        String recipient = recipient(digest.getRecipientType(), digest.getRecipientId());
+        try {
+            sink.deliver(List.of(digest));
+        } catch (Exception e) {
+            log.warn("Failed to deliver the expiry digest for {} of tenant {}", recipient, digest.getTenantId(), e);
+            return false;
+        }
+        List<ExpiryAlert> alerts = new ArrayList<>();
+        for (ExpiryDigest.Entry entry : digest.getLicenses()) {
+            ExpiryAlert alert = new ExpiryAlert();
+            alert.setLicenseId(entry.getLicenseId());
+            alert.setWindowDays(entry.getWindowDays());
+            alert.setExpirationDate(entry.getExpirationDate());
+            alert.setRecipient(recipient);
+            alerts.add(alert);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> alertRepository.saveAll(alerts));
+        } catch (RuntimeException e) {
+            log.warn("Failed to record the expiry digest for {} of tenant {}", recipient, digest.getTenantId(), e);
+        }
+        return true;
+    }
+    
+    /**
+     * One digest for the administrators with every license, and one per user holding and
+     * group assigned any of them, leaving out the licenses a recipient was already alerted of.
+     */
+    List<ExpiryDigest> digests(String tenantId, List<Due> due) {
+        Map<Long, ExpiryDigest.Entry> entries = new LinkedHashMap<>();
+        for (Due license : due) {
+            entries.put(license.licenseId(), new ExpiryDigest.Entry(license.licenseId(), license.softwareName(),
+                license.licenseKey(), license.expirationDate(), license.windowDays()));
+        }
+        Set<Sent> sent = new HashSet<>();
+        for (ExpiryAlert alert : alertRepository.findByLicenseIdIn(entries.keySet())) {
+            sent.add(new Sent(alert.getLicenseId(), alert.getWindowDays(), alert.getExpirationDate(),
+                alert.getRecipient()));
+        }
+        Map<String, ExpiryDigest> digests = new LinkedHashMap<>();
+        for (ExpiryDigest.Entry entry : entries.values()) {
+            add(digests, sent, entry, tenantId, RecipientType.ADMIN, null, null, null);
+        }
+        for (Object[] row : userLicenseRepository.findActiveHolders(entries.keySet())) {
+            add(digests, sent, entries.get((Long) row[0]), tenantId, RecipientType.USER, (Long) row[1],
+                (String) row[2], (String) row[3]);
+        }
+        for (Object[] row : groupLicenseRepository.findActiveGroups(entries.keySet())) {
+            add(digests, sent, entries.get((Long) row[0]), tenantId, RecipientType.GROUP, (Long) row[1],
+                (String) row[2], null);
+        }
+        return new ArrayList<>(digests.values());
+    }
+    
+    private static void add(Map<String, ExpiryDigest> digests, Set<Sent> sent, ExpiryDigest.Entry entry,
+                            String tenantId, RecipientType type, Long recipientId, String name, String email) {
+        String recipient = recipient(type, recipientId);
+        if (sent.contains(new Sent(entry.getLicenseId(), entry.getWindowDays(), entry.getExpirationDate(), recipient))) {
+            return;
+        }
+        digests.computeIfAbsent(recipient, key -> {
+            ExpiryDigest digest = new ExpiryDigest();
+            digest.setTenantId(tenantId);
+            digest.setRecipientType(type);
+            digest.setRecipientId(recipientId);
+            digest.setRecipientName(name);
+            digest.setEmail(email);
+            return digest;
+        }).getLicenses().add(entry);
+    }
+    
+    // As recorded in ExpiryAlert.recipient
+    private static String recipient(RecipientType type, Long recipientId) {
+        return type == RecipientType.ADMIN ? type.name() : type + ":" + recipientId;
+    }
+    
+    record Due(Long licenseId, String softwareName, String licenseKey, LocalDateTime expirationDate, int windowDays) {
+    }
+    
+    private record Sent(Long licenseId, int windowDays, LocalDateTime expirationDate, String recipient) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.license.management.service;
+
+import com.license.management.dto.ExpiryDigest;
+
+import java.util.List;
+
+/**
+ * Destination for renewal alert digests. A batch either succeeds as a whole or throws, in
+ * which case its alerts are sent again by the next run.
+ */
+public interface ExpiryAlertSink {
+    
+    void deliver(List<ExpiryDigest> digests) throws Exception;
+}
@@ -0,0 +1,52 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.dto.ExpiryDigest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends digests to a local JSON Lines file, one digest per line, and syncs it before the
+ * batch counts as delivered.
+ */
+@Component
+@ConditionalOnProperty(name = "license.alerts.sink", havingValue = "file", matchIfMissing = true)
+public class FileExpiryAlertSink implements ExpiryAlertSink {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${license.alerts.file.path:alerts/expiry-digests.jsonl}")
+    private Path path;
+    
+    @Override
+    public void deliver(List<ExpiryDigest> digests) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (ExpiryDigest digest : digests) {
+            lines.append(objectMapper.writeValueAsString(digest)).append('\n');
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.event.LicenseHistoryEvent;
+import com.license.management.repository.LicenseHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed license history entries to Server-Sent Events subscribers. A subscriber
+ * only receives the entries of the tenant it subscribed as.
+ *
+ * Each subscriber has a bounded queue drained by a small shared dispatch pool, so idle
+ * connections cost no thread. A subscriber whose queue fills up is disconnected and is
+ * expected to reconnect with Last-Event-ID; recent events are replayed from an in-memory
+ * ring buffer, older ones from the history table.
+ *
+ * History ids are taken at insert, not at commit, so an entry with a lower id than the last
+ * event may commit after it. The ring buffer is in commit order and replays exactly; a replay
+ * from the table also resends the entries with lower ids written within replay-lag before the
+ * last event, so clients must deduplicate on the event id.
+ *
+ * With several nodes (a cross-node cache invalidation channel, or license.cluster) each node
+ * also polls the history table for entries after the highest id it has settled and sends the
+ * ones other nodes wrote, so every node's stream covers the whole deployment. The poll holds
+ * back at a missing id until an entry after it is older than replay-lag, so a transaction
+ * that commits late is still picked up.
+ */
+@Component
+public class LicenseEventBroadcaster {
+    
+    private static final Logger log = LoggerFactory.getLogger(LicenseEventBroadcaster.class);
+    
+    private static final String EVENT_NAME = "license-history";
+    
+    private static final Object KEEPALIVE = new Object();
+    
+    @Autowired
+    private LicenseHistoryRepository historyRepository;
+    
+    @Autowired
+    private CacheInvalidationChannel channel;
+    
+    @Value("${license.events.subscriber-buffer-size:256}")
+    private int subscriberBufferSize = 256;
+    
+    @Value("${license.events.replay-buffer-size:1024}")
+    private int replayBufferSize = 1024;
+    
+    @Value("${license.events.max-replay:1000}")
+    private int maxReplay = 1000;
+    
+    // Longest a transaction writing history is expected to take to commit
+    @Value("${license.events.replay-lag:PT1M}")
+    private Duration replayLag = Duration.ofMinutes(1);
+    
+    @Value("${license.events.dispatch-threads:4}")
+    private int dispatchThreads = 4;
+    
+    @Value("${license.events.emitter-timeout:PT30M}")
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+    
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    
+    // Ids this node has written in transactions still open; the poll leaves them to onHistory
+    private final Set<Long> uncommitted = ConcurrentHashMap.newKeySet();
+    private final AtomicLong disconnectedSlowConsumers = new AtomicLong();
+    private final Object lock = new Object();
+    
+    // Guarded by lock; entries in commit order
+    private LicenseHistory[] ring;
+    private int ringStart;
+    private int ringSize;
+    
+    // Guarded by lock: every id up to the watermark is sent or given up on, and the ids above it
+    // sent so far, with their timestamps; null until the first poll
+    private Long pollWatermark;
+    private final TreeMap<Long, LocalDateTime> sentAbove = new TreeMap<>();
+    
+    private boolean polling;
+    private ExecutorService dispatcher;
+    
+    @PostConstruct
+    void start() {
+        polling = channel.isCrossNode() || !channel.seesAllWrites();
+        ring = new LicenseHistory[replayBufferSize];
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "license-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+    
+    /**
+     * Opens a stream. With a last event id the events committed after it are sent first.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, TenantContext.getTenantId());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        
+        if (lastEventId == null) {
+            subscribers.add(subscriber);
+        } else {
+            registerWithReplay(lastEventId, subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+    
+    /**
+     * Collects the events to replay and registers the subscriber under the same lock as
+     * {@link #onHistory}, so nothing committed in between is lost or sent twice.
+     */
+    private void registerWithReplay(long lastEventId, Subscriber subscriber) {
+        synchronized (lock) {
+            for (int i = 0; i < ringSize; i++) {
+                if (ringAt(i).getId() == lastEventId) {
+                    for (int j = i + 1; j < ringSize; j++) {
+                        if (subscriber.accepts(ringAt(j))) {
+                            subscriber.replay.add(ringAt(j));
+                        }
+                    }
+                    subscribers.add(subscriber);
+                    return;
+                }
+            }
+        }
+        
+        // Fell out of the ring buffer (or this node restarted): read the gap from the database,
+        // which the session already limits to the subscriber's tenant
+        LocalDateTime since = historyRepository.findById(lastEventId)
+            .map(last -> last.getTimestamp().minus(replayLag))
+            .orElseGet(LocalDateTime::now);
+        List<LicenseHistory> replay = new ArrayList<>(
+            historyRepository.findForReplay(lastEventId, since, PageRequest.of(0, maxReplay)));
+        Set<Long> replayedIds = new HashSet<>();
+        replay.forEach(entry -> replayedIds.add(entry.getId()));
+        synchronized (lock) {
+            for (int i = 0; i < ringSize; i++) {
+                LicenseHistory entry = ringAt(i);
+                boolean missed = entry.getId() > lastEventId
+                    || entry.getId() < lastEventId && !entry.getTimestamp().isBefore(since);
+                if (missed && subscriber.accepts(entry) && !replayedIds.contains(entry.getId())) {
+                    replay.add(entry);
+                }
+            }
+            subscriber.replay.addAll(replay);
+            subscribers.add(subscriber);
+        }
+    }
+    
+    @EventListener
+    public void onWritten(LicenseHistoryEvent event) {
+        if (polling && TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (LicenseHistory entry : event.getEntries()) {
+                if (entry.getId() != null) {
+                    uncommitted.add(entry.getId());
+                }
+            }
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onRolledBack(LicenseHistoryEvent event) {
+        event.getEntries().forEach(entry -> uncommitted.remove(entry.getId()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHistory(LicenseHistoryEvent event) {
+        synchronized (lock) {
+            for (LicenseHistory entry : event.getEntries()) {
+                if (entry.getId() == null) {
+                    continue;
+                }
+                if (polling) {
+                    uncommitted.remove(entry.getId());
+                    if (pollWatermark != null && entry.getId() > pollWatermark) {
+                        sentAbove.put(entry.getId(), entry.getTimestamp());
+                    }
+                }
+                send(entry);
+            }
+        }
+        scheduleAll();
+    }
+    
+    /**
+     * Sends the entries other nodes have committed since the last poll, in id order.
+     */
+    @Scheduled(fixedDelayString = "${license.events.poll-interval-ms:1000}")
+    public void pollOtherNodes() {
+        if (!polling) {
+            return;
+        }
+        TenantContext.runAs(TenantContext.ALL_TENANTS, () -> {
+            Long after;
+            synchronized (lock) {
+                if (pollWatermark == null) {
+                    // Only what is written from now on; earlier entries are for replay
+                    Long maxId = historyRepository.findMaxId();
+                    pollWatermark = maxId != null ? maxId : 0L;
+                    return;
+                }
+                after = pollWatermark;
+            }
+            List<LicenseHistory> page;
+            do {
+                page = historyRepository.findAfter(after, PageRequest.of(0, maxReplay));
+                synchronized (lock) {
+                    for (LicenseHistory entry : page) {
+                        if (!uncommitted.contains(entry.getId()) && entry.getId() > pollWatermark
+                                && sentAbove.putIfAbsent(entry.getId(), entry.getTimestamp()) == null) {
+                            send(entry);
+                        }
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == maxReplay);
+            advanceWatermark();
+        });
+        scheduleAll();
+    }
+    
+    // Past ids that were sent, and past missing ids once a later entry is older than replay-lag:
+    // ids are taken at insert, so those were rolled back or are not coming within the lag
+    private void advanceWatermark() {
+        LocalDateTime settled = LocalDateTime.now().minus(replayLag);
+        synchronized (lock) {
+            while (!sentAbove.isEmpty()) {
+                Map.Entry<Long, LocalDateTime> first = sentAbove.firstEntry();
+                if (first.getKey() != pollWatermark + 1 && !first.getValue().isBefore(settled)) {
+                    break;
+                }
+                pollWatermark = first.getKey();
+                sentAbove.pollFirstEntry();
+            }
+        }
+    }
+    
+    // Guarded by lock
+    private void send(LicenseHistory entry) {
+        if (ringSize < ring.length) {
+            ring[(ringStart + ringSize++) % ring.length] = entry;
+        } else {
+            ring[ringStart] = entry;
+            ringStart = (ringStart + 1) % ring.length;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(entry)) {
+                subscriber.offer(entry);
+            }
+        }
+    }
+    
+    private void scheduleAll() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.schedule();
+        }
+    }
+    
+    /**
+     * Comment lines keep proxies from closing idle streams and surface dead connections.
+     */
+    @Scheduled(fixedRateString = "${license.events.keepalive-interval-ms:15000}")
+    public void sendKeepalives() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(KEEPALIVE);
+            subscriber.schedule();
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    public long getDisconnectedSlowConsumers() {
+        return disconnectedSlowConsumers.get();
+    }
+    
+    private LicenseHistory ringAt(int offset) {
+        return ring[(ringStart + offset) % ring.length];
+    }
+    
+    private class Subscriber {
+        
+        final SseEmitter emitter;
+        final String tenantId;
+        // Filled before the subscriber is registered and not counted against the buffer
+        final Queue<LicenseHistory> replay = new ConcurrentLinkedQueue<>();
+        final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+        
+        Subscriber(SseEmitter emitter, String tenantId) {
+            this.emitter = emitter;
+            this.tenantId = tenantId;
+        }
+        
+        boolean accepts(LicenseHistory entry) {
+            return tenantId.equals(entry.getTenantId());
+        }
+        
+        void offer(Object item) {
+            if (closed) {
+                return;
+            }
+            if (size.incrementAndGet() > subscriberBufferSize) {
+                disconnectedSlowConsumers.incrementAndGet();
+                log.debug("Disconnecting slow event stream subscriber");
+                close();
+                return;
+            }
+            queue.add(item);
+        }
+        
+        void schedule() {
+            if (!closed && !(queue.isEmpty() && replay.isEmpty()) && scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RuntimeException e) {
+                    close();
+                }
+            }
+        }
+        
+        private void drain() {
+            try {
+                LicenseHistory replayed;
+                while (!closed && (replayed = replay.poll()) != null) {
+                    send(replayed);
+                }
+                Object item;
+                while (!closed && (item = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    if (item == KEEPALIVE) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    } else {
+                        send((LicenseHistory) item);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // An offer may have landed after the last poll but before the flag was cleared
+            schedule();
+        }
+        
+        private void send(LicenseHistory entry) throws IOException {
+            emitter.send(SseEmitter.event()
+                .id(String.valueOf(entry.getId()))
+                .name(EVENT_NAME)
+                .data(entry, MediaType.APPLICATION_JSON));
+        }
+        
+        void close() {
+            if (!closed) {
+                closed = true;
+                subscribers.remove(this);
+                queue.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.event.LicenseHistoryEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes history entries with JDBC batches for set-based operations, where saving
+ * one entity per row would cost a round trip each (IDENTITY ids disable Hibernate batching).
+ */
+@Component
+public class LicenseHistoryWriter {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO license_history (tenant_id, license_id, user_id, group_id, action_type, " +
+        "description, details, timestamp, performed_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Inserts the entries in one batch, sets their generated ids and publishes them as a
+     * single {@link LicenseHistoryEvent}. Entries without a tenant belong to the current one.
+     */
+    public void writeAll(List<LicenseHistory> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String tenantId = TenantContext.getTenantId();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LicenseHistory history = entries.get(i);
+                    if (history.getTimestamp() == null) {
+                        history.setTimestamp(now);
+                    }
+                    if (history.getTenantId() == null) {
+                        history.setTenantId(tenantId);
+                    }
+                    ps.setString(1, history.getTenantId());
+                    ps.setLong(2, history.getLicenseId());
+                    setNullableLong(ps, 3, history.getUserId());
+                    setNullableLong(ps, 4, history.getGroupId());
+                    ps.setString(5, history.getActionType().name());
+                    ps.setString(6, history.getDescription());
+                    ps.setString(7, history.getDetails());
+                    ps.setObject(8, history.getTimestamp());
+                    ps.setString(9, history.getPerformedBy());
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            }, keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < entries.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            entries.get(i).setId(((Number) id).longValue());
+        }
+        eventPublisher.publishEvent(new LicenseHistoryEvent(entries));
+    }
+    
+    private static void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
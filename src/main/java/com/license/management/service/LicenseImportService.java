@@ -0,0 +1,381 @@
+package com.license.management.service;
+
+import com.license.management.config.LocalRegionFactory;
+import com.license.management.config.TenantContext;
+import com.license.management.dto.LicenseImportResult;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.repository.LicenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk license import from CSV. The input is read line by line and written in chunks,
+ * each chunk in its own transaction, so memory use does not grow with the file size. A chunk
+ * that fails is rolled back and its rows reported as errors; the import carries on with the
+ * next one. Import only creates licenses: a row whose key already exists is reported, never
+ * applied as an update.
+ */
+@Service
+public class LicenseImportService {
+    
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO licenses (tenant_id, software_name, license_key, total_seats, used_seats, " +
+        "expiration_date, active, description, price, created_at, updated_at) VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private LicenseHistoryWriter historyWriter;
+    
+    @Autowired
+    private LicenseKeyIndex licenseKeyIndex;
+    
+    @Autowired
+    private SearchIndex searchIndex;
+    
+    @Autowired
+    private LocalRegionFactory regionFactory;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.import.chunk-size:5000}")
+    private int chunkSize;
+    
+    private volatile String insertSql;
+    
+    public LicenseImportResult importCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new RuntimeException("CSV file is empty");
+        }
+        Map<String, Integer> columns = parseHeader(headerLine);
+        
+        LicenseImportResult result = new LicenseImportResult();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            result.setTotalRows(result.getTotalRows() + 1);
+            try {
+                chunk.add(parseRow(lineNumber, splitCsvLine(line), columns));
+            } catch (RuntimeException e) {
+                result.addError(lineNumber, null, e.getMessage(), MAX_REPORTED_ERRORS);
+                continue;
+            }
+            if (chunk.size() >= chunkSize) {
+                flush(transactionTemplate, chunk, result);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(transactionTemplate, chunk, result);
+        }
+        return result;
+    }
+    
+    private void flush(TransactionTemplate transactionTemplate, List<ImportRow> rows, LicenseImportResult result) {
+        // Written to the result only once the chunk has committed
+        LicenseImportResult written = new LicenseImportResult();
+        Map<String, Long> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> writeChunk(rows, written));
+        } catch (RuntimeException e) {
+            String message = "Not imported, chunk failed: " + e.getMessage();
+            for (ImportRow row : rows) {
+                result.addError(row.line, row.licenseKey, message, MAX_REPORTED_ERRORS);
+            }
+            return;
+        }
+        result.setImported(result.getImported() + written.getImported());
+        for (LicenseImportResult.RowError error : written.getErrors()) {
+            result.addError(error.getLine(), error.getLicenseKey(), error.getMessage(), MAX_REPORTED_ERRORS);
+        }
+        inserted.keySet().forEach(licenseKeyIndex::add);
+        if (!inserted.isEmpty()) {
+            // Inserted by JDBC, so Hibernate did not stamp the table
+            regionFactory.tablesChanged("licenses");
+            String tenantId = TenantContext.getTenantId();
+            for (ImportRow row : rows) {
+                // The first row with a key is the one written
+                Long id = inserted.remove(row.licenseKey);
+                if (id != null) {
+                    searchIndex.indexLicense(tenantId, id, row.softwareName, row.licenseKey, row.description);
+                }
+            }
+        }
+    }
+    
+    private Map<String, Long> writeChunk(List<ImportRow> rows, LicenseImportResult result) {
+        // Duplicates within the chunk itself, then one query for the keys the index cannot rule out
+        Map<String, ImportRow> byKey = new LinkedHashMap<>();
+        List<String> maybeExisting = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (byKey.putIfAbsent(row.licenseKey, row) != null) {
+                result.addError(row.line, row.licenseKey, "Duplicate license key in file", MAX_REPORTED_ERRORS);
+            } else if (licenseKeyIndex.mightContain(row.licenseKey)) {
+                maybeExisting.add(row.licenseKey);
+            }
+        }
+        if (!maybeExisting.isEmpty()) {
+            for (String existing : licenseRepository.findExistingLicenseKeys(maybeExisting)) {
+                ImportRow row = byKey.remove(existing);
+                result.addError(row.line, row.licenseKey, "License key already exists", MAX_REPORTED_ERRORS);
+            }
+        }
+        if (byKey.isEmpty()) {
+            return Map.of();
+        }
+        
+        List<ImportRow> candidates = new ArrayList<>(byKey.values());
+        LocalDateTime now = LocalDateTime.now();
+        String tenantId = TenantContext.getTenantId();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(getInsertSql(), new String[] {"id", "license_key"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ImportRow row = candidates.get(i);
+                    ps.setString(1, tenantId);
+                    ps.setString(2, row.softwareName);
+                    ps.setString(3, row.licenseKey);
+                    ps.setInt(4, row.totalSeats);
+                    if (row.expirationDate == null) {
+                        ps.setNull(5, Types.TIMESTAMP);
+                    } else {
+                        ps.setObject(5, row.expirationDate);
+                    }
+                    ps.setBoolean(6, row.active);
+                    ps.setString(7, row.description);
+                    ps.setBigDecimal(8, row.price);
+                    ps.setObject(9, now);
+                    ps.setObject(10, now);
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return candidates.size();
+                }
+            }, keyHolder);
+        
+        // Keys come back for inserted rows only; a row losing the ON CONFLICT race to a
+        // concurrent insert has none
+        Map<String, Long> inserted = new HashMap<>();
+        List<LicenseHistory> history = new ArrayList<>(candidates.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ImportRow row = byKey.remove(keyColumn(keys, "license_key").toString());
+            Long id = ((Number) keyColumn(keys, "id")).longValue();
+            inserted.put(row.licenseKey, id);
+            LicenseHistory entry = new LicenseHistory();
+            entry.setLicenseId(id);
+            entry.setActionType(LicenseHistory.ActionType.LICENSE_CREATED);
+            entry.setDescription("License created: " + row.softwareName);
+            entry.setDetails(String.format("Total seats: %d, Expiration: %s (bulk import)",
+                row.totalSeats, row.expirationDate));
+            entry.setTimestamp(now);
+            entry.setPerformedBy("system");
+            history.add(entry);
+        }
+        for (ImportRow row : byKey.values()) {
+            result.addError(row.line, row.licenseKey, "License key already exists", MAX_REPORTED_ERRORS);
+        }
+        historyWriter.writeAll(history);
+        result.setImported(result.getImported() + inserted.size());
+        return inserted;
+    }
+    
+    private static Object keyColumn(Map<String, Object> keys, String column) {
+        // Drivers differ in the case they report column labels in
+        for (Map.Entry<String, Object> entry : keys.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column)) {
+                return entry.getValue();
+            }
+        }
+        throw new RuntimeException("Generated keys are missing column " + column);
+    }
+    
+    private String getInsertSql() {
+        if (insertSql == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            insertSql = "PostgreSQL".equalsIgnoreCase(product)
+                ? INSERT_SQL + " ON CONFLICT (tenant_id, license_key) DO NOTHING"
+                : INSERT_SQL;
+        }
+        return insertSql;
+    }
+    
+    // ===== CSV Parsing =====
+    
+    private Map<String, Integer> parseHeader(String headerLine) {
+        List<String> names = splitCsvLine(headerLine);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("softwarename", "licensekey", "totalseats")) {
+            if (!columns.containsKey(required)) {
+                throw new RuntimeException("CSV header is missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+    
+    private ImportRow parseRow(long line, List<String> fields, Map<String, Integer> columns) {
+        ImportRow row = new ImportRow();
+        row.line = line;
+        row.softwareName = field(fields, columns, "softwarename");
+        row.licenseKey = field(fields, columns, "licensekey");
+        row.description = field(fields, columns, "description");
+        if (row.softwareName == null) {
+            throw new RuntimeException("Software name is required");
+        }
+        if (row.licenseKey == null) {
+            throw new RuntimeException("License key is required");
+        }
+        if (row.softwareName.length() > 255 || row.licenseKey.length() > 255) {
+            throw new RuntimeException("Software name and license key are limited to 255 characters");
+        }
+        if (row.description != null && row.description.length() > 500) {
+            throw new RuntimeException("Description exceeds 500 characters");
+        }
+        
+        String seats = field(fields, columns, "totalseats");
+        try {
+            row.totalSeats = Integer.parseInt(seats);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Total seats must be a number: " + seats);
+        }
+        if (row.totalSeats <= 0) {
+            throw new RuntimeException("Total seats must be positive");
+        }
+        
+        String expiration = field(fields, columns, "expirationdate");
+        if (expiration != null) {
+            try {
+                row.expirationDate = expiration.length() == 10
+                    ? LocalDate.parse(expiration).atTime(23, 59, 59)
+                    : LocalDateTime.parse(expiration);
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("Invalid expiration date: " + expiration);
+            }
+        }
+        
+        String price = field(fields, columns, "price");
+        if (price != null) {
+            try {
+                row.price = new BigDecimal(price);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Price must be a number: " + price);
+            }
+            if (row.price.signum() < 0 || row.price.scale() > 2 || row.price.precision() - row.price.scale() > 10) {
+                throw new RuntimeException("Invalid price: " + price);
+            }
+        }
+        
+        String active = field(fields, columns, "active");
+        if (active == null || active.equalsIgnoreCase("true")) {
+            row.active = true;
+        } else if (active.equalsIgnoreCase("false")) {
+            row.active = false;
+        } else {
+            throw new RuntimeException("Active must be true or false: " + active);
+        }
+        return row;
+    }
+    
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    /**
+     * Splits one CSV record (RFC 4180 quoting, records may not span lines).
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+    
+    private static class ImportRow {
+        long line;
+        String softwareName;
+        String licenseKey;
+        int totalSeats;
+        LocalDateTime expirationDate;
+        boolean active;
+        String description;
+        BigDecimal price;
+    }
+}
@@ -0,0 +1,188 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.CacheInvalidation;
+import com.license.management.repository.LicenseRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index over license keys: a bloom filter answers "definitely not a license key"
+ * without a query. Known keys are resolved through the natural-id cache instead, which
+ * negative lookups would miss every time.
+ *
+ * License keys are unique per tenant only, so the filter is keyed by the current tenant plus
+ * the license key; one tenant's keys never answer another tenant's lookups.
+ *
+ * Keys created on other nodes reach the filter through the cache invalidation channel, in
+ * the {@value #REGION} region the second-level cache ignores. On nodes that share the
+ * database without a channel (license.cluster) the filter would miss them, so it is not built
+ * and every key is reported as possibly present; the same goes until it has been built, and
+ * from an invalidation of everything, which may have lost keys, until it has been rebuilt.
+ * Callers then always fall back to the database. Deleted keys stay in the filter (bloom filters cannot remove) and only cost an
+ * extra query until the next rebuild.
+ */
+@Component
+public class LicenseKeyIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(LicenseKeyIndex.class);
+    
+    static final String REGION = "license-keys";
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private CacheInvalidationChannel channel;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.key-index.expected-keys:100000}")
+    private long expectedKeys = 100000;
+    
+    @Value("${license.key-index.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+    
+    private volatile BloomFilter filter;
+    private volatile BloomFilter pendingFilter;
+    private final AtomicLong insertions = new AtomicLong();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    
+    // Invalidations of everything so far; a build that overlaps one is not published
+    private long resets;
+    
+    @PostConstruct
+    void subscribe() {
+        channel.subscribe(this::receive);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!channel.seesAllWrites() || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            boolean published;
+            do {
+                long reset = currentResets();
+                // The filter covers every tenant, so read the keys across all of them
+                BloomFilter next = TenantContext.callAs(TenantContext.ALL_TENANTS, this::load);
+                published = publish(next, reset);
+            } while (!published);
+        } finally {
+            pendingFilter = null;
+            rebuilding.set(false);
+        }
+    }
+    
+    private synchronized long currentResets() {
+        return resets;
+    }
+    
+    private synchronized boolean publish(BloomFilter next, long reset) {
+        if (reset != resets) {
+            return false;
+        }
+        filter = next;
+        return true;
+    }
+    
+    private BloomFilter load() {
+        long count = licenseRepository.count();
+        BloomFilter next = new BloomFilter(Math.max(expectedKeys, count * 2), falsePositiveRate);
+        pendingFilter = next;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        long loaded = transactionTemplate.execute(status -> {
+            try (Stream<Object[]> keys = licenseRepository.streamAllTenantLicenseKeys()) {
+                AtomicLong loadedKeys = new AtomicLong();
+                keys.forEach(tenantAndKey -> {
+                    next.put(scoped((String) tenantAndKey[0], (String) tenantAndKey[1]));
+                    loadedKeys.incrementAndGet();
+                });
+                return loadedKeys.get();
+            }
+        });
+        insertions.set(loaded);
+        log.info("License key index built with {} keys (capacity {})", loaded, next.getCapacity());
+        return next;
+    }
+    
+    /**
+     * Returns false only when the key is certainly not a license key of the current tenant,
+     * on any node.
+     */
+    public boolean mightContain(String licenseKey) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(scoped(licenseKey));
+    }
+    
+    /**
+     * Registers a key once the surrounding transaction commits, so a rebuild running
+     * concurrently either reads the committed row or sees the key here.
+     */
+    public void addAfterCommit(String licenseKey) {
+        AfterCommit.run(() -> add(licenseKey));
+    }
+    
+    /**
+     * Registers a key written by this node and tells the other nodes about it.
+     */
+    public void add(String licenseKey) {
+        put(scoped(licenseKey));
+        channel.publish(new CacheInvalidation(REGION, null, TenantContext.getTenantId(), licenseKey));
+    }
+    
+    private void receive(CacheInvalidation invalidation) {
+        if (invalidation.getRegion() == null) {
+            // Whatever was lost may have included keys
+            synchronized (this) {
+                resets++;
+                filter = null;
+            }
+            CompletableFuture.runAsync(this::rebuild);
+        } else if (REGION.equals(invalidation.getRegion()) && invalidation.getKey() instanceof String licenseKey) {
+            put(scoped(invalidation.getTenantId(), licenseKey));
+        }
+    }
+    
+    private void put(String scopedKey) {
+        // Pending before current: a rebuild publishes its filter before clearing the pending one
+        BloomFilter pending = pendingFilter;
+        if (pending != null) {
+            pending.put(scopedKey);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(scopedKey);
+        }
+        
+        // Past its capacity the false positive rate climbs quickly, so size up in the background
+        if (current != null && insertions.incrementAndGet() > current.getCapacity() && !rebuilding.get()) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+    
+    private static String scoped(String licenseKey) {
+        return scoped(TenantContext.getTenantId(), licenseKey);
+    }
+    
+    // Tenant ids cannot contain ':', so the prefix is unambiguous
+    private static String scoped(String tenantId, String licenseKey) {
+        return tenantId + ":" + licenseKey;
+    }
+}
@@ -0,0 +1,102 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.repository.UserLicenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revokes user assignments that have not been used for longer than the idle threshold, so
+ * their seats go back to the pool (and to the waitlist). Off unless enabled.
+ */
+@Service
+public class LicenseReclamationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(LicenseReclamationService.class);
+    
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private LicenseService licenseService;
+    
+    @Autowired
+    private UsageTracker usageTracker;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.reclamation.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${license.reclamation.idle-threshold:P90D}")
+    private Duration idleThreshold = Duration.ofDays(90);
+    
+    @Value("${license.reclamation.batch-size:500}")
+    private int batchSize = 500;
+    
+    // Caps one run, so a first run over a large backlog does not hold the scheduler for long
+    @Value("${license.reclamation.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+    
+    @Scheduled(fixedDelayString = "${license.reclamation.interval-ms:3600000}")
+    public void reclaimIdle() {
+        if (enabled) {
+            reclaimIdleSince(LocalDateTime.now().minus(idleThreshold));
+        }
+    }
+    
+    /**
+     * Revokes active assignments last used before the cutoff, one transaction per tenant and
+     * batch. Returns the number revoked.
+     */
+    public int reclaimIdleSince(LocalDateTime cutoff) {
+        // Pending pings may show an assignment is in use after all
+        usageTracker.flush();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int reclaimed = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Object[]> idle = TenantContext.callAs(TenantContext.ALL_TENANTS, () -> transactionTemplate.execute(
+                status -> userLicenseRepository.findIdleAssignments(cutoff, PageRequest.of(0, batchSize))));
+            if (idle.isEmpty()) {
+                break;
+            }
+            Map<String, List<Long>> idsByTenant = new LinkedHashMap<>();
+            for (Object[] row : idle) {
+                idsByTenant.computeIfAbsent((String) row[1], tenantId -> new ArrayList<>()).add((Long) row[0]);
+            }
+            boolean failed = false;
+            for (Map.Entry<String, List<Long>> tenant : idsByTenant.entrySet()) {
+                try {
+                    reclaimed += TenantContext.callAs(tenant.getKey(), () -> transactionTemplate.execute(
+                        status -> licenseService.revokeUserLicenses(tenant.getValue(), "Reclaimed: unused since " + cutoff)));
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.warn("Failed to reclaim {} idle assignments", tenant.getValue().size(), e);
+                }
+            }
+            // A failed batch would be selected again, so leave it to the next run
+            if (failed || idle.size() < batchSize) {
+                break;
+            }
+        }
+        if (reclaimed > 0) {
+            log.info("Reclaimed {} license assignments unused since {}", reclaimed, cutoff);
+        }
+        return reclaimed;
+    }
+}
@@ -1,19 +1,58 @@
 package com.license.management.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.config.LocalRegionFactory;
+import com.license.management.dto.LicenseFilter;
+import com.license.management.dto.LicenseRenewalResult;
+import com.license.management.dto.SearchHit;
 import com.license.management.entity.*;
+import com.license.management.event.LicenseHistoryEvent;
 import com.license.management.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class LicenseService {
     
+    private static final String REVOKE_SQL =
+        "UPDATE user_licenses SET active = false, revoked_at = ? WHERE id = ? AND active = true";
+    
+    private static final String RELEASE_SEATS_SQL =
+        "UPDATE licenses SET used_seats = CASE WHEN used_seats > ? THEN used_seats - ? ELSE 0 END, " +
+        "updated_at = ?, version = version + 1 WHERE id = ?";
+    
+    // Ids bound per statement in bulk renewals and revocations
+    private static final int BULK_CHUNK_SIZE = 1000;
+    
+    // The license key is its identity for lookups and tokens, so it is not patchable
+    private static final Set<String> PATCHABLE = Set.of(
+        "softwareName", "totalSeats", "expirationDate", "active", "description", "price");
+    
+    private static final Set<String> REQUIRED = Set.of("softwareName", "totalSeats", "active");
+    
     @Autowired
     private LicenseRepository licenseRepository;
     
@@ -32,29 +71,97 @@ public class LicenseService {
     @Autowired
     private LicenseHistoryRepository historyRepository;
     
+    @Autowired
+    private LicenseKeyIndex licenseKeyIndex;
+    
+    @Autowired
+    private SearchIndex searchIndex;
+    
+    @Autowired
+    private EntitlementTokenService entitlementTokenService;
+    
+    @Autowired
+    private SeatWaitlistRepository waitlistRepository;
+    
+    @Autowired
+    private SeatWaitlistNotifier waitlistNotifier;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private LicenseHistoryWriter historyWriter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private LocalRegionFactory regionFactory;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     // ===== License CRUD Operations =====
     
+    @Transactional(readOnly = true)
     public List<License> getAllLicenses() {
         return licenseRepository.findAll();
     }
     
+    /**
+     * Streams every license to the action inside one read-only transaction, detaching each
+     * one afterwards so the persistence context does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void forEachLicense(Consumer<License> action) {
+        try (Stream<License> licenses = licenseRepository.streamAll()) {
+            licenses.forEach(license -> {
+                action.accept(license);
+                entityManager.detach(license);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<License> getLicenseById(Long id) {
         return licenseRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
+    public Optional<License> getLicenseByKey(String licenseKey) {
+        // Most unknown keys are typos or guesses; the bloom filter rejects them without a query
+        if (!licenseKeyIndex.mightContain(licenseKey)) {
+            return Optional.empty();
+        }
+        return licenseRepository.findByLicenseKey(licenseKey);
+    }
+    
+    @Transactional(readOnly = true)
     public List<License> getActiveLicenses() {
         return licenseRepository.findByActiveTrue();
     }
     
+    @Transactional(readOnly = true)
     public List<License> getAvailableLicenses() {
         return licenseRepository.findAvailableLicenses();
     }
     
+    @Transactional(readOnly = true)
+    public Page<License> searchLicenses(LicenseFilter filter, Pageable pageable) {
+        return licenseRepository.search(filter, pageable);
+    }
+    
     public License createLicense(License license) {
+        // Not the key index: a key another node has just created may not have reached it yet
         if (licenseRepository.existsByLicenseKey(license.getLicenseKey())) {
             throw new RuntimeException("License key already exists");
         }
         License savedLicense = licenseRepository.save(license);
+        licenseKeyIndex.addAfterCommit(license.getLicenseKey());
+        searchIndex.indexAfterCommit(savedLicense);
         createHistoryEntry(savedLicense.getId(), null, null, 
             LicenseHistory.ActionType.LICENSE_CREATED,
             "License created: " + license.getSoftwareName(),
@@ -75,8 +182,10 @@ public class LicenseService {
         license.setExpirationDate(licenseDetails.getExpirationDate());
         license.setActive(licenseDetails.getActive());
         license.setDescription(licenseDetails.getDescription());
+        license.setPrice(licenseDetails.getPrice());
         
         License updatedLicense = licenseRepository.save(license);
+        searchIndex.indexAfterCommit(updatedLicense);
         
         createHistoryEntry(license.getId(), null, null,
             LicenseHistory.ActionType.LICENSE_UPDATED,
@@ -91,9 +200,52 @@ public class LicenseService {
                 null);
         }
         
+        promoteWaiters(updatedLicense);
         return updatedLicense;
     }
     
+    /**
+     * Applies a JSON Merge Patch and records which fields it changed. Only the changed columns
+     * are written, and a patch that changes nothing writes neither the license nor history.
+     */
+    public License patchLicense(Long id, JsonNode patch) {
+        License license = licenseRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("License not found with id: " + id));
+        Integer oldSeats = license.getTotalSeats();
+        Set<String> changed = MergePatch.apply(objectMapper, patch, license, PATCHABLE, REQUIRED);
+        if (changed.isEmpty()) {
+            return license;
+        }
+        if (license.getTotalSeats() < license.getUsedSeats()) {
+            throw new RuntimeException("Total seats cannot be less than the seats in use");
+        }
+        
+        License updatedLicense = licenseRepository.save(license);
+        searchIndex.indexAfterCommit(updatedLicense);
+        
+        createHistoryEntry(license.getId(), null, null,
+            LicenseHistory.ActionType.LICENSE_UPDATED,
+            "License updated: " + license.getSoftwareName(),
+            "Changed fields: " + String.join(", ", changed));
+        
+        if (changed.contains("totalSeats")) {
+            LicenseHistory.ActionType actionType = license.getTotalSeats() > oldSeats ?
+                LicenseHistory.ActionType.SEATS_INCREASED : LicenseHistory.ActionType.SEATS_DECREASED;
+            createHistoryEntry(license.getId(), null, null, actionType,
+                String.format("Total seats changed from %d to %d", oldSeats, license.getTotalSeats()),
+                null);
+        }
+        
+        if (changed.contains("totalSeats") || changed.contains("active")) {
+            promoteWaiters(updatedLicense);
+        }
+        return updatedLicense;
+    }
+    
+    /**
+     * Marks the license deleted, which hides it at once. Its assignments are left to the purge
+     * job, which removes them in batches instead of locking every one in this transaction.
+     */
     public void deleteLicense(Long id) {
         License license = licenseRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("License not found with id: " + id));
@@ -101,7 +253,92 @@ public class LicenseService {
             LicenseHistory.ActionType.LICENSE_DELETED,
             "License deleted: " + license.getSoftwareName(),
             null);
-        licenseRepository.delete(license);
+        license.setDeletedAt(LocalDateTime.now());
+        licenseRepository.save(license);
+        // Revoked, so tokens already issued for the seats go on the revocation list; marked
+        // deleted first, so the freed seats are not offered to the waitlist
+        revokeUserLicenses(userLicenseRepository.findActiveIdsByLicenseId(id), "License deleted");
+        searchIndex.removeAfterCommit(SearchHit.Type.LICENSE, id);
+    }
+    
+    // ===== License Renewal =====
+    
+    public License renewLicense(Long id, LocalDateTime expirationDate, Integer totalSeats) {
+        LicenseRenewalResult result = renewLicenses(List.of(id), expirationDate, totalSeats);
+        if (!result.getNotFound().isEmpty()) {
+            throw new RuntimeException("License not found with id: " + id);
+        }
+        if (!result.getRejected().isEmpty()) {
+            throw new RuntimeException("Total seats cannot be less than the seats in use");
+        }
+        return licenseRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("License not found with id: " + id));
+    }
+    
+    /**
+     * Sets the expiration date, and optionally the total seats, of the licenses with one
+     * UPDATE per chunk and writes one LICENSE_RENEWED entry per license in a single batch.
+     * Assignments are left untouched; a license with more seats in use than the new total is
+     * skipped.
+     */
+    public LicenseRenewalResult renewLicenses(Collection<Long> licenseIds, LocalDateTime expirationDate,
+                                              Integer totalSeats) {
+        LicenseRenewalResult result = new LicenseRenewalResult();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(licenseIds));
+        List<Long> seatsAdded = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()));
+            Set<Long> missing = new LinkedHashSet<>(chunk);
+            List<Long> renewable = new ArrayList<>();
+            List<LicenseHistory> history = new ArrayList<>();
+            for (Object[] row : licenseRepository.findRenewalStateForUpdate(chunk)) {
+                Long licenseId = (Long) row[0];
+                Integer oldSeats = (Integer) row[3];
+                missing.remove(licenseId);
+                if (totalSeats != null && (Integer) row[4] > totalSeats) {
+                    result.getRejected().add(licenseId);
+                    continue;
+                }
+                renewable.add(licenseId);
+                if (totalSeats != null && totalSeats > oldSeats) {
+                    seatsAdded.add(licenseId);
+                }
+                String details = "Expiration date changed from " + Objects.toString(row[2], "none") + " to "
+                    + expirationDate;
+                if (totalSeats != null && !totalSeats.equals(oldSeats)) {
+                    details += String.format("; total seats changed from %d to %d", oldSeats, totalSeats);
+                }
+                LicenseHistory entry = new LicenseHistory();
+                entry.setLicenseId(licenseId);
+                entry.setActionType(LicenseHistory.ActionType.LICENSE_RENEWED);
+                entry.setDescription("License renewed: " + row[1]);
+                entry.setDetails(details);
+                entry.setTimestamp(now);
+                entry.setPerformedBy("system");
+                history.add(entry);
+            }
+            result.getNotFound().addAll(missing);
+            if (renewable.isEmpty()) {
+                continue;
+            }
+            if (totalSeats == null) {
+                licenseRepository.renew(renewable, expirationDate, now);
+            } else {
+                licenseRepository.renewWithSeats(renewable, expirationDate, totalSeats, now);
+            }
+            historyWriter.writeAll(history);
+            result.setRenewed(result.getRenewed() + renewable.size());
+        }
+        // Added seats go to the waitlist, as they do when a license is updated; only licenses
+        // with someone waiting are loaded
+        for (int start = 0; start < seatsAdded.size(); start += BULK_CHUNK_SIZE) {
+            List<Long> chunk = seatsAdded.subList(start, Math.min(start + BULK_CHUNK_SIZE, seatsAdded.size()));
+            for (Long licenseId : waitlistRepository.findLicenseIdsWithStatus(chunk, SeatWaitlistEntry.Status.WAITING)) {
+                licenseRepository.findById(licenseId).ifPresent(this::promoteWaiters);
+            }
+        }
+        return result;
     }
     
     // ===== User License Assignment =====
@@ -122,6 +359,19 @@ public class LicenseService {
             throw new RuntimeException("No available seats for this license");
         }
         
+        UserLicense saved = createUserAssignment(license, user, notes);
+        saved.setEntitlementToken(entitlementTokenService.issueToken(saved));
+        return saved;
+    }
+    
+    private UserLicense createUserAssignment(License license, User user, String notes) {
+        // The same conditional update as a lease checkout, so assignments and leases taking
+        // seats at once cannot oversubscribe the license
+        if (licenseRepository.takeSeat(license.getId(), LocalDateTime.now()) == 0) {
+            throw new RuntimeException("No available seats for this license");
+        }
+        entityManager.refresh(license);
+        
         UserLicense userLicense = new UserLicense();
         userLicense.setUser(user);
         userLicense.setLicense(license);
@@ -130,18 +380,27 @@ public class LicenseService {
         
         UserLicense saved = userLicenseRepository.save(userLicense);
         
-        // Update used seats
-        license.setUsedSeats(license.getUsedSeats() + 1);
-        licenseRepository.save(license);
-        
-        createHistoryEntry(licenseId, userId, null,
+        createHistoryEntry(license.getId(), user.getId(), null,
             LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER,
             String.format("License assigned to user: %s", user.getUsername()),
-            notes);
+            notes, 1);
         
         return saved;
     }
     
+    public String issueEntitlementToken(Long userLicenseId) {
+        UserLicense userLicense = userLicenseRepository.findById(userLicenseId)
+            .orElseThrow(() -> new RuntimeException("User license not found with id: " + userLicenseId));
+        if (!userLicense.getActive()) {
+            throw new RuntimeException("User license has been revoked");
+        }
+        // The assignment outlives its license until the purge job removes it
+        if (userLicense.getLicense().getDeletedAt() != null) {
+            throw new RuntimeException("License has been deleted");
+        }
+        return entitlementTokenService.issueToken(userLicense);
+    }
+    
     public void revokeLicenseFromUser(Long userLicenseId) {
         UserLicense userLicense = userLicenseRepository.findById(userLicenseId)
             .orElseThrow(() -> new RuntimeException("User license not found with id: " + userLicenseId));
@@ -158,15 +417,97 @@ public class LicenseService {
         createHistoryEntry(license.getId(), userLicense.getUser().getId(), null,
             LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER,
             String.format("License revoked from user: %s", userLicense.getUser().getUsername()),
-            null);
+            null, -1);
+        
+        promoteWaiters(license);
+    }
+    
+    /**
+     * Revokes many user assignments at once: one batched update for the assignments, one
+     * batched seat update for their licenses, one history batch, then waitlist promotion for
+     * the freed seats. Assignments that are already revoked are skipped. Returns the number
+     * revoked.
+     */
+    public int revokeUserLicenses(Collection<Long> userLicenseIds, String details) {
+        if (userLicenseIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(userLicenseIds);
+        List<Object[]> assignments = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += BULK_CHUNK_SIZE) {
+            assignments.addAll(userLicenseRepository.findActiveAssignmentSummaries(
+                ids.subList(start, Math.min(start + BULK_CHUNK_SIZE, ids.size()))));
+        }
+        if (assignments.isEmpty()) {
+            return 0;
+        }
+        // Pending entity changes must reach the database before the JDBC updates
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+        int[][] updated = jdbcTemplate.batchUpdate(REVOKE_SQL, assignments, assignments.size(), (ps, assignment) -> {
+            ps.setObject(1, now);
+            ps.setLong(2, (Long) assignment[0]);
+        });
+        
+        Map<Long, Integer> seatsByLicense = new LinkedHashMap<>();
+        List<LicenseHistory> history = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                // Zero when a concurrent revoke got there first
+                Object[] assignment = assignments.get(index++);
+                if (count == 0) {
+                    continue;
+                }
+                Long licenseId = (Long) assignment[1];
+                seatsByLicense.merge(licenseId, 1, Integer::sum);
+                LicenseHistory entry = new LicenseHistory();
+                entry.setLicenseId(licenseId);
+                entry.setUserId((Long) assignment[2]);
+                entry.setActionType(LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER);
+                entry.setDescription(String.format("License revoked from user: %s", assignment[3]));
+                entry.setDetails(details);
+                entry.setTimestamp(now);
+                entry.setPerformedBy("system");
+                entry.setSeatChange(-1);
+                history.add(entry);
+            }
+        }
+        if (history.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Long, Integer>> releases = new ArrayList<>(seatsByLicense.entrySet());
+        jdbcTemplate.batchUpdate(RELEASE_SEATS_SQL, releases, releases.size(), (ps, release) -> {
+            ps.setInt(1, release.getValue());
+            ps.setInt(2, release.getValue());
+            ps.setObject(3, now);
+            ps.setLong(4, release.getKey());
+        });
+        // Hibernate did not see the seat updates, so the cached licenses are evicted and the
+        // table stamped here
+        List<Long> releasedIds = new ArrayList<>(seatsByLicense.keySet());
+        AfterCommit.run(() -> {
+            regionFactory.evict(License.class, releasedIds);
+            regionFactory.tablesChanged("licenses");
+        });
+        historyWriter.writeAll(history);
+        // Promotion reloads the licenses the seat updates bypassed; only licenses with someone
+        // waiting need it
+        for (Long licenseId : waitlistRepository.findLicenseIdsWithStatus(seatsByLicense.keySet(),
+                SeatWaitlistEntry.Status.WAITING)) {
+            licenseRepository.findById(licenseId).ifPresent(this::promoteWaiters);
+        }
+        return history.size();
     }
     
+    @Transactional(readOnly = true)
     public List<UserLicense> getUserLicenses(Long userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         return userLicenseRepository.findByUserAndActiveTrue(user);
     }
     
+    @Transactional(readOnly = true)
     public List<UserLicense> getLicenseUsers(Long licenseId) {
         License license = licenseRepository.findById(licenseId)
             .orElseThrow(() -> new RuntimeException("License not found with id: " + licenseId));
@@ -207,7 +548,7 @@ public class LicenseService {
         createHistoryEntry(licenseId, null, groupId,
             LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_GROUP,
             String.format("License assigned to group: %s (%d seats)", group.getName(), allocatedSeats),
-            notes);
+            notes, allocatedSeats);
         
         return saved;
     }
@@ -230,31 +571,172 @@ public class LicenseService {
             LicenseHistory.ActionType.LICENSE_REVOKED_FROM_GROUP,
             String.format("License revoked from group: %s (%d seats freed)", 
                 groupLicense.getGroup().getName(), allocatedSeats),
-            null);
+            null, -allocatedSeats);
+        
+        promoteWaiters(license);
     }
     
+    @Transactional(readOnly = true)
     public List<GroupLicense> getGroupLicenses(Long groupId) {
         UserGroup group = groupRepository.findById(groupId)
             .orElseThrow(() -> new RuntimeException("Group not found with id: " + groupId));
         return groupLicenseRepository.findByGroupAndActiveTrue(group);
     }
     
+    @Transactional(readOnly = true)
     public List<GroupLicense> getLicenseGroups(Long licenseId) {
         License license = licenseRepository.findById(licenseId)
             .orElseThrow(() -> new RuntimeException("License not found with id: " + licenseId));
         return groupLicenseRepository.findByLicenseAndActiveTrue(license);
     }
     
+    // ===== Seat Waitlist =====
+    
+    /**
+     * Queues a user for a seat. If the license has free seats the queue is promoted straight
+     * away, so the returned entry may already be PROMOTED.
+     */
+    public SeatWaitlistEntry joinWaitlist(Long licenseId, Long userId, String notes) {
+        License license = licenseRepository.findById(licenseId)
+            .orElseThrow(() -> new RuntimeException("License not found with id: " + licenseId));
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        
+        if (userLicenseRepository.existsByUserAndLicenseAndActiveTrue(user, license)) {
+            throw new RuntimeException("License already assigned to this user");
+        }
+        if (waitlistRepository.existsByLicenseIdAndUserIdAndStatus(
+                licenseId, userId, SeatWaitlistEntry.Status.WAITING)) {
+            throw new RuntimeException("User is already on the waitlist for this license");
+        }
+        
+        SeatWaitlistEntry entry = new SeatWaitlistEntry();
+        entry.setLicenseId(licenseId);
+        entry.setUserId(userId);
+        entry.setNotes(notes);
+        entry.setStatus(SeatWaitlistEntry.Status.WAITING);
+        SeatWaitlistEntry saved = waitlistRepository.save(entry);
+        
+        promoteWaiters(license);
+        return withPosition(saved);
+    }
+    
+    // Not read-only, so it stays on the primary: entries are polled right after they are created
+    // or promoted, and a long poll's timeout read runs on a container thread that has none of the
+    // client's read-your-writes state
+    public Optional<SeatWaitlistEntry> getWaitlistEntry(Long entryId) {
+        return waitlistRepository.findById(entryId).map(this::withPosition);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SeatWaitlistEntry> getLicenseWaitlist(Long licenseId) {
+        List<SeatWaitlistEntry> waiting = waitlistRepository.findByLicenseIdAndStatusOrderByIdAsc(
+            licenseId, SeatWaitlistEntry.Status.WAITING);
+        for (int i = 0; i < waiting.size(); i++) {
+            waiting.get(i).setPosition((long) i + 1);
+        }
+        return waiting;
+    }
+    
+    public void cancelWaitlistEntry(Long entryId) {
+        SeatWaitlistEntry entry = waitlistRepository.findById(entryId)
+            .orElseThrow(() -> new RuntimeException("Waitlist entry not found with id: " + entryId));
+        if (entry.getStatus() != SeatWaitlistEntry.Status.WAITING) {
+            throw new RuntimeException("Waitlist entry is no longer waiting");
+        }
+        entry.setStatus(SeatWaitlistEntry.Status.CANCELLED);
+        entry.setResolvedAt(LocalDateTime.now());
+        waitlistRepository.save(entry);
+        waitlistNotifier.notifyResolved(entry);
+    }
+    
+    public void promoteWaiters(Long licenseId) {
+        licenseRepository.findById(licenseId).ifPresent(this::promoteWaiters);
+    }
+    
+    /**
+     * Hands free seats to waiting users in request order, inside the caller's transaction,
+     * so a freed seat goes to the head of the queue instead of whoever retries first. The
+     * license row stays locked until the transaction ends, so two transactions freeing seats
+     * cannot hand the same seat out twice.
+     */
+    private void promoteWaiters(License unlocked) {
+        if (!waitlistRepository.existsByLicenseIdAndStatus(unlocked.getId(), SeatWaitlistEntry.Status.WAITING)) {
+            return;
+        }
+        // Seat changes in flight commit first, then the seat count is read afresh; only done
+        // with someone waiting, as the refresh evicts the cached license
+        License license = licenseRepository.findByIdForUpdate(unlocked.getId()).orElse(null);
+        if (license == null) {
+            return;
+        }
+        entityManager.refresh(license);
+        if (!Boolean.TRUE.equals(license.getActive())) {
+            return;
+        }
+        while (license.getAvailableSeats() > 0) {
+            List<SeatWaitlistEntry> next = waitlistRepository.findByLicenseIdAndStatusOrderByIdAsc(
+                license.getId(), SeatWaitlistEntry.Status.WAITING, PageRequest.of(0, license.getAvailableSeats()));
+            if (next.isEmpty()) {
+                return;
+            }
+            for (SeatWaitlistEntry entry : next) {
+                entry.setResolvedAt(LocalDateTime.now());
+                Optional<User> user = userRepository.findById(entry.getUserId());
+                if (user.isEmpty() || userLicenseRepository.existsByUserAndLicenseAndActiveTrue(user.get(), license)) {
+                    entry.setStatus(SeatWaitlistEntry.Status.CANCELLED);
+                } else {
+                    UserLicense assignment = createUserAssignment(license, user.get(), entry.getNotes());
+                    entry.setStatus(SeatWaitlistEntry.Status.PROMOTED);
+                    entry.setUserLicenseId(assignment.getId());
+                }
+                waitlistRepository.save(entry);
+                waitlistNotifier.notifyResolved(entry);
+            }
+        }
+    }
+    
+    private SeatWaitlistEntry withPosition(SeatWaitlistEntry entry) {
+        if (entry.getStatus() == SeatWaitlistEntry.Status.WAITING) {
+            entry.setPosition(waitlistRepository.countByLicenseIdAndStatusAndIdLessThan(
+                entry.getLicenseId(), SeatWaitlistEntry.Status.WAITING, entry.getId()) + 1);
+        }
+        return entry;
+    }
+    
     // ===== History and Audit =====
     
+    @Transactional(readOnly = true)
     public List<LicenseHistory> getLicenseHistory(Long licenseId) {
         return historyRepository.findByLicenseIdOrderByTimestampDesc(licenseId);
     }
     
+    @Transactional(readOnly = true)
+    public void forEachLicenseHistory(Long licenseId, Consumer<LicenseHistory> action) {
+        try (Stream<LicenseHistory> history = historyRepository.streamByLicenseIdOrderByTimestampDesc(licenseId)) {
+            history.forEach(entry -> {
+                action.accept(entry);
+                entityManager.detach(entry);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
     public List<LicenseHistory> getUserHistory(Long userId) {
         return historyRepository.findByUserIdOrderByTimestampDesc(userId);
     }
     
+    @Transactional(readOnly = true)
+    public void forEachUserHistory(Long userId, Consumer<LicenseHistory> action) {
+        try (Stream<LicenseHistory> history = historyRepository.streamByUserIdOrderByTimestampDesc(userId)) {
+            history.forEach(entry -> {
+                action.accept(entry);
+                entityManager.detach(entry);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
     public List<LicenseHistory> getRecentHistory() {
         return historyRepository.findTop50ByOrderByTimestampDesc();
     }
@@ -262,6 +744,12 @@ public class LicenseService {
     private void createHistoryEntry(Long licenseId, Long userId, Long groupId,
                                    LicenseHistory.ActionType actionType,
                                    String description, String details) {
+        createHistoryEntry(licenseId, userId, groupId, actionType, description, details, null);
+    }
+    
+    private void createHistoryEntry(Long licenseId, Long userId, Long groupId,
+                                   LicenseHistory.ActionType actionType,
+                                   String description, String details, Integer seatChange) {
         LicenseHistory history = new LicenseHistory();
         history.setLicenseId(licenseId);
         history.setUserId(userId);
@@ -270,6 +758,8 @@ public class LicenseService {
         history.setDescription(description);
         history.setDetails(details);
         history.setPerformedBy("system"); // In production, get from security context
+        history.setSeatChange(seatChange);
         historyRepository.save(history);
+        eventPublisher.publishEvent(new LicenseHistoryEvent(List.of(history)));
     }
 }
@@ -0,0 +1,85 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies a JSON Merge Patch (RFC 7396) to a managed entity. Only the listed fields may be
+ * patched, and a null value, which clears a field, is refused for required ones. Returns the
+ * fields whose value actually changed, so callers can skip checks and side effects for the
+ * rest; with {@code @DynamicUpdate} the flush then writes just those columns.
+ *
+ * <p>Checks that query the patched table must run before {@link #apply}: the query would
+ * auto-flush the patched entity first and then find it, or fail on a unique constraint.
+ */
+final class MergePatch {
+    
+    private MergePatch() {
+    }
+    
+    static Set<String> apply(ObjectMapper objectMapper, JsonNode patch, Object target,
+                             Set<String> patchable, Set<String> required) {
+        if (patch == null || !patch.isObject()) {
+            throw new RuntimeException("Patch must be a JSON object");
+        }
+        List<String> fields = new ArrayList<>();
+        for (Iterator<String> names = patch.fieldNames(); names.hasNext(); ) {
+            String field = names.next();
+            if (!patchable.contains(field)) {
+                throw new RuntimeException("Field cannot be patched: " + field);
+            }
+            if (required.contains(field) && patch.get(field).isNull()) {
+                throw new RuntimeException("Field cannot be removed: " + field);
+            }
+            fields.add(field);
+        }
+        
+        BeanWrapper bean = new BeanWrapperImpl(target);
+        List<Object> before = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            before.add(bean.getPropertyValue(field));
+        }
+        try {
+            objectMapper.readerForUpdating(target).readValue(patch);
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid patch: " + e.getMessage(), e);
+        }
+        Set<String> changed = new LinkedHashSet<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (!sameValue(before.get(i), bean.getPropertyValue(fields.get(i)))) {
+                changed.add(fields.get(i));
+            }
+        }
+        return changed;
+    }
+    
+    // Prices compare by value, so "10.0" does not change 10.00
+    private static boolean sameValue(Object before, Object after) {
+        if (before instanceof BigDecimal decimal && after instanceof BigDecimal) {
+            return decimal.compareTo((BigDecimal) after) == 0;
+        }
+        return Objects.equals(before, after);
+    }
+    
+    /**
+     * The new text the patch sets the field to, or null if it leaves the field as it is.
+     */
+    static String changedText(JsonNode patch, String field, String current) {
+        JsonNode value = patch == null ? null : patch.get(field);
+        if (value == null || !value.isTextual() || value.asText().equals(current)) {
+            return null;
+        }
+        return value.asText();
+    }
+}
@@ -0,0 +1,144 @@
+package com.license.management.service;
+
+import com.license.management.entity.OutboxEvent;
+import com.license.management.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Delivers committed outbox rows to the configured {@link OutboxSink} in batches.
+ *
+ * Events of one aggregate (a license or a user) are delivered in the order they were written:
+ * while an aggregate's oldest pending event is waiting out a retry backoff, its later events
+ * are held back too. Run the relay on a single node, otherwise that ordering is lost.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    
+    @Autowired(required = false)
+    private OutboxSink sink;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.outbox.relay-enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${license.outbox.batch-size:200}")
+    private int batchSize = 200;
+    
+    @Value("${license.outbox.initial-backoff:PT1S}")
+    private Duration initialBackoff = Duration.ofSeconds(1);
+    
+    @Value("${license.outbox.max-backoff:PT5M}")
+    private Duration maxBackoff = Duration.ofMinutes(5);
+    
+    @Value("${license.outbox.retention:P7D}")
+    private Duration retention = Duration.ofDays(7);
+    
+    @Scheduled(fixedDelayString = "${license.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        if (!enabled || sink == null) {
+            return;
+        }
+        // Keep going while there is a full backlog rather than waiting for the next poll
+        int delivered;
+        do {
+            delivered = relayBatch();
+        } while (delivered == batchSize);
+    }
+    
+    /**
+     * Delivers one batch and returns the number of events delivered.
+     */
+    int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        // Read past the batch size so a few blocked aggregates do not stall everything else
+        List<OutboxEvent> pending = outboxRepository.findByDeliveredAtIsNullOrderByIdAsc(
+            PageRequest.of(0, batchSize * 4));
+        Set<String> blocked = new HashSet<>();
+        List<OutboxEvent> batch = new ArrayList<>();
+        for (OutboxEvent event : pending) {
+            String key = event.getAggregateKey();
+            if (blocked.contains(key)) {
+                continue;
+            }
+            if (event.getNextAttemptAt() != null && event.getNextAttemptAt().isAfter(now)) {
+                blocked.add(key);
+                continue;
+            }
+            batch.add(event);
+            if (batch.size() == batchSize) {
+                break;
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            sink.deliver(batch);
+        } catch (Exception e) {
+            log.warn("Outbox delivery of {} events failed: {}", batch.size(), e.toString());
+            transactionTemplate.executeWithoutResult(status -> scheduleRetry(batch, e, now));
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.markDelivered(ids, LocalDateTime.now()));
+        return batch.size();
+    }
+    
+    private void scheduleRetry(List<OutboxEvent> batch, Exception error, LocalDateTime now) {
+        String message = String.valueOf(error.getMessage());
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        jdbcTemplate.batchUpdate(
+            "UPDATE outbox_events SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?",
+            batch, batch.size(), (ps, event) -> {
+                int attempts = event.getAttempts() + 1;
+                ps.setInt(1, attempts);
+                ps.setObject(2, now.plus(backoff(attempts)));
+                ps.setString(3, lastError);
+                ps.setLong(4, event.getId());
+            });
+    }
+    
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+    
+    @Scheduled(fixedDelayString = "${license.outbox.cleanup-interval-ms:3600000}")
+    public void purgeDelivered() {
+        int purged = new TransactionTemplate(transactionManager).execute(status ->
+            outboxRepository.deleteDeliveredBefore(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            log.debug("Purged {} delivered outbox events", purged);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.config.TenantContext;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.entity.OutboxEvent;
+import com.license.management.entity.User;
+import com.license.management.event.LicenseHistoryEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes outbox rows in the caller's transaction, so a change and its event commit or roll
+ * back together. {@link OutboxRelay} delivers them afterwards.
+ *
+ * License changes are recorded from the history entries they already produce; user changes
+ * have no history and are recorded explicitly by {@link UserService}.
+ */
+@Service
+public class OutboxService {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO outbox_events (event_id, tenant_id, aggregate_type, aggregate_id, event_type, " +
+        "payload, created_at, attempts) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Runs synchronously inside the transaction that wrote the history entries.
+     */
+    @EventListener
+    public void onHistory(LicenseHistoryEvent event) {
+        List<OutboxEvent> events = new ArrayList<>(event.getEntries().size());
+        for (LicenseHistory entry : event.getEntries()) {
+            events.add(newEvent(entry.getTenantId(), OutboxEvent.AggregateType.LICENSE, entry.getLicenseId(),
+                entry.getActionType().name(), entry));
+        }
+        recordAll(events);
+    }
+    
+    public void recordUserChange(User user, String eventType) {
+        recordUserChanges(List.of(user), eventType);
+    }
+    
+    public void recordUserChanges(Collection<User> users, String eventType) {
+        List<OutboxEvent> events = new ArrayList<>(users.size());
+        for (User user : users) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("id", user.getId());
+            payload.put("username", user.getUsername());
+            payload.put("email", user.getEmail());
+            payload.put("fullName", user.getFullName());
+            payload.put("active", user.getActive());
+            events.add(newEvent(user.getTenantId(), OutboxEvent.AggregateType.USER, user.getId(),
+                eventType, payload));
+        }
+        recordAll(events);
+    }
+    
+    public void recordUserGroupChange(User user, Long groupId, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", user.getId());
+        payload.put("groupId", groupId);
+        recordAll(List.of(newEvent(user.getTenantId(), OutboxEvent.AggregateType.USER, user.getId(),
+            eventType, payload)));
+    }
+    
+    private void recordAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getEventId());
+            ps.setString(2, event.getTenantId());
+            ps.setString(3, event.getAggregateType().name());
+            ps.setLong(4, event.getAggregateId());
+            ps.setString(5, event.getEventType());
+            ps.setString(6, event.getPayload());
+            ps.setObject(7, event.getCreatedAt());
+        });
+    }
+    
+    private OutboxEvent newEvent(String tenantId, OutboxEvent.AggregateType aggregateType, Long aggregateId,
+                                 String eventType, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setTenantId(tenantId != null ? tenantId : TenantContext.getTenantId());
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setCreatedAt(LocalDateTime.now());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialize outbox payload", e);
+        }
+        return event;
+    }
+}
@@ -0,0 +1,32 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.license.management.entity.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events. A batch either succeeds as a whole or throws, in
+ * which case every event in it is retried.
+ */
+public interface OutboxSink {
+    
+    void deliver(List<OutboxEvent> events) throws Exception;
+    
+    /**
+     * The JSON form of an event as integrations see it, with the payload inlined.
+     */
+    static ObjectNode envelope(ObjectMapper objectMapper, OutboxEvent event) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("eventId", event.getEventId());
+        node.put("tenantId", event.getTenantId());
+        node.put("aggregateType", event.getAggregateType().name());
+        node.put("aggregateId", event.getAggregateId());
+        node.put("eventType", event.getEventType());
+        node.put("createdAt", event.getCreatedAt().toString());
+        node.set("payload", objectMapper.readTree(event.getPayload()));
+        return node;
+    }
+}
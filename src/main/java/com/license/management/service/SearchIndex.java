@@ -0,0 +1,694 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.CacheInvalidation;
+import com.license.management.dto.SearchHit;
+import com.license.management.dto.SearchHit.Type;
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import com.license.management.entity.UserGroup;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserGroupRepository;
+import com.license.management.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over user, group and license names for typeahead search. Field
+ * values are split into lower-case terms kept in a sorted map, so a prefix query is a range
+ * scan that stops as soon as it has enough matches. Fuzzy matching walks the terms sharing the
+ * query's first letter and keeps those with a prefix within one or two edits of the query,
+ * stepping over every term that starts with a prefix already too far from it.
+ *
+ * Terms are keyed by tenant, like the license key index, so a search only sees documents of
+ * the current tenant. The index is built once the application has started and kept current by
+ * the services after each committed create, update and delete.
+ *
+ * Every change is also announced on the cache invalidation channel, in the {@value #REGION}
+ * region the second-level cache ignores, and the other nodes reload the document from the
+ * database, dropping it if it is gone. An invalidation of everything, which may have lost
+ * changes, rebuilds the index. Nodes that share the database without a channel
+ * (license.cluster) only see their own changes until they restart.
+ */
+@Component
+public class SearchIndex {
+    
+    private static final Logger log = LoggerFactory.getLogger(SearchIndex.class);
+    
+    static final String REGION = "search";
+    
+    // Posting lists up to this size are copy-on-write arrays, longer ones concurrent sets
+    private static final int MAX_ARRAY_POSTINGS = 32;
+    
+    private static final int MAX_TERM_LENGTH = 64;
+    
+    private static final int FUZZY_MIN_LENGTH = 3;
+    
+    private static final String TERM_SEPARATOR = " ";
+    
+    // A fuzzy walk steps over this many rejected terms before seeking past the rest of them
+    private static final int SEEK_AFTER = 64;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private UserGroupRepository groupRepository;
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CacheInvalidationChannel channel;
+    
+    @Value("${license.search.max-results:50}")
+    private int maxResults = 50;
+    
+    // Postings, and fuzzy candidate terms, one search looks at before giving up
+    @Value("${license.search.max-scan:5000}")
+    private int maxScan = 5000;
+    
+    private volatile Index index = new Index(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>());
+    
+    // Updates made while the index is built, replayed onto the new index before it is used
+    private List<Consumer<Index>> pendingUpdates;
+    
+    @PostConstruct
+    void subscribe() {
+        channel.subscribe(this::receive);
+    }
+    
+    /**
+     * Loads every tenant's documents into plain maps and turns them into concurrent ones in a
+     * single pass, which is much faster than inserting millions of terms one at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            if (pendingUpdates != null) {
+                return;
+            }
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Map<String, Object> terms = new HashMap<>();
+            Map<Long, Document> documents = new HashMap<>();
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            TenantContext.runAs(TenantContext.ALL_TENANTS, () -> transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> users = userRepository.streamSearchFields()) {
+                    users.forEach(row -> put(terms, documents, userDocument((String) row[0], (Long) row[1],
+                        (String) row[2], (String) row[3], (String) row[4])));
+                }
+                try (Stream<Object[]> groups = groupRepository.streamSearchFields()) {
+                    groups.forEach(row -> put(terms, documents, groupDocument((String) row[0], (Long) row[1],
+                        (String) row[2], (String) row[3])));
+                }
+                try (Stream<Object[]> licenses = licenseRepository.streamSearchFields()) {
+                    licenses.forEach(row -> put(terms, documents, licenseDocument((String) row[0], (Long) row[1],
+                        (String) row[2], (String) row[3], (String) row[4])));
+                }
+            }));
+            Index built = new Index(new ConcurrentSkipListMap<>(new TreeMap<>(terms)), new ConcurrentHashMap<>(documents));
+            synchronized (this) {
+                pendingUpdates.forEach(update -> update.accept(built));
+                index = built;
+            }
+            log.info("Search index built with {} documents and {} terms in {} ms", documents.size(), terms.size(),
+                System.currentTimeMillis() - started);
+        } finally {
+            synchronized (this) {
+                pendingUpdates = null;
+            }
+        }
+    }
+    
+    // ===== Updates =====
+    
+    public void indexAfterCommit(User user) {
+        Document document = userDocument(user.getTenantId(), user.getId(), user.getUsername(), user.getEmail(),
+            user.getFullName());
+        AfterCommit.run(() -> index(document));
+    }
+    
+    public void indexAfterCommit(UserGroup group) {
+        Document document = groupDocument(group.getTenantId(), group.getId(), group.getName(), group.getDescription());
+        AfterCommit.run(() -> index(document));
+    }
+    
+    public void indexAfterCommit(License license) {
+        Document document = licenseDocument(license.getTenantId(), license.getId(), license.getSoftwareName(),
+            license.getLicenseKey(), license.getDescription());
+        AfterCommit.run(() -> index(document));
+    }
+    
+    public void indexLicense(String tenantId, Long id, String softwareName, String licenseKey, String description) {
+        index(licenseDocument(tenantId, id, softwareName, licenseKey, description));
+    }
+    
+    public void removeAfterCommit(Type type, Long id) {
+        AfterCommit.run(() -> remove(type, id));
+    }
+    
+    public void remove(Type type, Long id) {
+        removeLocally(type, id);
+        announce(type, null, id);
+    }
+    
+    private void index(Document document) {
+        update(index -> put(index.terms(), index.documents(), document));
+        announce(document.type(), document.tenantId(), document.id());
+    }
+    
+    private void announce(Type type, String tenantId, Long id) {
+        channel.publish(new CacheInvalidation(REGION, type.name(), tenantId, id));
+    }
+    
+    private void removeLocally(Type type, Long id) {
+        long ref = ref(type, id);
+        update(index -> {
+            Document previous = index.documents().remove(ref);
+            if (previous != null) {
+                for (String term : previous.terms()) {
+                    index.terms().computeIfPresent(scoped(previous.tenantId(), term),
+                        (key, postings) -> withoutRef(postings, ref));
+                }
+            }
+        });
+    }
+    
+    private void receive(CacheInvalidation invalidation) {
+        if (invalidation.getRegion() == null) {
+            // Whatever was lost may have included documents
+            CompletableFuture.runAsync(this::build);
+        } else if (REGION.equals(invalidation.getRegion()) && invalidation.getKey() instanceof Number id) {
+            reload(Type.valueOf(invalidation.getRole()), id.longValue());
+        }
+    }
+    
+    /**
+     * Replaces a document changed on another node with what the database now holds. Reading
+     * the row rather than trusting the message keeps the index right however the changes to one
+     * document interleave; the transaction is not read-only so it is served by the primary.
+     */
+    private void reload(Type type, Long id) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Document document = TenantContext.callAs(TenantContext.ALL_TENANTS,
+            () -> transactionTemplate.execute(status -> load(type, id)));
+        if (document == null) {
+            removeLocally(type, id);
+        } else {
+            update(index -> put(index.terms(), index.documents(), document));
+        }
+    }
+    
+    private Document load(Type type, Long id) {
+        List<Object[]> rows = switch (type) {
+            case USER -> userRepository.findSearchFields(id);
+            case GROUP -> groupRepository.findSearchFields(id);
+            case LICENSE -> licenseRepository.findSearchFields(id);
+        };
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return switch (type) {
+            case USER -> userDocument((String) row[0], (Long) row[1], (String) row[2], (String) row[3], (String) row[4]);
+            case GROUP -> groupDocument((String) row[0], (Long) row[1], (String) row[2], (String) row[3]);
+            case LICENSE -> licenseDocument((String) row[0], (Long) row[1], (String) row[2], (String) row[3],
+                (String) row[4]);
+        };
+    }
+    
+    // Updates take turns, so searches only ever race with a single writer
+    private synchronized void update(Consumer<Index> update) {
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        }
+        update.accept(index);
+    }
+    
+    private static void put(Map<String, Object> terms, Map<Long, Document> documents, Document document) {
+        long ref = ref(document.type(), document.id());
+        Document previous = documents.put(ref, document);
+        if (previous != null) {
+            for (String term : previous.terms()) {
+                if (!document.hasTerm(term)) {
+                    terms.computeIfPresent(scoped(previous.tenantId(), term), (key, postings) -> withoutRef(postings, ref));
+                }
+            }
+        }
+        for (String term : document.terms()) {
+            if (previous == null || !previous.hasTerm(term)) {
+                terms.compute(scoped(document.tenantId(), term), (key, postings) -> withRef(postings, ref));
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Object withRef(Object postings, long ref) {
+        if (postings == null) {
+            return new long[] {ref};
+        }
+        if (postings instanceof long[] refs) {
+            for (long existing : refs) {
+                if (existing == ref) {
+                    return refs;
+                }
+            }
+            if (refs.length < MAX_ARRAY_POSTINGS) {
+                long[] grown = Arrays.copyOf(refs, refs.length + 1);
+                grown[refs.length] = ref;
+                return grown;
+            }
+            Set<Long> set = ConcurrentHashMap.newKeySet(refs.length * 2);
+            for (long existing : refs) {
+                set.add(existing);
+            }
+            postings = set;
+        }
+        ((Set<Long>) postings).add(ref);
+        return postings;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Object withoutRef(Object postings, long ref) {
+        if (postings instanceof long[] refs) {
+            long[] kept = Arrays.stream(refs).filter(existing -> existing != ref).toArray();
+            return kept.length == 0 ? null : kept;
+        }
+        Set<Long> set = (Set<Long>) postings;
+        set.remove(ref);
+        return set.isEmpty() ? null : set;
+    }
+    
+    private static Document userDocument(String tenantId, Long id, String username, String email, String fullName) {
+        return new Document(tenantId, Type.USER, id, username, fullName, text(username, email, fullName));
+    }
+    
+    private static Document groupDocument(String tenantId, Long id, String name, String description) {
+        return new Document(tenantId, Type.GROUP, id, name, description, text(name, description));
+    }
+    
+    private static Document licenseDocument(String tenantId, Long id, String softwareName, String licenseKey,
+                                            String description) {
+        return new Document(tenantId, Type.LICENSE, id, softwareName, licenseKey,
+            text(softwareName, licenseKey, description));
+    }
+    
+    // ===== Search =====
+    
+    /**
+     * Documents of the current tenant matching every word of the query, the last one as a
+     * prefix, best first: exact terms, then longer terms, then (when fuzzy) terms within one
+     * or two edits.
+     */
+    public List<SearchHit> search(String query, Collection<Type> types, int limit, boolean fuzzy) {
+        if (limit < 1 || limit > maxResults) {
+            throw new RuntimeException("Limit must be between 1 and " + maxResults);
+        }
+        List<String> tokens = new ArrayList<>(tokenize(List.of(query)));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        String tenantId = TenantContext.getTenantId();
+        Index current = index;
+        
+        // Earlier words of a typeahead query are complete, so the rarest of them that is a
+        // term bounds the candidates
+        String driving = null;
+        Object drivingPostings = null;
+        for (String token : tokens.subList(0, tokens.size() - 1)) {
+            Object postings = current.terms().get(scoped(tenantId, token));
+            if (postings != null && (drivingPostings == null || size(postings) < size(drivingPostings))) {
+                driving = token;
+                drivingPostings = postings;
+            }
+        }
+        // Otherwise the longest word, usually the most selective one, drives a prefix scan
+        if (driving == null) {
+            driving = tokens.get(0);
+            for (String token : tokens) {
+                if (token.length() > driving.length()) {
+                    driving = token;
+                }
+            }
+        }
+        tokens.remove(driving);
+        
+        Collector collector = new Collector(current, tenantId, types, tokens, fuzzy, limit);
+        if (drivingPostings != null) {
+            collector.collect(drivingPostings);
+        } else {
+            String prefix = scoped(tenantId, driving);
+            for (Object postings : current.terms().subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                if (!collector.collect(postings)) {
+                    break;
+                }
+            }
+            if (fuzzy && !collector.isDone() && driving.length() >= FUZZY_MIN_LENGTH) {
+                collector.drivingFuzzy = true;
+                collectFuzzy(collector, current, tenantId, driving);
+            }
+        }
+        
+        List<SearchHit> hits = new ArrayList<>();
+        for (Document document : collector.results()) {
+            hits.add(new SearchHit(document.type(), document.id(), document.label(), document.detail()));
+        }
+        return hits;
+    }
+    
+    /**
+     * Walks the terms with the query's first letter in order. Once a term shows that nothing
+     * starting like it can match, the walk steps over the terms with that start, and seeks past
+     * them when there are many, so a dictionary of millions of distinct terms stays cheap.
+     */
+    private void collectFuzzy(Collector collector, Index current, String tenantId, String driving) {
+        int maxEdits = maxEdits(driving);
+        String firstLetter = scoped(tenantId, driving.substring(0, 1));
+        String end = firstLetter + Character.MAX_VALUE;
+        int offset = firstLetter.length() - 1;
+        String exactPrefix = scoped(tenantId, driving);
+        String cursor = firstLetter;
+        int visited = 0;
+        while (cursor != null) {
+            String seekTo = null;
+            String skipPrefix = null;
+            int skipped = 0;
+            for (Map.Entry<String, Object> entry : current.terms().subMap(cursor, end).entrySet()) {
+                if (++visited > maxScan) {
+                    return;
+                }
+                String key = entry.getKey();
+                if (skipPrefix != null && key.startsWith(skipPrefix)) {
+                    if (++skipped > SEEK_AFTER) {
+                        seekTo = skipPrefix + Character.MAX_VALUE;
+                        break;
+                    }
+                    continue;
+                }
+                skipPrefix = null;
+                // Prefix matches were collected before
+                int depth = key.startsWith(exactPrefix) ? exactPrefix.length() - offset
+                    : mismatchDepth(driving, key, offset, key.length(), maxEdits);
+                if (depth < 0) {
+                    if (!collector.collect(entry.getValue())) {
+                        return;
+                    }
+                } else if (depth > 0) {
+                    skipPrefix = key.substring(0, offset + depth);
+                    skipped = 0;
+                }
+            }
+            cursor = seekTo;
+        }
+    }
+    
+    private final class Collector {
+        
+        private final Index index;
+        private final String tenantId;
+        private final Collection<Type> types;
+        private final List<String> otherTokens;
+        private final boolean fuzzy;
+        private final int limit;
+        private final Map<Long, Document> hits = new LinkedHashMap<>();
+        private final Map<Long, Document> fuzzyHits = new LinkedHashMap<>();
+        private boolean drivingFuzzy;
+        private int scanned;
+        
+        Collector(Index index, String tenantId, Collection<Type> types, List<String> otherTokens, boolean fuzzy,
+                  int limit) {
+            this.index = index;
+            this.tenantId = tenantId;
+            this.types = types;
+            this.otherTokens = otherTokens;
+            this.fuzzy = fuzzy;
+            this.limit = limit;
+        }
+        
+        // Returns false once the search has enough hits or has used up its scan budget
+        @SuppressWarnings("unchecked")
+        boolean collect(Object postings) {
+            if (postings instanceof long[] refs) {
+                for (long ref : refs) {
+                    if (!accept(ref)) {
+                        return false;
+                    }
+                }
+            } else {
+                for (Long ref : (Set<Long>) postings) {
+                    if (!accept(ref)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        
+        boolean isDone() {
+            return hits.size() >= limit || scanned >= maxScan;
+        }
+        
+        List<Document> results() {
+            List<Document> results = new ArrayList<>(hits.values());
+            for (Map.Entry<Long, Document> entry : fuzzyHits.entrySet()) {
+                if (results.size() >= limit) {
+                    break;
+                }
+                if (!hits.containsKey(entry.getKey())) {
+                    results.add(entry.getValue());
+                }
+            }
+            return results;
+        }
+        
+        private boolean accept(long ref) {
+            if (++scanned > maxScan) {
+                return false;
+            }
+            Document document = index.documents().get(ref);
+            if (document == null || !document.tenantId().equals(tenantId)
+                    || (types != null && !types.isEmpty() && !types.contains(document.type()))) {
+                return true;
+            }
+            Match match = drivingFuzzy ? Match.FUZZY : Match.EXACT;
+            for (String token : otherTokens) {
+                match = match.and(match(document, token));
+                if (match == Match.NONE) {
+                    return true;
+                }
+            }
+            if (match == Match.EXACT) {
+                hits.putIfAbsent(ref, document);
+            } else if (fuzzyHits.size() < limit) {
+                fuzzyHits.putIfAbsent(ref, document);
+            }
+            // Once the driving word itself only matches fuzzily, no later hit can be exact
+            return hits.size() < limit && !(drivingFuzzy && hits.size() + fuzzyHits.size() >= limit);
+        }
+        
+        private Match match(Document document, String token) {
+            // Both kinds of match need a term with the token's first letter
+            if ((document.initials() & initial(token)) == 0) {
+                return Match.NONE;
+            }
+            String text = document.text();
+            if (text.contains(TERM_SEPARATOR + token)) {
+                return Match.EXACT;
+            }
+            if (fuzzy && token.length() >= FUZZY_MIN_LENGTH) {
+                // Like the fuzzy walk, which only looks at terms with the query's first letter
+                String start = TERM_SEPARATOR + token.charAt(0);
+                for (int at = text.indexOf(start); at >= 0; at = text.indexOf(start, at + 1)) {
+                    int end = text.indexOf(TERM_SEPARATOR, at + 1);
+                    if (mismatchDepth(token, text, at + 1, end, maxEdits(token)) < 0) {
+                        return Match.FUZZY;
+                    }
+                }
+            }
+            return Match.NONE;
+        }
+    }
+    
+    private enum Match {
+        NONE,
+        FUZZY,
+        EXACT;
+        
+        Match and(Match other) {
+            return compareTo(other) <= 0 ? this : other;
+        }
+    }
+    
+    public int getDocumentCount() {
+        return index.documents().size();
+    }
+    
+    // ===== Terms =====
+    
+    /**
+     * Lower-case runs of letters and digits, so "j.smith@corp.com" is found by "smith" and
+     * "ADOBE-CC-2024" by "adobe cc".
+     */
+    static Set<String> tokenize(Collection<String> values) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String lower = value.toLowerCase(Locale.ROOT);
+            int start = -1;
+            for (int i = 0; i <= lower.length(); i++) {
+                boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    tokens.add(lower.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                    start = -1;
+                }
+            }
+        }
+        return tokens;
+    }
+    
+    // One string per document rather than an array of terms: a search touches far fewer
+    // objects, and so far fewer cache lines, per candidate
+    private static String text(String... fields) {
+        StringBuilder text = new StringBuilder(TERM_SEPARATOR);
+        for (String term : tokenize(Arrays.asList(fields))) {
+            text.append(term).append(TERM_SEPARATOR);
+        }
+        return text.toString();
+    }
+    
+    /**
+     * Compares the query with the prefixes of a term, within maxEdits edits. Returns -1 when a
+     * prefix of the term is close enough; otherwise the length of the shortest prefix that no
+     * longer term starting with it can match, or 0 when longer terms still might.
+     */
+    static int mismatchDepth(String query, String term, int maxEdits) {
+        return mismatchDepth(query, term, 0, term.length(), maxEdits);
+    }
+    
+    // The same for the term between from and to in a longer string
+    private static int mismatchDepth(String query, String text, int from, int to, int maxEdits) {
+        int termLength = to - from;
+        int length = query.length();
+        int[] previous = new int[length + 1];
+        int[] current = new int[length + 1];
+        for (int i = 0; i <= length; i++) {
+            previous[i] = i;
+        }
+        // Past this many letters the term is more than maxEdits longer than the query
+        int columns = length + maxEdits;
+        for (int j = 1; j <= Math.min(termLength, columns); j++) {
+            current[0] = j;
+            int columnMin = j;
+            for (int i = 1; i <= length; i++) {
+                int substitution = previous[i - 1] + (query.charAt(i - 1) == text.charAt(from + j - 1) ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+                columnMin = Math.min(columnMin, current[i]);
+            }
+            if (current[length] <= maxEdits) {
+                return -1;
+            }
+            if (columnMin > maxEdits) {
+                return j;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return termLength >= columns ? columns : 0;
+    }
+    
+    // One bit per first character, letters and digits apart from the rest
+    private static long initial(String term) {
+        char first = term.charAt(0);
+        if (first >= 'a' && first <= 'z') {
+            return 1L << (first - 'a');
+        }
+        if (first >= '0' && first <= '9') {
+            return 1L << (26 + first - '0');
+        }
+        return 1L << 63;
+    }
+    
+    private static int maxEdits(String token) {
+        return token.length() >= 6 ? 2 : 1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static int size(Object postings) {
+        return postings instanceof long[] refs ? refs.length : ((Set<Long>) postings).size();
+    }
+    
+    // Ids are unique per entity type across tenants
+    private static long ref(Type type, Long id) {
+        return id * Type.values().length + type.ordinal();
+    }
+    
+    // Tenant ids cannot contain ':', so the prefix is unambiguous
+    private static String scoped(String tenantId, String term) {
+        return tenantId + ":" + term;
+    }
+    
+    private record Index(ConcurrentSkipListMap<String, Object> terms, Map<Long, Document> documents) {
+    }
+    
+    // Terms are kept as " term1 term2 ", each one preceded and followed by the separator
+    private record Document(String tenantId, Type type, Long id, String label, String detail, String text,
+                            long initials) {
+        
+        Document(String tenantId, Type type, Long id, String label, String detail, String text) {
+            this(tenantId, type, id, label, detail, text, initials(text));
+        }
+        
+        private static long initials(String text) {
+            long initials = 0;
+            for (int at = 0; at < text.length() - 1; at = text.indexOf(TERM_SEPARATOR, at + 1)) {
+                initials |= initial(text.substring(at + 1, at + 2));
+            }
+            return initials;
+        }
+        
+        String[] terms() {
+            return text.length() > 1 ? text.substring(1).split(TERM_SEPARATOR) : new String[0];
+        }
+        
+        boolean hasTerm(String term) {
+            return text.contains(TERM_SEPARATOR + term + TERM_SEPARATOR);
+        }
+    }
+}
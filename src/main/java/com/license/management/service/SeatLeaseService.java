@@ -0,0 +1,381 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.entity.SeatLease;
+import com.license.management.entity.User;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.SeatLeaseRepository;
+import com.license.management.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent-use (floating) seats. A checkout takes a seat from the license for a TTL,
+ * heartbeats extend it, and a timing-wheel sweeper gives expired seats back.
+ *
+ * Checkout, release and expiry write to the database; heartbeats only touch the in-memory
+ * lease table. Expiry times are written back in periodic snapshots, so after a restart
+ * leases resume from their last snapshotted expiry.
+ */
+@Service
+public class SeatLeaseService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SeatLeaseService.class);
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private SeatLeaseRepository seatLeaseRepository;
+    
+    @Autowired
+    private LicenseHistoryWriter historyWriter;
+    
+    @Autowired
+    private LicenseService licenseService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.leases.ttl:PT2M}")
+    private Duration leaseTtl;
+    
+    @Value("${license.leases.tick-interval-ms:1000}")
+    private long tickIntervalMillis;
+    
+    @Value("${license.leases.wheel-slots:512}")
+    private int wheelSlots;
+    
+    private final Map<String, ActiveLease> leases = new ConcurrentHashMap<>();
+    private final Map<String, ActiveLease> leasesByHolder = new ConcurrentHashMap<>();
+    private TimerWheel<ActiveLease> wheel;
+    
+    @PostConstruct
+    void init() {
+        wheel = new TimerWheel<>(wheelSlots, tickIntervalMillis, System.currentTimeMillis());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreLeases() {
+        List<SeatLease> stored = TenantContext.callAs(TenantContext.ALL_TENANTS, seatLeaseRepository::findAll);
+        for (SeatLease snapshot : stored) {
+            ActiveLease lease = new ActiveLease(snapshot.getId(), snapshot.getTenantId(), snapshot.getLicenseId(),
+                snapshot.getUserId(), snapshot.getCheckedOutAt(), toMillis(snapshot.getExpiresAt()));
+            track(lease);
+        }
+        if (!leases.isEmpty()) {
+            log.info("Restored {} seat leases from the last snapshot", leases.size());
+        }
+    }
+    
+    // ===== Lease Operations =====
+    
+    @Transactional
+    public SeatLease checkout(Long licenseId, Long userId) {
+        ActiveLease existing = leasesByHolder.get(holderKey(licenseId, userId));
+        if (existing != null && existing.tenantId.equals(TenantContext.getTenantId())
+            && existing.renew(System.currentTimeMillis(), leaseTtl.toMillis())) {
+            return existing.toEntity();
+        }
+        
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        LocalDateTime now = LocalDateTime.now();
+        if (licenseRepository.takeSeat(licenseId, now) == 0) {
+            if (!licenseRepository.existsById(licenseId)) {
+                throw new RuntimeException("License not found with id: " + licenseId);
+            }
+            throw new RuntimeException("No available seats for this license");
+        }
+        
+        ActiveLease lease = new ActiveLease(UUID.randomUUID().toString(), TenantContext.getTenantId(),
+            licenseId, userId, now, System.currentTimeMillis() + leaseTtl.toMillis());
+        seatLeaseRepository.save(lease.toEntity());
+        historyWriter.writeAll(List.of(historyEntry(lease, LicenseHistory.ActionType.LEASE_CHECKED_OUT,
+            "Seat leased to user: " + user.getUsername())));
+        
+        AfterCommit.run(() -> track(lease));
+        return lease.toEntity();
+    }
+    
+    /**
+     * Extends a lease by one TTL. Runs entirely in memory.
+     */
+    public SeatLease heartbeat(String leaseId) {
+        ActiveLease lease = currentTenantLease(leaseId);
+        if (lease == null || !lease.renew(System.currentTimeMillis(), leaseTtl.toMillis())) {
+            throw new RuntimeException("Lease not found or expired: " + leaseId);
+        }
+        return lease.toEntity();
+    }
+    
+    @Transactional
+    public void release(String leaseId) {
+        ActiveLease lease = currentTenantLease(leaseId);
+        if (lease == null) {
+            throw new RuntimeException("Lease not found or expired: " + leaseId);
+        }
+        long previousExpiry = lease.close();
+        if (previousExpiry == ActiveLease.CLOSED) {
+            throw new RuntimeException("Lease not found or expired: " + leaseId);
+        }
+        
+        seatLeaseRepository.deleteByIdIn(List.of(leaseId));
+        licenseRepository.releaseSeats(lease.licenseId, 1, LocalDateTime.now());
+        historyWriter.writeAll(List.of(historyEntry(lease, LicenseHistory.ActionType.LEASE_RELEASED,
+            "Seat lease released by user id: " + lease.userId)));
+        licenseService.promoteWaiters(lease.licenseId);
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        untrack(lease);
+                    } else {
+                        lease.reopen(previousExpiry);
+                        wheel.schedule(lease, previousExpiry);
+                    }
+                }
+            });
+        } else {
+            untrack(lease);
+        }
+    }
+    
+    public List<SeatLease> getLicenseLeases(Long licenseId) {
+        List<SeatLease> result = new ArrayList<>();
+        String tenantId = TenantContext.getTenantId();
+        long now = System.currentTimeMillis();
+        for (ActiveLease lease : leases.values()) {
+            if (lease.licenseId.equals(licenseId) && lease.tenantId.equals(tenantId) && lease.expiresAt.get() > now) {
+                result.add(lease.toEntity());
+            }
+        }
+        return result;
+    }
+    
+    // ===== Expiry and Snapshots =====
+    
+    @Scheduled(fixedRateString = "${license.leases.tick-interval-ms:1000}")
+    public void sweepExpiredLeases() {
+        long now = System.currentTimeMillis();
+        List<ActiveLease> expired = new ArrayList<>();
+        for (ActiveLease lease : wheel.advance(now)) {
+            if (lease.isClosed()) {
+                continue;
+            }
+            if (lease.tryExpire(now)) {
+                expired.add(lease);
+            } else {
+                wheel.schedule(lease, lease.expiresAt.get());
+            }
+        }
+        // One transaction per tenant, so the reclaim and any waitlist promotions run as that tenant
+        Map<String, List<ActiveLease>> expiredByTenant = new HashMap<>();
+        for (ActiveLease lease : expired) {
+            expiredByTenant.computeIfAbsent(lease.tenantId, tenantId -> new ArrayList<>()).add(lease);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        expiredByTenant.forEach((tenantId, tenantExpired) -> {
+            try {
+                TenantContext.runAs(tenantId,
+                    () -> transactionTemplate.executeWithoutResult(status -> reclaim(tenantExpired)));
+                tenantExpired.forEach(this::untrack);
+                log.debug("Reclaimed {} expired seat leases", tenantExpired.size());
+            } catch (RuntimeException e) {
+                // Put them back as just-expired so the next tick retries
+                log.warn("Failed to reclaim {} expired seat leases, retrying", tenantExpired.size(), e);
+                for (ActiveLease lease : tenantExpired) {
+                    lease.reopen(now);
+                    wheel.schedule(lease, now);
+                }
+            }
+        });
+    }
+    
+    private void reclaim(List<ActiveLease> expired) {
+        Map<Long, Integer> seatsByLicense = new HashMap<>();
+        List<String> ids = new ArrayList<>(expired.size());
+        List<LicenseHistory> history = new ArrayList<>(expired.size());
+        for (ActiveLease lease : expired) {
+            seatsByLicense.merge(lease.licenseId, 1, Integer::sum);
+            ids.add(lease.id);
+            history.add(historyEntry(lease, LicenseHistory.ActionType.LEASE_EXPIRED,
+                "Seat lease expired for user id: " + lease.userId));
+        }
+        seatLeaseRepository.deleteByIdIn(ids);
+        LocalDateTime now = LocalDateTime.now();
+        seatsByLicense.forEach((licenseId, seats) -> licenseRepository.releaseSeats(licenseId, seats, now));
+        historyWriter.writeAll(history);
+        seatsByLicense.keySet().forEach(licenseService::promoteWaiters);
+    }
+    
+    /**
+     * Writes the expiry of every lease renewed since the last snapshot in one JDBC batch.
+     */
+    @Scheduled(fixedDelayString = "${license.leases.snapshot-interval-ms:30000}")
+    public void snapshotLeases() {
+        List<ActiveLease> dirty = new ArrayList<>();
+        for (ActiveLease lease : leases.values()) {
+            if (lease.dirty && !lease.isClosed()) {
+                lease.dirty = false;
+                dirty.add(lease);
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE seat_leases SET expires_at = ? WHERE id = ?", dirty, dirty.size(),
+            (ps, lease) -> {
+                ps.setObject(1, toLocalDateTime(lease.expiresAt.get()));
+                ps.setString(2, lease.id);
+            });
+    }
+    
+    // ===== Helpers =====
+    
+    private ActiveLease currentTenantLease(String leaseId) {
+        ActiveLease lease = leases.get(leaseId);
+        return lease != null && lease.tenantId.equals(TenantContext.getTenantId()) ? lease : null;
+    }
+    
+    private void track(ActiveLease lease) {
+        leases.put(lease.id, lease);
+        leasesByHolder.put(holderKey(lease.licenseId, lease.userId), lease);
+        wheel.schedule(lease, lease.expiresAt.get());
+    }
+    
+    private void untrack(ActiveLease lease) {
+        leases.remove(lease.id, lease);
+        leasesByHolder.remove(holderKey(lease.licenseId, lease.userId), lease);
+    }
+    
+    private static String holderKey(Long licenseId, Long userId) {
+        return licenseId + ":" + userId;
+    }
+    
+    private static LicenseHistory historyEntry(ActiveLease lease, LicenseHistory.ActionType actionType,
+                                               String description) {
+        LicenseHistory history = new LicenseHistory();
+        history.setTenantId(lease.tenantId);
+        history.setLicenseId(lease.licenseId);
+        history.setUserId(lease.userId);
+        history.setActionType(actionType);
+        history.setDescription(description);
+        history.setDetails("Lease " + lease.id);
+        history.setPerformedBy("system");
+        history.setSeatChange(actionType == LicenseHistory.ActionType.LEASE_CHECKED_OUT ? 1 : -1);
+        return history;
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+    
+    /**
+     * In-memory lease. The expiry is a single atomic value: renewals and expiry race
+     * through compare-and-set, and {@link #CLOSED} marks a lease that was released or reclaimed.
+     */
+    static final class ActiveLease {
+        
+        static final long CLOSED = Long.MIN_VALUE;
+        
+        final String id;
+        final String tenantId;
+        final Long licenseId;
+        final Long userId;
+        final LocalDateTime checkedOutAt;
+        final AtomicLong expiresAt;
+        volatile boolean dirty;
+        
+        ActiveLease(String id, String tenantId, Long licenseId, Long userId, LocalDateTime checkedOutAt,
+                    long expiresAtMillis) {
+            this.id = id;
+            this.tenantId = tenantId;
+            this.licenseId = licenseId;
+            this.userId = userId;
+            this.checkedOutAt = checkedOutAt;
+            this.expiresAt = new AtomicLong(expiresAtMillis);
+        }
+        
+        boolean renew(long now, long ttlMillis) {
+            while (true) {
+                long current = expiresAt.get();
+                if (current <= now) {
+                    return false;
+                }
+                if (expiresAt.compareAndSet(current, now + ttlMillis)) {
+                    dirty = true;
+                    return true;
+                }
+            }
+        }
+        
+        boolean tryExpire(long now) {
+            while (true) {
+                long current = expiresAt.get();
+                if (current == CLOSED || current > now) {
+                    return false;
+                }
+                if (expiresAt.compareAndSet(current, CLOSED)) {
+                    return true;
+                }
+            }
+        }
+        
+        long close() {
+            return expiresAt.getAndSet(CLOSED);
+        }
+        
+        void reopen(long expiresAtMillis) {
+            expiresAt.set(expiresAtMillis);
+        }
+        
+        boolean isClosed() {
+            return expiresAt.get() == CLOSED;
+        }
+        
+        SeatLease toEntity() {
+            long expiry = expiresAt.get();
+            return new SeatLease(id, tenantId, licenseId, userId, checkedOutAt,
+                expiry == CLOSED ? null : toLocalDateTime(expiry));
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.UtilizationSeries;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.entity.SeatUtilizationBucket;
+import com.license.management.entity.SeatUtilizationBucket.Resolution;
+import com.license.management.event.LicenseHistoryEvent;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.SeatUtilizationBucketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seat utilization time series. Committed history entries mark their license as changed; a
+ * sampler reads the current usage of changed licenses in one query per tenant and folds it
+ * into minute, hour and day buckets, so a series is a range scan over at most one row per
+ * step instead of a replay of the history table.
+ *
+ * Entries that take or free seats also carry the change, and the running total since the last
+ * sample is kept per minute as it arrives. The sampler anchors it to the usage it reads, which
+ * gives every minute's low, high and last usage, so a peak or dip between two samples still
+ * reaches its bucket. Changes made on other nodes, or by SQL, are only seen by the sample.
+ */
+@Service
+public class SeatUtilizationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SeatUtilizationService.class);
+    
+    private static final String UPDATE_SQL =
+        "UPDATE seat_utilization_buckets SET min_used = LEAST(min_used, ?), max_used = GREATEST(max_used, ?), " +
+        "last_used = ?, total_seats = ? WHERE license_id = ? AND resolution = ? AND bucket_start = ?";
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO seat_utilization_buckets (tenant_id, license_id, resolution, bucket_start, min_used, " +
+        "max_used, last_used, total_seats) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private LicenseRepository licenseRepository;
+    
+    @Autowired
+    private SeatUtilizationBucketRepository bucketRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${license.utilization.minute-retention:P7D}")
+    private Duration minuteRetention = Duration.ofDays(7);
+    
+    @Value("${license.utilization.hour-retention:P180D}")
+    private Duration hourRetention = Duration.ofDays(180);
+    
+    @Value("${license.utilization.max-points:5000}")
+    private int maxPoints = 5000;
+    
+    // License id -> tenant, for licenses changed since the last sample
+    private final Map<Long, String> changed = new ConcurrentHashMap<>();
+    
+    // License id -> seat changes since the last sample
+    private final Map<Long, SeatPath> paths = new ConcurrentHashMap<>();
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHistory(LicenseHistoryEvent event) {
+        for (LicenseHistory entry : event.getEntries()) {
+            if (entry.getSeatChange() != null) {
+                LocalDateTime time = entry.getTimestamp() != null ? entry.getTimestamp() : LocalDateTime.now();
+                paths.compute(entry.getLicenseId(), (licenseId, path) -> (path != null ? path : new SeatPath())
+                    .add(Resolution.MINUTE.truncate(time), entry.getSeatChange()));
+            }
+            changed.put(entry.getLicenseId(), entry.getTenantId());
+        }
+    }
+    
+    // ===== Sampling =====
+    
+    @Scheduled(fixedDelayString = "${license.utilization.sample-interval-ms:10000}")
+    public void sample() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<String, Set<Long>> byTenant = new HashMap<>();
+        for (Long licenseId : new ArrayList<>(changed.keySet())) {
+            String tenantId = changed.remove(licenseId);
+            if (tenantId != null) {
+                byTenant.computeIfAbsent(tenantId, id -> new HashSet<>()).add(licenseId);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        byTenant.forEach((tenantId, licenseIds) -> {
+            Map<Long, SeatPath> taken = new HashMap<>();
+            for (Long licenseId : licenseIds) {
+                SeatPath path = paths.remove(licenseId);
+                if (path != null) {
+                    taken.put(licenseId, path);
+                }
+            }
+            try {
+                TenantContext.runAs(tenantId, () -> transactionTemplate.executeWithoutResult(
+                    status -> recordSamples(tenantId, licenseIds, taken, now)));
+            } catch (RuntimeException e) {
+                // Sample them again next time, ahead of whatever changed since
+                log.warn("Failed to record seat utilization for {} licenses", licenseIds.size(), e);
+                licenseIds.forEach(licenseId -> changed.putIfAbsent(licenseId, tenantId));
+                taken.forEach((licenseId, path) -> paths.merge(licenseId, path, (later, earlier) -> earlier.then(later)));
+            }
+        });
+    }
+    
+    void recordSamples(String tenantId, Set<Long> licenseIds, Map<Long, SeatPath> seatPaths, LocalDateTime now) {
+        List<Sample> samples = new ArrayList<>(licenseIds.size());
+        for (Object[] usage : licenseRepository.findSeatUsage(licenseIds)) {
+            // Deleted licenses simply drop out
+            long licenseId = (Long) usage[0];
+            int usedSeats = (Integer) usage[1];
+            int totalSeats = (Integer) usage[2];
+            SeatPath path = seatPaths.get(licenseId);
+            if (path != null) {
+                // The path ends at the usage read now, which places where it started
+                int start = usedSeats - path.net;
+                for (Segment segment : path.segments) {
+                    samples.add(new Sample(licenseId, segment.minute, Math.max(0, start + segment.low),
+                        Math.max(0, start + segment.high), Math.max(0, start + segment.end), totalSeats));
+                }
+            }
+            samples.add(new Sample(licenseId, now, usedSeats, usedSeats, usedSeats, totalSeats));
+        }
+        for (Resolution resolution : Resolution.values()) {
+            // One row per bucket, oldest sample first, so a new bucket is inserted once
+            Map<BucketKey, Sample> merged = new LinkedHashMap<>();
+            for (Sample sample : samples) {
+                LocalDateTime bucketStart = resolution.truncate(sample.time());
+                merged.merge(new BucketKey(sample.licenseId(), bucketStart), sample.at(bucketStart), Sample::then);
+            }
+            writeBuckets(tenantId, resolution, new ArrayList<>(merged.values()));
+        }
+    }
+    
+    private void writeBuckets(String tenantId, Resolution resolution, List<Sample> buckets) {
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, buckets, buckets.size(), (ps, bucket) -> {
+            ps.setInt(1, bucket.minUsed());
+            ps.setInt(2, bucket.maxUsed());
+            ps.setInt(3, bucket.lastUsed());
+            ps.setInt(4, bucket.totalSeats());
+            ps.setLong(5, bucket.licenseId());
+            ps.setString(6, resolution.name());
+            ps.setObject(7, bucket.time());
+        });
+        List<Sample> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int count : batch) {
+                if (count == 0) {
+                    missing.add(buckets.get(index));
+                }
+                index++;
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), (ps, bucket) -> {
+            ps.setString(1, tenantId);
+            ps.setLong(2, bucket.licenseId());
+            ps.setString(3, resolution.name());
+            ps.setObject(4, bucket.time());
+            ps.setInt(5, bucket.minUsed());
+            ps.setInt(6, bucket.maxUsed());
+            ps.setInt(7, bucket.lastUsed());
+            ps.setInt(8, bucket.totalSeats());
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${license.utilization.cleanup-interval-ms:3600000}")
+    public void purgeExpiredBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+        TenantContext.runAs(TenantContext.ALL_TENANTS, () -> new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                bucketRepository.deleteOlderThan(Resolution.MINUTE, now.minus(minuteRetention));
+                bucketRepository.deleteOlderThan(Resolution.HOUR, now.minus(hourRetention));
+            }));
+    }
+    
+    // ===== Queries =====
+    
+    /**
+     * Usage of a license per step in [from, to). Steps before the first recorded usage are
+     * left out; steps without a bucket repeat the usage of the one before.
+     */
+    @Transactional(readOnly = true)
+    public UtilizationSeries getSeries(Long licenseId, LocalDateTime from, LocalDateTime to, Resolution step) {
+        LocalDateTime start = step.truncate(from);
+        if (!start.isBefore(to)) {
+            throw new RuntimeException("The series range is empty");
+        }
+        long steps = Duration.between(start, to).toMillis() / step.getStep().toMillis() + 1;
+        if (steps > maxPoints) {
+            throw new RuntimeException("Series would have " + steps + " points, more than the limit of " + maxPoints);
+        }
+        
+        UtilizationSeries series = new UtilizationSeries();
+        series.setLicenseId(licenseId);
+        series.setStep(step.name());
+        series.setFrom(start);
+        series.setTo(to);
+        SeatUtilizationBucket previous = bucketRepository
+            .findFirstByLicenseIdAndResolutionAndBucketStartLessThanOrderByBucketStartDesc(licenseId, step, start)
+            .orElse(null);
+        List<SeatUtilizationBucket> buckets = bucketRepository.findRange(licenseId, step, start, to);
+        int next = 0;
+        for (LocalDateTime time = start; time.isBefore(to); time = time.plus(step.getStep())) {
+            if (next < buckets.size() && buckets.get(next).getBucketStart().equals(time)) {
+                previous = buckets.get(next++);
+                series.getPoints().add(new UtilizationSeries.Point(time, previous.getMinUsed(),
+                    previous.getMaxUsed(), previous.getLastUsed(), previous.getTotalSeats()));
+            } else if (previous != null) {
+                int used = previous.getLastUsed();
+                series.getPoints().add(new UtilizationSeries.Point(time, used, used, used,
+                    previous.getTotalSeats()));
+            }
+        }
+        return series;
+    }
+    
+    private record Sample(long licenseId, LocalDateTime time, int minUsed, int maxUsed, int lastUsed,
+                          int totalSeats) {
+        
+        Sample at(LocalDateTime bucketStart) {
+            return new Sample(licenseId, bucketStart, minUsed, maxUsed, lastUsed, totalSeats);
+        }
+        
+        Sample then(Sample later) {
+            return new Sample(licenseId, time, Math.min(minUsed, later.minUsed), Math.max(maxUsed, later.maxUsed),
+                later.lastUsed, later.totalSeats);
+        }
+    }
+    
+    private record BucketKey(long licenseId, LocalDateTime bucketStart) {
+    }
+    
+    /**
+     * The seat changes of one license since its last sample, as a running total that starts at
+     * zero: its low, high and final value per minute, oldest minute first. Only touched inside
+     * the map's compute, or once taken out of it.
+     */
+    static final class SeatPath {
+        
+        private final List<Segment> segments = new ArrayList<>();
+        private int net;
+        
+        SeatPath add(LocalDateTime minute, int change) {
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            // Entries of concurrent transactions may arrive a little out of order; they join the latest minute
+            if (last == null || minute.isAfter(last.minute)) {
+                last = new Segment(minute, net, net, net);
+                segments.add(last);
+            }
+            net += change;
+            last.low = Math.min(last.low, net);
+            last.high = Math.max(last.high, net);
+            last.end = net;
+            return this;
+        }
+        
+        // This path followed by a later one
+        SeatPath then(SeatPath later) {
+            for (Segment segment : later.segments) {
+                Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+                if (last != null && !segment.minute.isAfter(last.minute)) {
+                    last.low = Math.min(last.low, net + segment.low);
+                    last.high = Math.max(last.high, net + segment.high);
+                    last.end = net + segment.end;
+                } else {
+                    segments.add(new Segment(segment.minute, net + segment.low, net + segment.high, net + segment.end));
+                }
+            }
+            net += later.net;
+            return this;
+        }
+    }
+    
+    private static final class Segment {
+        
+        private final LocalDateTime minute;
+        private int low;
+        private int high;
+        private int end;
+        
+        Segment(LocalDateTime minute, int low, int high, int end) {
+            this.minute = minute;
+            this.low = low;
+            this.high = high;
+            this.end = end;
+        }
+    }
+}
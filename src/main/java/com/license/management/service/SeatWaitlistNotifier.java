@@ -0,0 +1,42 @@
+package com.license.management.service;
+
+import com.license.management.entity.SeatWaitlistEntry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the long-poll requests waiting on waitlist entries and completes them once the
+ * entry is resolved. Waiting requests are parked as {@link DeferredResult}s, so they do
+ * not hold a servlet thread.
+ */
+@Component
+public class SeatWaitlistNotifier {
+    
+    private final Map<Long, List<DeferredResult<SeatWaitlistEntry>>> waiters = new ConcurrentHashMap<>();
+    
+    public void register(Long entryId, DeferredResult<SeatWaitlistEntry> result) {
+        waiters.computeIfAbsent(entryId, id -> new CopyOnWriteArrayList<>()).add(result);
+        Runnable remove = () -> waiters.computeIfPresent(entryId, (id, list) -> {
+            list.remove(result);
+            return list.isEmpty() ? null : list;
+        });
+        result.onCompletion(remove);
+    }
+    
+    /**
+     * Completes the entry's waiting requests once the current transaction commits.
+     */
+    public void notifyResolved(SeatWaitlistEntry entry) {
+        AfterCommit.run(() -> {
+            List<DeferredResult<SeatWaitlistEntry>> results = waiters.remove(entry.getId());
+            if (results != null) {
+                results.forEach(result -> result.setResult(entry));
+            }
+        });
+    }
+}
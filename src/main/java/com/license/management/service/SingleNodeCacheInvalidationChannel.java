@@ -0,0 +1,33 @@
+package com.license.management.service;
+
+import com.license.management.dto.CacheInvalidation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * For a single node, which has no one to tell about its changes. Nodes that share the
+ * database without a channel set license.cluster, as none of them sees the others' writes.
+ */
+@Component
+@ConditionalOnProperty(name = "license.cache.invalidation.channel", havingValue = "none", matchIfMissing = true)
+public class SingleNodeCacheInvalidationChannel implements CacheInvalidationChannel {
+    
+    @Value("${license.cluster:false}")
+    private boolean cluster;
+    
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+    }
+    
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+    }
+    
+    @Override
+    public boolean seesAllWrites() {
+        return !cluster;
+    }
+}
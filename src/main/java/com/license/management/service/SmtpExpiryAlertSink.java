@@ -0,0 +1,107 @@
+package com.license.management.service;
+
+import com.license.management.dto.ExpiryDigest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Mails each digest over plain SMTP, all of a batch on one connection. Meant for a local
+ * relay or SMTP stub; there is no TLS or authentication. Users are mailed at their own
+ * address, group and administrator digests at the administrators' address.
+ */
+@Component
+@ConditionalOnProperty(name = "license.alerts.sink", havingValue = "smtp")
+public class SmtpExpiryAlertSink implements ExpiryAlertSink {
+    
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+    
+    @Value("${license.alerts.smtp.host:localhost}")
+    private String host;
+    
+    @Value("${license.alerts.smtp.port:25}")
+    private int port;
+    
+    @Value("${license.alerts.smtp.from:license-alerts@localhost}")
+    private String from;
+    
+    @Value("${license.alerts.smtp.admin-to:license-admins@localhost}")
+    private String adminTo;
+    
+    @Value("${license.alerts.smtp.timeout:PT10S}")
+    private Duration timeout;
+    
+    @Override
+    public void deliver(List<ExpiryDigest> digests) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), (int) timeout.toMillis());
+            socket.setSoTimeout((int) timeout.toMillis());
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            expect(in, 220);
+            command(in, out, "HELO localhost", 250);
+            for (ExpiryDigest digest : digests) {
+                String to = digest.getEmail() != null ? digest.getEmail() : adminTo;
+                command(in, out, "MAIL FROM:<" + from + ">", 250);
+                command(in, out, "RCPT TO:<" + to + ">", 250);
+                command(in, out, "DATA", 354);
+                command(in, out, message(digest, to) + "\r\n.", 250);
+            }
+            command(in, out, "QUIT", 221);
+        }
+    }
+    
+    private String message(ExpiryDigest digest, String to) {
+        StringBuilder message = new StringBuilder()
+            .append("From: ").append(from).append("\r\n")
+            .append("To: ").append(to).append("\r\n")
+            .append("Subject: ").append(digest.getLicenses().size()).append(" license(s) expiring soon")
+            .append(digest.getRecipientType() == ExpiryDigest.RecipientType.GROUP
+                ? " for group " + oneLine(digest.getRecipientName()) : "").append("\r\n")
+            .append("Content-Type: text/plain; charset=UTF-8\r\n")
+            .append("\r\n");
+        for (ExpiryDigest.Entry entry : digest.getLicenses()) {
+            // A leading dot would end the message early, so it is doubled
+            String line = oneLine(entry.getSoftwareName() + " (" + entry.getLicenseKey() + ") expires on "
+                + DATE.format(entry.getExpirationDate()));
+            message.append(line.startsWith(".") ? "." + line : line).append("\r\n");
+        }
+        return message.toString().replaceAll("\r\n$", "");
+    }
+    
+    // Names come from user input and must not start new header or body lines
+    private static String oneLine(String value) {
+        return value.replace('\r', ' ').replace('\n', ' ');
+    }
+    
+    private static void command(BufferedReader in, OutputStream out, String line, int expected) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        expect(in, expected);
+    }
+    
+    // Reads a (possibly multi-line) reply and checks its code
+    private static void expect(BufferedReader in, int expected) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                throw new IOException("SMTP server closed the connection");
+            }
+        } while (line.length() > 3 && line.charAt(3) == '-');
+        if (!line.startsWith(String.valueOf(expected))) {
+            throw new IOException("Unexpected SMTP reply: " + line);
+        }
+    }
+}
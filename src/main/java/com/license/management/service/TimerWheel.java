@@ -0,0 +1,72 @@
+package com.license.management.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hashed timing wheel. Scheduling is a queue append into the slot for the deadline's tick,
+ * never earlier than the next unprocessed one; {@link #advance} drains every slot the clock has
+ * passed since the last call. Schedulers share a read lock and {@link #advance} takes the write
+ * lock, so an item can't land in a slot that is being drained or was just passed over.
+ *
+ * Deadlines further out than one rotation land in an earlier slot and are handed back early,
+ * so callers must check the real deadline of each item and reschedule those not yet due.
+ * This keeps renewals free: extending a deadline never touches the wheel.
+ */
+final class TimerWheel<T> {
+    
+    private final Queue<T>[] slots;
+    private final long tickMillis;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long processedTick;
+    
+    @SuppressWarnings("unchecked")
+    TimerWheel(int slotCount, long tickMillis, long startMillis) {
+        this.slots = (Queue<T>[]) new Queue<?>[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.tickMillis = tickMillis;
+        this.processedTick = startMillis / tickMillis;
+    }
+    
+    void schedule(T item, long deadlineMillis) {
+        lock.readLock().lock();
+        try {
+            long tick = Math.max(deadlineMillis / tickMillis, processedTick + 1);
+            slots[(int) (tick % slots.length)].add(item);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the items of every slot between the last processed tick and {@code nowMillis}.
+     * Must only be called from a single thread.
+     */
+    List<T> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<T> due = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            long from = Math.max(processedTick + 1, nowTick - slots.length + 1);
+            for (long tick = from; tick <= nowTick; tick++) {
+                Queue<T> slot = slots[(int) (tick % slots.length)];
+                T item;
+                while ((item = slot.poll()) != null) {
+                    due.add(item);
+                }
+            }
+            if (nowTick > processedTick) {
+                processedTick = nowTick;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return due;
+    }
+}
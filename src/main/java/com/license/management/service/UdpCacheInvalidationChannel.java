@@ -0,0 +1,310 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.dto.CacheInvalidation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations to a fixed list of peers as UDP datagrams, each a JSON array. A
+ * sender thread batches whatever has queued up since its last send, so a burst of changes
+ * costs a few datagrams rather than one per change. With a shared secret every datagram is
+ * prefixed by its HMAC-SHA256, and unsigned or forged ones are dropped.
+ *
+ * Every datagram carries the sending node's id and a sequence number, and an idle sender
+ * repeats its last number as a heartbeat. A receiver that sees a number skipped has lost
+ * invalidations and clears every region, so a lost datagram leaves stale entries for at
+ * most a heartbeat interval rather than until they expire. If the queue overflows, the
+ * invalidations that did not fit are likewise replaced by one telling the peers to clear
+ * every region.
+ */
+@Component
+@ConditionalOnProperty(name = "license.cache.invalidation.channel", havingValue = "udp")
+public class UdpCacheInvalidationChannel implements CacheInvalidationChannel {
+    
+    private static final Logger log = LoggerFactory.getLogger(UdpCacheInvalidationChannel.class);
+    
+    // Below a typical MTU, so datagrams are not fragmented
+    private static final int MAX_DATAGRAM_SIZE = 1400;
+    
+    private static final int MAC_LENGTH = 32;
+    
+    private static final int MAX_BATCH = 1000;
+    
+    // {"node":"<uuid>","seq":<long>,"invalidations":} around the array
+    private static final int ENVELOPE_LENGTH = 96;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${license.cache.invalidation.udp.bind-address:0.0.0.0}")
+    private String bindAddress = "0.0.0.0";
+    
+    @Value("${license.cache.invalidation.udp.port:47700}")
+    private int port = 47700;
+    
+    // host:port of every other node
+    @Value("${license.cache.invalidation.udp.peers:}")
+    private List<String> peers = List.of();
+    
+    @Value("${license.cache.invalidation.udp.secret:}")
+    private String secret = "";
+    
+    @Value("${license.cache.invalidation.udp.heartbeat-interval:PT1S}")
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+    
+    @Value("${license.cache.invalidation.queue-size:65536}")
+    private int queueSize = 65536;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    
+    // Last sequence number sent; only the sender thread touches it
+    private long sequence;
+    
+    // Last sequence number received from each peer; only the receiver thread touches it
+    private final Map<SocketAddress, Received> received = new HashMap<>();
+    
+    private BlockingQueue<CacheInvalidation> outbound;
+    private List<InetSocketAddress> peerAddresses;
+    private DatagramSocket socket;
+    private Thread sender;
+    private Thread receiver;
+    private volatile boolean running;
+    
+    @PostConstruct
+    void start() throws IOException {
+        outbound = new ArrayBlockingQueue<>(queueSize);
+        peerAddresses = peers.stream()
+            .filter(peer -> !peer.isBlank())
+            .map(UdpCacheInvalidationChannel::parseAddress)
+            .toList();
+        socket = new DatagramSocket(new InetSocketAddress(bindAddress, port));
+        running = true;
+        sender = startThread("cache-invalidation-sender", this::sendLoop);
+        receiver = startThread("cache-invalidation-receiver", this::receiveLoop);
+        log.info("Cache invalidation channel listening on UDP {} with {} peers", socket.getLocalSocketAddress(),
+            peerAddresses.size());
+    }
+    
+    @PreDestroy
+    void stop() {
+        running = false;
+        socket.close();
+        sender.interrupt();
+        receiver.interrupt();
+    }
+    
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        if (!peerAddresses.isEmpty() && !outbound.offer(invalidation)) {
+            overflowed.set(true);
+        }
+    }
+    
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+    
+    @Override
+    public boolean isCrossNode() {
+        return true;
+    }
+    
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+    
+    // ===== Sending =====
+    
+    private void sendLoop() {
+        while (running) {
+            List<CacheInvalidation> batch = new ArrayList<>();
+            try {
+                CacheInvalidation first = outbound.poll(heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            outbound.drainTo(batch, MAX_BATCH);
+            if (overflowed.getAndSet(false)) {
+                batch = List.of(new CacheInvalidation());
+            }
+            try {
+                List<byte[]> datagrams = batch.isEmpty() ? List.of(heartbeat()) : pack(new LinkedHashSet<>(batch));
+                for (byte[] datagram : datagrams) {
+                    for (InetSocketAddress peer : peerAddresses) {
+                        socket.send(new DatagramPacket(datagram, datagram.length, peer));
+                    }
+                }
+            } catch (IOException | GeneralSecurityException e) {
+                if (running) {
+                    log.warn("Failed to send {} cache invalidations", batch.size(), e);
+                }
+            }
+        }
+    }
+    
+    private List<byte[]> pack(Iterable<CacheInvalidation> invalidations) throws IOException, GeneralSecurityException {
+        List<byte[]> datagrams = new ArrayList<>();
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        for (CacheInvalidation invalidation : invalidations) {
+            byte[] element = objectMapper.writeValueAsBytes(invalidation);
+            // An oversized element still goes out, alone
+            if (array.size() > 0
+                    && MAC_LENGTH + ENVELOPE_LENGTH + array.size() + element.length + 2 > MAX_DATAGRAM_SIZE) {
+                datagrams.add(seal(array, ++sequence));
+                array.reset();
+            }
+            array.write(array.size() == 0 ? '[' : ',');
+            array.write(element);
+        }
+        if (array.size() > 0) {
+            datagrams.add(seal(array, ++sequence));
+        }
+        return datagrams;
+    }
+    
+    // Repeats the last sequence number, so a peer notices when the datagrams before it were lost
+    private byte[] heartbeat() throws GeneralSecurityException {
+        ByteArrayOutputStream array = new ByteArrayOutputStream();
+        array.write('[');
+        return seal(array, sequence);
+    }
+    
+    private byte[] seal(ByteArrayOutputStream array, long seq) throws GeneralSecurityException {
+        array.write(']');
+        byte[] json = ("{\"node\":\"" + nodeId + "\",\"seq\":" + seq + ",\"invalidations\":" +
+            array.toString(StandardCharsets.UTF_8) + "}").getBytes(StandardCharsets.UTF_8);
+        if (secret.isEmpty()) {
+            return json;
+        }
+        byte[] datagram = Arrays.copyOf(newMac().doFinal(json), MAC_LENGTH + json.length);
+        System.arraycopy(json, 0, datagram, MAC_LENGTH, json.length);
+        return datagram;
+    }
+    
+    // ===== Receiving =====
+    
+    private void receiveLoop() {
+        byte[] buffer = new byte[65535];
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                int offset = 0;
+                if (!secret.isEmpty()) {
+                    if (!isAuthentic(packet)) {
+                        log.warn("Dropped a cache invalidation datagram from {} with a bad signature",
+                            packet.getSocketAddress());
+                        continue;
+                    }
+                    offset = MAC_LENGTH;
+                }
+                Datagram datagram = objectMapper.readValue(packet.getData(),
+                    packet.getOffset() + offset, packet.getLength() - offset, Datagram.class);
+                if (!isInSequence(packet.getSocketAddress(), datagram)) {
+                    log.warn("Missed cache invalidations from {}; clearing every region", packet.getSocketAddress());
+                    CacheInvalidation everything = new CacheInvalidation();
+                    listeners.forEach(listener -> listener.accept(everything));
+                }
+                for (CacheInvalidation invalidation : datagram.invalidations()) {
+                    listeners.forEach(listener -> listener.accept(invalidation));
+                }
+            } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                if (running) {
+                    log.warn("Failed to apply cache invalidations from {}", packet.getSocketAddress(), e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Whether every datagram the peer sent before this one has arrived. A datagram from a
+     * node not heard from before, such as a peer that restarted, is in sequence only if it
+     * is that node's first. Late datagrams arriving out of order are still applied.
+     */
+    private boolean isInSequence(SocketAddress peer, Datagram datagram) {
+        // A heartbeat repeats the last number sent, a batch takes the next one
+        long previous = datagram.invalidations().length == 0 ? datagram.seq() : datagram.seq() - 1;
+        Received last = received.get(peer);
+        boolean sameNode = last != null && last.node().equals(datagram.node());
+        if (!sameNode || datagram.seq() > last.seq()) {
+            received.put(peer, new Received(datagram.node(), datagram.seq()));
+        }
+        return sameNode ? previous <= last.seq() : previous == 0;
+    }
+    
+    private boolean isAuthentic(DatagramPacket packet) throws GeneralSecurityException {
+        if (packet.getLength() < MAC_LENGTH) {
+            return false;
+        }
+        Mac mac = newMac();
+        mac.update(packet.getData(), packet.getOffset() + MAC_LENGTH, packet.getLength() - MAC_LENGTH);
+        byte[] signature = Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + MAC_LENGTH);
+        return MessageDigest.isEqual(mac.doFinal(), signature);
+    }
+    
+    private Mac newMac() throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return mac;
+    }
+    
+    private static InetSocketAddress parseAddress(String peer) {
+        int colon = peer.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Cache invalidation peer must be host:port: " + peer);
+        }
+        return new InetSocketAddress(peer.substring(0, colon).trim(), Integer.parseInt(peer.substring(colon + 1).trim()));
+    }
+    
+    private static Thread startThread(String name, Runnable loop) {
+        Thread thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+    
+    private record Datagram(String node, long seq, CacheInvalidation[] invalidations) {
+    }
+    
+    private record Received(String node, long seq) {
+    }
+}
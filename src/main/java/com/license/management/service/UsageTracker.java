@@ -0,0 +1,216 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.UsagePing;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.event.LicenseHistoryEvent;
+import com.license.management.repository.UserLicenseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates usage pings in memory and writes only the latest use of each assignment. Pings
+ * are spread over shards so ingesting threads rarely touch the same map, and each shard keeps
+ * one entry per (tenant, user, license) however many pings arrive between flushes.
+ *
+ * Pairs found to be active assignments are remembered, so a steady stream of pings does not
+ * look them up again after every flush. Committed assignments add a pair and revocations drop
+ * it. A revocation on another node leaves the pair cached here, which only means its pings
+ * are still counted as accepted: the write itself skips revoked assignments.
+ */
+@Component
+public class UsageTracker {
+    
+    private static final Logger log = LoggerFactory.getLogger(UsageTracker.class);
+    
+    // Only moves lastUsedAt forward, since pings from several nodes arrive out of order. The
+    // tenant check keeps a tenant from marking another tenant's assignments as used
+    private static final String UPDATE_SQL =
+        "UPDATE user_licenses SET last_used_at = ? WHERE tenant_id = ? AND user_id = ? AND license_id = ? " +
+        "AND active = true AND (last_used_at IS NULL OR last_used_at < ?)";
+    
+    // Users bound per assignment lookup
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Pings for assignments not yet pending are dropped once a shard holds this many
+    @Value("${license.usage.max-pending-per-shard:65536}")
+    private int maxPendingPerShard = 65536;
+    
+    // Active assignments remembered; the set starts over once it reaches this size
+    @Value("${license.usage.max-cached-assignments:1000000}")
+    private int maxCachedAssignments = 1000000;
+    
+    private final ConcurrentHashMap<UsageKey, LocalDateTime>[] shards;
+    
+    private final Set<UsageKey> activeAssignments = ConcurrentHashMap.newKeySet();
+    
+    @SuppressWarnings("unchecked")
+    public UsageTracker(@Value("${license.usage.shards:64}") int shardCount) {
+        // A power of two, so the shard is a mask of the hash
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        shards = (ConcurrentHashMap<UsageKey, LocalDateTime>[]) new ConcurrentHashMap<?, ?>[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+    
+    /**
+     * Records the pings for the current tenant. Returns how many were accepted; pings without
+     * ids, for a user and license that are not an active assignment, or beyond the pending
+     * limit, are not. Only pairs neither pending nor known to be assigned are looked up, in one
+     * query per batch.
+     */
+    public int record(List<UsagePing> pings) {
+        String tenantId = TenantContext.getTenantId();
+        LocalDateTime now = LocalDateTime.now();
+        Set<UsageKey> unchecked = new HashSet<>();
+        for (UsagePing ping : pings) {
+            if (ping.getUserId() != null && ping.getLicenseId() != null) {
+                UsageKey key = new UsageKey(tenantId, ping.getUserId(), ping.getLicenseId());
+                if (!shard(key).containsKey(key) && !activeAssignments.contains(key)) {
+                    unchecked.add(key);
+                }
+            }
+        }
+        Set<UsageKey> assigned = assigned(tenantId, unchecked);
+        int accepted = 0;
+        for (UsagePing ping : pings) {
+            if (ping.getUserId() == null || ping.getLicenseId() == null) {
+                continue;
+            }
+            UsageKey key = new UsageKey(tenantId, ping.getUserId(), ping.getLicenseId());
+            ConcurrentHashMap<UsageKey, LocalDateTime> shard = shard(key);
+            if (unchecked.contains(key) && !assigned.contains(key)) {
+                continue;
+            }
+            if (shard.size() >= maxPendingPerShard && !shard.containsKey(key)) {
+                continue;
+            }
+            // A clock ahead of ours must not keep an assignment looking used
+            LocalDateTime usedAt = ping.getTimestamp() == null || ping.getTimestamp().isAfter(now)
+                ? now : ping.getTimestamp();
+            shard.merge(key, usedAt, (current, latest) -> latest.isAfter(current) ? latest : current);
+            accepted++;
+        }
+        return accepted;
+    }
+    
+    // The keys that are active assignments of the tenant, looked up in chunks of users
+    private Set<UsageKey> assigned(String tenantId, Set<UsageKey> keys) {
+        Set<UsageKey> assigned = new HashSet<>();
+        if (keys.isEmpty()) {
+            return assigned;
+        }
+        List<Long> userIds = keys.stream().map(UsageKey::userId).distinct().toList();
+        Set<Long> licenseIds = new HashSet<>();
+        keys.forEach(key -> licenseIds.add(key.licenseId()));
+        for (int start = 0; start < userIds.size(); start += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(start, Math.min(start + LOOKUP_CHUNK_SIZE, userIds.size()));
+            for (Object[] pair : userLicenseRepository.findActivePairs(chunk, licenseIds)) {
+                assigned.add(new UsageKey(tenantId, (Long) pair[0], (Long) pair[1]));
+            }
+        }
+        assigned.forEach(this::remember);
+        return assigned;
+    }
+    
+    private void remember(UsageKey key) {
+        if (activeAssignments.size() >= maxCachedAssignments) {
+            activeAssignments.clear();
+        }
+        activeAssignments.add(key);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHistory(LicenseHistoryEvent event) {
+        for (LicenseHistory entry : event.getEntries()) {
+            if (entry.getUserId() == null) {
+                continue;
+            }
+            UsageKey key = new UsageKey(entry.getTenantId(), entry.getUserId(), entry.getLicenseId());
+            if (entry.getActionType() == LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER) {
+                remember(key);
+            } else if (entry.getActionType() == LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER) {
+                activeAssignments.remove(key);
+            }
+        }
+    }
+    
+    public long getPendingCount() {
+        long pending = 0;
+        for (ConcurrentHashMap<UsageKey, LocalDateTime> shard : shards) {
+            pending += shard.mappingCount();
+        }
+        return pending;
+    }
+    
+    /**
+     * Writes the pending usage with one JDBC batch per tenant. Entries are removed only if no
+     * newer ping replaced them meanwhile, and kept for the next flush if the write fails.
+     */
+    @Scheduled(fixedDelayString = "${license.usage.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<String, List<Map.Entry<UsageKey, LocalDateTime>>> byTenant = new HashMap<>();
+        for (ConcurrentHashMap<UsageKey, LocalDateTime> shard : shards) {
+            for (Map.Entry<UsageKey, LocalDateTime> entry : shard.entrySet()) {
+                byTenant.computeIfAbsent(entry.getKey().tenantId(), tenantId -> new ArrayList<>())
+                    .add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        byTenant.forEach((tenantId, entries) -> {
+            try {
+                TenantContext.runAs(tenantId, () -> transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, entries, 1000, (ps, entry) -> {
+                        ps.setObject(1, entry.getValue());
+                        ps.setString(2, tenantId);
+                        ps.setLong(3, entry.getKey().userId());
+                        ps.setLong(4, entry.getKey().licenseId());
+                        ps.setObject(5, entry.getValue());
+                    })));
+                for (Map.Entry<UsageKey, LocalDateTime> entry : entries) {
+                    shard(entry.getKey()).remove(entry.getKey(), entry.getValue());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to write usage of {} assignments, retrying on the next flush", entries.size(), e);
+            }
+        });
+    }
+    
+    private ConcurrentHashMap<UsageKey, LocalDateTime> shard(UsageKey key) {
+        return shards[spread(key.hashCode()) & (shards.length - 1)];
+    }
+    
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+    
+    private record UsageKey(String tenantId, long userId, long licenseId) {
+    }
+}
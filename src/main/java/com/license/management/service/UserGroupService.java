@@ -1,33 +1,63 @@
 package com.license.management.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.dto.SearchHit;
+import com.license.management.entity.GroupLicense;
 import com.license.management.entity.UserGroup;
+import com.license.management.repository.GroupLicenseRepository;
 import com.license.management.repository.UserGroupRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class UserGroupService {
     
+    private static final Set<String> PATCHABLE = Set.of("name", "description", "active");
+    
+    private static final Set<String> REQUIRED = Set.of("name", "active");
+    
     @Autowired
     private UserGroupRepository groupRepository;
     
+    @Autowired
+    private GroupLicenseRepository groupLicenseRepository;
+    
+    @Autowired
+    private LicenseService licenseService;
+    
+    @Autowired
+    private ChargebackService chargebackService;
+    
+    @Autowired
+    private SearchIndex searchIndex;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Transactional(readOnly = true)
     public List<UserGroup> getAllGroups() {
         return groupRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
     public Optional<UserGroup> getGroupById(Long id) {
         return groupRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public Optional<UserGroup> getGroupByName(String name) {
         return groupRepository.findByName(name);
     }
     
+    @Transactional(readOnly = true)
     public List<UserGroup> getActiveGroups() {
         return groupRepository.findByActiveTrue();
     }
@@ -36,7 +66,9 @@ public class UserGroupService {
         if (groupRepository.existsByName(group.getName())) {
             throw new RuntimeException("Group name already exists");
         }
-        return groupRepository.save(group);
+        UserGroup saved = groupRepository.save(group);
+        searchIndex.indexAfterCommit(saved);
+        return saved;
     }
     
     public UserGroup updateGroup(Long id, UserGroup groupDetails) {
@@ -53,12 +85,42 @@ public class UserGroupService {
         group.setDescription(groupDetails.getDescription());
         group.setActive(groupDetails.getActive());
         
-        return groupRepository.save(group);
+        UserGroup saved = groupRepository.save(group);
+        searchIndex.indexAfterCommit(saved);
+        return saved;
+    }
+    
+    public UserGroup patchGroup(Long id, JsonNode patch) {
+        UserGroup group = groupRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Group not found with id: " + id));
+        String name = MergePatch.changedText(patch, "name", group.getName());
+        if (name != null && groupRepository.existsByName(name)) {
+            throw new RuntimeException("Group name already exists");
+        }
+        
+        if (MergePatch.apply(objectMapper, patch, group, PATCHABLE, REQUIRED).isEmpty()) {
+            return group;
+        }
+        UserGroup saved = groupRepository.save(group);
+        searchIndex.indexAfterCommit(saved);
+        return saved;
     }
     
+    /**
+     * Revokes the group's allocations, so their seats are free right away, and marks the group
+     * deleted. Revoked allocations and memberships are left to the purge job.
+     */
     public void deleteGroup(Long id) {
         UserGroup group = groupRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Group not found with id: " + id));
-        groupRepository.delete(group);
+        List<GroupLicense> allocations = groupLicenseRepository.findByGroupAndActiveTrue(group);
+        chargebackService.rerateGroupChange(id, () -> {
+            for (GroupLicense allocation : allocations) {
+                licenseService.revokeLicenseFromGroup(allocation.getId());
+            }
+            group.setDeletedAt(LocalDateTime.now());
+            groupRepository.save(group);
+        });
+        searchIndex.removeAfterCommit(SearchHit.Type.GROUP, id);
     }
 }
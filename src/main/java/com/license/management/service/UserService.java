@@ -1,38 +1,96 @@
 package com.license.management.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.dto.SearchHit;
+import com.license.management.dto.UserActivationResult;
 import com.license.management.entity.User;
 import com.license.management.entity.UserGroup;
+import com.license.management.repository.UserLicenseRepository;
 import com.license.management.repository.UserRepository;
 import com.license.management.repository.UserGroupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class UserService {
     
+    private static final Set<String> PATCHABLE = Set.of("username", "email", "fullName", "active");
+    
+    // Users locked and updated per statement in a bulk activation change
+    private static final int ACTIVATION_CHUNK_SIZE = 1000;
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private UserGroupRepository groupRepository;
     
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+    
+    @Autowired
+    private LicenseService licenseService;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private ChargebackService chargebackService;
+    
+    @Autowired
+    private SearchIndex searchIndex;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
     
+    /**
+     * Streams every user to the action in one read-only transaction, detaching each user
+     * once the action is done with it.
+     */
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<User> action) {
+        try (Stream<User> users = userRepository.streamAll()) {
+            users.forEach(user -> {
+                action.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
     public Optional<User> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
+    @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
         return userRepository.findByActiveTrue();
     }
@@ -44,7 +102,10 @@ public class UserService {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        outboxService.recordUserChange(saved, "USER_CREATED");
+        searchIndex.indexAfterCommit(saved);
+        return saved;
     }
     
     public User updateUser(Long id, User userDetails) {
@@ -68,13 +129,117 @@ public class UserService {
         user.setFullName(userDetails.getFullName());
         user.setActive(userDetails.getActive());
         
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        outboxService.recordUserChange(saved, "USER_UPDATED");
+        searchIndex.indexAfterCommit(saved);
+        return saved;
+    }
+    
+    /**
+     * Applies a JSON Merge Patch. Uniqueness is only checked for a username or email that
+     * actually changes, and a patch that changes nothing writes nothing.
+     */
+    public User patchUser(Long id, JsonNode patch) {
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        String username = MergePatch.changedText(patch, "username", user.getUsername());
+        if (username != null && userRepository.existsByUsername(username)) {
+            throw new RuntimeException("Username already exists");
+        }
+        String email = MergePatch.changedText(patch, "email", user.getEmail());
+        if (email != null && userRepository.existsByEmail(email)) {
+            throw new RuntimeException("Email already exists");
+        }
+        
+        if (MergePatch.apply(objectMapper, patch, user, PATCHABLE, PATCHABLE).isEmpty()) {
+            return user;
+        }
+        User saved = userRepository.save(user);
+        outboxService.recordUserChange(saved, "USER_UPDATED");
+        searchIndex.indexAfterCommit(saved);
+        return saved;
+    }
+    
+    // ===== Bulk Activation =====
+    
+    /**
+     * Deactivates the users and revokes their active license assignments, freeing the seats,
+     * in one transaction: per chunk of users one locking select, one UPDATE and one outbox
+     * batch, then a single batched revocation of all their assignments.
+     */
+    public UserActivationResult deactivateUsers(Collection<Long> userIds) {
+        return setActive(userIds, false);
+    }
+    
+    /**
+     * Reactivates the users. Licenses revoked when they were deactivated are not restored.
+     */
+    public UserActivationResult activateUsers(Collection<Long> userIds) {
+        return setActive(userIds, true);
+    }
+    
+    private UserActivationResult setActive(Collection<Long> userIds, boolean active) {
+        UserActivationResult result = new UserActivationResult();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        List<Long> deactivated = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int start = 0; start < ids.size(); start += ACTIVATION_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + ACTIVATION_CHUNK_SIZE, ids.size()));
+            Set<Long> missing = new LinkedHashSet<>(chunk);
+            List<User> changed = new ArrayList<>();
+            for (Object[] row : userRepository.findActivationStateForUpdate(chunk)) {
+                missing.remove((Long) row[0]);
+                if (Boolean.valueOf(active).equals(row[4])) {
+                    result.setUnchanged(result.getUnchanged() + 1);
+                    continue;
+                }
+                User user = new User();
+                user.setId((Long) row[0]);
+                user.setUsername((String) row[1]);
+                user.setEmail((String) row[2]);
+                user.setFullName((String) row[3]);
+                user.setActive(active);
+                changed.add(user);
+            }
+            result.getNotFound().addAll(missing);
+            if (changed.isEmpty()) {
+                continue;
+            }
+            
+            List<Long> changedIds = changed.stream().map(User::getId).toList();
+            userRepository.setActive(changedIds, active, now);
+            if (!active) {
+                deactivated.addAll(changedIds);
+            }
+            outboxService.recordUserChanges(changed, "USER_UPDATED");
+            result.setUpdated(result.getUpdated() + changed.size());
+        }
+        
+        // One revocation for the whole wave, so each license's seats, history and chargeback
+        // are updated once however many of its holders leave
+        if (!deactivated.isEmpty()) {
+            List<Long> assignmentIds = new ArrayList<>();
+            for (int start = 0; start < deactivated.size(); start += ACTIVATION_CHUNK_SIZE) {
+                assignmentIds.addAll(userLicenseRepository.findActiveIdsByUserIds(
+                    deactivated.subList(start, Math.min(start + ACTIVATION_CHUNK_SIZE, deactivated.size()))));
+            }
+            result.setLicensesRevoked(licenseService.revokeUserLicenses(assignmentIds, "User deactivated"));
+        }
+        return result;
     }
     
+    /**
+     * Revokes the user's active licenses, so their seats are free right away, and marks the
+     * user deleted. Revoked assignments and group memberships are left to the purge job.
+     */
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        userRepository.delete(user);
+        licenseService.revokeUserLicenses(userLicenseRepository.findActiveIdsByUserIds(List.of(id)), "User deleted");
+        user.setDeletedAt(LocalDateTime.now());
+        userRepository.save(user);
+        outboxService.recordUserChange(user, "USER_DELETED");
+        searchIndex.removeAfterCommit(SearchHit.Type.USER, id);
     }
     
     public User addUserToGroup(Long userId, Long groupId) {
@@ -84,7 +249,10 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("Group not found with id: " + groupId));
         
         user.getGroups().add(group);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        chargebackService.rerateUserChange(userId, entityManager::flush);
+        outboxService.recordUserGroupChange(saved, groupId, "USER_ADDED_TO_GROUP");
+        return saved;
     }
     
     public User removeUserFromGroup(Long userId, Long groupId) {
@@ -94,6 +262,9 @@ public class UserService {
             .orElseThrow(() -> new RuntimeException("Group not found with id: " + groupId));
         
         user.getGroups().remove(group);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        chargebackService.rerateUserChange(userId, entityManager::flush);
+        outboxService.recordUserGroupChange(saved, groupId, "USER_REMOVED_FROM_GROUP");
+        return saved;
     }
 }
@@ -0,0 +1,54 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.license.management.entity.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch to a webhook as a JSON array. Any non-2xx response fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "license.outbox.sink", havingValue = "webhook")
+public class WebhookOutboxSink implements OutboxSink {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${license.outbox.webhook.url}")
+    private URI url;
+    
+    @Value("${license.outbox.webhook.timeout:PT10S}")
+    private Duration timeout;
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    
+    @Override
+    public void deliver(List<OutboxEvent> events) throws Exception {
+        ArrayNode body = objectMapper.createArrayNode();
+        for (OutboxEvent event : events) {
+            body.add(OutboxSink.envelope(objectMapper, event));
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException("Webhook responded with status " + response.statusCode());
+        }
+    }
+}
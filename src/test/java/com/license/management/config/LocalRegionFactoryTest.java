@@ -0,0 +1,217 @@
+package com.license.management.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.license.management.dto.CacheInvalidation;
+import com.license.management.entity.License;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.service.CacheInvalidationChannel;
+import com.license.management.service.LicenseService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the second-level cache against the real schema, with a channel that records what
+ * this node publishes and lets a test deliver what another node would have sent.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    "license.cache.invalidation.channel=test",
+    "license.cache.regions.licenses.max-entries=3"
+})
+@AutoConfigureObservability
+@DisplayName("LocalRegionFactory Tests")
+class LocalRegionFactoryTest {
+
+    private static final String LICENSES = "licenses";
+
+    private static final String TIMESTAMPS = "default-update-timestamps-region";
+
+    @TestConfiguration
+    static class ChannelConfig {
+
+        @Bean
+        RecordingChannel recordingChannel() {
+            return new RecordingChannel();
+        }
+    }
+
+    static class RecordingChannel implements CacheInvalidationChannel {
+
+        final List<CacheInvalidation> published = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Consumer<CacheInvalidation>> listeners = new ArrayList<>();
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            published.add(invalidation);
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> listener) {
+            listeners.add(listener);
+        }
+
+        void receive(CacheInvalidation invalidation) {
+            listeners.forEach(listener -> listener.accept(invalidation));
+        }
+    }
+
+    @Autowired
+    private RecordingChannel channel;
+
+    @Autowired
+    private LocalRegionFactory regionFactory;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private LicenseRepository licenseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should publish the soft lock, its release and the table stamp of an update")
+    void testUpdate_PublishesInvalidations() {
+        // Arrange
+        License license = createLicense();
+        channel.published.clear();
+
+        // Act
+        license.setDescription("Updated");
+        licenseService.updateLicense(license.getId(), license);
+
+        // Assert
+        CacheInvalidation entry = new CacheInvalidation(LICENSES, License.class.getName(), null, license.getId());
+        assertEquals(2, channel.published.stream().filter(entry::equals).count(), channel.published.toString());
+        assertTrue(channel.published.contains(new CacheInvalidation(TIMESTAMPS, null, null, LICENSES)));
+    }
+
+    @Test
+    @DisplayName("Should reload an entity another node invalidated")
+    void testInvalidate_FromOtherNode() {
+        // Arrange: cached once loaded
+        Long id = createLicense().getId();
+        licenseRepository.findById(id);
+        statistics.clear();
+        licenseRepository.findById(id);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Act: JSON delivers small ids as Integer
+        channel.receive(new CacheInvalidation(LICENSES, License.class.getName(), null, id.intValue()));
+
+        // Assert
+        licenseRepository.findById(id);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Should clear every region and move table versions when another node asks to")
+    void testInvalidate_Everything() {
+        // Arrange
+        Long id = createLicense().getId();
+        licenseRepository.findById(id);
+        long version = regionFactory.getTableVersion(LICENSES).orElseThrow();
+        statistics.clear();
+
+        // Act
+        channel.receive(new CacheInvalidation());
+
+        // Assert
+        assertNotEquals(version, regionFactory.getTableVersion(LICENSES).orElseThrow());
+        licenseRepository.findById(id);
+        // Counted per entity, as the search index reloads itself in the background
+        assertEquals(1, statistics.getEntityStatistics(License.class.getName()).getLoadCount());
+    }
+
+    @Test
+    @DisplayName("Should reject a write based on a cached copy another node has changed")
+    void testUpdate_StaleCopyFails() {
+        // Arrange: another node takes a seat, and its invalidation never arrives
+        License license = createLicense();
+        licenseRepository.findById(license.getId());
+        jdbcTemplate.update("UPDATE licenses SET used_seats = used_seats + 1, version = version + 1 WHERE id = ?",
+            license.getId());
+
+        // Act
+        license.setDescription("Stale");
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+            () -> licenseService.updateLicense(license.getId(), license));
+
+        // Assert: the other node's seat is kept
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT used_seats FROM licenses WHERE id = ?",
+            Integer.class, license.getId()));
+    }
+
+    @Test
+    @DisplayName("Should bound a region to its max-entries and publish its statistics as metrics")
+    void testRegion_BoundedWithMetrics() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(createLicense().getId());
+        }
+
+        // Act
+        ids.forEach(licenseRepository::findById);
+        ids.forEach(licenseRepository::findById);
+
+        // Assert
+        javax.cache.Cache<Object, Object> licenses = regionFactory.getCacheManager().getCache(LICENSES);
+        licenses.unwrap(Cache.class).cleanUp();
+        assertTrue(StreamSupport.stream(licenses.spliterator(), false).count() <= 3);
+        assertTrue(meterRegistry.get("cache.gets").tags("cache", LICENSES, "result", "hit")
+            .functionCounter().count() > 0);
+        assertTrue(meterRegistry.get("cache.puts").tags("cache", LICENSES).functionCounter().count() > 0);
+        // Every insert stamped the table for the other nodes
+        assertTrue(meterRegistry.get("cache.invalidations").tags("cache", TIMESTAMPS, "direction", "sent")
+            .counter().count() >= 5);
+    }
+
+    private License createLicense() {
+        License license = new License();
+        license.setSoftwareName("Cached");
+        license.setLicenseKey("CACHE-" + UUID.randomUUID());
+        license.setTotalSeats(5);
+        return licenseService.createLicense(license);
+    }
+}
@@ -0,0 +1,89 @@
+package com.license.management.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplicaRoutingDataSource Unit Tests")
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica,
+            Duration.ofSeconds(5), Duration.ofSeconds(2), "SELECT 0");
+        ReplicaRoutingDataSource.beginRequest(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ReplicaRoutingDataSource.endRequest();
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica and writes to the primary")
+    void testRouting_ReadOnlyToReplica() {
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReplicaRoutingDataSource.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary right after the client committed a write")
+    void testRouting_ReadYourWrites() {
+        // Arrange: a write transaction on this thread commits
+        TransactionSynchronizationManager.initSynchronization();
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Act
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Object key = routingDataSource.determineCurrentLookupKey();
+
+        // Assert
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, key);
+        assertTrue(ReplicaRoutingDataSource.writeInRequest() > 0);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary while the replica cannot be checked")
+    void testRouting_ReplicaUnavailable() throws SQLException {
+        // Arrange
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // Act
+        routingDataSource.checkReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Assert
+        assertFalse(routingDataSource.isReplicaUsable());
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,188 @@
+package com.license.management.config;
+
+import com.license.management.entity.License;
+import com.license.management.entity.SeatWaitlistEntry;
+import com.license.management.entity.User;
+import com.license.management.service.LicenseService;
+import com.license.management.service.UserService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing against a replica that never catches up: a second database with the schema but
+ * none of the rows. Whatever a request finds there was read from the replica.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    "license.datasource.replica.url=" + ReplicaRoutingDatabaseTest.REPLICA_URL,
+    // Long enough for a request to follow its client's write
+    "license.datasource.replica.read-your-writes-window=PT1M"
+})
+@AutoConfigureMockMvc
+@DisplayName("Replica Routing Database Tests")
+class ReplicaRoutingDatabaseTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1";
+
+    // Scheduled jobs read the replica as soon as the context starts, so its schema comes first
+    static {
+        JdbcDataSource replica = new JdbcDataSource();
+        replica.setURL(REPLICA_URL);
+        replica.setUser("sa");
+        LocalContainerEntityManagerFactoryBean schema = new LocalContainerEntityManagerFactoryBean();
+        schema.setDataSource(replica);
+        schema.setPackagesToScan(License.class.getPackageName());
+        schema.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        schema.setJpaPropertyMap(Map.of(
+            AvailableSettings.JAKARTA_HBM2DDL_DATABASE_ACTION, "create",
+            AvailableSettings.USE_SECOND_LEVEL_CACHE, false,
+            AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+            AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName()));
+        schema.afterPropertiesSet();
+        schema.destroy();
+    }
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long licenseId;
+
+    private Long entryId;
+
+    @BeforeEach
+    void setUp() {
+        // The only seat is taken, so the second user waits
+        License license = new License();
+        license.setSoftwareName("Replicated Software");
+        license.setLicenseKey("REPLICA-" + UUID.randomUUID());
+        license.setTotalSeats(1);
+        licenseId = licenseService.createLicense(license).getId();
+        licenseService.assignLicenseToUser(licenseId, createUser(), null);
+        entryId = licenseService.joinWaitlist(licenseId, createUser(), null).getId();
+    }
+
+    @Test
+    @DisplayName("Should answer other read-only requests from the replica")
+    void testReadOnlyRequest_ReadsReplica() throws Exception {
+        mockMvc.perform(get("/api/licenses/" + licenseId + "/waitlist"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Should look up a waitlist entry on the primary")
+    void testGetWaitlistEntry_ReadsPrimary() throws Exception {
+        mockMvc.perform(get("/api/licenses/waitlist/" + entryId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("WAITING"))
+            .andExpect(jsonPath("$.position").value(1));
+
+        licenseService.cancelWaitlistEntry(entryId);
+        MvcResult result = mockMvc.perform(get("/api/licenses/waitlist/" + entryId + "/await")).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    @Test
+    @DisplayName("Should read the primary when the long poll times out on another thread")
+    void testAwaitWaitlistEntry_TimeoutReadsPrimary() throws Exception {
+        // Arrange: still waiting, so the poll is parked
+        MvcResult result = mockMvc.perform(get("/api/licenses/waitlist/" + entryId + "/await")
+                .param("timeoutSeconds", "1"))
+            .andReturn();
+        assertTrue(result.getRequest().isAsyncStarted());
+
+        // Act: the container times requests out on its own threads
+        MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+        Thread timeout = new Thread(() -> {
+            for (AsyncListener listener : context.getListeners()) {
+                try {
+                    listener.onTimeout(new AsyncEvent(context));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        timeout.start();
+        timeout.join();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(entryId))
+            .andExpect(jsonPath("$.status").value(SeatWaitlistEntry.Status.WAITING.name()));
+    }
+
+    @Test
+    @DisplayName("Should stream a list from the primary right after the client's own write")
+    void testStreamedList_ReadsOwnWrite() throws Exception {
+        // Arrange: the assignment sets the client's last-write cookie
+        License license = new License();
+        license.setSoftwareName("Replicated Software");
+        license.setLicenseKey("REPLICA-" + UUID.randomUUID());
+        license.setTotalSeats(1);
+        Long freeLicenseId = licenseService.createLicense(license).getId();
+        MvcResult write = mockMvc.perform(post("/api/licenses/" + freeLicenseId + "/assign/user/" + createUser()))
+            .andExpect(status().isCreated())
+            .andReturn();
+        Cookie lastWrite = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertNotNull(lastWrite);
+
+        // Act: the body is written on an async thread
+        MvcResult read = mockMvc.perform(get("/api/licenses/" + freeLicenseId + "/history").cookie(lastWrite))
+            .andReturn();
+
+        // Assert: created and assigned, where a request without the cookie finds nothing
+        mockMvc.perform(asyncDispatch(read))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+        MvcResult anonymous = mockMvc.perform(get("/api/licenses/" + freeLicenseId + "/history")).andReturn();
+        mockMvc.perform(asyncDispatch(anonymous))
+            .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    private Long createUser() {
+        User user = new User();
+        String username = "replica-" + UUID.randomUUID();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setFullName("Replica User");
+        return userService.createUser(user).getId();
+    }
+}
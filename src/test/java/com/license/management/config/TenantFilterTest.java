@@ -0,0 +1,105 @@
+package com.license.management.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TenantFilter Unit Tests")
+class TenantFilterTest {
+
+    private TenantFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TenantFilter(Set.of(), false, 1);
+    }
+
+    @Test
+    @DisplayName("Should bind the request to the tenant from the header and fall back to the default")
+    void testDoFilter_BindsTenant() throws Exception {
+        // Arrange
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/licenses");
+        request.addHeader(TenantFilter.TENANT_HEADER, "acme");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(),
+            (req, res) -> seen.set(TenantContext.getTenantId()));
+
+        // Assert
+        assertEquals("acme", seen.get());
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.getTenantId());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/licenses"), new MockHttpServletResponse(),
+            (req, res) -> seen.set(TenantContext.getTenantId()));
+        assertEquals(TenantContext.DEFAULT_TENANT, seen.get());
+    }
+
+    @Test
+    @DisplayName("Should reject malformed tenant ids")
+    void testDoFilter_InvalidTenant() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/licenses");
+        request.addHeader(TenantFilter.TENANT_HEADER, "acme:corp");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> fail("Request should not reach the chain"));
+
+        // Assert
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should answer 429 once a tenant is at its limit without affecting other tenants")
+    void testDoFilter_PerTenantLimit() throws Exception {
+        // Arrange: a request of tenant "acme" is in flight while the next ones arrive
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        MockHttpServletResponse other = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(tenantRequest("acme"), new MockHttpServletResponse(), (req, res) -> {
+            filter.doFilter(tenantRequest("acme"), throttled, (r, s) -> fail("Tenant is over its limit"));
+            filter.doFilter(tenantRequest("globex"), other, (r, s) -> { });
+        });
+
+        // Assert
+        assertEquals(429, throttled.getStatus());
+        assertEquals("1", throttled.getHeader("Retry-After"));
+        assertEquals(200, other.getStatus());
+        assertEquals(0, filter.getActiveRequests().get("acme"));
+    }
+
+    @Test
+    @DisplayName("Should hold the permit until async processing completes")
+    void testDoFilter_AsyncHoldsPermit() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = tenantRequest("acme");
+        request.setAsyncSupported(true);
+
+        // Act: the request returns with its body still streaming
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // Assert
+        assertEquals(1, filter.getActiveRequests().get("acme"));
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        filter.doFilter(tenantRequest("acme"), throttled, (req, res) -> fail("Tenant is over its limit"));
+        assertEquals(429, throttled.getStatus());
+
+        request.getAsyncContext().complete();
+        assertEquals(0, filter.getActiveRequests().get("acme"));
+    }
+
+    private static MockHttpServletRequest tenantRequest(String tenantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/licenses");
+        request.addHeader(TenantFilter.TENANT_HEADER, tenantId);
+        return request;
+    }
+}
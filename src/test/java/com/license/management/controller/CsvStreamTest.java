@@ -0,0 +1,30 @@
+package com.license.management.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CsvStream Unit Tests")
+class CsvStreamTest {
+
+    @Test
+    @DisplayName("Should quote fields containing separators, quotes or line breaks")
+    void testEscape_Quotes() {
+        assertEquals("Engineering", CsvStream.escape("Engineering"));
+        assertEquals("\"Sales, EMEA\"", CsvStream.escape("Sales, EMEA"));
+        assertEquals("\"The \"\"A\"\" Team\"", CsvStream.escape("The \"A\" Team"));
+        assertEquals("\"Line\nbreak\"", CsvStream.escape("Line\nbreak"));
+    }
+
+    @Test
+    @DisplayName("Should keep spreadsheets from running text as a formula")
+    void testEscape_FormulaPrefixed() {
+        assertEquals("'=1+1", CsvStream.escape("=1+1"));
+        assertEquals("'+31 20 555 0100", CsvStream.escape("+31 20 555 0100"));
+        assertEquals("'-Ops", CsvStream.escape("-Ops"));
+        assertEquals("'@SUM(A1)", CsvStream.escape("@SUM(A1)"));
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"", CsvStream.escape("=HYPERLINK(\"http://x\",\"y\")"));
+        assertEquals("", CsvStream.escape(""));
+    }
+}
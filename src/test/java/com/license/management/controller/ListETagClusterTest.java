@@ -0,0 +1,135 @@
+package com.license.management.controller;
+
+import com.license.management.LicenseManagementApplication;
+import com.license.management.entity.License;
+import com.license.management.service.LicenseService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs a second instance of the application on the same database, connected to the one
+ * under test by the UDP invalidation channel, and checks that its writes move the list
+ * ETags of the first.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    "license.cache.invalidation.channel=udp",
+    "license.cache.invalidation.udp.bind-address=127.0.0.1"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("List ETag Cluster Tests")
+class ListETagClusterTest {
+
+    private static final int PORT = freePort();
+
+    private static final int OTHER_PORT = freePort();
+
+    @DynamicPropertySource
+    static void channel(DynamicPropertyRegistry registry) {
+        registry.add("license.cache.invalidation.udp.port", () -> PORT);
+        registry.add("license.cache.invalidation.udp.peers", () -> "127.0.0.1:" + OTHER_PORT);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ConfigurableApplicationContext other;
+
+    @BeforeAll
+    void startOtherInstance() {
+        // Arguments, to override application.properties; the schema is this context's
+        other = new SpringApplicationBuilder(LicenseManagementApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.jpa.show-sql=false",
+                "--spring.jmx.enabled=false",
+                "--logging.level.com.license.management=INFO",
+                "--license.outbox.relay-enabled=false",
+                "--license.alerts.enabled=false",
+                "--license.cache.invalidation.channel=udp",
+                "--license.cache.invalidation.udp.bind-address=127.0.0.1",
+                "--license.cache.invalidation.udp.port=" + OTHER_PORT,
+                "--license.cache.invalidation.udp.peers=127.0.0.1:" + PORT);
+    }
+
+    @AfterAll
+    void stopOtherInstance() {
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should change the list ETag when another instance writes a license")
+    void testListETag_ChangesOnWriteFromOtherInstance() throws Exception {
+        // Arrange: every list read from licenses shares the tag
+        String etag = getETag("/api/licenses");
+        mockMvc.perform(get("/api/licenses/active").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        // Act
+        License license = new License();
+        license.setSoftwareName("Elsewhere");
+        license.setLicenseKey("OTHER-" + UUID.randomUUID());
+        license.setTotalSeats(3);
+        other.getBean(LicenseService.class).createLicense(license);
+
+        // Assert: once the invalidation has arrived the old tag no longer matches
+        long deadline = System.currentTimeMillis() + 5000;
+        String current = getETag("/api/licenses");
+        while (current.equals(etag) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            current = getETag("/api/licenses");
+        }
+        assertNotEquals(etag, current);
+        mockMvc.perform(get("/api/licenses/active").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+    }
+
+    private String getETag(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        } else {
+            assertEquals(200, result.getResponse().getStatus(), url);
+        }
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, "GET " + url + " sent no ETag");
+        return etag;
+    }
+
+    private static int freePort() {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        } catch (SocketException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
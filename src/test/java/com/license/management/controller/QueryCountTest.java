@@ -0,0 +1,262 @@
+package com.license.management.controller;
+
+import com.license.management.entity.License;
+import com.license.management.service.LicenseKeyIndex;
+import com.license.management.service.LicenseService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the read endpoints against N+1 queries: each one is called over enough rows that
+ * loading an association per row would exceed the statement budget. Lookups by natural id
+ * must be served from the natural-id cache once warm, and revalidations by ETag from the
+ * table versions or the second-level cache.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Query Count Tests")
+class QueryCountTest {
+
+    private static final int USERS = 40;
+
+    private static final int GROUPS = 4;
+
+    private static final int LICENSES = 6;
+
+    // Statements an endpoint may run however many rows it returns
+    private static final int MAX_STATEMENTS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LicenseKeyIndex licenseKeyIndex;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    private Long userId;
+
+    private Long groupId;
+
+    private Long licenseId;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[] {"default", "qc-user" + i, "qc-user" + i + "@example.com", "User " + i, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (tenant_id, username, email, full_name, active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, true, ?, ?)", rows, rows.size(), (ps, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    ps.setObject(i + 1, row[i]);
+                }
+                ps.setObject(6, now);
+            });
+        for (int i = 0; i < GROUPS; i++) {
+            jdbcTemplate.update("INSERT INTO user_groups (tenant_id, name, active, created_at, updated_at) " +
+                "VALUES ('default', ?, true, ?, ?)", "qc-group" + i, now, now);
+        }
+        for (int i = 0; i < LICENSES; i++) {
+            jdbcTemplate.update("INSERT INTO licenses (tenant_id, software_name, license_key, total_seats, used_seats, " +
+                "active, created_at, updated_at) VALUES ('default', ?, ?, 1000, 0, true, ?, ?)",
+                "QC Software " + i, "QC-KEY-" + i, now, now);
+        }
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE 'qc-%' ORDER BY id", Long.class);
+        List<Long> groupIds = jdbcTemplate.queryForList("SELECT id FROM user_groups WHERE name LIKE 'qc-%' ORDER BY id", Long.class);
+        List<Long> licenseIds = jdbcTemplate.queryForList("SELECT id FROM licenses WHERE license_key LIKE 'QC-%' ORDER BY id", Long.class);
+        userId = userIds.get(0);
+        groupId = groupIds.get(0);
+        licenseId = licenseIds.get(0);
+
+        // Every user is in two groups and holds every license; every group holds every license
+        for (int i = 0; i < USERS; i++) {
+            for (int g = 0; g < 2; g++) {
+                jdbcTemplate.update("INSERT INTO user_group_mapping (user_id, group_id) VALUES (?, ?)",
+                    userIds.get(i), groupIds.get((i + g) % GROUPS));
+            }
+            for (Long license : licenseIds) {
+                jdbcTemplate.update("INSERT INTO user_licenses (tenant_id, user_id, license_id, active, assigned_at) " +
+                    "VALUES ('default', ?, ?, true, ?)", userIds.get(i), license, now);
+            }
+        }
+        for (Long group : groupIds) {
+            for (Long license : licenseIds) {
+                jdbcTemplate.update("INSERT INTO group_licenses (tenant_id, group_id, license_id, allocated_seats, active, " +
+                    "assigned_at) VALUES ('default', ?, ?, 5, true, ?)", group, license, now);
+            }
+        }
+        // The key index was built at startup, before these licenses existed
+        licenseKeyIndex.rebuild();
+    }
+
+    List<String> endpoints() {
+        return List.of(
+            "/api/users",
+            "/api/users/active",
+            "/api/users/" + userId,
+            "/api/groups",
+            "/api/groups/active",
+            "/api/licenses",
+            "/api/licenses/active",
+            "/api/licenses/available",
+            "/api/licenses/search?sort=id",
+            "/api/licenses/user/" + userId,
+            "/api/licenses/" + licenseId + "/users",
+            "/api/licenses/group/" + groupId,
+            "/api/licenses/" + licenseId + "/groups");
+    }
+
+    @ParameterizedTest(name = "GET {0}")
+    @MethodSource("endpoints")
+    @DisplayName("Should read a list without a query per row")
+    void testEndpoint_HasNoNPlusOne(String url) throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        MvcResult result = mockMvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        } else {
+            assertTrue(result.getResponse().getStatus() == 200, url + " returned " + result.getResponse().getStatus());
+        }
+
+        // Assert
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS,
+            "GET " + url + " ran " + statements + " statements, at most " + MAX_STATEMENTS + " expected");
+    }
+
+    List<String> naturalIdEndpoints() {
+        return List.of(
+            "/api/users/username/qc-user1",
+            "/api/groups/name/qc-group1",
+            "/api/licenses/key/QC-KEY-1");
+    }
+
+    @ParameterizedTest(name = "GET {0}")
+    @MethodSource("naturalIdEndpoints")
+    @DisplayName("Should resolve a repeated natural-id lookup without querying")
+    void testEndpoint_ResolvesNaturalIdFromCache(String url) throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        statistics.clear();
+
+        // Act
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        // Assert
+        assertEquals(0, statistics.getNaturalIdQueryExecutionCount(), "GET " + url + " queried its natural id");
+        assertEquals(1, statistics.getNaturalIdCacheHitCount(), "GET " + url + " missed the natural-id cache");
+    }
+
+    List<String> conditionalEndpoints() {
+        return List.of(
+            "/api/groups",
+            "/api/groups/active",
+            "/api/groups/" + groupId,
+            "/api/licenses",
+            "/api/licenses/active",
+            "/api/licenses/available",
+            "/api/licenses/" + licenseId);
+    }
+
+    @ParameterizedTest(name = "GET {0}")
+    @MethodSource("conditionalEndpoints")
+    @DisplayName("Should answer a request with the current ETag with 304 without querying")
+    void testEndpoint_AnswersNotModifiedWithoutQuerying(String url) throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String etag = getETag(url);
+        statistics.clear();
+
+        // Act
+        MvcResult result = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andReturn();
+
+        // Assert
+        assertEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(0, result.getResponse().getContentLength());
+        assertEquals(0, statistics.getPrepareStatementCount(), "GET " + url + " queried to revalidate");
+    }
+
+    @Test
+    @DisplayName("Should change the list and entity ETags once a license is updated")
+    void testEndpoint_ChangesETagOnUpdate() throws Exception {
+        // Arrange
+        String listETag = getETag("/api/licenses");
+        String licenseETag = getETag("/api/licenses/" + licenseId);
+        License details = licenseService.getLicenseById(licenseId).orElseThrow();
+        details.setDescription("Revalidated");
+
+        // Act
+        licenseService.updateLicense(licenseId, details);
+
+        // Assert: the old tags no longer match, and the groups are untouched
+        assertNotEquals(listETag, getETag("/api/licenses"));
+        mockMvc.perform(get("/api/licenses/" + licenseId).header(HttpHeaders.IF_NONE_MATCH, licenseETag))
+            .andExpect(status().isOk());
+        String groupsETag = getETag("/api/groups");
+        licenseService.updateLicense(licenseId, details);
+        mockMvc.perform(get("/api/groups").header(HttpHeaders.IF_NONE_MATCH, groupsETag))
+            .andExpect(status().isNotModified());
+    }
+
+    private String getETag(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        } else {
+            assertEquals(200, result.getResponse().getStatus(), url);
+        }
+        List<String> etags = result.getResponse().getHeaders(HttpHeaders.ETAG);
+        assertEquals(1, etags.size(), "GET " + url + " sent " + etags);
+        assertNotNull(etags.get(0));
+        return etags.get(0);
+    }
+}
@@ -0,0 +1,193 @@
+package com.license.management.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import com.license.management.service.LicenseService;
+import com.license.management.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Single-field updates sent as a full replace (PUT) and as a merge patch (PATCH). The test
+ * always checks that a patch runs no more statements than a replace; the timed comparison runs
+ * only with {@code -Dbenchmark=true}, and logs its results.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false"
+})
+@AutoConfigureMockMvc
+@DisplayName("Single-Field Update Benchmark")
+class SingleFieldUpdateBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFieldUpdateBenchmarkTest.class);
+
+    private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
+
+    // Rows updated once each, per change and method, before and while timing
+    private static final int WARM_UP_ROWS = 300;
+
+    private static final int MEASURED_ROWS = 1000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Test
+    @DisplayName("Should change a single field with no more statements than a full replace")
+    void testSingleFieldUpdate_PatchNoCostlierThanPut() throws Exception {
+        for (Change change : changes()) {
+            // Arrange: one of each first, so both paths are past their first-use costs
+            List<Long> ids = create(change, 4);
+            sendPut(change, ids.get(0));
+            sendPatch(change, ids.get(1));
+
+            // Act
+            Sample replaced = sendPut(change, ids.get(2));
+            Sample patched = sendPatch(change, ids.get(3));
+
+            // Assert
+            assertTrue(patched.statements() <= replaced.statements(),
+                change.name() + ": PATCH ran " + patched.statements() + " statements, PUT " + replaced.statements());
+            assertEquals(change.value(), read(change, ids.get(3)).get(change.field()));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Should time single-field updates by PUT and by PATCH")
+    void benchmarkSingleFieldUpdates() throws Exception {
+        for (Change change : changes()) {
+            for (boolean patching : new boolean[] {false, true}) {
+                List<Long> ids = create(change, WARM_UP_ROWS + MEASURED_ROWS);
+                long nanos = 0;
+                long statements = 0;
+                for (int i = 0; i < ids.size(); i++) {
+                    Sample sample = patching ? sendPatch(change, ids.get(i)) : sendPut(change, ids.get(i));
+                    if (i >= WARM_UP_ROWS) {
+                        nanos += sample.nanos();
+                        statements += sample.statements();
+                    }
+                }
+                log.info("{} by {}: {} updates, {} ms and {} statements each", change.name(),
+                    patching ? "PATCH" : "PUT", MEASURED_ROWS,
+                    String.format("%.3f", nanos / 1e6 / MEASURED_ROWS),
+                    String.format("%.1f", (double) statements / MEASURED_ROWS));
+            }
+        }
+    }
+
+    // ===== Changes =====
+
+    // A change of one field of a fresh row of the resource at path
+    private record Change(String name, String path, String field, JsonNode value, Supplier<Long> creator) {
+    }
+
+    private List<Change> changes() {
+        return List.of(
+            new Change("User active", "/api/users/", "active", BooleanNode.FALSE, () -> {
+                User user = new User();
+                String username = "bench-" + UUID.randomUUID();
+                user.setUsername(username);
+                user.setEmail(username + "@example.com");
+                user.setFullName("Benchmark User");
+                return userService.createUser(user).getId();
+            }),
+            new Change("License description", "/api/licenses/", "description", TextNode.valueOf("Patched"), () -> {
+                License license = new License();
+                license.setSoftwareName("Benchmark Software");
+                license.setLicenseKey("BENCH-" + UUID.randomUUID());
+                license.setTotalSeats(10);
+                license.setDescription("Original");
+                return licenseService.createLicense(license).getId();
+            }));
+    }
+
+    private List<Long> create(Change change, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(change.creator().get());
+        }
+        return ids;
+    }
+
+    // ===== Requests =====
+
+    private record Sample(long nanos, long statements) {
+    }
+
+    // The whole resource, as a client doing a full replace reads it first; not timed
+    private Sample sendPut(Change change, Long id) throws Exception {
+        ObjectNode body = read(change, id);
+        body.set(change.field(), change.value());
+        return measure(put(change.path() + id)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(body)));
+    }
+
+    // Read as well, though not needed, so both paths find the row in the same cache state
+    private Sample sendPatch(Change change, Long id) throws Exception {
+        read(change, id);
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set(change.field(), change.value());
+        return measure(patch(change.path() + id)
+            .contentType(MERGE_PATCH)
+            .content(objectMapper.writeValueAsString(body)));
+    }
+
+    private ObjectNode read(Change change, Long id) throws Exception {
+        String json = mockMvc.perform(get(change.path() + id)).andReturn().getResponse().getContentAsString();
+        return (ObjectNode) objectMapper.readTree(json);
+    }
+
+    private Sample measure(RequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long start = System.nanoTime();
+        int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+        long nanos = System.nanoTime() - start;
+        assertEquals(200, status);
+        return new Sample(nanos, statistics.getPrepareStatementCount() - statementsBefore);
+    }
+}
@@ -0,0 +1,78 @@
+package com.license.management.repository;
+
+import com.license.management.dto.LicenseFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LicenseSearchRepositoryImpl Unit Tests")
+class LicenseSearchRepositoryImplTest {
+
+    private final LicenseSearchRepositoryImpl repository = new LicenseSearchRepositoryImpl();
+
+    @Test
+    @DisplayName("Should compile the set filters into one query ordered by the sort and id")
+    void testCompile_Query() {
+        // Arrange
+        LicenseFilter filter = new LicenseFilter();
+        filter.setExpiresTo(LocalDateTime.of(2024, 7, 1, 0, 0));
+        filter.setMinUtilization(90.0);
+
+        // Act
+        LicenseSearchRepositoryImpl.CompiledQuery query = repository.compile(
+            LicenseSearchRepositoryImpl.conditions(filter), Sort.by(Sort.Order.desc("utilization")));
+
+        // Assert
+        assertEquals("SELECT l FROM License l WHERE l.expirationDate < :expiresTo"
+            + " AND l.usedSeats * 100.0 / l.totalSeats >= :minUtilization"
+            + " ORDER BY (l.usedSeats * 1.0 / l.totalSeats) DESC, l.id ASC", query.select());
+        assertEquals("SELECT COUNT(l) FROM License l WHERE l.expirationDate < :expiresTo"
+            + " AND l.usedSeats * 100.0 / l.totalSeats >= :minUtilization", query.count());
+    }
+
+    @Test
+    @DisplayName("Should reuse the compiled query for filters of the same shape")
+    void testCompile_CachedPerShape() {
+        // Arrange
+        LicenseFilter first = new LicenseFilter();
+        first.setSoftwareName("Adobe");
+        first.setActive(false);
+        LicenseFilter second = new LicenseFilter();
+        second.setSoftwareName("Microsoft");
+        second.setActive(true);
+        LicenseFilter other = new LicenseFilter();
+        other.setSoftwareName("Adobe");
+
+        // Act
+        LicenseSearchRepositoryImpl.CompiledQuery firstQuery = repository.compile(
+            LicenseSearchRepositoryImpl.conditions(first), Sort.unsorted());
+        LicenseSearchRepositoryImpl.CompiledQuery secondQuery = repository.compile(
+            LicenseSearchRepositoryImpl.conditions(second), Sort.unsorted());
+        LicenseSearchRepositoryImpl.CompiledQuery otherQuery = repository.compile(
+            LicenseSearchRepositoryImpl.conditions(other), Sort.unsorted());
+
+        // Assert
+        assertSame(firstQuery, secondQuery);
+        assertNotEquals(firstQuery.select(), otherQuery.select());
+    }
+
+    @Test
+    @DisplayName("Should match software names literally and reject unknown sort properties")
+    void testConditions_EscapesAndRejectsUnknownSort() {
+        // Arrange
+        LicenseFilter filter = new LicenseFilter();
+        filter.setSoftwareName("50%_off");
+
+        // Act
+        List<LicenseSearchRepositoryImpl.Condition> conditions = LicenseSearchRepositoryImpl.conditions(filter);
+
+        // Assert
+        assertEquals("50\\%\\_off%", conditions.get(0).value());
+        assertThrows(RuntimeException.class, () -> repository.compile(conditions, Sort.by("licenseKey")));
+    }
+}
@@ -0,0 +1,80 @@
+package com.license.management.repository;
+
+import com.license.management.config.TenantContext;
+import com.license.management.entity.License;
+import com.license.management.service.LicenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.JpaObjectRetrievalFailureException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every repository method taking ids must keep to the current tenant, including loads the
+ * second-level cache answers without a query.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false"
+})
+@DisplayName("TenantAwareJpaRepository Tests")
+class TenantAwareJpaRepositoryTest {
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private LicenseRepository licenseRepository;
+
+    private Long acmeId;
+
+    private Long globexId;
+
+    @BeforeEach
+    void setUp() {
+        acmeId = TenantContext.callAs("acme", () -> createLicense().getId());
+        globexId = TenantContext.callAs("globex", () -> createLicense().getId());
+        // Cached now, so the loads below need not reach the database
+        TenantContext.runAs("acme", () -> licenseRepository.findById(acmeId));
+    }
+
+    @Test
+    @DisplayName("Should not find another tenant's entity by id")
+    void testLookups_StayWithinTenant() {
+        TenantContext.runAs("globex", () -> {
+            assertFalse(licenseRepository.existsById(acmeId));
+            assertTrue(licenseRepository.existsById(globexId));
+            assertEquals(List.of(globexId), licenseRepository.findAllById(List.of(acmeId, globexId)).stream()
+                .map(License::getId)
+                .toList());
+            assertThrows(JpaObjectRetrievalFailureException.class, () -> licenseRepository.getReferenceById(acmeId));
+            assertEquals(globexId, licenseRepository.getReferenceById(globexId).getId());
+        });
+    }
+
+    @Test
+    @DisplayName("Should not delete another tenant's entity by id")
+    void testDeleteById_StaysWithinTenant() {
+        // Act
+        TenantContext.runAs("globex", () -> licenseRepository.deleteById(acmeId));
+
+        // Assert
+        assertTrue(TenantContext.callAs("acme", () -> licenseRepository.existsById(acmeId)));
+    }
+
+    private License createLicense() {
+        License license = new License();
+        license.setSoftwareName("Tenanted");
+        license.setLicenseKey("TENANT-" + UUID.randomUUID());
+        license.setTotalSeats(2);
+        return licenseService.createLicense(license);
+    }
+}
@@ -0,0 +1,120 @@
+package com.license.management.service;
+
+import com.license.management.dto.AssignmentsAsOf;
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import com.license.management.repository.AssignmentSnapshotRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * As-of queries against the real schema, with history growing past several snapshots.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    // Snapshots are taken only when a test says so
+    "license.assignments.snapshot-interval-ms=3600000",
+    "license.assignments.snapshot-min-changes=" + AssignmentSnapshotDatabaseTest.MIN_CHANGES
+})
+@DisplayName("Assignment Snapshot Database Tests")
+class AssignmentSnapshotDatabaseTest {
+
+    static final int MIN_CHANGES = 5;
+
+    private static final int USERS = 8;
+
+    private static final int ROUNDS = 6;
+
+    @Autowired
+    private AssignmentSnapshotService snapshotService;
+
+    @Autowired
+    private AssignmentSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    @DisplayName("Should replay a bounded number of entries however long the history is")
+    void testGetAssignmentsAsOf_BoundedReplay() throws Exception {
+        // Arrange
+        License license = new License();
+        license.setSoftwareName("Snapshotted Software");
+        license.setLicenseKey("SNAPSHOT-" + UUID.randomUUID());
+        license.setTotalSeats(USERS);
+        Long licenseId = licenseService.createLicense(license).getId();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            String username = "snapshot-" + UUID.randomUUID();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setFullName("Holder " + i);
+            userIds.add(userService.createUser(user).getId());
+        }
+        Map<Long, Long> assignments = new HashMap<>();
+
+        // Act: every round changes most assignments and is followed by a snapshot run
+        int history = 0;
+        LocalDateTime midway = null;
+        Set<Long> heldMidway = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            // Every third user sits the round out, so rounds differ
+            int skip = round % 3;
+            history += toggle(licenseId, userIds.stream().filter(userId -> userIds.indexOf(userId) % 3 != skip).toList(),
+                assignments);
+            snapshotService.snapshotChangedLicenses();
+            if (round == ROUNDS / 2) {
+                Thread.sleep(5);
+                midway = LocalDateTime.now();
+                heldMidway = new HashSet<>(assignments.keySet());
+                Thread.sleep(5);
+            }
+        }
+        // Changes since the last snapshot, too few for another one
+        int pending = toggle(licenseId, userIds.subList(0, MIN_CHANGES - 1), assignments);
+
+        // Assert: history is several snapshots long, yet a query replays only what followed the last
+        assertTrue(snapshotRepository.findAll().stream().filter(s -> s.getLicenseId().equals(licenseId)).count() >= ROUNDS);
+        AssignmentsAsOf now = snapshotService.getAssignmentsAsOf(licenseId, LocalDateTime.now());
+        assertEquals(pending, now.getReplayedEntries());
+        assertTrue(now.getReplayedEntries() < history);
+        assertEquals(assignments.keySet(), new HashSet<>(now.getUserIds()));
+
+        AssignmentsAsOf then = snapshotService.getAssignmentsAsOf(licenseId, midway);
+        assertEquals(0, then.getReplayedEntries());
+        assertEquals(heldMidway, new HashSet<>(then.getUserIds()));
+    }
+
+    // Assigns each user not holding the license and revokes the others; returns the changes made
+    private int toggle(Long licenseId, List<Long> userIds, Map<Long, Long> assignments) {
+        for (Long userId : userIds) {
+            Long assignmentId = assignments.remove(userId);
+            if (assignmentId != null) {
+                licenseService.revokeLicenseFromUser(assignmentId);
+            } else {
+                assignments.put(userId, licenseService.assignLicenseToUser(licenseId, userId, null).getId());
+            }
+        }
+        return userIds.size();
+    }
+}
@@ -0,0 +1,111 @@
+package com.license.management.service;
+
+import com.license.management.dto.AssignmentsAsOf;
+import com.license.management.entity.AssignmentSnapshot;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.repository.AssignmentSnapshotRepository;
+import com.license.management.repository.GroupLicenseRepository;
+import com.license.management.repository.LicenseHistoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AssignmentSnapshotService Unit Tests")
+class AssignmentSnapshotServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Mock
+    private AssignmentSnapshotRepository snapshotRepository;
+
+    @Mock
+    private LicenseHistoryRepository historyRepository;
+
+    @Mock
+    private GroupLicenseRepository groupLicenseRepository;
+
+    @InjectMocks
+    private AssignmentSnapshotService assignmentSnapshotService;
+
+    @Test
+    @DisplayName("Should replay only the history written after the snapshot")
+    void testGetAssignmentsAsOf_ReplaysFromSnapshot() {
+        // Arrange
+        AssignmentSnapshot snapshot = snapshot(100_000L, AT.minusDays(1),
+            new AssignmentSnapshot.Holder(1L, null, null),
+            new AssignmentSnapshot.Holder(2L, null, null),
+            new AssignmentSnapshot.Holder(null, 7L, 5));
+        when(snapshotRepository.findFirstByLicenseIdAndTakenAtLessThanEqualOrderByLastHistoryIdDesc(1L, AT))
+            .thenReturn(Optional.of(snapshot));
+        when(historyRepository.findChangesAfter(eq(1L), eq(100_000L), eq(AT), any())).thenReturn(List.of(
+            entry(LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER, 1L, null),
+            entry(LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER, 3L, null),
+            entry(LicenseHistory.ActionType.LICENSE_REVOKED_FROM_GROUP, null, 7L)));
+
+        // Act
+        AssignmentsAsOf result = assignmentSnapshotService.getAssignmentsAsOf(1L, AT);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), result.getUserIds());
+        assertTrue(result.getGroups().isEmpty());
+        assertEquals(3, result.getReplayedEntries());
+        assertEquals(snapshot.getTakenAt(), result.getSnapshotTakenAt());
+        verify(historyRepository, never()).findChangesAfter(eq(1L), eq(0L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should take group allocations from the assignment made up to the replayed entry")
+    void testGetAssignmentsAsOf_GroupAllocationFromAssignmentRow() {
+        // Arrange
+        LicenseHistory assigned = entry(LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_GROUP, null, 7L);
+        assigned.setTimestamp(AT.minusHours(2));
+        when(snapshotRepository.findFirstByLicenseIdAndTakenAtLessThanEqualOrderByLastHistoryIdDesc(1L, AT))
+            .thenReturn(Optional.empty());
+        when(historyRepository.findChangesAfter(eq(1L), eq(0L), eq(AT), any())).thenReturn(List.of(assigned));
+        when(groupLicenseRepository.findAllocations(eq(1L), any())).thenReturn(List.of(
+            new Object[] {7L, 3, AT.minusDays(10)},
+            new Object[] {7L, 4, AT.minusHours(2).minusSeconds(1)},
+            new Object[] {7L, 9, AT.minusHours(1)}));
+
+        // Act
+        AssignmentsAsOf result = assignmentSnapshotService.getAssignmentsAsOf(1L, AT);
+
+        // Assert
+        assertNull(result.getSnapshotTakenAt());
+        assertEquals(1, result.getGroups().size());
+        assertEquals(4, result.getGroups().get(0).getAllocatedSeats());
+    }
+
+    private AssignmentSnapshot snapshot(long lastHistoryId, LocalDateTime takenAt, AssignmentSnapshot.Holder... holders) {
+        AssignmentSnapshot snapshot = new AssignmentSnapshot();
+        snapshot.setLicenseId(1L);
+        snapshot.setLastHistoryId(lastHistoryId);
+        snapshot.setTakenAt(takenAt);
+        snapshot.setHolders(new ArrayList<>(List.of(holders)));
+        return snapshot;
+    }
+
+    private LicenseHistory entry(LicenseHistory.ActionType actionType, Long userId, Long groupId) {
+        LicenseHistory history = new LicenseHistory();
+        history.setLicenseId(1L);
+        history.setUserId(userId);
+        history.setGroupId(groupId);
+        history.setActionType(actionType);
+        history.setTimestamp(AT.minusMinutes(5));
+        return history;
+    }
+}
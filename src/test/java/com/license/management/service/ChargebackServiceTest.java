@@ -0,0 +1,274 @@
+package com.license.management.service;
+
+import com.license.management.entity.GroupCostRate;
+import com.license.management.entity.License;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.event.LicenseHistoryEvent;
+import com.license.management.repository.GroupCostRateRepository;
+import com.license.management.repository.GroupLicenseRepository;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserLicenseRepository;
+import com.license.management.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ChargebackService Unit Tests")
+class ChargebackServiceTest {
+
+    @Mock
+    private GroupCostRateRepository rateRepository;
+
+    @Mock
+    private LicenseRepository licenseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserLicenseRepository userLicenseRepository;
+
+    @Mock
+    private GroupLicenseRepository groupLicenseRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ChargebackService chargebackService;
+
+    @Test
+    @DisplayName("Should split the accrual at month boundaries and prorate by month length")
+    void testAccrue_SplitsByMonth() {
+        // Arrange: 3 seats at 10.00 from the middle of January to the end of February 2024
+        GroupCostRate rate = rate("3", "10.00", LocalDateTime.of(2024, 1, 16, 12, 0));
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        chargebackService.accrue(rate, LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        // Assert: half of January, all of the 29 days of February
+        verify(jdbcTemplate).update(anyString(), eq(new BigDecimal("1.500000")), eq(new BigDecimal("15.0000")),
+            eq(LocalDate.of(2024, 1, 1)), eq(7L), eq(1L));
+        verify(jdbcTemplate).update(anyString(), eq(new BigDecimal("3.000000")), eq(new BigDecimal("30.0000")),
+            eq(LocalDate.of(2024, 2, 1)), eq(7L), eq(1L));
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), rate.getAccruedThrough());
+    }
+
+    @Test
+    @DisplayName("Should insert the monthly aggregate when the month has no row yet")
+    void testAccrue_InsertsNewMonth() {
+        // Arrange
+        GroupCostRate rate = rate("2", "4.50", LocalDateTime.of(2024, 4, 1, 0, 0));
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        chargebackService.accrue(rate, LocalDateTime.of(2024, 4, 16, 0, 0));
+
+        // Assert
+        verify(jdbcTemplate).update(startsWith("INSERT"), eq("t1"), eq(LocalDate.of(2024, 4, 1)), eq(7L), eq(1L),
+            eq(new BigDecimal("1.000000")), eq(new BigDecimal("4.5000")));
+    }
+
+    @Test
+    @DisplayName("Should not charge an interval that has already been accrued")
+    void testAccrue_AlreadyAccrued() {
+        // Arrange
+        LocalDateTime accruedThrough = LocalDateTime.of(2024, 5, 10, 0, 0);
+        GroupCostRate rate = rate("5", "1.00", accruedThrough);
+
+        // Act
+        chargebackService.accrue(rate, accruedThrough.minusHours(1));
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(accruedThrough, rate.getAccruedThrough());
+    }
+
+    @Test
+    @DisplayName("Should charge a group its allocation plus its share of holders in several groups")
+    void testOnHistory_SplitsHolderBetweenGroups() {
+        // Arrange: user 5 is in groups 7 and 8, and group 7 also has an allocation of 2 seats
+        stubPrice("10.00");
+        when(userRepository.findGroupMemberships(any())).thenReturn(rows(new Object[]{5L, 7L}, new Object[]{5L, 8L}));
+        when(groupLicenseRepository.sumActiveAllocations(eq(1L), eq(Set.of(7L, 8L))))
+            .thenReturn(rows(new Object[]{7L, 2L}));
+        when(userLicenseRepository.findGroupHolders(eq(1L), eq(Set.of(7L, 8L))))
+            .thenReturn(rows(new Object[]{7L, 5L}, new Object[]{8L, 5L}));
+
+        // Act
+        chargebackService.onHistory(event(LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER, 5L));
+
+        // Assert
+        Map<Long, GroupCostRate> saved = savedRates(2);
+        assertEquals(new BigDecimal("2.5000"), saved.get(7L).getSeats());
+        assertEquals(new BigDecimal("0.5000"), saved.get(8L).getSeats());
+        assertEquals(new BigDecimal("10.00"), saved.get(8L).getUnitPrice());
+        assertNotNull(saved.get(8L).getAccruedThrough());
+    }
+
+    @Test
+    @DisplayName("Should charge holders in no group to the ungrouped bucket")
+    void testOnHistory_Ungrouped() {
+        // Arrange
+        stubPrice("3.00");
+        when(userRepository.findGroupMemberships(any())).thenReturn(rows(new Object[]{5L, null}));
+        when(userLicenseRepository.countUngroupedHolders(1L)).thenReturn(3L);
+
+        // Act
+        chargebackService.onHistory(event(LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER, 5L));
+
+        // Assert
+        assertEquals(BigDecimal.valueOf(3), savedRates(1).get(GroupCostRate.UNGROUPED).getSeats());
+        verifyNoInteractions(groupLicenseRepository);
+    }
+
+    @Test
+    @DisplayName("Should accrue and drop a rate once the group holds no more seats")
+    void testOnHistory_RevocationDropsRate() {
+        // Arrange
+        GroupCostRate rate = rate("1", "10.00", LocalDateTime.now().minusDays(1));
+        stubPrice("10.00");
+        when(userRepository.findGroupMemberships(any())).thenReturn(rows(new Object[]{5L, 7L}));
+        when(rateRepository.findForUpdate(1L, Set.of(7L))).thenReturn(List.of(rate));
+
+        // Act
+        chargebackService.onHistory(event(LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER, 5L));
+
+        // Assert: the day it was held is charged before the rate goes
+        verify(jdbcTemplate).update(startsWith("INSERT"), eq("t1"), any(), eq(7L), eq(1L), any(), any());
+        assertTrue(rate.getAccruedThrough().isAfter(LocalDateTime.now().minusMinutes(1)));
+        verify(rateRepository).delete(rate);
+        verify(rateRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should close every rate of a deleted license without counting its seats")
+    void testOnHistory_LicenseDeletedClosesRates() {
+        // Arrange
+        GroupCostRate grouped = rate("2", "10.00", LocalDateTime.now().minusDays(1));
+        GroupCostRate ungrouped = rate("1", "10.00", LocalDateTime.now().minusDays(1));
+        ungrouped.setGroupId(GroupCostRate.UNGROUPED);
+        when(rateRepository.findGroupIdsByLicenseId(1L)).thenReturn(List.of(7L, GroupCostRate.UNGROUPED));
+        when(rateRepository.findForUpdate(1L, Set.of(7L, GroupCostRate.UNGROUPED))).thenReturn(List.of(grouped, ungrouped));
+
+        // Act
+        chargebackService.onHistory(event(LicenseHistory.ActionType.LICENSE_DELETED, null));
+
+        // Assert
+        verify(rateRepository).delete(grouped);
+        verify(rateRepository).delete(ungrouped);
+        verify(rateRepository, never()).save(any());
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), any(), any(), any(), eq(1L), any(), any());
+        verifyNoInteractions(groupLicenseRepository);
+        verify(userLicenseRepository, never()).countUngroupedHolders(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should move a user's seats from the old group to the new one")
+    void testRerateUserChange_MovesSeats() {
+        // Arrange: user 5 moves from group 7 to group 8
+        GroupCostRate old = rate("1", "10.00", LocalDateTime.now().minusDays(1));
+        Runnable change = mock(Runnable.class);
+        stubPrice("10.00");
+        when(userLicenseRepository.findActiveLicenseIdsByUserId(5L)).thenReturn(List.of(1L));
+        when(userRepository.findGroupMemberships(any()))
+            .thenReturn(rows(new Object[]{5L, 7L}))
+            .thenReturn(rows(new Object[]{5L, 8L}));
+        when(rateRepository.findForUpdate(1L, Set.of(7L, 8L))).thenReturn(List.of(old));
+        when(userLicenseRepository.findGroupHolders(eq(1L), eq(Set.of(7L, 8L))))
+            .thenReturn(rows(new Object[]{8L, 5L}));
+
+        // Act
+        chargebackService.rerateUserChange(5L, change);
+
+        // Assert
+        InOrder inOrder = inOrder(userRepository, change, rateRepository);
+        inOrder.verify(userRepository).findGroupMemberships(any());
+        inOrder.verify(change).run();
+        inOrder.verify(rateRepository).findForUpdate(1L, Set.of(7L, 8L));
+        verify(rateRepository).delete(old);
+        assertEquals(new BigDecimal("1.0000"), savedRates(1).get(8L).getSeats());
+    }
+
+    @Test
+    @DisplayName("Should close a deleted group's rates on every license it was charged for")
+    void testRerateGroupChange_ClosesRates() {
+        // Arrange
+        GroupCostRate first = rate("2", "10.00", LocalDateTime.now().minusDays(1));
+        GroupCostRate second = rate("3", "5.00", LocalDateTime.now().minusDays(1));
+        second.setLicenseId(2L);
+        Runnable change = mock(Runnable.class);
+        when(rateRepository.findLicenseIdsByGroupId(7L)).thenReturn(List.of(1L, 2L));
+        when(rateRepository.findForUpdate(1L, Set.of(7L))).thenReturn(List.of(first));
+        when(rateRepository.findForUpdate(2L, Set.of(7L))).thenReturn(List.of(second));
+
+        // Act
+        chargebackService.rerateGroupChange(7L, change);
+
+        // Assert: rates are looked up before the change removes the allocations
+        InOrder inOrder = inOrder(rateRepository, change);
+        inOrder.verify(rateRepository).findLicenseIdsByGroupId(7L);
+        inOrder.verify(change).run();
+        inOrder.verify(rateRepository).delete(first);
+        inOrder.verify(rateRepository).delete(second);
+        verify(rateRepository, never()).save(any());
+    }
+
+    private GroupCostRate rate(String seats, String unitPrice, LocalDateTime accruedThrough) {
+        GroupCostRate rate = new GroupCostRate();
+        rate.setTenantId("t1");
+        rate.setGroupId(7L);
+        rate.setLicenseId(1L);
+        rate.setSeats(new BigDecimal(seats));
+        rate.setUnitPrice(new BigDecimal(unitPrice));
+        rate.setAccruedThrough(accruedThrough);
+        return rate;
+    }
+
+    private void stubPrice(String price) {
+        License license = new License();
+        license.setId(1L);
+        license.setPrice(new BigDecimal(price));
+        when(licenseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(license));
+    }
+
+    private LicenseHistoryEvent event(LicenseHistory.ActionType actionType, Long userId) {
+        LicenseHistory entry = new LicenseHistory();
+        entry.setLicenseId(1L);
+        entry.setUserId(userId);
+        entry.setActionType(actionType);
+        return new LicenseHistoryEvent(List.of(entry));
+    }
+
+    private Map<Long, GroupCostRate> savedRates(int count) {
+        ArgumentCaptor<GroupCostRate> saved = ArgumentCaptor.forClass(GroupCostRate.class);
+        verify(rateRepository, times(count)).save(saved.capture());
+        return saved.getAllValues().stream().collect(Collectors.toMap(GroupCostRate::getGroupId, rate -> rate));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return Arrays.asList(rows);
+    }
+}
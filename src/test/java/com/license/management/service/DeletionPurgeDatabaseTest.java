@@ -0,0 +1,210 @@
+package com.license.management.service;
+
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import com.license.management.entity.UserLicense;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserLicenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Deferred deletes against the real schema: a deleted license is hidden but still holds its
+ * key and its assignments until the purge job has run.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    // Purged only when a test says so
+    "license.purge.interval-ms=3600000",
+    "license.purge.batch-size=2",
+    // Every read of the revocation list sees the latest revocations
+    "license.tokens.revocation-list-max-age=PT0S"
+})
+@AutoConfigureMockMvc
+@DisplayName("Deletion Purge Database Tests")
+class DeletionPurgeDatabaseTest {
+
+    private static final int HOLDERS = 5;
+
+    @Autowired
+    private DeletionPurgeService purgeService;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LicenseRepository licenseRepository;
+
+    @Autowired
+    private UserLicenseRepository userLicenseRepository;
+
+    @Autowired
+    private EntitlementTokenService entitlementTokenService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private License license;
+
+    private List<Long> userIds;
+
+    private List<Long> assignmentIds;
+
+    @BeforeEach
+    void setUp() {
+        // Earlier tests' leftovers would show up in the pending list
+        purgeService.purgeDeleted();
+        license = createLicense("PURGE-" + UUID.randomUUID());
+        userIds = new ArrayList<>();
+        assignmentIds = new ArrayList<>();
+        for (int i = 0; i < HOLDERS; i++) {
+            User user = new User();
+            String username = "purge-" + UUID.randomUUID();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setFullName("Purge Holder " + i);
+            Long userId = userService.createUser(user).getId();
+            userIds.add(userId);
+            assignmentIds.add(licenseService.assignLicenseToUser(license.getId(), userId, null).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should hide a deleted license from lookups by id, key and list")
+    void testDelete_HidesLicense() {
+        // Arrange: cached, so the lookups below are answered without the deleted-row restriction
+        licenseService.getLicenseByKey(license.getLicenseKey());
+
+        // Act
+        licenseService.deleteLicense(license.getId());
+
+        // Assert
+        assertTrue(licenseService.getLicenseById(license.getId()).isEmpty());
+        assertTrue(licenseService.getLicenseByKey(license.getLicenseKey()).isEmpty());
+        assertTrue(licenseRepository.findAll().stream().noneMatch(l -> l.getId().equals(license.getId())));
+    }
+
+    @Test
+    @DisplayName("Should keep a deleted license's key taken until it is purged")
+    void testDelete_KeyTakenUntilPurged() {
+        // Arrange
+        licenseService.deleteLicense(license.getId());
+
+        // Act & Assert
+        RuntimeException duplicate = assertThrows(RuntimeException.class,
+            () -> createLicense(license.getLicenseKey()));
+        assertEquals("License key already exists", duplicate.getMessage());
+
+        purgeService.purgeDeleted();
+        assertNotNull(createLicense(license.getLicenseKey()).getId());
+    }
+
+    @Test
+    @DisplayName("Should refuse tokens and skip reclamation for a deleted license's assignments")
+    void testDelete_AssignmentsNoLongerLive() {
+        // Arrange
+        Long assignmentId = assignmentIds.get(0);
+        assertNotNull(licenseService.issueEntitlementToken(assignmentId));
+
+        // Act
+        licenseService.deleteLicense(license.getId());
+
+        // Assert
+        RuntimeException refused = assertThrows(RuntimeException.class,
+            () -> licenseService.issueEntitlementToken(assignmentId));
+        assertEquals("User license has been revoked", refused.getMessage());
+        List<Long> idle = userLicenseRepository.findIdleAssignments(LocalDateTime.now().plusDays(1),
+                PageRequest.of(0, 1000)).stream()
+            .map(row -> (Long) row[0])
+            .toList();
+        assertTrue(idle.stream().noneMatch(assignmentIds::contains), idle.toString());
+    }
+
+    @Test
+    @DisplayName("Should report the purge's progress until the license is gone")
+    void testPendingDeletions_ReportProgress() throws Exception {
+        // Arrange
+        licenseService.deleteLicense(license.getId());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/deletions"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].type").value("LICENSE"))
+            .andExpect(jsonPath("$[0].id").value(license.getId()))
+            .andExpect(jsonPath("$[0].remainingChildren").value(HOLDERS));
+
+        purgeService.purgeDeleted();
+        mockMvc.perform(get("/api/deletions"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+        assertTrue(userLicenseRepository.findAllById(assignmentIds).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should list a deleted license's seats as revoked")
+    void testDelete_SeatsRevoked() {
+        // Arrange
+        Long seatId = seatOf(licenseService.issueEntitlementToken(assignmentIds.get(0)));
+
+        // Act
+        licenseService.deleteLicense(license.getId());
+
+        // Assert
+        assertTrue(entitlementTokenService.getRevocations().getRevokedSeatIds().containsAll(assignmentIds));
+        assertTrue(entitlementTokenService.getRevocations().getRevokedSeatIds().contains(seatId));
+        assertEquals(0, userLicenseRepository.countByLicenseAndActiveTrue(license));
+    }
+
+    @Test
+    @DisplayName("Should keep a deleted user's seat on the revocation list after the purge")
+    void testPurge_KeepsSeatRevoked() {
+        // Arrange
+        Long seatId = seatOf(licenseService.issueEntitlementToken(assignmentIds.get(0)));
+        userService.deleteUser(userIds.get(0));
+        assertTrue(entitlementTokenService.getRevocations().getRevokedSeatIds().contains(seatId));
+
+        // Act
+        purgeService.purgeDeleted();
+
+        // Assert: the assignment is gone, its revocation is not
+        assertTrue(userLicenseRepository.findById(seatId).isEmpty());
+        assertTrue(entitlementTokenService.getRevocations().getRevokedSeatIds().contains(seatId));
+        assertFalse(entitlementTokenService.getRevocations().getRevokedSeatIds().contains(assignmentIds.get(1)));
+    }
+
+    private Long seatOf(String token) {
+        return entitlementTokenService.getVerifier().verify(token, Instant.now()).getSeatId();
+    }
+
+    private License createLicense(String licenseKey) {
+        License created = new License();
+        created.setSoftwareName("Purged Software");
+        created.setLicenseKey(licenseKey);
+        created.setTotalSeats(HOLDERS);
+        return licenseService.createLicense(created);
+    }
+}
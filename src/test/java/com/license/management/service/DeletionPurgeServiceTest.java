@@ -0,0 +1,76 @@
+package com.license.management.service;
+
+import com.license.management.entity.License;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeletionPurgeService Unit Tests")
+class DeletionPurgeServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private EntitlementTokenService entitlementTokenService;
+
+    @InjectMocks
+    private DeletionPurgeService purgeService;
+
+    @Test
+    @DisplayName("Should delete a deleted license's assignments in batches before the license")
+    @SuppressWarnings("unchecked")
+    void testPurgeDeleted_BatchesChildrenThenRow() {
+        // Arrange
+        List<Long> fullBatch = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM licenses"), eq(Long.class)))
+            .thenReturn(List.of(7L));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id FROM user_licenses"), eq(Long.class), eq(7L), eq(1000)))
+            .thenReturn(fullBatch, List.of(1001L, 1002L));
+        when(entitlementTokenService.getTokenTtl()).thenReturn(Duration.ofHours(24));
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(cache.unwrap(Cache.class)).thenReturn(cache);
+
+        // Act
+        purgeService.purgeDeleted();
+
+        // Assert
+        verify(jdbcTemplate, times(2)).batchUpdate(eq("DELETE FROM user_licenses WHERE license_id = ? AND id = ?"),
+            any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO revoked_seats"),
+            any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1)).queryForList(startsWith("SELECT id FROM group_licenses"), eq(Long.class),
+            eq(7L), eq(1000));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("DELETE FROM group_licenses"),
+            any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1)).update("DELETE FROM licenses WHERE id = ? AND deleted_at IS NOT NULL", 7L);
+        verify(transactionManager, times(4)).commit(any());
+        verify(cache, times(1)).evictNaturalIdData(License.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.repository.RevokedSeatRepository;
+import com.license.management.repository.UserLicenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EntitlementTokenService Unit Tests")
+class EntitlementTokenServiceTest {
+
+    @Mock
+    private UserLicenseRepository userLicenseRepository;
+
+    @Mock
+    private RevokedSeatRepository revokedSeatRepository;
+
+    @InjectMocks
+    private EntitlementTokenService entitlementTokenService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(entitlementTokenService, "tokenTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(entitlementTokenService, "revocationListMaxAge", Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Should cache each tenant's revocation list separately")
+    void testGetRevocations_CachedPerTenant() {
+        // Arrange: the repositories only see the rows of the current tenant
+        when(userLicenseRepository.findIdsRevokedSince(any())).thenAnswer(invocation ->
+            TenantContext.getTenantId().equals("acme") ? List.of(1L) : List.of(2L));
+        when(revokedSeatRepository.findSeatIdsRevokedSince(any())).thenReturn(List.of());
+
+        // Act
+        List<Long> acme = TenantContext.callAs("acme", () -> entitlementTokenService.getRevocations().getRevokedSeatIds());
+        List<Long> globex = TenantContext.callAs("globex", () -> entitlementTokenService.getRevocations().getRevokedSeatIds());
+        List<Long> acmeAgain = TenantContext.callAs("acme", () -> entitlementTokenService.getRevocations().getRevokedSeatIds());
+
+        // Assert
+        assertEquals(List.of(1L), acme);
+        assertEquals(List.of(2L), globex);
+        assertEquals(List.of(1L), acmeAgain);
+        verify(userLicenseRepository, times(2)).findIdsRevokedSince(any());
+    }
+}
@@ -0,0 +1,82 @@
+package com.license.management.service;
+
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import com.license.management.entity.UserLicense;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline token verification, timed with and without the memo of verified tokens. Runs only
+ * with {@code -Dbenchmark=true}, and logs its results.
+ */
+@DisplayName("Entitlement Token Verification Benchmark")
+class EntitlementTokenVerifierBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EntitlementTokenVerifierBenchmarkTest.class);
+
+    // Distinct tokens, each verified once per pass, before and while timing
+    private static final int WARM_UP_PASSES = 3;
+
+    private static final int MEASURED_PASSES = 5;
+
+    private static final int TOKENS = 2000;
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Should time token verification with and without the memo")
+    void benchmarkVerify() throws Exception {
+        EntitlementTokenService tokenService = new EntitlementTokenService();
+        ReflectionTestUtils.setField(tokenService, "encodedPrivateKey", "");
+        ReflectionTestUtils.setField(tokenService, "encodedPublicKey", "");
+        ReflectionTestUtils.setField(tokenService, "tokenTtl", Duration.ofHours(24));
+        tokenService.loadKeys();
+        PublicKey publicKey = (PublicKey) ReflectionTestUtils.getField(tokenService, "publicKey");
+        List<String> tokens = issue(tokenService);
+
+        // Without a memo every check verifies the signature
+        for (boolean memo : new boolean[] {false, true}) {
+            EntitlementTokenVerifier verifier = new EntitlementTokenVerifier(publicKey, memo ? TOKENS : 0);
+            long nanos = 0;
+            for (int pass = 0; pass < WARM_UP_PASSES + MEASURED_PASSES; pass++) {
+                long start = System.nanoTime();
+                for (String token : tokens) {
+                    verifier.verify(token, Instant.now());
+                }
+                if (pass >= WARM_UP_PASSES) {
+                    nanos += System.nanoTime() - start;
+                }
+            }
+            long verifications = (long) MEASURED_PASSES * TOKENS;
+            log.info("Verification {}: {} checks, {} us each, {} per second", memo ? "with memo" : "uncached",
+                verifications, String.format("%.2f", nanos / 1e3 / verifications),
+                String.format("%.0f", verifications / (nanos / 1e9)));
+        }
+    }
+
+    private static List<String> issue(EntitlementTokenService tokenService) {
+        License license = new License();
+        license.setId(7L);
+        User user = new User();
+        user.setId(3L);
+        List<String> tokens = new ArrayList<>();
+        for (long seatId = 1; seatId <= TOKENS; seatId++) {
+            UserLicense userLicense = new UserLicense();
+            userLicense.setId(seatId);
+            userLicense.setUser(user);
+            userLicense.setLicense(license);
+            tokens.add(tokenService.issueToken(userLicense));
+        }
+        return tokens;
+    }
+}
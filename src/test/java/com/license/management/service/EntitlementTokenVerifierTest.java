@@ -0,0 +1,119 @@
+package com.license.management.service;
+
+import com.license.management.dto.EntitlementClaims;
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import com.license.management.entity.UserLicense;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Entitlement Token Tests")
+class EntitlementTokenVerifierTest {
+
+    private EntitlementTokenService tokenService;
+    private UserLicense userLicense;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenService = new EntitlementTokenService();
+        ReflectionTestUtils.setField(tokenService, "encodedPrivateKey", "");
+        ReflectionTestUtils.setField(tokenService, "encodedPublicKey", "");
+        ReflectionTestUtils.setField(tokenService, "tokenTtl", Duration.ofHours(24));
+        tokenService.loadKeys();
+
+        License license = new License();
+        license.setId(7L);
+        license.setExpirationDate(LocalDateTime.now().plusYears(1));
+        User user = new User();
+        user.setId(3L);
+        userLicense = new UserLicense();
+        userLicense.setId(42L);
+        userLicense.setUser(user);
+        userLicense.setLicense(license);
+    }
+
+    @Test
+    @DisplayName("Should verify a freshly issued token offline")
+    void testVerify_RoundTrip() {
+        // Arrange
+        String token = tokenService.issueToken(userLicense);
+        EntitlementTokenVerifier verifier =
+            EntitlementTokenVerifier.fromEncodedPublicKey(tokenService.getEncodedPublicKey());
+
+        // Act
+        EntitlementClaims claims = verifier.verify(token, Instant.now());
+
+        // Assert
+        assertEquals(3L, claims.getUserId());
+        assertEquals(7L, claims.getLicenseId());
+        assertEquals(42L, claims.getSeatId());
+        assertTrue(claims.getExpiresAt().isAfter(Instant.now().plus(Duration.ofHours(23))));
+    }
+
+    @Test
+    @DisplayName("Should reject a token whose payload was altered")
+    void testVerify_TamperedPayload() {
+        // Arrange
+        String token = tokenService.issueToken(userLicense);
+        char[] chars = token.toCharArray();
+        chars[5] = chars[5] == 'A' ? 'B' : 'A';
+        String tampered = new String(chars);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            tokenService.getVerifier().verify(tampered, Instant.now()));
+        assertEquals("Invalid entitlement token signature", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token and cap expiry at the license expiration")
+    void testVerify_Expired() {
+        // Arrange
+        userLicense.getLicense().setExpirationDate(LocalDateTime.now().plusHours(1));
+        String token = tokenService.issueToken(userLicense);
+        EntitlementTokenVerifier verifier = tokenService.getVerifier();
+
+        // Act & Assert
+        assertNotNull(verifier.verify(token, Instant.now()));
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            verifier.verify(token, Instant.now().plus(Duration.ofHours(2))));
+        assertEquals("Entitlement token has expired", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should drop the least recently checked token once the memo is full")
+    void testVerify_EvictsLeastRecentlyChecked() {
+        // Arrange
+        EntitlementTokenVerifier verifier =
+            new EntitlementTokenVerifier((PublicKey) ReflectionTestUtils.getField(tokenService, "publicKey"), 2);
+        String first = tokenFor(1L);
+        String second = tokenFor(2L);
+        String third = tokenFor(3L);
+        verifier.verify(first, Instant.now());
+        verifier.verify(second, Instant.now());
+
+        // Act: first is checked again, so second is now the eldest
+        verifier.verify(first, Instant.now());
+        verifier.verify(third, Instant.now());
+
+        // Assert
+        Map<?, ?> verified = (Map<?, ?>) ReflectionTestUtils.getField(verifier, "verified");
+        assertEquals(Set.of(first, third), verified.keySet());
+    }
+
+    private String tokenFor(Long seatId) {
+        userLicense.setId(seatId);
+        return tokenService.issueToken(userLicense);
+    }
+}
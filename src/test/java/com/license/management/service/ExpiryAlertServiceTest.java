@@ -0,0 +1,165 @@
+package com.license.management.service;
+
+import com.license.management.dto.ExpiryDigest;
+import com.license.management.dto.ExpiryDigest.RecipientType;
+import com.license.management.entity.ExpiryAlert;
+import com.license.management.repository.ExpiryAlertRepository;
+import com.license.management.repository.GroupLicenseRepository;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserLicenseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpiryAlertService Unit Tests")
+class ExpiryAlertServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 9, 0);
+
+    @Mock
+    private LicenseRepository licenseRepository;
+
+    @Mock
+    private UserLicenseRepository userLicenseRepository;
+
+    @Mock
+    private GroupLicenseRepository groupLicenseRepository;
+
+    @Mock
+    private ExpiryAlertRepository alertRepository;
+
+    @Mock
+    private ExpiryAlertSink sink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ExpiryAlertService expiryAlertService;
+
+    @Test
+    @DisplayName("Should alert each license for its smallest window in one digest per recipient")
+    @SuppressWarnings("unchecked")
+    void testSendDueAlerts_DigestsPerRecipient() throws Exception {
+        // Arrange: license 1 expires in 3 days and is held by a user, license 2 in 20 days by a group
+        stubDue();
+
+        // Act
+        int sent = expiryAlertService.sendDueAlerts(NOW);
+
+        // Assert: the administrators last
+        assertEquals(2, sent);
+        ArgumentCaptor<List<ExpiryDigest>> digests = ArgumentCaptor.forClass(List.class);
+        verify(sink, times(3)).deliver(digests.capture());
+        ExpiryDigest user = digests.getAllValues().get(0).get(0);
+        assertEquals("jsmith@corp.com", user.getEmail());
+        assertEquals(1L, user.getLicenses().get(0).getLicenseId());
+        ExpiryDigest group = digests.getAllValues().get(1).get(0);
+        assertEquals(RecipientType.GROUP, group.getRecipientType());
+        assertEquals(30, group.getLicenses().get(0).getWindowDays());
+        ExpiryDigest admins = digests.getAllValues().get(2).get(0);
+        assertEquals(RecipientType.ADMIN, admins.getRecipientType());
+        assertEquals(2, admins.getLicenses().size());
+
+        assertEquals(List.of("USER:5 1 7", "GROUP:7 2 30", "ADMIN 1 7", "ADMIN 2 30"), recorded());
+    }
+
+    @Test
+    @DisplayName("Should record the digests delivered before and after one that fails")
+    void testSendDueAlerts_PartialFailure() throws Exception {
+        // Arrange: the user's digest cannot be delivered
+        stubDue();
+        lenient().doThrow(new java.io.IOException("Mailbox unavailable")).when(sink)
+            .deliver(argThat(digests -> digests.get(0).getRecipientType() == RecipientType.USER));
+
+        // Act
+        int sent = expiryAlertService.sendDueAlerts(NOW);
+
+        // Assert: the group and the administrators got license 2; license 1 is left for the next run
+        assertEquals(1, sent);
+        assertEquals(List.of("GROUP:7 2 30", "ADMIN 2 30"), recorded());
+    }
+
+    @Test
+    @DisplayName("Should send a retried license only to the recipients not yet alerted")
+    @SuppressWarnings("unchecked")
+    void testSendDueAlerts_RetrySkipsDelivered() throws Exception {
+        // Arrange: the group already has license 2 from an earlier, partly failed run
+        stubDue();
+        ExpiryAlert delivered = new ExpiryAlert();
+        delivered.setLicenseId(2L);
+        delivered.setWindowDays(30);
+        delivered.setExpirationDate(NOW.plusDays(20));
+        delivered.setRecipient("GROUP:7");
+        when(alertRepository.findByLicenseIdIn(any())).thenReturn(List.of(delivered));
+
+        // Act
+        int sent = expiryAlertService.sendDueAlerts(NOW);
+
+        // Assert
+        assertEquals(2, sent);
+        ArgumentCaptor<List<ExpiryDigest>> digests = ArgumentCaptor.forClass(List.class);
+        verify(sink, times(2)).deliver(digests.capture());
+        assertEquals(List.of(RecipientType.USER, RecipientType.ADMIN), digests.getAllValues().stream()
+            .map(digest -> digest.get(0).getRecipientType())
+            .toList());
+    }
+
+    @Test
+    @DisplayName("Should not deliver anything when no alert is due")
+    void testSendDueAlerts_NothingDue() {
+        // Arrange
+        when(licenseRepository.findDueForExpiryAlert(any(), any(), anyInt(), any())).thenReturn(List.of());
+
+        // Act
+        int sent = expiryAlertService.sendDueAlerts(NOW);
+
+        // Assert
+        assertEquals(0, sent);
+        verify(licenseRepository, times(3)).findDueForExpiryAlert(any(), any(), anyInt(), any());
+        verifyNoInteractions(sink, alertRepository);
+    }
+
+    private void stubDue() {
+        when(licenseRepository.findDueForExpiryAlert(eq(NOW), eq(NOW.plusDays(7)), eq(7), any()))
+            .thenReturn(List.<Object[]>of(new Object[] {1L, "t1", "Adobe Acrobat", "ADOBE-1", NOW.plusDays(3)}));
+        when(licenseRepository.findDueForExpiryAlert(eq(NOW.plusDays(7)), eq(NOW.plusDays(30)), eq(30), any()))
+            .thenReturn(List.<Object[]>of(new Object[] {2L, "t1", "Slack", "SLACK-1", NOW.plusDays(20)}));
+        when(licenseRepository.findDueForExpiryAlert(eq(NOW.plusDays(30)), eq(NOW.plusDays(90)), eq(90), any()))
+            .thenReturn(List.of());
+        when(userLicenseRepository.findActiveHolders(any()))
+            .thenReturn(List.<Object[]>of(new Object[] {1L, 5L, "jsmith", "jsmith@corp.com"}));
+        when(groupLicenseRepository.findActiveGroups(any()))
+            .thenReturn(List.<Object[]>of(new Object[] {2L, 7L, "Engineering"}));
+    }
+
+    // "recipient licenseId windowDays" of every alert recorded, in order
+    @SuppressWarnings("unchecked")
+    private List<String> recorded() {
+        ArgumentCaptor<Iterable<ExpiryAlert>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(alertRepository, atLeast(0)).saveAll(saved.capture());
+        List<String> recorded = new ArrayList<>();
+        for (Iterable<ExpiryAlert> alerts : saved.getAllValues()) {
+            alerts.forEach(alert -> recorded.add(alert.getRecipient() + " " + alert.getLicenseId() + " "
+                + alert.getWindowDays()));
+        }
+        return recorded;
+    }
+}
@@ -0,0 +1,75 @@
+package com.license.management.service;
+
+import com.license.management.entity.License;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The event stream of one node in a cluster, for history written by the others.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    "license.cluster=true",
+    "license.events.poll-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+@DisplayName("License Event Poll Database Tests")
+class LicenseEventPollDatabaseTest {
+
+    @Autowired
+    private LicenseEventBroadcaster broadcaster;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should stream history committed on other nodes once, and this node's own once")
+    void testPoll_StreamsOtherNodesHistory() throws Exception {
+        // Arrange
+        broadcaster.pollOtherNodes();
+        MvcResult result = mockMvc.perform(get("/api/events/stream")).andReturn();
+
+        // Act: one entry written here, and one by JDBC as another node would
+        License license = new License();
+        license.setSoftwareName("Clustered Software");
+        license.setLicenseKey("CLUSTERED-" + UUID.randomUUID());
+        license.setTotalSeats(1);
+        licenseService.createLicense(license);
+        long local = jdbcTemplate.queryForObject("SELECT MAX(id) FROM license_history", Long.class);
+        jdbcTemplate.update("INSERT INTO license_history (tenant_id, license_id, action_type, description, timestamp) " +
+            "VALUES ('default', 0, 'LICENSE_UPDATED', 'Elsewhere', ?)", LocalDateTime.now());
+        long remote = jdbcTemplate.queryForObject("SELECT MAX(id) FROM license_history", Long.class);
+        broadcaster.pollOtherNodes();
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains("id:" + remote + "\n")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        String events = result.getResponse().getContentAsString();
+        assertTrue(events.contains("id:" + remote + "\n"), events);
+        assertEquals(1, events.split("id:" + local + "\n", -1).length - 1, events);
+    }
+}
@@ -0,0 +1,67 @@
+package com.license.management.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Resuming the event stream from the history table, for entries this node never buffered.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false"
+})
+@AutoConfigureMockMvc
+@DisplayName("License Event Replay Tests")
+class LicenseEventReplayTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should replay entries with lower ids written shortly before the last event")
+    void testReplay_IncludesLateCommits() throws Exception {
+        // Arrange: written by JDBC, so only the table has them
+        LocalDateTime now = LocalDateTime.now();
+        long old = insertHistory(now.minusMinutes(10));
+        long late = insertHistory(now.minusSeconds(10));
+        long last = insertHistory(now);
+        long after = insertHistory(now);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/events/stream").header("Last-Event-ID", last)).andReturn();
+
+        // Assert: the entry that may have committed after the last event is resent
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains("id:" + after + "\n")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        String events = result.getResponse().getContentAsString();
+        assertTrue(events.contains("id:" + after + "\n"), events);
+        assertTrue(events.contains("id:" + late + "\n"), events);
+        assertFalse(events.contains("id:" + old + "\n"), events);
+        assertFalse(events.contains("id:" + last + "\n"), events);
+    }
+
+    private long insertHistory(LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO license_history (tenant_id, license_id, action_type, description, timestamp) " +
+            "VALUES ('default', 0, 'LICENSE_UPDATED', 'Replayed', ?)", timestamp);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM license_history", Long.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.license.management.service;
+
+import com.license.management.dto.LicenseImportResult;
+import com.license.management.entity.License;
+import com.license.management.entity.LicenseHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * CSV import against the real schema, in chunks of two rows.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false",
+    "license.import.chunk-size=2"
+})
+@AutoConfigureMockMvc
+@DisplayName("LicenseImportService Tests")
+class LicenseImportServiceTest {
+
+    private static final String HEADER = "softwareName,licenseKey,totalSeats,expirationDate,active,description,price\n";
+
+    @Autowired
+    private LicenseImportService importService;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private LicenseHistoryWriter historyWriter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "IMPORT-" + UUID.randomUUID() + "-";
+    }
+
+    @AfterEach
+    void restoreHistoryWriter() {
+        ReflectionTestUtils.setField(importService, "historyWriter", historyWriter);
+    }
+
+    @Test
+    @DisplayName("Should parse quoted fields and report the rows that do not parse")
+    void testImport_ParsesRows() throws Exception {
+        // Act
+        LicenseImportResult result = importCsv(HEADER
+            + "\"Suite, Pro\"," + prefix + "1,5,2030-06-30,true,\"Says \"\"hi\"\"\",12.50\n"
+            + "Bad Seats," + prefix + "2,many,,,,\n"
+            + "," + prefix + "3,5,,,,\n"
+            + "\n"
+            + "Bad Date," + prefix + "4,5,30/06/2030,,,\n"
+            + "Unterminated,\"" + prefix + "5,5\n"
+            + "Bad Active," + prefix + "6,5,,yes,,\n"
+            + "Inactive," + prefix + "7,5,,FALSE,,\n");
+
+        // Assert
+        assertEquals(7, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(5, result.getFailed());
+        assertEquals(List.of(3L, 4L, 6L, 7L, 8L), result.getErrors().stream().map(LicenseImportResult.RowError::getLine).toList());
+        assertEquals(List.of("Total seats must be a number: many", "Software name is required",
+                "Invalid expiration date: 30/06/2030", "Unterminated quoted field", "Active must be true or false: yes"),
+            result.getErrors().stream().map(LicenseImportResult.RowError::getMessage).toList());
+
+        License imported = licenseService.getLicenseByKey(prefix + "1").orElseThrow();
+        assertEquals("Suite, Pro", imported.getSoftwareName());
+        assertEquals("Says \"hi\"", imported.getDescription());
+        assertEquals(5, imported.getTotalSeats());
+        assertEquals(LocalDateTime.of(2030, 6, 30, 23, 59, 59), imported.getExpirationDate());
+        assertEquals(new BigDecimal("12.50"), imported.getPrice());
+        assertTrue(imported.getActive());
+        assertFalse(licenseService.getLicenseByKey(prefix + "7").orElseThrow().getActive());
+    }
+
+    @Test
+    @DisplayName("Should skip keys repeated in the file or already taken")
+    void testImport_ReportsDuplicates() throws Exception {
+        // Arrange
+        License existing = new License();
+        existing.setSoftwareName("Existing");
+        existing.setLicenseKey(prefix + "EXISTING");
+        existing.setTotalSeats(1);
+        licenseService.createLicense(existing);
+
+        // Act: in the same chunk, in a later chunk, and in the database
+        LicenseImportResult result = importCsv(HEADER
+            + "First," + prefix + "1,1,,,,\n"
+            + "Same Chunk," + prefix + "1,1,,,,\n"
+            + "Second," + prefix + "2,1,,,,\n"
+            + "Later Chunk," + prefix + "1,1,,,,\n"
+            + "Taken," + prefix + "EXISTING,1,,,,\n");
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(3L, 5L, 6L), result.getErrors().stream().map(LicenseImportResult.RowError::getLine).toList());
+        assertEquals(List.of("Duplicate license key in file", "License key already exists", "License key already exists"),
+            result.getErrors().stream().map(LicenseImportResult.RowError::getMessage).toList());
+        assertEquals("First", licenseService.getLicenseByKey(prefix + "1").orElseThrow().getSoftwareName());
+    }
+
+    @Test
+    @DisplayName("Should report a failed chunk's rows and import the rest")
+    void testImport_ChunkFails() throws Exception {
+        // Arrange: the first chunk's history write fails
+        LicenseHistoryWriter failing = mock(LicenseHistoryWriter.class);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Connection reset");
+        }).doAnswer(invocation -> {
+            historyWriter.writeAll(invocation.<List<LicenseHistory>>getArgument(0));
+            return null;
+        }).when(failing).writeAll(anyList());
+        ReflectionTestUtils.setField(importService, "historyWriter", failing);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/licenses/import")
+                .contentType("text/csv")
+                .content(HEADER
+                    + "Lost," + prefix + "1,1,,,,\n"
+                    + "Lost," + prefix + "2,1,,,,\n"
+                    + "Kept," + prefix + "3,1,,,,\n"
+                    + "Kept," + prefix + "4,1,,,,\n"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalRows").value(4))
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.failed").value(2))
+            .andExpect(jsonPath("$.errors[0].line").value(2))
+            .andExpect(jsonPath("$.errors[0].licenseKey").value(prefix + "1"))
+            .andExpect(jsonPath("$.errors[0].message").value("Not imported, chunk failed: Connection reset"))
+            .andExpect(jsonPath("$.errors[1].line").value(3));
+
+        // The failed chunk was rolled back
+        assertTrue(licenseService.getLicenseByKey(prefix + "1").isEmpty());
+        assertTrue(licenseService.getLicenseByKey(prefix + "2").isEmpty());
+        assertTrue(licenseService.getLicenseByKey(prefix + "3").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should reject a file without the required columns, saying why")
+    void testImport_BadHeader() throws Exception {
+        mockMvc.perform(post("/api/licenses/import")
+                .contentType("text/csv")
+                .content("softwareName,licenseKey\nNo Seats," + prefix + "1\n"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.imported").value(0))
+            .andExpect(jsonPath("$.errors[0].line").value(1))
+            .andExpect(jsonPath("$.errors[0].message").value("CSV header is missing required column: totalseats"));
+    }
+
+    private LicenseImportResult importCsv(String csv) throws Exception {
+        return importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
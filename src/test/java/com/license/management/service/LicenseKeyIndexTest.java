@@ -0,0 +1,150 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.CacheInvalidation;
+import com.license.management.repository.LicenseRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LicenseKeyIndex Unit Tests")
+class LicenseKeyIndexTest {
+
+    @Mock
+    private LicenseRepository licenseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should build the filter on a single node with the default channel")
+    void testRebuild_SingleNode() {
+        // Arrange
+        LicenseKeyIndex index = index(new SingleNodeCacheInvalidationChannel());
+        stubKeys("KNOWN");
+
+        // Act
+        index.rebuild();
+        index.add("LOCAL");
+
+        // Assert
+        assertTrue(index.mightContain("KNOWN"));
+        assertTrue(index.mightContain("LOCAL"));
+        assertFalse(index.mightContain("UNKNOWN"));
+    }
+
+    @Test
+    @DisplayName("Should not build the filter on clustered nodes without a channel")
+    void testRebuild_SkippedInClusterWithoutChannel() {
+        // Arrange
+        SingleNodeCacheInvalidationChannel channel = new SingleNodeCacheInvalidationChannel();
+        ReflectionTestUtils.setField(channel, "cluster", true);
+        LicenseKeyIndex index = index(channel);
+
+        // Act
+        index.rebuild();
+
+        // Assert: every key falls through to the database
+        assertTrue(index.mightContain("UNKNOWN"));
+        verifyNoInteractions(licenseRepository);
+    }
+
+    @Test
+    @DisplayName("Should learn of keys created on other nodes and announce its own")
+    void testChannel_SharesKeysAcrossNodes() {
+        // Arrange
+        FakeChannel channel = new FakeChannel();
+        LicenseKeyIndex index = index(channel);
+        stubKeys("KNOWN");
+        index.rebuild();
+        assertFalse(index.mightContain("REMOTE"));
+
+        // Act
+        channel.receive(new CacheInvalidation(LicenseKeyIndex.REGION, null, TenantContext.DEFAULT_TENANT, "REMOTE"));
+        index.add("LOCAL");
+
+        // Assert
+        assertTrue(index.mightContain("KNOWN"));
+        assertTrue(index.mightContain("REMOTE"));
+        assertFalse(TenantContext.callAs("other", () -> index.mightContain("REMOTE")));
+        assertEquals(List.of(new CacheInvalidation(LicenseKeyIndex.REGION, null, TenantContext.DEFAULT_TENANT, "LOCAL")),
+            channel.published);
+    }
+
+    @Test
+    @DisplayName("Should stop trusting the filter after lost invalidations until it is rebuilt")
+    void testChannel_ClearAllRebuilds() throws Exception {
+        // Arrange: the first build misses a key whose announcement is then lost
+        FakeChannel channel = new FakeChannel();
+        LicenseKeyIndex index = index(channel);
+        stubKeys("KNOWN");
+        index.rebuild();
+        assertFalse(index.mightContain("MISSED"));
+        stubKeys("KNOWN", "MISSED");
+
+        // Act
+        channel.receive(new CacheInvalidation());
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!index.mightContain("MISSED") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(index.mightContain("MISSED"));
+        verify(licenseRepository, timeout(5000).times(2)).streamAllTenantLicenseKeys();
+    }
+
+    private LicenseKeyIndex index(CacheInvalidationChannel channel) {
+        LicenseKeyIndex index = new LicenseKeyIndex();
+        ReflectionTestUtils.setField(index, "licenseRepository", licenseRepository);
+        ReflectionTestUtils.setField(index, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(index, "channel", channel);
+        index.subscribe();
+        return index;
+    }
+
+    private void stubKeys(String... keys) {
+        lenient().when(licenseRepository.count()).thenReturn((long) keys.length);
+        lenient().when(licenseRepository.streamAllTenantLicenseKeys()).thenAnswer(invocation -> Stream.of(keys)
+            .map(key -> new Object[] {TenantContext.DEFAULT_TENANT, key}));
+    }
+
+    private static class FakeChannel implements CacheInvalidationChannel {
+
+        final List<CacheInvalidation> published = new ArrayList<>();
+
+        private final List<Consumer<CacheInvalidation>> listeners = new ArrayList<>();
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            published.add(invalidation);
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public boolean isCrossNode() {
+            return true;
+        }
+
+        void receive(CacheInvalidation invalidation) {
+            listeners.forEach(listener -> listener.accept(invalidation));
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.license.management.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.config.LocalRegionFactory;
+import com.license.management.dto.LicenseRenewalResult;
+import com.license.management.dto.SearchHit;
 import com.license.management.entity.*;
 import com.license.management.repository.*;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,16 +14,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +61,39 @@ class LicenseServiceTest {
     @Mock
     private LicenseHistoryRepository historyRepository;
 
+    @Spy
+    private LicenseKeyIndex licenseKeyIndex = new LicenseKeyIndex();
+
+    @Mock
+    private EntitlementTokenService entitlementTokenService;
+
+    @Mock
+    private SeatWaitlistRepository waitlistRepository;
+
+    @Mock
+    private SeatWaitlistNotifier waitlistNotifier;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SearchIndex searchIndex;
+
+    @Mock
+    private LicenseHistoryWriter historyWriter;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LocalRegionFactory regionFactory;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private LicenseService licenseService;
 
@@ -54,6 +105,8 @@ class LicenseServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(licenseKeyIndex, "channel", new SingleNodeCacheInvalidationChannel());
+
         // Setup test license
         testLicense = new License();
         testLicense.setId(1L);
@@ -116,6 +169,23 @@ class LicenseServiceTest {
         verify(licenseRepository, times(1)).findAll();
     }
 
+    @Test
+    @DisplayName("Should stream all licenses and detach each one after use")
+    void testForEachLicense() {
+        // Arrange
+        License other = new License();
+        when(licenseRepository.streamAll()).thenReturn(Stream.of(testLicense, other));
+        List<License> seen = new ArrayList<>();
+
+        // Act
+        licenseService.forEachLicense(seen::add);
+
+        // Assert
+        assertEquals(List.of(testLicense, other), seen);
+        verify(entityManager, times(1)).detach(testLicense);
+        verify(entityManager, times(1)).detach(other);
+    }
+
     @Test
     @DisplayName("Should return license by ID when found")
     void testGetLicenseById_Found() {
@@ -145,6 +215,36 @@ class LicenseServiceTest {
         verify(licenseRepository, times(1)).findById(999L);
     }
 
+    @Test
+    @DisplayName("Should return license by key through the natural-id lookup")
+    void testGetLicenseByKey_Found() {
+        // Arrange
+        when(licenseRepository.findByLicenseKey("ABCD-EFGH-IJKL-MNOP")).thenReturn(Optional.of(testLicense));
+
+        // Act
+        Optional<License> result = licenseService.getLicenseByKey("ABCD-EFGH-IJKL-MNOP");
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("ABCD-EFGH-IJKL-MNOP", result.get().getLicenseKey());
+        verify(licenseRepository, times(1)).findByLicenseKey("ABCD-EFGH-IJKL-MNOP");
+        verify(licenseRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown license key without querying the database")
+    void testGetLicenseByKey_RejectedByFilter() {
+        // Arrange
+        doReturn(false).when(licenseKeyIndex).mightContain("TYPO-KEY");
+
+        // Act
+        Optional<License> result = licenseService.getLicenseByKey("TYPO-KEY");
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(licenseRepository, never()).findByLicenseKey(anyString());
+    }
+
     @Test
     @DisplayName("Should return only active licenses")
     void testGetActiveLicenses() {
@@ -218,6 +318,25 @@ class LicenseServiceTest {
         verify(licenseRepository, never()).save(any(License.class));
     }
 
+    @Test
+    @DisplayName("Should query for a duplicate key even when the key index rules the key out")
+    void testCreateLicense_ChecksDatabaseDespiteKeyIndex() {
+        // Arrange
+        lenient().doReturn(false).when(licenseKeyIndex).mightContain("WXYZ-1234-5678-9012");
+        License newLicense = new License();
+        newLicense.setSoftwareName("Microsoft Office");
+        newLicense.setLicenseKey("WXYZ-1234-5678-9012");
+        newLicense.setTotalSeats(20);
+        when(licenseRepository.save(any(License.class))).thenReturn(newLicense);
+
+        // Act
+        licenseService.createLicense(newLicense);
+
+        // Assert: another node may have just created the key
+        verify(licenseRepository, times(1)).existsByLicenseKey("WXYZ-1234-5678-9012");
+        verify(licenseRepository, times(1)).save(newLicense);
+    }
+
     @Test
     @DisplayName("Should update license successfully")
     void testUpdateLicense_Success() {
@@ -244,6 +363,60 @@ class LicenseServiceTest {
         verify(historyRepository, times(2)).save(any(LicenseHistory.class)); // One for update, one for seat change
     }
 
+    @Test
+    @DisplayName("Should write only the patched fields and skip unrelated side effects")
+    void testPatchLicense_ChangedFieldsOnly() throws Exception {
+        // Arrange
+        when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
+        when(licenseRepository.save(any(License.class))).thenReturn(testLicense);
+
+        // Act
+        License result = licenseService.patchLicense(1L, objectMapper.readTree("{\"description\": \"Renewed terms\"}"));
+
+        // Assert
+        assertEquals("Renewed terms", result.getDescription());
+        assertEquals("Adobe Photoshop", result.getSoftwareName());
+        assertEquals(10, result.getTotalSeats());
+        ArgumentCaptor<LicenseHistory> history = ArgumentCaptor.forClass(LicenseHistory.class);
+        verify(historyRepository, times(1)).save(history.capture());
+        assertEquals("Changed fields: description", history.getValue().getDetails());
+        verifyNoInteractions(waitlistRepository);
+    }
+
+    @Test
+    @DisplayName("Should write nothing for a patch that changes no value")
+    void testPatchLicense_NoChange() throws Exception {
+        // Arrange
+        when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
+
+        // Act
+        License result = licenseService.patchLicense(1L,
+            objectMapper.readTree("{\"softwareName\": \"Adobe Photoshop\", \"active\": true}"));
+
+        // Assert
+        assertSame(testLicense, result);
+        verify(licenseRepository, never()).save(any(License.class));
+        verifyNoInteractions(historyRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject patching the license key or removing a required field")
+    void testPatchLicense_Rejected() {
+        // Arrange
+        when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
+
+        // Act & Assert
+        RuntimeException key = assertThrows(RuntimeException.class,
+            () -> licenseService.patchLicense(1L, objectMapper.readTree("{\"licenseKey\": \"NEW-KEY\"}")));
+        RuntimeException seats = assertThrows(RuntimeException.class,
+            () -> licenseService.patchLicense(1L, objectMapper.readTree("{\"totalSeats\": null}")));
+
+        assertEquals("Field cannot be patched: licenseKey", key.getMessage());
+        assertEquals("Field cannot be removed: totalSeats", seats.getMessage());
+        assertEquals("ABCD-EFGH-IJKL-MNOP", testLicense.getLicenseKey());
+        verify(licenseRepository, never()).save(any(License.class));
+    }
+
     @Test
     @DisplayName("Should throw exception when updating non-existent license")
     void testUpdateLicense_NotFound() {
@@ -261,7 +434,80 @@ class LicenseServiceTest {
     }
 
     @Test
-    @DisplayName("Should delete license successfully")
+    @DisplayName("Should renew licenses with one update and one history batch, skipping overused ones")
+    @SuppressWarnings("unchecked")
+    void testRenewLicenses_Bulk() {
+        // Arrange: license 2 has more seats in use than the new total, license 3 does not exist
+        LocalDateTime expirationDate = LocalDateTime.of(2026, 1, 1, 0, 0);
+        when(licenseRepository.findRenewalStateForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(
+            new Object[] {1L, "Adobe Photoshop", LocalDateTime.of(2025, 1, 1, 0, 0), 10, 3},
+            new Object[] {2L, "Slack", LocalDateTime.of(2025, 1, 1, 0, 0), 10, 8}));
+
+        // Act
+        LicenseRenewalResult result = licenseService.renewLicenses(List.of(1L, 2L, 3L, 1L), expirationDate, 5);
+
+        // Assert
+        assertEquals(1, result.getRenewed());
+        assertEquals(List.of(2L), result.getRejected());
+        assertEquals(List.of(3L), result.getNotFound());
+        verify(licenseRepository).renewWithSeats(eq(List.of(1L)), eq(expirationDate), eq(5), any());
+        ArgumentCaptor<List<LicenseHistory>> history = ArgumentCaptor.forClass(List.class);
+        verify(historyWriter).writeAll(history.capture());
+        assertEquals(1, history.getValue().size());
+        assertEquals(LicenseHistory.ActionType.LICENSE_RENEWED, history.getValue().get(0).getActionType());
+        verify(licenseRepository, never()).save(any(License.class));
+        verifyNoInteractions(userLicenseRepository, groupLicenseRepository);
+    }
+
+    @Test
+    @DisplayName("Should release the seats of all revoked assignments in one batch")
+    @SuppressWarnings("unchecked")
+    void testRevokeUserLicenses_BatchedSeatRelease() {
+        // Arrange: assignment 11 is revoked concurrently before the update reaches it
+        when(userLicenseRepository.findActiveAssignmentSummaries(List.of(10L, 11L, 12L))).thenReturn(List.of(
+            new Object[] {10L, 1L, 1L, "john.doe"},
+            new Object[] {11L, 1L, 2L, "jane.doe"},
+            new Object[] {12L, 2L, 1L, "john.doe"}));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+            .thenReturn(new int[][] {{1, 0, 1}}, new int[][] {{1, 1}});
+
+        // Act
+        int revoked = licenseService.revokeUserLicenses(List.of(10L, 11L, 12L), "User deactivated");
+
+        // Assert
+        assertEquals(2, revoked);
+        ArgumentCaptor<Collection<Object>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(Map.entry(1L, 1), Map.entry(2L, 1)), batches.getAllValues().get(1));
+        ArgumentCaptor<List<LicenseHistory>> history = ArgumentCaptor.forClass(List.class);
+        verify(historyWriter).writeAll(history.capture());
+        assertEquals(2, history.getValue().size());
+        verify(licenseRepository, never()).releaseSeats(any(), anyInt(), any());
+        verify(licenseRepository, never()).findById(any());
+        verify(regionFactory).evict(License.class, List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Should only move the expiration date when no seat count is given")
+    void testRenewLicense_ExpirationOnly() {
+        // Arrange
+        LocalDateTime expirationDate = LocalDateTime.of(2026, 1, 1, 0, 0);
+        when(licenseRepository.findRenewalStateForUpdate(List.of(1L))).thenReturn(List.<Object[]>of(
+            new Object[] {1L, "Adobe Photoshop", null, 10, 3}));
+        when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
+
+        // Act
+        License result = licenseService.renewLicense(1L, expirationDate, null);
+
+        // Assert
+        assertSame(testLicense, result);
+        verify(licenseRepository).renew(eq(List.of(1L)), eq(expirationDate), any());
+        verify(licenseRepository, never()).renewWithSeats(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should mark license deleted and leave its assignments to the purge job")
     void testDeleteLicense_Success() {
         // Arrange
         when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
@@ -271,8 +517,12 @@ class LicenseServiceTest {
 
         // Assert
         verify(licenseRepository, times(1)).findById(1L);
-        verify(licenseRepository, times(1)).delete(testLicense);
+        verify(licenseRepository, times(1)).save(testLicense);
+        verify(licenseRepository, never()).delete(any(License.class));
+        verify(userLicenseRepository, never()).findByLicense(any(License.class));
+        assertNotNull(testLicense.getDeletedAt());
         verify(historyRepository, times(1)).save(any(LicenseHistory.class));
+        verify(searchIndex, times(1)).removeAfterCommit(SearchHit.Type.LICENSE, 1L);
     }
 
     @Test
@@ -300,6 +550,7 @@ class LicenseServiceTest {
         when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userLicenseRepository.existsByUserAndLicenseAndActiveTrue(testUser, testLicense)).thenReturn(false);
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenReturn(1);
         when(userLicenseRepository.save(any(UserLicense.class))).thenReturn(testUserLicense);
 
         // Act
@@ -309,14 +560,33 @@ class LicenseServiceTest {
         assertNotNull(result);
         assertEquals(testUser, result.getUser());
         assertEquals(testLicense, result.getLicense());
-        assertEquals(4, testLicense.getUsedSeats()); // Should increment from 3 to 4
         verify(licenseRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).findById(1L);
+        verify(licenseRepository, times(1)).takeSeat(eq(1L), any(LocalDateTime.class));
+        verify(entityManager, times(1)).refresh(testLicense);
+        verify(licenseRepository, never()).save(testLicense);
         verify(userLicenseRepository, times(1)).save(any(UserLicense.class));
-        verify(licenseRepository, times(1)).save(testLicense);
         verify(historyRepository, times(1)).save(any(LicenseHistory.class));
     }
 
+    @Test
+    @DisplayName("Should not assign when a concurrent checkout took the last seat")
+    void testAssignLicenseToUser_SeatTakenConcurrently() {
+        // Arrange: the loaded copy still shows a free seat
+        when(licenseRepository.findById(1L)).thenReturn(Optional.of(testLicense));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userLicenseRepository.existsByUserAndLicenseAndActiveTrue(testUser, testLicense)).thenReturn(false);
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> licenseService.assignLicenseToUser(1L, 1L, "Test"));
+
+        assertEquals("No available seats for this license", exception.getMessage());
+        verify(userLicenseRepository, never()).save(any(UserLicense.class));
+        verify(historyRepository, never()).save(any(LicenseHistory.class));
+    }
+
     @Test
     @DisplayName("Should throw exception when license not found during assignment")
     void testAssignLicenseToUser_LicenseNotFound() {
@@ -404,6 +674,52 @@ class LicenseServiceTest {
         verify(historyRepository, times(1)).save(any(LicenseHistory.class));
     }
 
+    @Test
+    @DisplayName("Should promote the next waiting user when a seat is freed")
+    void testRevokeLicenseFromUser_PromotesWaiter() {
+        // Arrange
+        testLicense.setUsedSeats(10);
+        User waitingUser = new User();
+        waitingUser.setId(2L);
+        waitingUser.setUsername("jane.smith");
+        SeatWaitlistEntry entry = new SeatWaitlistEntry();
+        entry.setId(5L);
+        entry.setLicenseId(1L);
+        entry.setUserId(2L);
+        entry.setStatus(SeatWaitlistEntry.Status.WAITING);
+
+        when(userLicenseRepository.findById(1L)).thenReturn(Optional.of(testUserLicense));
+        when(waitlistRepository.existsByLicenseIdAndStatus(1L, SeatWaitlistEntry.Status.WAITING)).thenReturn(true);
+        when(licenseRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testLicense));
+        when(waitlistRepository.findByLicenseIdAndStatusOrderByIdAsc(eq(1L), eq(SeatWaitlistEntry.Status.WAITING), any(Pageable.class)))
+            .thenReturn(List.of(entry));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(waitingUser));
+        when(userLicenseRepository.existsByUserAndLicenseAndActiveTrue(waitingUser, testLicense)).thenReturn(false);
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            testLicense.setUsedSeats(testLicense.getUsedSeats() + 1);
+            return 1;
+        });
+        when(userLicenseRepository.save(any(UserLicense.class))).thenAnswer(invocation -> {
+            UserLicense saved = invocation.getArgument(0);
+            if (saved.getId() == null) {
+                saved.setId(7L);
+            }
+            return saved;
+        });
+
+        // Act
+        licenseService.revokeLicenseFromUser(1L);
+
+        // Assert
+        assertEquals(10, testLicense.getUsedSeats());
+        assertEquals(SeatWaitlistEntry.Status.PROMOTED, entry.getStatus());
+        assertEquals(7L, entry.getUserLicenseId());
+        assertNotNull(entry.getResolvedAt());
+        verify(waitlistRepository, times(1)).save(entry);
+        verify(waitlistNotifier, times(1)).notifyResolved(entry);
+        verify(entityManager, times(2)).refresh(testLicense);
+    }
+
     @Test
     @DisplayName("Should throw exception when revoking non-existent user license")
     void testRevokeLicenseFromUser_NotFound() {
@@ -0,0 +1,103 @@
+package com.license.management.service;
+
+import com.license.management.entity.OutboxEvent;
+import com.license.management.repository.OutboxEventRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxRelay Unit Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private OutboxSink sink;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OutboxRelay outboxRelay;
+
+    @Test
+    @DisplayName("Should hold back later events of an aggregate that is waiting to retry")
+    @SuppressWarnings("unchecked")
+    void testRelayBatch_KeepsPerAggregateOrder() throws Exception {
+        // Arrange
+        OutboxEvent retrying = event(1L, 10L);
+        retrying.setNextAttemptAt(LocalDateTime.now().plusMinutes(1));
+        OutboxEvent blocked = event(2L, 10L);
+        OutboxEvent other = event(3L, 20L);
+        when(outboxRepository.findByDeliveredAtIsNullOrderByIdAsc(any(Pageable.class)))
+            .thenReturn(List.of(retrying, blocked, other));
+
+        // Act
+        int delivered = outboxRelay.relayBatch();
+
+        // Assert
+        assertEquals(1, delivered);
+        verify(sink, times(1)).deliver(List.of(other));
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxRepository).markDelivered(ids.capture(), any(LocalDateTime.class));
+        assertEquals(List.of(3L), List.copyOf(ids.getValue()));
+    }
+
+    @Test
+    @DisplayName("Should schedule a retry instead of marking a failed batch delivered")
+    void testRelayBatch_FailureSchedulesRetry() throws Exception {
+        // Arrange
+        OutboxEvent event = event(1L, 10L);
+        when(outboxRepository.findByDeliveredAtIsNullOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(event));
+        doThrow(new RuntimeException("connection refused")).when(sink).deliver(anyList());
+
+        // Act
+        int delivered = outboxRelay.relayBatch();
+
+        // Assert
+        assertEquals(0, delivered);
+        verify(outboxRepository, never()).markDelivered(any(), any());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), eq(List.of(event)), eq(1), any());
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially up to the maximum")
+    void testBackoff() {
+        assertEquals(Duration.ofSeconds(1), outboxRelay.backoff(1));
+        assertEquals(Duration.ofSeconds(8), outboxRelay.backoff(4));
+        assertEquals(Duration.ofMinutes(5), outboxRelay.backoff(30));
+    }
+
+    private OutboxEvent event(Long id, Long licenseId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventId("event-" + id);
+        event.setAggregateType(OutboxEvent.AggregateType.LICENSE);
+        event.setAggregateId(licenseId);
+        event.setEventType("LICENSE_UPDATED");
+        event.setPayload("{}");
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
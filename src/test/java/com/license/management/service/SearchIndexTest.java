@@ -0,0 +1,196 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.CacheInvalidation;
+import com.license.management.dto.SearchHit;
+import com.license.management.dto.SearchHit.Type;
+import com.license.management.entity.User;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.UserGroupRepository;
+import com.license.management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SearchIndex Unit Tests")
+class SearchIndexTest {
+
+    private static final String TENANT = TenantContext.DEFAULT_TENANT;
+
+    private SearchIndex searchIndex;
+
+    private FakeChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new FakeChannel();
+        searchIndex = new SearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "channel", channel);
+        searchIndex.indexAfterCommit(user(1L, "jsmith", "john.smith@corp.com", "John Smith"));
+        searchIndex.indexAfterCommit(user(2L, "jdoe", "jane.doe@corp.com", "Jane Doe"));
+        searchIndex.indexLicense(TENANT, 1L, "Adobe Creative Cloud", "ADOBE-CC-2024-001", "All apps");
+        searchIndex.indexLicense(TENANT, 2L, "Adobe Acrobat", "ADOBE-AC-2024-002", null);
+    }
+
+    @Test
+    @DisplayName("Should find documents by a prefix of any indexed field, exact terms first")
+    void testSearch_Prefix() {
+        // Act
+        List<SearchHit> users = searchIndex.search("smi", null, 10, false);
+        List<SearchHit> licenses = searchIndex.search("adobe", List.of(Type.LICENSE), 10, false);
+
+        // Assert
+        assertEquals(1, users.size());
+        assertEquals("jsmith", users.get(0).getLabel());
+        assertEquals("John Smith", users.get(0).getDetail());
+        assertEquals(2, licenses.size());
+        assertEquals(0, searchIndex.search("adobe", List.of(Type.GROUP), 10, false).size());
+    }
+
+    @Test
+    @DisplayName("Should require every word of the query to match")
+    void testSearch_AllWords() {
+        // Act
+        List<SearchHit> hits = searchIndex.search("adobe cc", null, 10, false);
+
+        // Assert
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should match terms within an edit or two when fuzzy")
+    void testSearch_Fuzzy() {
+        // Act & Assert
+        assertTrue(searchIndex.search("acrobta", null, 10, false).isEmpty());
+        List<SearchHit> hits = searchIndex.search("acrobta", null, 10, true);
+        assertEquals(1, hits.size());
+        assertEquals("Adobe Acrobat", hits.get(0).getLabel());
+        assertEquals(1, searchIndex.search("jsmth", null, 10, true).size());
+        assertEquals(2L, searchIndex.search("adobe acrobta", null, 10, true).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should replace the terms of an updated document and drop a removed one")
+    void testIndex_UpdateAndRemove() {
+        // Act
+        searchIndex.indexAfterCommit(user(1L, "jsmith", "john.smith@corp.com", "Johnny Walker"));
+        searchIndex.remove(Type.USER, 2L);
+
+        // Assert
+        assertEquals("Johnny Walker", searchIndex.search("walker", null, 10, false).get(0).getDetail());
+        assertEquals(1, searchIndex.search("john", null, 10, false).size());
+        assertTrue(searchIndex.search("jane", null, 10, false).isEmpty());
+        assertEquals(3, searchIndex.getDocumentCount());
+    }
+
+    @Test
+    @DisplayName("Should announce its changes and reload documents changed on other nodes")
+    void testChannel_SharesChangesAcrossNodes() {
+        // Arrange: another node renamed license 1, created license 3 and deleted user 2
+        UserRepository userRepository = mock(UserRepository.class);
+        LicenseRepository licenseRepository = mock(LicenseRepository.class);
+        ReflectionTestUtils.setField(searchIndex, "userRepository", userRepository);
+        ReflectionTestUtils.setField(searchIndex, "groupRepository", mock(UserGroupRepository.class));
+        ReflectionTestUtils.setField(searchIndex, "licenseRepository", licenseRepository);
+        ReflectionTestUtils.setField(searchIndex, "transactionManager", mock(PlatformTransactionManager.class));
+        searchIndex.subscribe();
+        when(licenseRepository.findSearchFields(1L)).thenReturn(List.<Object[]>of(
+            new Object[] {TENANT, 1L, "Figma", "FIGMA-1", null}));
+        when(licenseRepository.findSearchFields(3L)).thenReturn(List.<Object[]>of(
+            new Object[] {TENANT, 3L, "Slack", "SLACK-1", null}));
+        when(userRepository.findSearchFields(2L)).thenReturn(List.of());
+
+        // Act: JSON numbers arrive as integers
+        channel.receive(new CacheInvalidation(SearchIndex.REGION, "LICENSE", TENANT, 1));
+        channel.receive(new CacheInvalidation(SearchIndex.REGION, "LICENSE", TENANT, 3));
+        channel.receive(new CacheInvalidation(SearchIndex.REGION, "USER", null, 2));
+
+        // Assert
+        assertEquals(List.of(2L), searchIndex.search("adobe", null, 10, false).stream().map(SearchHit::getId).toList());
+        assertEquals(1L, searchIndex.search("figma", null, 10, false).get(0).getId());
+        assertEquals(3L, searchIndex.search("slack", null, 10, false).get(0).getId());
+        assertTrue(searchIndex.search("jane", null, 10, false).isEmpty());
+        assertEquals(new CacheInvalidation(SearchIndex.REGION, "USER", TENANT, 1L), channel.published.get(0));
+        assertEquals(new CacheInvalidation(SearchIndex.REGION, "LICENSE", TENANT, 2L), channel.published.get(3));
+    }
+
+    @Test
+    @DisplayName("Should only return documents of the current tenant")
+    void testSearch_TenantIsolation() {
+        // Arrange
+        searchIndex.indexLicense("other", 3L, "Adobe Photoshop", "PS-1", null);
+
+        // Act
+        List<SearchHit> defaultHits = searchIndex.search("adobe", null, 10, true);
+        List<SearchHit> otherHits = TenantContext.callAs("other", () -> searchIndex.search("adobe", null, 10, true));
+
+        // Assert
+        assertEquals(2, defaultHits.size());
+        assertEquals(1, otherHits.size());
+        assertEquals(3L, otherHits.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should stop at the limit and reject limits out of range")
+    void testSearch_Limit() {
+        // Act & Assert
+        assertEquals(1, searchIndex.search("a", null, 1, false).size());
+        assertThrows(RuntimeException.class, () -> searchIndex.search("a", null, 0, false));
+        assertThrows(RuntimeException.class, () -> searchIndex.search("a", null, 51, false));
+    }
+
+    @Test
+    @DisplayName("Should match a term whose prefix is within the edit limit, or say how much of it to skip")
+    void testMismatchDepth() {
+        // Act & Assert
+        assertEquals(-1, SearchIndex.mismatchDepth("ado", "adobe", 1));
+        assertEquals(-1, SearchIndex.mismatchDepth("adbe", "adobe", 1));
+        assertEquals(-1, SearchIndex.mismatchDepth("acrobta", "acrobat", 2));
+        // Nothing starting with "zx" is within one edit of "adobe"
+        assertEquals(2, SearchIndex.mismatchDepth("adobe", "zxy", 1));
+        // "ad" is too short to decide, so longer terms might still match
+        assertEquals(0, SearchIndex.mismatchDepth("adobe", "ad", 1));
+    }
+
+    private User user(Long id, String username, String email, String fullName) {
+        User user = new User();
+        user.setTenantId(TENANT);
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFullName(fullName);
+        return user;
+    }
+
+    private static class FakeChannel implements CacheInvalidationChannel {
+
+        final List<CacheInvalidation> published = new ArrayList<>();
+
+        private final List<Consumer<CacheInvalidation>> listeners = new ArrayList<>();
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            published.add(invalidation);
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> listener) {
+            listeners.add(listener);
+        }
+
+        void receive(CacheInvalidation invalidation) {
+            listeners.forEach(listener -> listener.accept(invalidation));
+        }
+    }
+}
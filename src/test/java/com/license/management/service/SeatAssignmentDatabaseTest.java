@@ -0,0 +1,110 @@
+package com.license.management.service;
+
+import com.license.management.entity.License;
+import com.license.management.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Named assignments and seat leases draw on the same seats; taken at once, they must not
+ * oversubscribe a license.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false"
+})
+@DisplayName("Seat Assignment Database Tests")
+class SeatAssignmentDatabaseTest {
+
+    private static final int SEATS = 6;
+
+    private static final int CLAIMANTS = 12;
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private SeatLeaseService seatLeaseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should hand out no more seats than the license has to concurrent assignments and checkouts")
+    void testConcurrentAssignmentsAndCheckouts_DoNotOversubscribe() throws Exception {
+        // Arrange
+        License license = new License();
+        license.setSoftwareName("Contended Software");
+        license.setLicenseKey("CONTENDED-" + UUID.randomUUID());
+        license.setTotalSeats(SEATS);
+        Long licenseId = licenseService.createLicense(license).getId();
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < CLAIMANTS; i++) {
+            User user = new User();
+            String username = "contender-" + UUID.randomUUID();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setFullName("Contender " + i);
+            userIds.add(userService.createUser(user).getId());
+        }
+
+        // Act: half assign, half lease, all released at once
+        ExecutorService executor = Executors.newFixedThreadPool(CLAIMANTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> claims = new ArrayList<>();
+        for (int i = 0; i < CLAIMANTS; i++) {
+            Long userId = userIds.get(i);
+            boolean lease = i % 2 == 0;
+            claims.add(executor.submit(() -> {
+                start.await();
+                try {
+                    if (lease) {
+                        seatLeaseService.checkout(licenseId, userId);
+                    } else {
+                        licenseService.assignLicenseToUser(licenseId, userId, null);
+                    }
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int granted = 0;
+        for (Future<Boolean> claim : claims) {
+            if (claim.get(30, TimeUnit.SECONDS)) {
+                granted++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        Integer usedSeats = jdbcTemplate.queryForObject("SELECT used_seats FROM licenses WHERE id = ?",
+            Integer.class, licenseId);
+        Integer holders = jdbcTemplate.queryForObject(
+            "SELECT (SELECT COUNT(*) FROM user_licenses WHERE license_id = ? AND active = true) + " +
+            "(SELECT COUNT(*) FROM seat_leases WHERE license_id = ?)", Integer.class, licenseId, licenseId);
+        assertEquals(SEATS, granted);
+        assertEquals(SEATS, usedSeats);
+        assertEquals(SEATS, holders);
+    }
+}
@@ -0,0 +1,146 @@
+package com.license.management.service;
+
+import com.license.management.entity.LicenseHistory;
+import com.license.management.entity.SeatLease;
+import com.license.management.entity.User;
+import com.license.management.repository.LicenseRepository;
+import com.license.management.repository.SeatLeaseRepository;
+import com.license.management.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SeatLeaseService Unit Tests")
+class SeatLeaseServiceTest {
+
+    @Mock
+    private LicenseRepository licenseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SeatLeaseRepository seatLeaseRepository;
+
+    @Mock
+    private LicenseHistoryWriter historyWriter;
+
+    @Mock
+    private LicenseService licenseService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SeatLeaseService seatLeaseService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seatLeaseService, "leaseTtl", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(seatLeaseService, "tickIntervalMillis", 10L);
+        ReflectionTestUtils.setField(seatLeaseService, "wheelSlots", 64);
+        seatLeaseService.init();
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("john.doe");
+    }
+
+    @Test
+    @DisplayName("Should check out a seat when one is free")
+    void testCheckout_Success() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        SeatLease lease = seatLeaseService.checkout(1L, 1L);
+
+        // Assert
+        assertNotNull(lease.getId());
+        assertEquals(1, seatLeaseService.getLicenseLeases(1L).size());
+        verify(seatLeaseRepository, times(1)).save(any(SeatLease.class));
+        verify(historyWriter, times(1)).writeAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should refuse checkout when no seat is free")
+    void testCheckout_NoSeats() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+        when(licenseRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            seatLeaseService.checkout(1L, 1L));
+        assertEquals("No available seats for this license", exception.getMessage());
+        verify(seatLeaseRepository, never()).save(any(SeatLease.class));
+    }
+
+    @Test
+    @DisplayName("Should renew a lease on heartbeat without touching the database")
+    void testHeartbeat_InMemory() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        SeatLease lease = seatLeaseService.checkout(1L, 1L);
+        clearInvocations(licenseRepository, seatLeaseRepository, historyWriter);
+
+        // Act
+        SeatLease renewed = seatLeaseService.heartbeat(lease.getId());
+
+        // Assert
+        assertFalse(renewed.getExpiresAt().isBefore(lease.getExpiresAt()));
+        verifyNoInteractions(licenseRepository, seatLeaseRepository, historyWriter, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should reclaim expired leases in one batch and reject later heartbeats")
+    void testSweep_ReclaimsExpiredLeases() throws InterruptedException {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(licenseRepository.takeSeat(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        SeatLease lease = seatLeaseService.checkout(1L, 1L);
+        Thread.sleep(250);
+
+        // Act
+        seatLeaseService.sweepExpiredLeases();
+
+        // Assert
+        verify(seatLeaseRepository, times(1)).deleteByIdIn(List.of(lease.getId()));
+        verify(licenseRepository, times(1)).releaseSeats(eq(1L), eq(1), any(LocalDateTime.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LicenseHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
+        verify(historyWriter, times(2)).writeAll(historyCaptor.capture());
+        assertEquals(LicenseHistory.ActionType.LEASE_EXPIRED,
+            historyCaptor.getAllValues().get(1).get(0).getActionType());
+        assertThrows(RuntimeException.class, () -> seatLeaseService.heartbeat(lease.getId()));
+        assertTrue(seatLeaseService.getLicenseLeases(1L).isEmpty());
+    }
+}
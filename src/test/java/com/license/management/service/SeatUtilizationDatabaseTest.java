@@ -0,0 +1,70 @@
+package com.license.management.service;
+
+import com.license.management.dto.UtilizationSeries;
+import com.license.management.entity.License;
+import com.license.management.entity.SeatUtilizationBucket.Resolution;
+import com.license.management.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.com.license.management=INFO",
+    "license.outbox.relay-enabled=false",
+    "license.alerts.enabled=false"
+})
+@DisplayName("Seat Utilization Database Tests")
+class SeatUtilizationDatabaseTest {
+
+    @Autowired
+    private LicenseService licenseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SeatUtilizationService seatUtilizationService;
+
+    @Test
+    @DisplayName("Should record a peak that is gone again by the next sample")
+    void testSample_KeepsPeakBetweenSamples() {
+        // Arrange
+        License license = new License();
+        license.setSoftwareName("Bursty Software");
+        license.setLicenseKey("BURSTY-" + UUID.randomUUID());
+        license.setTotalSeats(5);
+        Long licenseId = licenseService.createLicense(license).getId();
+        List<Long> assignmentIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            String username = "bursty-" + UUID.randomUUID();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setFullName("Bursty " + i);
+            assignmentIds.add(licenseService.assignLicenseToUser(licenseId, userService.createUser(user).getId(), null)
+                .getId());
+        }
+
+        // Act: up to three seats and back down to one before anything is sampled
+        licenseService.revokeLicenseFromUser(assignmentIds.get(0));
+        licenseService.revokeLicenseFromUser(assignmentIds.get(1));
+        seatUtilizationService.sample();
+
+        // Assert
+        LocalDateTime now = LocalDateTime.now();
+        List<UtilizationSeries.Point> points = seatUtilizationService.getSeries(
+            licenseId, now.minusHours(1), now.plusHours(1), Resolution.HOUR).getPoints();
+        assertEquals(3, points.stream().mapToInt(UtilizationSeries.Point::getMaxUsed).max().orElseThrow());
+        assertEquals(0, points.stream().mapToInt(UtilizationSeries.Point::getMinUsed).min().orElseThrow());
+        assertEquals(1, points.get(points.size() - 1).getUsedSeats());
+    }
+}
@@ -0,0 +1,97 @@
+package com.license.management.service;
+
+import com.license.management.dto.UtilizationSeries;
+import com.license.management.entity.SeatUtilizationBucket;
+import com.license.management.entity.SeatUtilizationBucket.Resolution;
+import com.license.management.repository.SeatUtilizationBucketRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SeatUtilizationService Unit Tests")
+class SeatUtilizationServiceTest {
+
+    @Mock
+    private SeatUtilizationBucketRepository bucketRepository;
+
+    @InjectMocks
+    private SeatUtilizationService seatUtilizationService;
+
+    @Test
+    @DisplayName("Should carry the last usage forward across steps without a bucket")
+    void testGetSeries_FillsGaps() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 0, 0);
+        when(bucketRepository.findFirstByLicenseIdAndResolutionAndBucketStartLessThanOrderByBucketStartDesc(
+            1L, Resolution.HOUR, start)).thenReturn(Optional.of(bucket(start.minusHours(5), 2, 3, 3)));
+        when(bucketRepository.findRange(1L, Resolution.HOUR, start, start.plusHours(4)))
+            .thenReturn(List.of(bucket(start.plusHours(2), 3, 7, 5)));
+
+        // Act
+        UtilizationSeries series = seatUtilizationService.getSeries(
+            1L, start.plusMinutes(20), start.plusHours(4), Resolution.HOUR);
+
+        // Assert
+        assertEquals(start, series.getFrom());
+        List<UtilizationSeries.Point> points = series.getPoints();
+        assertEquals(4, points.size());
+        assertEquals(3, points.get(0).getUsedSeats());
+        assertEquals(3, points.get(1).getMaxUsed());
+        assertEquals(7, points.get(2).getMaxUsed());
+        assertEquals(5, points.get(2).getUsedSeats());
+        assertEquals(5, points.get(3).getMinUsed());
+    }
+
+    @Test
+    @DisplayName("Should leave out steps before the first recorded usage")
+    void testGetSeries_NoEarlierBucket() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 0, 0);
+        when(bucketRepository.findFirstByLicenseIdAndResolutionAndBucketStartLessThanOrderByBucketStartDesc(
+            1L, Resolution.MINUTE, start)).thenReturn(Optional.empty());
+        when(bucketRepository.findRange(1L, Resolution.MINUTE, start, start.plusMinutes(3)))
+            .thenReturn(List.of(bucket(start.plusMinutes(1), 1, 1, 1)));
+
+        // Act
+        UtilizationSeries series = seatUtilizationService.getSeries(
+            1L, start, start.plusMinutes(3), Resolution.MINUTE);
+
+        // Assert
+        assertEquals(2, series.getPoints().size());
+        assertEquals(start.plusMinutes(1), series.getPoints().get(0).getTime());
+    }
+
+    @Test
+    @DisplayName("Should reject a range with more points than the limit")
+    void testGetSeries_TooManyPoints() {
+        // Arrange
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class,
+            () -> seatUtilizationService.getSeries(1L, start, start.plusYears(1), Resolution.MINUTE));
+        verifyNoInteractions(bucketRepository);
+    }
+
+    private SeatUtilizationBucket bucket(LocalDateTime bucketStart, int minUsed, int maxUsed, int lastUsed) {
+        SeatUtilizationBucket bucket = new SeatUtilizationBucket();
+        bucket.setLicenseId(1L);
+        bucket.setBucketStart(bucketStart);
+        bucket.setMinUsed(minUsed);
+        bucket.setMaxUsed(maxUsed);
+        bucket.setLastUsed(lastUsed);
+        bucket.setTotalSeats(10);
+        return bucket;
+    }
+}
@@ -0,0 +1,73 @@
+package com.license.management.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimerWheel Unit Tests")
+class TimerWheelTest {
+
+    @Test
+    void testAdvance_ReturnsItemsWhoseTickHasPassed() {
+        // Arrange
+        TimerWheel<String> wheel = new TimerWheel<>(8, 10, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 45);
+
+        // Act
+        List<String> first = wheel.advance(30);
+        List<String> second = wheel.advance(50);
+
+        // Assert
+        assertEquals(List.of("a"), first);
+        assertEquals(List.of("b"), second);
+    }
+
+    @Test
+    void testSchedule_PastDeadlineLandsInNextTick() {
+        // Arrange
+        TimerWheel<String> wheel = new TimerWheel<>(8, 10, 0);
+        wheel.advance(50);
+
+        // Act
+        wheel.schedule("late", 10);
+
+        // Assert
+        assertTrue(wheel.advance(50).isEmpty());
+        assertEquals(List.of("late"), wheel.advance(60));
+    }
+
+    @Test
+    void testSchedule_RacingAdvanceNeverWaitsARotation() throws InterruptedException {
+        // Arrange
+        TimerWheel<Integer> wheel = new TimerWheel<>(512, 1, 0);
+        AtomicLong clock = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Set<Integer> returned = new HashSet<>();
+        Thread sweeper = new Thread(() -> {
+            while (running.get()) {
+                returned.addAll(wheel.advance(clock.incrementAndGet()));
+            }
+        });
+        int scheduled = 1_000_000;
+
+        // Act
+        sweeper.start();
+        for (int i = 0; i < scheduled; i++) {
+            wheel.schedule(i, clock.get());
+        }
+        running.set(false);
+        sweeper.join();
+        returned.addAll(wheel.advance(clock.get() + 1));
+
+        // Assert
+        assertEquals(scheduled, returned.size());
+    }
+}
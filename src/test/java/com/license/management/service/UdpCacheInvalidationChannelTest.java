@@ -0,0 +1,169 @@
+package com.license.management.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.license.management.dto.CacheInvalidation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UdpCacheInvalidationChannel Unit Tests")
+class UdpCacheInvalidationChannelTest {
+
+    private final List<UdpCacheInvalidationChannel> channels = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        channels.forEach(UdpCacheInvalidationChannel::stop);
+    }
+
+    @Test
+    @DisplayName("Should deliver every invalidation of a burst to the peer")
+    void testPublish_DeliversBurst() throws Exception {
+        // Arrange
+        UdpCacheInvalidationChannel receiver = channel("secret", List.of());
+        UdpCacheInvalidationChannel sender = channel("secret", List.of("127.0.0.1:" + receiver.getLocalPort()));
+        BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        // Act: more than fit in one datagram
+        for (long id = 1; id <= 100; id++) {
+            sender.publish(new CacheInvalidation("licenses", "com.license.management.entity.License", null, id));
+        }
+
+        // Assert
+        List<Object> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            CacheInvalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(invalidation, "only " + i + " invalidations arrived");
+            keys.add(((Number) invalidation.getKey()).longValue());
+        }
+        assertEquals(1L, keys.get(0));
+        assertEquals(100L, keys.get(99));
+    }
+
+    @Test
+    @DisplayName("Should drop datagrams signed with another secret")
+    void testReceive_DropsForgedDatagrams() throws Exception {
+        // Arrange
+        UdpCacheInvalidationChannel receiver = channel("secret", List.of());
+        String peer = "127.0.0.1:" + receiver.getLocalPort();
+        UdpCacheInvalidationChannel forger = channel("guess", List.of(peer));
+        UdpCacheInvalidationChannel sender = channel("secret", List.of(peer));
+        BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        // Act
+        forger.publish(new CacheInvalidation(null, null, null, null));
+        Thread.sleep(200);
+        sender.publish(new CacheInvalidation("groups", "com.license.management.entity.UserGroup", null, 7));
+
+        // Assert: only the genuine invalidation arrives
+        CacheInvalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(invalidation);
+        assertEquals("groups", invalidation.getRegion());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should clear every region when a numbered datagram is missing")
+    void testReceive_ClearsEverythingOnGap() throws Exception {
+        // Arrange
+        UdpCacheInvalidationChannel receiver = channel("", List.of());
+        BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        try (DatagramSocket peer = new DatagramSocket()) {
+            send(peer, receiver, "{\"node\":\"a\",\"seq\":1,\"invalidations\":[{\"region\":\"licenses\",\"key\":1}]}");
+            assertEquals(1, ((Number) received.poll(5, TimeUnit.SECONDS).getKey()).intValue());
+
+            // Act: datagram 2 was lost
+            send(peer, receiver, "{\"node\":\"a\",\"seq\":3,\"invalidations\":[{\"region\":\"licenses\",\"key\":3}]}");
+
+            // Assert
+            CacheInvalidation everything = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(everything);
+            assertNull(everything.getRegion());
+            assertEquals(3, ((Number) received.poll(5, TimeUnit.SECONDS).getKey()).intValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Should notice from a heartbeat that the last datagram was lost")
+    void testReceive_HeartbeatRevealsLostDatagram() throws Exception {
+        // Arrange
+        UdpCacheInvalidationChannel receiver = channel("", List.of());
+        BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        try (DatagramSocket peer = new DatagramSocket()) {
+            send(peer, receiver, "{\"node\":\"a\",\"seq\":0,\"invalidations\":[]}");
+            send(peer, receiver, "{\"node\":\"a\",\"seq\":1,\"invalidations\":[{\"region\":\"licenses\",\"key\":1}]}");
+            assertNotNull(received.poll(5, TimeUnit.SECONDS));
+            send(peer, receiver, "{\"node\":\"a\",\"seq\":1,\"invalidations\":[]}");
+
+            // Act: datagram 2 was lost, and the sender went idle
+            send(peer, receiver, "{\"node\":\"a\",\"seq\":2,\"invalidations\":[]}");
+
+            // Assert: only the clear, the heartbeats in sequence deliver nothing
+            CacheInvalidation everything = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(everything);
+            assertNull(everything.getRegion());
+            Thread.sleep(200);
+            assertTrue(received.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should not clear anything while heartbeats and batches arrive in sequence")
+    void testPublish_HeartbeatsInSequence() throws Exception {
+        // Arrange
+        UdpCacheInvalidationChannel receiver = channel("secret", List.of());
+        UdpCacheInvalidationChannel sender = channel("secret", List.of("127.0.0.1:" + receiver.getLocalPort()));
+        BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+        receiver.subscribe(received::add);
+
+        // Act: heartbeats around a batch
+        Thread.sleep(250);
+        sender.publish(new CacheInvalidation("licenses", "com.license.management.entity.License", null, 1L));
+        Thread.sleep(250);
+
+        // Assert
+        CacheInvalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(invalidation);
+        assertEquals("licenses", invalidation.getRegion());
+        assertTrue(received.isEmpty());
+    }
+
+    private void send(DatagramSocket socket, UdpCacheInvalidationChannel receiver, String json) throws Exception {
+        byte[] datagram = json.getBytes(StandardCharsets.UTF_8);
+        socket.send(new DatagramPacket(datagram, datagram.length,
+            new InetSocketAddress("127.0.0.1", receiver.getLocalPort())));
+    }
+
+    private UdpCacheInvalidationChannel channel(String secret, List<String> peers) throws Exception {
+        UdpCacheInvalidationChannel channel = new UdpCacheInvalidationChannel();
+        ReflectionTestUtils.setField(channel, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(channel, "bindAddress", "127.0.0.1");
+        ReflectionTestUtils.setField(channel, "port", 0);
+        ReflectionTestUtils.setField(channel, "peers", peers);
+        ReflectionTestUtils.setField(channel, "secret", secret);
+        ReflectionTestUtils.setField(channel, "heartbeatInterval", Duration.ofMillis(50));
+        channel.start();
+        channels.add(channel);
+        return channel;
+    }
+}
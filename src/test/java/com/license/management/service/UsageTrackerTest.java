@@ -0,0 +1,191 @@
+package com.license.management.service;
+
+import com.license.management.config.TenantContext;
+import com.license.management.dto.UsagePing;
+import com.license.management.entity.LicenseHistory;
+import com.license.management.event.LicenseHistoryEvent;
+import com.license.management.repository.UserLicenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UsageTracker Unit Tests")
+class UsageTrackerTest {
+
+    @Mock
+    private UserLicenseRepository userLicenseRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UsageTracker usageTracker;
+
+    @BeforeEach
+    void setUp() {
+        usageTracker = new UsageTracker(8);
+        ReflectionTestUtils.setField(usageTracker, "userLicenseRepository", userLicenseRepository);
+        ReflectionTestUtils.setField(usageTracker, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(usageTracker, "transactionManager", transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should keep one pending entry per assignment with its latest use")
+    @SuppressWarnings("unchecked")
+    void testRecord_AggregatesPerAssignment() throws Exception {
+        // Arrange
+        LocalDateTime earlier = LocalDateTime.now().minusHours(2);
+        LocalDateTime later = LocalDateTime.now().minusHours(1);
+        List<UsagePing> pings = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pings.add(new UsagePing(1L, 10L, i % 2 == 0 ? earlier : later));
+        }
+        pings.add(new UsagePing(null, 10L, later));
+        stubAssigned(new Object[]{1L, 10L});
+
+        // Act
+        int accepted = usageTracker.record(pings);
+        usageTracker.flush();
+
+        // Assert
+        assertEquals(1000, accepted);
+        ArgumentCaptor<List<Map.Entry<?, LocalDateTime>>> written = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<Map.Entry<?, LocalDateTime>>> setter =
+            ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), written.capture(), anyInt(), setter.capture());
+        assertEquals(1, written.getValue().size());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, written.getValue().get(0));
+        verify(ps).setObject(1, later);
+        assertEquals(0, usageTracker.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Should not accept a last use in the future")
+    @SuppressWarnings("unchecked")
+    void testRecord_ClampsFutureTimestamps() {
+        // Arrange
+        List<UsagePing> pings = List.of(new UsagePing(1L, 10L, LocalDateTime.now().plusYears(1)));
+        stubAssigned(new Object[]{1L, 10L});
+
+        // Act
+        usageTracker.record(pings);
+
+        // Assert
+        Map<?, LocalDateTime>[] shards = (Map<?, LocalDateTime>[]) ReflectionTestUtils.getField(usageTracker, "shards");
+        LocalDateTime pending = null;
+        for (Map<?, LocalDateTime> shard : shards) {
+            for (LocalDateTime usedAt : shard.values()) {
+                pending = usedAt;
+            }
+        }
+        assertNotNull(pending);
+        assertFalse(pending.isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Should keep pending usage when the write fails")
+    void testFlush_KeepsEntriesOnFailure() {
+        // Arrange
+        stubAssigned(new Object[]{1L, 10L}, new Object[]{2L, 10L});
+        usageTracker.record(List.of(new UsagePing(1L, 10L, null), new UsagePing(2L, 10L, null)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any()))
+            .thenThrow(new RuntimeException("connection refused"));
+
+        // Act
+        usageTracker.flush();
+
+        // Assert
+        assertEquals(2, usageTracker.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Should reject pings for a user and license that are not an active assignment")
+    void testRecord_RejectsUnassignedPairs() {
+        // Arrange: user 1 holds license 10 but not license 11, and user 2 holds neither
+        stubAssigned(new Object[]{1L, 10L});
+
+        // Act
+        int accepted = usageTracker.record(List.of(
+            new UsagePing(1L, 10L, null), new UsagePing(1L, 11L, null), new UsagePing(2L, 10L, null)));
+
+        // Assert
+        assertEquals(1, accepted);
+        assertEquals(1, usageTracker.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("Should not look up assignments whose usage is already pending")
+    void testRecord_SkipsLookupForPending() {
+        // Arrange
+        stubAssigned(new Object[]{1L, 10L});
+        usageTracker.record(List.of(new UsagePing(1L, 10L, null)));
+
+        // Act
+        int accepted = usageTracker.record(List.of(new UsagePing(1L, 10L, null)));
+
+        // Assert
+        assertEquals(1, accepted);
+        verify(userLicenseRepository, times(1)).findActivePairs(anyCollection(), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should remember active assignments across flushes until they are revoked")
+    void testRecord_CachesAssignmentsUntilRevoked() {
+        // Arrange
+        stubAssigned(new Object[]{1L, 10L});
+        usageTracker.record(List.of(new UsagePing(1L, 10L, null)));
+        usageTracker.flush();
+
+        // Act
+        int acceptedAfterFlush = usageTracker.record(List.of(new UsagePing(1L, 10L, null)));
+        usageTracker.flush();
+        usageTracker.onHistory(new LicenseHistoryEvent(List.of(
+            history(LicenseHistory.ActionType.LICENSE_REVOKED_FROM_USER, 1L, 10L),
+            history(LicenseHistory.ActionType.LICENSE_ASSIGNED_TO_USER, 2L, 10L))));
+        stubAssigned();
+        int acceptedAfterRevoke = usageTracker.record(List.of(new UsagePing(1L, 10L, null)));
+        int acceptedAfterAssign = usageTracker.record(List.of(new UsagePing(2L, 10L, null)));
+
+        // Assert: looked up on the first ping and again after the revocation only
+        assertEquals(1, acceptedAfterFlush);
+        assertEquals(0, acceptedAfterRevoke);
+        assertEquals(1, acceptedAfterAssign);
+        verify(userLicenseRepository, times(2)).findActivePairs(anyCollection(), anyCollection());
+    }
+
+    private LicenseHistory history(LicenseHistory.ActionType actionType, Long userId, Long licenseId) {
+        LicenseHistory history = new LicenseHistory();
+        history.setTenantId(TenantContext.DEFAULT_TENANT);
+        history.setActionType(actionType);
+        history.setUserId(userId);
+        history.setLicenseId(licenseId);
+        return history;
+    }
+
+    private void stubAssigned(Object[]... pairs) {
+        when(userLicenseRepository.findActivePairs(anyCollection(), anyCollection())).thenReturn(Arrays.asList(pairs));
+    }
+}